@@ -28,25 +28,47 @@ package com.damienwesterman.defensedrill;
 
 import android.app.Application;
 
+import androidx.annotation.NonNull;
+import androidx.hilt.work.HiltWorkerFactory;
+import androidx.work.Configuration;
+
+import com.damienwesterman.defensedrill.manager.DatabaseSyncManager;
 import com.damienwesterman.defensedrill.manager.DefenseDrillNotificationManager;
-import com.damienwesterman.defensedrill.service.CheckServerUpdateService;
+import com.damienwesterman.defensedrill.manager.MemoryCacheManager;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.HiltAndroidApp;
 
 /**
- * Hilt Application Class for Dependency Injection
+ * Hilt Application Class for Dependency Injection. Also provides WorkManager with Hilt's worker
+ * factory, so workers can be injected.
  */
 @HiltAndroidApp
-public class DefenseDrillApplication extends Application {
+public class DefenseDrillApplication extends Application implements Configuration.Provider {
     @Inject
     DefenseDrillNotificationManager notificationManager;
+    @Inject
+    MemoryCacheManager memoryCacheManager;
+    @Inject
+    DatabaseSyncManager syncManager;
+    @Inject
+    HiltWorkerFactory workerFactory;
 
     @Override
     public void onCreate() {
         super.onCreate();
 
         notificationManager.init();
+        registerComponentCallbacks(memoryCacheManager);
+        syncManager.schedulePeriodicUpdateCheck();
+    }
+
+    @NonNull
+    @Override
+    public Configuration getWorkManagerConfiguration() {
+        return new Configuration.Builder()
+                .setWorkerFactory(workerFactory)
+                .build();
     }
 }
@@ -0,0 +1,139 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.common;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free, fixed size latency histogram cheap enough to record into on every call in release
+ * builds. Bucket {@code i} counts samples in the range [2^i, 2^(i+1)) microseconds, with the last
+ * bucket holding everything larger, so percentiles are only accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+    /** 2^24 microseconds is about 16.7 seconds, anything longer lands in the last bucket. */
+    private static final int NUM_BUCKETS = 25;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a single sample.
+     *
+     * @param nanos Duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (0 > nanos) {
+            nanos = 0;
+        }
+
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = (0 == micros) ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+        buckets.incrementAndGet(Math.min(bucket, NUM_BUCKETS - 1));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+
+        long currentMax = maxNanos.get();
+        while (nanos > currentMax && !maxNanos.compareAndSet(currentMax, nanos)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long samples = count.get();
+        return (0 == samples) ? 0 : totalNanos.get() / samples;
+    }
+
+    /**
+     * Estimate the given percentile. Returns the upper bound of the bucket the percentile falls
+     * into, capped at the largest recorded sample.
+     *
+     * @param percentile    Percentile between 0 and 100.
+     * @return              Estimated duration in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long samples = count.get();
+        if (0 == samples) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(samples * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target && 0 < seen) {
+                long upperBoundNanos = TimeUnit.MICROSECONDS.toNanos(1L << (i + 1));
+                return Math.min(upperBoundNanos, maxNanos.get());
+            }
+        }
+
+        return maxNanos.get();
+    }
+
+    /**
+     * Clear all recorded samples.
+     */
+    public void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * One line summary, for diagnostics.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+                + " mean=" + TimeUnit.NANOSECONDS.toMicros(getMeanNanos()) + "us"
+                + " p50=" + TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(50)) + "us"
+                + " p95=" + TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(95)) + "us"
+                + " p99=" + TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(99)) + "us"
+                + " max=" + TimeUnit.NANOSECONDS.toMicros(getMaxNanos()) + "us";
+    }
+}
@@ -0,0 +1,57 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.common;
+
+/**
+ * In memory cache that can give up its contents when the system is low on memory. Register with
+ * {@link com.damienwesterman.defensedrill.manager.MemoryCacheManager} to be trimmed/cleared
+ * according to the memory pressure Android reports.
+ * <br><br>
+ * Implementations should be thread safe, as they will be called from the main thread.
+ */
+public interface TrimmableCache {
+    /**
+     * Rough estimate of the memory currently held by the cache. Only used for diagnostics and
+     * does not need to be exact.
+     *
+     * @return Size estimate in bytes.
+     */
+    long getEstimatedSizeBytes();
+
+    /**
+     * Drop everything in the cache. The cache must be able to re-load its contents on demand.
+     */
+    void clear();
+
+    /**
+     * Drop part of the cache, keeping whatever is most likely to be used again. By default the
+     * whole cache is cleared.
+     */
+    default void trim() {
+        clear();
+    }
+}
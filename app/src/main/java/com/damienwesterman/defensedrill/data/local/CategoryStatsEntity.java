@@ -0,0 +1,88 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Database entity holding the running aggregates of every {@link DrillSessionEntity} of the drills
+ * in a single category. Like {@link DrillStatsEntity}, this is maintained incrementally as sessions
+ * are recorded. A session counts towards each category its drill belonged to at the time.
+ */
+@Entity(
+    tableName = CategoryStatsEntity.TABLE_NAME,
+    foreignKeys = {
+            @ForeignKey(entity = CategoryEntity.class, parentColumns = "id",
+                    childColumns = "category_id", onDelete = ForeignKey.CASCADE,
+                    onUpdate = ForeignKey.CASCADE)
+    }
+)
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CategoryStatsEntity {
+    @Ignore
+    public static final String TABLE_NAME = "category_stats";
+
+    @PrimaryKey
+    @ColumnInfo(name = "category_id")
+    private long categoryId;
+    @ColumnInfo(name = "session_count")
+    private int sessionCount;
+    /** Sum of every session's confidence after, for averaging */
+    @ColumnInfo(name = "confidence_total")
+    private long confidenceTotal;
+    /** Number of sessions that ended with a higher confidence than they started with */
+    @ColumnInfo(name = "improved_count")
+    private int improvedCount;
+    /** Date (in milliseconds since epoch) of the most recent session */
+    @ColumnInfo(name = "last_session")
+    private long lastSession;
+
+    /**
+     * Get the average confidence after each session. Lower is more confident, see
+     * {@link Drill#HIGH_CONFIDENCE}.
+     *
+     * @return Average confidence, or {@link Drill#LOW_CONFIDENCE} if there are no sessions.
+     */
+    public double getAverageConfidence() {
+        if (0 >= sessionCount) {
+            return Drill.LOW_CONFIDENCE;
+        }
+        return (double) confidenceTotal / sessionCount;
+    }
+}
@@ -27,13 +27,16 @@
 package com.damienwesterman.defensedrill.data.local;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.List;
 import java.util.Optional;
@@ -55,16 +58,6 @@ import java.util.Optional;
     @NonNull
     List<Drill> findAllDrillsByCategory(long categoryId);
 
-    @Transaction
-    @Query(
-            "SELECT DISTINCT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
-                    "JOIN " + DrillCategoryJoinEntity.TABLE_NAME + " AS drillcatJoin ON drill.id = drillcatJoin.drill_id " +
-                    "JOIN " + CategoryEntity.TABLE_NAME + " AS cat ON drillcatJoin.category_id = cat.id " +
-                    "WHERE cat.id IN (:categoryIds) ORDER BY drill.name"
-    )
-    @NonNull
-    List<Drill> findAllDrillsByCategory(@NonNull List<Long> categoryIds);
-
     @Transaction
     @Query(
             "SELECT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
@@ -75,16 +68,6 @@ import java.util.Optional;
     @NonNull
     List<Drill> findAllDrillsBySubCategory(long subCategoryId);
 
-    @Transaction
-    @Query(
-            "SELECT DISTINCT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
-                    "JOIN " + DrillSubCategoryJoinEntity.TABLE_NAME + " AS drillSubJoin ON drill.id = drillSubJoin.drill_id " +
-                    "JOIN " + SubCategoryEntity.TABLE_NAME + " AS sub ON drillSubJoin.sub_category_id = sub.id " +
-                    "WHERE sub.id IN (:subCategoryIds) ORDER BY drill.name"
-    )
-    @NonNull
-    List<Drill> findAllDrillsBySubCategory(@NonNull List<Long> subCategoryIds);
-
     @Transaction
     @Query(
             "SELECT drill.* FROM " + SubCategoryEntity.TABLE_NAME + " AS sub " +
@@ -97,17 +80,38 @@ import java.util.Optional;
     @NonNull
     List<Drill> findAllDrillsByCategoryAndSubCategory(long categoryId, long subCategoryId);
 
+    /*
+    Filtering by a list of categories and/or sub-categories goes through the IdFilterTable temp
+    tables rather than an IN (:ids) list, as the list can be longer than SQLite's bound variable
+    limit. The IDs must be loaded into the temp tables in the same transaction as the query.
+     */
+    String FILTER_BY_CATEGORIES_SQL =
+            "EXISTS (SELECT 1 FROM " + DrillCategoryJoinEntity.TABLE_NAME + " AS drillCatJoin " +
+            "JOIN " + IdFilterTable.CATEGORY_IDS_TABLE + " AS catFilter ON drillCatJoin.category_id = catFilter.id " +
+            "WHERE drillCatJoin.drill_id = drill.id)";
+    String FILTER_BY_SUB_CATEGORIES_SQL =
+            "EXISTS (SELECT 1 FROM " + DrillSubCategoryJoinEntity.TABLE_NAME + " AS drillSubJoin " +
+            "JOIN " + IdFilterTable.SUB_CATEGORY_IDS_TABLE + " AS subFilter ON drillSubJoin.sub_category_id = subFilter.id " +
+            "WHERE drillSubJoin.drill_id = drill.id)";
+    String FIND_ALL_DRILLS_BY_CATEGORY_FILTER_SQL =
+            "SELECT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
+            "WHERE " + FILTER_BY_CATEGORIES_SQL + " ORDER BY drill.name";
+    String FIND_ALL_DRILLS_BY_SUB_CATEGORY_FILTER_SQL =
+            "SELECT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
+            "WHERE " + FILTER_BY_SUB_CATEGORIES_SQL + " ORDER BY drill.name";
+    String FIND_ALL_DRILLS_BY_CATEGORY_AND_SUB_CATEGORY_FILTER_SQL =
+            "SELECT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
+            "WHERE " + FILTER_BY_CATEGORIES_SQL + " AND " + FILTER_BY_SUB_CATEGORIES_SQL +
+            " ORDER BY drill.name";
+
+    /**
+     * Run one of the above FIND_ALL_DRILLS_BY_*_FILTER_SQL queries. The respective
+     * {@link IdFilterTable}s must already be loaded in the current transaction.
+     */
     @Transaction
-    @Query(
-            "SELECT DISTINCT drill.* FROM " + SubCategoryEntity.TABLE_NAME + " AS sub " +
-                    "JOIN " + DrillSubCategoryJoinEntity.TABLE_NAME + " AS drillSubJoin ON sub.id = drillSubJoin.sub_category_id " +
-                    "JOIN " + DrillEntity.TABLE_NAME + " AS drill ON drillSubJoin.drill_id = drill.id " +
-                    "JOIN " + DrillCategoryJoinEntity.TABLE_NAME + " AS drillCatJoin ON drill.id = drillCatJoin.drill_id " +
-                    "JOIN " + CategoryEntity.TABLE_NAME + " AS cat ON drillCatJoin.category_id = cat.id " +
-                    "WHERE cat.id IN (:categoryIds) AND sub.id IN (:subCategoryIds) ORDER BY drill.name"
-    )
+    @RawQuery
     @NonNull
-    List<Drill> findAllDrillsByCategoryAndSubCategory(@NonNull List<Long> categoryIds, @NonNull List<Long> subCategoryIds);
+    List<Drill> findAllDrillsByFilter(@NonNull SupportSQLiteQuery query);
 
     @Transaction
     @Query("SELECT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
@@ -115,6 +119,19 @@ import java.util.Optional;
     @NonNull
     List<Drill> findAllDrillsByServerId(@NonNull List<Long> serverIds);
 
+    @Transaction
+    @Query("SELECT drill.* FROM " + DrillEntity.TABLE_NAME + " AS drill " +
+                    " WHERE drill.server_drill_id IN (:serverIds) OR drill.name IN (:names)")
+    @NonNull
+    List<Drill> findAllDrillsByServerIdOrName(@NonNull List<Long> serverIds,
+                                              @NonNull List<String> names);
+
+    /** IDs are AUTOINCREMENT, so the highest were inserted last */
+    @Transaction
+    @Query("SELECT * FROM " + DrillEntity.TABLE_NAME + " ORDER BY id DESC LIMIT :count")
+    @NonNull
+    List<Drill> findNewestDrills(int count);
+
     @Transaction
     @Query("SELECT * FROM " + DrillEntity.TABLE_NAME + " WHERE id = :id")
     @NonNull
@@ -130,6 +147,10 @@ import java.util.Optional;
     @NonNull
     Optional<Drill> findDrillByServerId(@NonNull Long serverDrillId);
 
+    @Query("SELECT confidence FROM " + DrillEntity.TABLE_NAME + " WHERE id = :id")
+    @Nullable
+    Integer findConfidenceById(long id);
+
     @Query("SELECT * FROM " + DrillCategoryJoinEntity.TABLE_NAME)
     @NonNull
     List<DrillCategoryJoinEntity> getAllCategoryJoin();
@@ -28,10 +28,14 @@ package com.damienwesterman.defensedrill.data.local;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.damienwesterman.defensedrill.BuildConfig;
 
 /**
  * Database class to access all the DAOs. Should only be used internally, database interaction
@@ -43,24 +47,109 @@ import androidx.room.RoomDatabase;
         SubCategoryEntity.class,
         DrillCategoryJoinEntity.class,
         DrillSubCategoryJoinEntity.class,
-        WeeklyHourPolicyEntity.class
-}, version = 1, exportSchema = false)
+        WeeklyHourPolicyEntity.class,
+        DrillSessionEntity.class,
+        DrillStatsEntity.class,
+        CategoryStatsEntity.class,
+        DrillNetworkLinksEntity.class,
+        DrillInstructionsEntity.class,
+        RelatedDrillEntity.class
+}, version = 3, exportSchema = false)
 /* package-private */ abstract class DrillDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "drill_database";
 
+    /*
+    Migrations must create tables exactly as Room would, or Room will fail its schema validation on
+    open. When adding a migration, copy the CREATE statements from the generated DrillDatabase_Impl.
+     */
+    /** Adds drill session history and its aggregate stats tables. */
+    /* package-private */ static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + DrillSessionEntity.TABLE_NAME + "` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`drill_id` INTEGER NOT NULL, "
+                    + "`timestamp` INTEGER NOT NULL, "
+                    + "`confidence_before` INTEGER NOT NULL, "
+                    + "`confidence_after` INTEGER NOT NULL, "
+                    + "`source` TEXT NOT NULL, "
+                    + "FOREIGN KEY(`drill_id`) REFERENCES `" + DrillEntity.TABLE_NAME + "`(`id`) "
+                    + "ON UPDATE CASCADE ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_" + DrillSessionEntity.TABLE_NAME
+                    + "_drill_id` ON `" + DrillSessionEntity.TABLE_NAME + "` (`drill_id`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + DrillStatsEntity.TABLE_NAME + "` ("
+                    + "`drill_id` INTEGER NOT NULL, "
+                    + "`session_count` INTEGER NOT NULL, "
+                    + "`confidence_total` INTEGER NOT NULL, "
+                    + "`improved_count` INTEGER NOT NULL, "
+                    + "`first_session` INTEGER NOT NULL, "
+                    + "`last_session` INTEGER NOT NULL, "
+                    + "`last_confidence` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`drill_id`), "
+                    + "FOREIGN KEY(`drill_id`) REFERENCES `" + DrillEntity.TABLE_NAME + "`(`id`) "
+                    + "ON UPDATE CASCADE ON DELETE CASCADE )");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + CategoryStatsEntity.TABLE_NAME + "` ("
+                    + "`category_id` INTEGER NOT NULL, "
+                    + "`session_count` INTEGER NOT NULL, "
+                    + "`confidence_total` INTEGER NOT NULL, "
+                    + "`improved_count` INTEGER NOT NULL, "
+                    + "`last_session` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`category_id`), "
+                    + "FOREIGN KEY(`category_id`) REFERENCES `" + CategoryEntity.TABLE_NAME + "`(`id`) "
+                    + "ON UPDATE CASCADE ON DELETE CASCADE )");
+        }
+    };
+
+    /** Adds the offline cache of drill instructions and related drills. */
+    /* package-private */ static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + DrillNetworkLinksEntity.TABLE_NAME + "` ("
+                    + "`server_drill_id` INTEGER NOT NULL, "
+                    + "`updated_at` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`server_drill_id`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + DrillInstructionsEntity.TABLE_NAME + "` ("
+                    + "`server_drill_id` INTEGER NOT NULL, "
+                    + "`position` INTEGER NOT NULL, "
+                    + "`description` TEXT NOT NULL, "
+                    + "`steps` TEXT NOT NULL, "
+                    + "`video_id` TEXT, "
+                    + "PRIMARY KEY(`server_drill_id`, `position`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + RelatedDrillEntity.TABLE_NAME + "` ("
+                    + "`server_drill_id` INTEGER NOT NULL, "
+                    + "`position` INTEGER NOT NULL, "
+                    + "`related_server_drill_id` INTEGER NOT NULL, "
+                    + "`name` TEXT NOT NULL, "
+                    + "PRIMARY KEY(`server_drill_id`, `position`))");
+        }
+    };
+
     /**
      * Build the DrillDatabase object.
      *
      * @param applicationContext    Application Context.
+     * @param queryMetrics          QueryMetrics to report every executed statement to, in debug
+     *                              builds only.
      * @return                      DrillDatabase Object.
      */
-    /* package-private */ static DrillDatabase instantiate(Context applicationContext) {
-        return Room.databaseBuilder(applicationContext, DrillDatabase.class,
-                DATABASE_NAME).build();
+    /* package-private */ static DrillDatabase instantiate(Context applicationContext,
+                                                           QueryMetrics queryMetrics) {
+        RoomDatabase.Builder<DrillDatabase> builder = Room.databaseBuilder(applicationContext,
+                        DrillDatabase.class, DATABASE_NAME)
+                .addMigrations(MIGRATION_1_2, MIGRATION_2_3);
+        if (BuildConfig.DEBUG) {
+            // The callback copies the bind arguments of every statement, too costly for release.
+            // Direct executor so the callback runs on the querying thread for attribution.
+            builder.setQueryCallback((sql, bindArgs) -> queryMetrics.onStatement(sql),
+                    Runnable::run);
+        }
+        return builder.build();
     }
 
     /* package-private */ abstract DrillDao getDrillDao();
     /* package-private */ abstract CategoryDao getCategoryDao();
     /* package-private */ abstract SubCategoryDao getSubCategoryDao();
     /* package-private */ abstract WeeklyHourPolicyDao getWeeklyHourPolicyDao();
+    /* package-private */ abstract DrillSessionDao getDrillSessionDao();
+    /* package-private */ abstract DrillNetworkLinksDao getDrillNetworkLinksDao();
 }
@@ -0,0 +1,71 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.TypeConverters;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Database entity for a cached set of instructions of a server drill. See
+ * {@link DrillNetworkLinksEntity}.
+ */
+@Entity(
+    tableName = DrillInstructionsEntity.TABLE_NAME,
+    primaryKeys = {"server_drill_id", "position"}
+)
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class DrillInstructionsEntity {
+    @Ignore
+    public static final String TABLE_NAME = "drill_instructions";
+
+    @ColumnInfo(name = "server_drill_id")
+    private long serverDrillId;
+    /** Index of these instructions in the drill's list of instructions */
+    private int position;
+    @NonNull
+    private String description;
+    @NonNull
+    @TypeConverters(StringListConverter.class)
+    private List<String> steps;
+    @Nullable
+    @ColumnInfo(name = "video_id")
+    private String videoId;
+}
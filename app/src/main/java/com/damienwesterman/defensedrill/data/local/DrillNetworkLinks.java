@@ -0,0 +1,71 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Cached instructions and related drills of a single server drill, as returned by
+ * {@link DrillRepository#getNetworkLinks(long)}.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class DrillNetworkLinks {
+    /**
+     * Links older than this should be refreshed from the server. The database sync keeps them up to
+     * date anyway, so this is just a backstop.
+     */
+    public static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final long serverDrillId;
+    /** Date (in milliseconds since epoch) the links were fetched from the server */
+    private final long updatedAt;
+    /** In the order the server returned them */
+    @NonNull
+    private final List<DrillInstructionsEntity> instructions;
+    /** In the order the server returned them */
+    @NonNull
+    private final List<RelatedDrillEntity> relatedDrills;
+
+    /**
+     * Check if the links are old enough that they should be refreshed from the server.
+     *
+     * @param nowMillis Current time in millis since epoch.
+     * @return          true if the links are older than {@link #MAX_AGE_MILLIS}.
+     */
+    public boolean isStale(long nowMillis) {
+        return nowMillis - updatedAt > MAX_AGE_MILLIS;
+    }
+}
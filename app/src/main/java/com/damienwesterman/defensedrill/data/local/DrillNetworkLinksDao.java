@@ -0,0 +1,103 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+@Dao
+/* package-private */ interface DrillNetworkLinksDao {
+    @Query("SELECT * FROM " + DrillNetworkLinksEntity.TABLE_NAME
+            + " WHERE server_drill_id = :serverDrillId")
+    @NonNull
+    Optional<DrillNetworkLinksEntity> findNetworkLinks(long serverDrillId);
+
+    @Query("SELECT * FROM " + DrillInstructionsEntity.TABLE_NAME
+            + " WHERE server_drill_id = :serverDrillId ORDER BY position")
+    @NonNull
+    List<DrillInstructionsEntity> findAllInstructions(long serverDrillId);
+
+    @Query("SELECT * FROM " + RelatedDrillEntity.TABLE_NAME
+            + " WHERE server_drill_id = :serverDrillId ORDER BY position")
+    @NonNull
+    List<RelatedDrillEntity> findAllRelatedDrills(long serverDrillId);
+
+    /*
+    A drill's links are always replaced as a whole, delete the old instructions and related drills
+    first as the new lists may be shorter.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(DrillNetworkLinksEntity links);
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertInstructions(List<DrillInstructionsEntity> instructions);
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertRelatedDrills(List<RelatedDrillEntity> relatedDrills);
+
+    @Query("DELETE FROM " + DrillInstructionsEntity.TABLE_NAME
+            + " WHERE server_drill_id = :serverDrillId")
+    void deleteAllInstructions(long serverDrillId);
+
+    @Query("DELETE FROM " + RelatedDrillEntity.TABLE_NAME
+            + " WHERE server_drill_id = :serverDrillId")
+    void deleteAllRelatedDrills(long serverDrillId);
+
+    @Query("SELECT COUNT(*) FROM " + DrillNetworkLinksEntity.TABLE_NAME)
+    int countNetworkLinks();
+
+    /*
+    Drop all but the given number of links, those of drills not saved locally first, then the least
+    recently fetched. Follow with deleteOrphaned*() to remove their instructions and related drills.
+     */
+    @Query("DELETE FROM " + DrillNetworkLinksEntity.TABLE_NAME + " WHERE server_drill_id IN ("
+            + "SELECT links.server_drill_id FROM " + DrillNetworkLinksEntity.TABLE_NAME
+            + " AS links ORDER BY links.server_drill_id IN (SELECT server_drill_id FROM "
+            + DrillEntity.TABLE_NAME + " WHERE server_drill_id IS NOT NULL), links.updated_at"
+            + " LIMIT MAX(0, (SELECT COUNT(*) FROM " + DrillNetworkLinksEntity.TABLE_NAME
+            + ") - :maxLinks))")
+    int deleteAllButNewest(int maxLinks);
+
+    @Query("DELETE FROM " + DrillInstructionsEntity.TABLE_NAME + " WHERE server_drill_id NOT IN "
+            + "(SELECT server_drill_id FROM " + DrillNetworkLinksEntity.TABLE_NAME + ")")
+    void deleteOrphanedInstructions();
+
+    @Query("DELETE FROM " + RelatedDrillEntity.TABLE_NAME + " WHERE server_drill_id NOT IN "
+            + "(SELECT server_drill_id FROM " + DrillNetworkLinksEntity.TABLE_NAME + ")")
+    void deleteOrphanedRelatedDrills();
+
+    @Query("DELETE FROM " + DrillNetworkLinksEntity.TABLE_NAME)
+    void deleteAll();
+    @Query("DELETE FROM " + DrillInstructionsEntity.TABLE_NAME)
+    void deleteAllInstructions();
+    @Query("DELETE FROM " + RelatedDrillEntity.TABLE_NAME)
+    void deleteAllRelatedDrills();
+}
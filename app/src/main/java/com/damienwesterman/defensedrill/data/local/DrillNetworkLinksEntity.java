@@ -0,0 +1,61 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Database entity marking that a server drill's instructions and related drills are cached, and
+ * when they were last fetched. Its {@link DrillInstructionsEntity} and {@link RelatedDrillEntity}
+ * rows are only meaningful while this row exists, as a drill may have none of either.
+ * <br><br>
+ * Keyed by the server drill ID rather than the local one, as that is what the server returns.
+ */
+@Entity(tableName = DrillNetworkLinksEntity.TABLE_NAME)
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class DrillNetworkLinksEntity {
+    @Ignore
+    public static final String TABLE_NAME = "drill_network_links";
+
+    @PrimaryKey
+    @ColumnInfo(name = "server_drill_id")
+    private long serverDrillId;
+    /** Date (in milliseconds since epoch) the links were fetched from the server */
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
+}
@@ -30,31 +30,52 @@ import android.database.sqlite.SQLiteConstraintException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * This class is used to interact with the SQLite database.
  * <br><br>
- * All methods are synchronized, and thus all calls are thread safe.
+ * All methods are synchronized, and thus all calls are thread safe. Each call is timed by
+ * {@link QueryMetrics}.
  */
 public class DrillRepository {
+    /**
+     * Maximum number of drills whose network links are cached. Enough for every drill of a large
+     * library, so this mostly bounds the links of drills only viewed or prefetched.
+     */
+    public static final int MAX_CACHED_NETWORK_LINKS = 5000;
+
     private final DrillDatabase db;
     private final DrillDao drillDao;
     private final CategoryDao categoryDao;
     private final SubCategoryDao subCategoryDao;
+    private final DrillSessionDao drillSessionDao;
+    private final DrillNetworkLinksDao drillNetworkLinksDao;
+    private final QueryMetrics queryMetrics;
 
-    /* package-private */ DrillRepository(@NonNull DrillDatabase db) {
+    /* package-private */ DrillRepository(@NonNull DrillDatabase db,
+                                          @NonNull QueryMetrics queryMetrics) {
         this.db = db;
+        this.queryMetrics = queryMetrics;
         this.drillDao = this.db.getDrillDao();
         this.categoryDao = this.db.getCategoryDao();
         this.subCategoryDao = this.db.getSubCategoryDao();
+        this.drillSessionDao = this.db.getDrillSessionDao();
+        this.drillNetworkLinksDao = this.db.getDrillNetworkLinksDao();
     }
 
     /**
@@ -64,7 +85,7 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<Drill> getAllDrills() {
-        return this.drillDao.getAllDrills();
+        return queryMetrics.track("getAllDrills", () -> this.drillDao.getAllDrills());
     }
 
     /**
@@ -75,7 +96,8 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<Drill> getAllDrillsByCategoryId(long categoryId) {
-        return this.drillDao.findAllDrillsByCategory(categoryId);
+        return queryMetrics.track("getAllDrillsByCategoryId",
+                () -> this.drillDao.findAllDrillsByCategory(categoryId));
     }
 
     /**
@@ -86,7 +108,8 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<Drill> getAllDrillsBySubCategoryId(long subCategoryId) {
-        return this.drillDao.findAllDrillsBySubCategory(subCategoryId);
+        return queryMetrics.track("getAllDrillsBySubCategoryId",
+                () -> this.drillDao.findAllDrillsBySubCategory(subCategoryId));
     }
 
     /**
@@ -97,7 +120,34 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<Drill> getAllDrillsByServerId(@NonNull List<Long> serverIds) {
-        return this.drillDao.findAllDrillsByServerId(serverIds);
+        return queryMetrics.track("getAllDrillsByServerId",
+                () -> this.drillDao.findAllDrillsByServerId(serverIds));
+    }
+
+    /**
+     * Returns a list of all Drills that have one of the supplied server IDs or names. Keep the
+     * lists short, every entry is a query parameter.
+     *
+     * @param serverIds List of Server IDs to retrieve.
+     * @param names     List of names to retrieve.
+     * @return          List of Drill objects.
+     */
+    @NonNull
+    public synchronized List<Drill> getAllDrillsByServerIdOrName(@NonNull List<Long> serverIds,
+                                                                 @NonNull List<String> names) {
+        return queryMetrics.track("getAllDrillsByServerIdOrName",
+                () -> this.drillDao.findAllDrillsByServerIdOrName(serverIds, names));
+    }
+
+    /**
+     * Return the most recently inserted Drills, newest first.
+     *
+     * @param count Maximum number of drills to return.
+     * @return      List of Drill objects.
+     */
+    @NonNull
+    public synchronized List<Drill> getNewestDrills(int count) {
+        return queryMetrics.track("getNewestDrills", () -> this.drillDao.findNewestDrills(count));
     }
 
     /**
@@ -109,7 +159,8 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<Drill> getAllDrills(long categoryId, long subCategoryId) {
-        return this.drillDao.findAllDrillsByCategoryAndSubCategory(categoryId, subCategoryId);
+        return queryMetrics.track("getAllDrillsByCategoryAndSubCategory",
+                () -> this.drillDao.findAllDrillsByCategoryAndSubCategory(categoryId, subCategoryId));
     }
 
     /**
@@ -128,11 +179,14 @@ public class DrillRepository {
         if (null == categoryIds && null == subCategoryIds) {
             ret = getAllDrills();
         } else if (null == categoryIds) {
-            ret = this.drillDao.findAllDrillsBySubCategory(subCategoryIds);
+            ret = findAllDrillsByFilter(DrillDao.FIND_ALL_DRILLS_BY_SUB_CATEGORY_FILTER_SQL,
+                    null, subCategoryIds);
         } else if (null == subCategoryIds) {
-            ret = this.drillDao.findAllDrillsByCategory(categoryIds);
+            ret = findAllDrillsByFilter(DrillDao.FIND_ALL_DRILLS_BY_CATEGORY_FILTER_SQL,
+                    categoryIds, null);
         } else {
-            ret = this.drillDao.findAllDrillsByCategoryAndSubCategory(categoryIds, subCategoryIds);
+            ret = findAllDrillsByFilter(DrillDao.FIND_ALL_DRILLS_BY_CATEGORY_AND_SUB_CATEGORY_FILTER_SQL,
+                    categoryIds, subCategoryIds);
         }
 
         return ret;
@@ -146,7 +200,7 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized Optional<Drill> getDrill(long id) {
-        return this.drillDao.findDrillById(id);
+        return queryMetrics.track("getDrillById", () -> this.drillDao.findDrillById(id));
     }
 
     /**
@@ -160,12 +214,13 @@ public class DrillRepository {
         if (name.isEmpty()) {
             return Optional.empty();
         }
-        return this.drillDao.findDrillByName(name);
+        return queryMetrics.track("getDrillByName", () -> this.drillDao.findDrillByName(name));
     }
 
     @NonNull
     public synchronized Optional<Drill> getDrillByServerId(@NonNull Long serverDrillId) {
-        return this.drillDao.findDrillByServerId(serverDrillId);
+        return queryMetrics.track("getDrillByServerId",
+                () -> this.drillDao.findDrillByServerId(serverDrillId));
     }
 
     /**
@@ -184,7 +239,7 @@ public class DrillRepository {
             return success.get();
         }
 
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("insertDrills", drills.length, () -> db.runInTransaction(() -> {
             for (Drill drill : drills) {
                 if (null == drill) {
                     continue;
@@ -220,7 +275,7 @@ public class DrillRepository {
                     }
                 }
             }
-        });
+        }));
 
         return success.get();
     }
@@ -241,7 +296,7 @@ public class DrillRepository {
             return success.get();
         }
 
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("updateDrills", drills.length, () -> db.runInTransaction(() -> {
             for (Drill drill : drills) {
                 if (null == drill) {
                     continue;
@@ -293,10 +348,10 @@ public class DrillRepository {
                         .collect(Collectors.toSet());
 
                 Set<Long> subCategoriesToRemove = new HashSet<>(existingSubCategoryIds);
-                categoriesToRemove.removeAll(newSubCategoryIds);
+                subCategoriesToRemove.removeAll(newSubCategoryIds);
 
                 Set<Long> subCategoriesToAdd = new HashSet<>(newSubCategoryIds);
-                categoriesToAdd.removeAll(existingSubCategoryIds);
+                subCategoriesToAdd.removeAll(existingSubCategoryIds);
 
                 for (Long subCategoryId : subCategoriesToRemove) {
                     drillDao.delete(new DrillSubCategoryJoinEntity(drillId, subCategoryId));
@@ -308,7 +363,7 @@ public class DrillRepository {
                     }
                 }
             }
-        });
+        }));
 
         return success.get();
     }
@@ -322,14 +377,185 @@ public class DrillRepository {
         if (null == drills) {
             return;
         }
-        this.db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("deleteDrills", drills.length, () -> db.runInTransaction(() -> {
             for (Drill drill : drills) {
                 if (null == drill) {
                     continue;
                 }
                 this.drillDao.delete(drill.getDrillEntity());
             }
-        });
+        }));
+    }
+
+    /**
+     * Save a completed drill and record it in the drill's practice history. The drill's previous
+     * confidence is read, the drill is updated, and the session is added to the history and to the
+     * drill and category stats all in a single transaction.
+     *
+     * @param drill                         Drill that was completed, with its new confidence and
+     *                                      lastDrilled already set.
+     * @param source                        How the user came to complete the drill.
+     * @throws SQLiteConstraintException    If name is not unique, name is null, or a category/
+     *                                      subcategory does not exist.
+     * @return                              True if the drill was updated and the session recorded.
+     */
+    public synchronized boolean recordDrillSession(@NonNull Drill drill,
+                                                   @NonNull DrillSessionEntity.Source source) {
+        AtomicBoolean success = new AtomicBoolean(true);
+
+        queryMetrics.trackTransaction("recordDrillSession", 1, () -> db.runInTransaction(() -> {
+            long drillId = drill.getId();
+            Integer confidenceBefore = drillDao.findConfidenceById(drillId);
+            if (null == confidenceBefore || !updateDrills(drill)) {
+                success.set(false);
+                return;
+            }
+
+            long timestamp = 0 < drill.getLastDrilled()
+                    ? drill.getLastDrilled() : System.currentTimeMillis();
+            int confidenceAfter = drill.getConfidence();
+            // Lower confidence values mean more confident
+            int improved = confidenceAfter < confidenceBefore ? 1 : 0;
+
+            drillSessionDao.insert(new DrillSessionEntity(drillId, timestamp, confidenceBefore,
+                    confidenceAfter, source));
+            drillSessionDao.insertEmptyDrillStats(drillId, timestamp);
+            drillSessionDao.incrementDrillStats(drillId, timestamp, confidenceAfter, improved);
+            drillSessionDao.insertEmptyCategoryStats(drillId);
+            drillSessionDao.incrementCategoryStats(drillId, timestamp, confidenceAfter, improved);
+        }));
+
+        return success.get();
+    }
+
+    /**
+     * Get the practice history of a drill.
+     *
+     * @param drillId   ID of the drill.
+     * @return          List of DrillSessionEntity objects, most recent first.
+     */
+    @NonNull
+    public synchronized List<DrillSessionEntity> getDrillSessions(long drillId) {
+        return queryMetrics.track("getDrillSessions",
+                () -> this.drillSessionDao.findAllSessionsByDrillId(drillId));
+    }
+
+    /**
+     * Get every drill session completed since the given time.
+     *
+     * @param since Date (in milliseconds since epoch) to start from, inclusive.
+     * @return      List of DrillSessionEntity objects, most recent first.
+     */
+    @NonNull
+    public synchronized List<DrillSessionEntity> getDrillSessionsSince(long since) {
+        return queryMetrics.track("getDrillSessionsSince",
+                () -> this.drillSessionDao.findAllSessionsSince(since));
+    }
+
+    /**
+     * Get the aggregate practice stats of a drill.
+     *
+     * @param drillId   ID of the drill.
+     * @return          DrillStatsEntity object or empty if the drill has never been recorded.
+     */
+    @NonNull
+    public synchronized Optional<DrillStatsEntity> getDrillStats(long drillId) {
+        return queryMetrics.track("getDrillStats",
+                () -> this.drillSessionDao.findDrillStats(drillId));
+    }
+
+    /**
+     * Get the aggregate practice stats of every drill that has been recorded.
+     *
+     * @return  List of DrillStatsEntity objects.
+     */
+    @NonNull
+    public synchronized List<DrillStatsEntity> getAllDrillStats() {
+        return queryMetrics.track("getAllDrillStats",
+                () -> this.drillSessionDao.getAllDrillStats());
+    }
+
+    /**
+     * Get the aggregate practice stats of a category.
+     *
+     * @param categoryId    ID of the category.
+     * @return              CategoryStatsEntity object or empty if none of the category's drills
+     *                      have been recorded.
+     */
+    @NonNull
+    public synchronized Optional<CategoryStatsEntity> getCategoryStats(long categoryId) {
+        return queryMetrics.track("getCategoryStats",
+                () -> this.drillSessionDao.findCategoryStats(categoryId));
+    }
+
+    /**
+     * Get the aggregate practice stats of every category that has been recorded.
+     *
+     * @return  List of CategoryStatsEntity objects.
+     */
+    @NonNull
+    public synchronized List<CategoryStatsEntity> getAllCategoryStats() {
+        return queryMetrics.track("getAllCategoryStats",
+                () -> this.drillSessionDao.getAllCategoryStats());
+    }
+
+    /**
+     * Get the cached instructions and related drills of a server drill.
+     *
+     * @param serverDrillId Server ID of the drill.
+     * @return              DrillNetworkLinks or empty if they have not been cached.
+     */
+    @NonNull
+    public synchronized Optional<DrillNetworkLinks> getNetworkLinks(long serverDrillId) {
+        return queryMetrics.track("getNetworkLinks", () -> db.runInTransaction(() ->
+                drillNetworkLinksDao.findNetworkLinks(serverDrillId)
+                        .map(links -> new DrillNetworkLinks(serverDrillId, links.getUpdatedAt(),
+                                drillNetworkLinksDao.findAllInstructions(serverDrillId),
+                                drillNetworkLinksDao.findAllRelatedDrills(serverDrillId)))));
+    }
+
+    /**
+     * Cache the instructions and related drills of server drills, replacing whatever was cached
+     * for them before.
+     * <br><br>
+     * At most {@link #MAX_CACHED_NETWORK_LINKS} drills' links are kept. Beyond that, those of
+     * drills not saved locally are dropped first, then the least recently fetched.
+     *
+     * @param networkLinks  DrillNetworkLinks to save.
+     */
+    public synchronized void saveNetworkLinks(DrillNetworkLinks... networkLinks) {
+        if (0 == networkLinks.length) {
+            return;
+        }
+
+        queryMetrics.trackTransaction("saveNetworkLinks", networkLinks.length, () -> db.runInTransaction(() -> {
+            for (DrillNetworkLinks links : networkLinks) {
+                long serverDrillId = links.getServerDrillId();
+                drillNetworkLinksDao.deleteAllInstructions(serverDrillId);
+                drillNetworkLinksDao.deleteAllRelatedDrills(serverDrillId);
+                drillNetworkLinksDao.insert(
+                        new DrillNetworkLinksEntity(serverDrillId, links.getUpdatedAt()));
+                drillNetworkLinksDao.insertInstructions(links.getInstructions());
+                drillNetworkLinksDao.insertRelatedDrills(links.getRelatedDrills());
+            }
+
+            if (MAX_CACHED_NETWORK_LINKS < drillNetworkLinksDao.countNetworkLinks()) {
+                drillNetworkLinksDao.deleteAllButNewest(MAX_CACHED_NETWORK_LINKS);
+                drillNetworkLinksDao.deleteOrphanedInstructions();
+                drillNetworkLinksDao.deleteOrphanedRelatedDrills();
+            }
+        }));
+    }
+
+    /**
+     * Delete every cached instruction and related drill, such as on logout.
+     */
+    public synchronized void clearNetworkLinks() {
+        queryMetrics.trackTransaction("clearNetworkLinks", 0, () -> db.runInTransaction(() -> {
+            drillNetworkLinksDao.deleteAll();
+            drillNetworkLinksDao.deleteAllInstructions();
+            drillNetworkLinksDao.deleteAllRelatedDrills();
+        }));
     }
 
     /**
@@ -339,7 +565,7 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<CategoryEntity> getAllCategories() {
-        return this.categoryDao.getAll();
+        return queryMetrics.track("getAllCategories", () -> this.categoryDao.getAll());
     }
 
     /**
@@ -350,7 +576,7 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized Optional<CategoryEntity> getCategory(long id) {
-        return this.categoryDao.findById(id);
+        return queryMetrics.track("getCategoryById", () -> this.categoryDao.findById(id));
     }
 
     /**
@@ -364,7 +590,7 @@ public class DrillRepository {
         if (name.isEmpty()) {
             return Optional.empty();
         }
-        return this.categoryDao.findByName(name);
+        return queryMetrics.track("getCategoryByName", () -> this.categoryDao.findByName(name));
     }
 
     /**
@@ -381,7 +607,7 @@ public class DrillRepository {
         if (null == categories) {
             return success.get();
         }
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("insertCategories", categories.length, () -> db.runInTransaction(() -> {
             for (CategoryEntity category : categories) {
                 if (null == category) {
                     continue;
@@ -391,7 +617,7 @@ public class DrillRepository {
                 }
             }
 
-        });
+        }));
 
         return success.get();
     }
@@ -410,7 +636,7 @@ public class DrillRepository {
         if (null == categories) {
             return success.get();
         }
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("updateCategories", categories.length, () -> db.runInTransaction(() -> {
             for (CategoryEntity category : categories) {
                 if (null == category) {
                     continue;
@@ -420,7 +646,7 @@ public class DrillRepository {
                 }
             }
 
-        });
+        }));
 
         return success.get();
     }
@@ -434,7 +660,7 @@ public class DrillRepository {
         if (null == categories) {
             return;
         }
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("deleteCategories", categories.length, () -> db.runInTransaction(() -> {
             for (CategoryEntity category : categories) {
                 if (null == category) {
                     continue;
@@ -442,7 +668,7 @@ public class DrillRepository {
                 this.categoryDao.delete(category);
             }
 
-        });
+        }));
     }
 
     /**
@@ -452,7 +678,7 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<SubCategoryEntity> getAllSubCategories() {
-        return this.subCategoryDao.getAll();
+        return queryMetrics.track("getAllSubCategories", () -> this.subCategoryDao.getAll());
     }
 
     /**
@@ -463,7 +689,8 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized List<SubCategoryEntity> getAllSubCategories(long categoryId) {
-        return this.subCategoryDao.findAllByCategory(categoryId);
+        return queryMetrics.track("getAllSubCategoriesByCategoryId",
+                () -> this.subCategoryDao.findAllByCategory(categoryId));
     }
 
     /**
@@ -474,7 +701,7 @@ public class DrillRepository {
      */
     @NonNull
     public synchronized Optional<SubCategoryEntity> getSubCategory(long id) {
-        return this.subCategoryDao.findById(id);
+        return queryMetrics.track("getSubCategoryById", () -> this.subCategoryDao.findById(id));
     }
 
     /**
@@ -488,7 +715,8 @@ public class DrillRepository {
         if (name.isEmpty()) {
             return Optional.empty();
         }
-        return this.subCategoryDao.findByName(name);
+        return queryMetrics.track("getSubCategoryByName",
+                () -> this.subCategoryDao.findByName(name));
     }
 
     /**
@@ -506,7 +734,7 @@ public class DrillRepository {
             return success.get();
         }
 
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("insertSubCategories", subCategories.length, () -> db.runInTransaction(() -> {
             for (SubCategoryEntity subCategory : subCategories) {
                 if (null == subCategory) {
                     continue;
@@ -516,7 +744,7 @@ public class DrillRepository {
                 }
             }
 
-        });
+        }));
 
         return success.get();
     }
@@ -535,7 +763,7 @@ public class DrillRepository {
         if (null == subCategories) {
             return success.get();
         }
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("updateSubCategories", subCategories.length, () -> db.runInTransaction(() -> {
             for (SubCategoryEntity subCategory : subCategories) {
                 if (null == subCategory) {
                     continue;
@@ -545,7 +773,7 @@ public class DrillRepository {
                 }
             }
 
-        });
+        }));
 
         return success.get();
     }
@@ -559,7 +787,7 @@ public class DrillRepository {
         if (null == subCategories) {
             return;
         }
-        db.runInTransaction(() -> {
+        queryMetrics.trackTransaction("deleteSubCategories", subCategories.length, () -> db.runInTransaction(() -> {
             for (SubCategoryEntity subCategory : subCategories) {
                 if (null == subCategory) {
                     continue;
@@ -567,6 +795,166 @@ public class DrillRepository {
                 this.subCategoryDao.delete(subCategory);
             }
 
-        });
+        }));
+    }
+
+    /**
+     * Delete the drills, categories and sub-categories with the given server IDs, such as those
+     * deleted on the server, along with the cached network links of the deleted drills. Done in
+     * one statement per table, however many IDs there are.
+     *
+     * @param drillServerIds        Server IDs of the drills to delete, or null for none.
+     * @param categoryServerIds     Server IDs of the categories to delete, or null for none.
+     * @param subCategoryServerIds  Server IDs of the sub-categories to delete, or null for none.
+     * @return                      Number of drills, categories and sub-categories deleted.
+     */
+    public synchronized int deleteAllByServerId(@Nullable Collection<Long> drillServerIds,
+                                                @Nullable Collection<Long> categoryServerIds,
+                                                @Nullable Collection<Long> subCategoryServerIds) {
+        return deleteAllByServerIdFilter("deleteAllByServerId", drillServerIds,
+                categoryServerIds, subCategoryServerIds, false);
+    }
+
+    /**
+     * Delete the drills, categories and sub-categories that have a server ID, but not one of the
+     * given ones, such as everything the server no longer has, along with the cached network
+     * links of the deleted drills. Anything without a server ID is kept.
+     *
+     * @param drillServerIds        Server IDs of the drills to keep, or null to keep all drills.
+     * @param categoryServerIds     Server IDs of the categories to keep, or null to keep all
+     *                              categories.
+     * @param subCategoryServerIds  Server IDs of the sub-categories to keep, or null to keep all
+     *                              sub-categories.
+     * @return                      Number of drills, categories and sub-categories deleted.
+     */
+    public synchronized int deleteAllExceptServerId(@Nullable Collection<Long> drillServerIds,
+                                                    @Nullable Collection<Long> categoryServerIds,
+                                                    @Nullable Collection<Long> subCategoryServerIds) {
+        return deleteAllByServerIdFilter("deleteAllExceptServerId", drillServerIds,
+                categoryServerIds, subCategoryServerIds, true);
+    }
+
+    /**
+     * Run several repository operations as a single all-or-nothing transaction. If the callable
+     * throws, every change it made is rolled back and the exception is rethrown. One commit also
+     * means one disk sync, rather than one per operation.
+     * <br><br>
+     * This holds the repository lock for the whole transaction, so keep it short and do not do any
+     * network or other blocking work inside of it. Other threads see either none or all of the
+     * changes.
+     *
+     * @param callable  Operations to run, may call any other repository method.
+     * @return          Result of the callable.
+     * @param <V>       Return type of the callable.
+     */
+    public synchronized <V> V runInTransaction(@NonNull Callable<V> callable) {
+        return queryMetrics.track("runInTransaction", () -> db.runInTransaction(callable));
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Delete by server ID through the {@link IdFilterTable#SERVER_IDS} table, so the IDs are not
+     * bound as one long {@code IN (...)} list. Join rows, stats and history of deleted drills and
+     * categories are removed by their foreign keys, cached network links are not so are deleted
+     * here. A null collection leaves that table alone.
+     *
+     * @param operation             Name to track the operation under.
+     * @param drillServerIds        Drill server IDs.
+     * @param categoryServerIds     Category server IDs.
+     * @param subCategoryServerIds  Sub-category server IDs.
+     * @param exceptGiven           true to delete everything with a server ID other than the given
+     *                              ones, false to delete the given ones.
+     * @return                      Number of drills, categories and sub-categories deleted.
+     */
+    private int deleteAllByServerIdFilter(@NonNull String operation,
+                                          @Nullable Collection<Long> drillServerIds,
+                                          @Nullable Collection<Long> categoryServerIds,
+                                          @Nullable Collection<Long> subCategoryServerIds,
+                                          boolean exceptGiven) {
+        AtomicInteger deleted = new AtomicInteger(0);
+        int itemCount = (null == drillServerIds ? 0 : drillServerIds.size())
+                + (null == categoryServerIds ? 0 : categoryServerIds.size())
+                + (null == subCategoryServerIds ? 0 : subCategoryServerIds.size());
+
+        queryMetrics.trackTransaction(operation, itemCount, () -> db.runInTransaction(() -> {
+            SupportSQLiteDatabase sqlDb = db.getOpenHelper().getWritableDatabase();
+
+            if (null != drillServerIds) {
+                IdFilterTable.SERVER_IDS.load(sqlDb, drillServerIds);
+                deleted.addAndGet(deleteByServerIdFilter(sqlDb, DrillEntity.TABLE_NAME,
+                        "server_drill_id", exceptGiven));
+                // Cached links may exist for drills that were never saved, so filter them the same
+                deleteByServerIdFilter(sqlDb, DrillNetworkLinksEntity.TABLE_NAME,
+                        "server_drill_id", exceptGiven);
+                deleteByServerIdFilter(sqlDb, DrillInstructionsEntity.TABLE_NAME,
+                        "server_drill_id", exceptGiven);
+                deleteByServerIdFilter(sqlDb, RelatedDrillEntity.TABLE_NAME,
+                        "server_drill_id", exceptGiven);
+            }
+            if (null != categoryServerIds) {
+                IdFilterTable.SERVER_IDS.load(sqlDb, categoryServerIds);
+                deleted.addAndGet(deleteByServerIdFilter(sqlDb, CategoryEntity.TABLE_NAME,
+                        "serverId", exceptGiven));
+            }
+            if (null != subCategoryServerIds) {
+                IdFilterTable.SERVER_IDS.load(sqlDb, subCategoryServerIds);
+                deleted.addAndGet(deleteByServerIdFilter(sqlDb, SubCategoryEntity.TABLE_NAME,
+                        "serverId", exceptGiven));
+            }
+        }));
+
+        return deleted.get();
+    }
+
+    /**
+     * Run a single DELETE against the loaded {@link IdFilterTable#SERVER_IDS} table.
+     *
+     * @param sqlDb         Database connection currently in a transaction.
+     * @param table         Table to delete from.
+     * @param column        Server ID column of the table.
+     * @param exceptGiven   true to delete the rows NOT in the filter table.
+     * @return              Number of rows deleted.
+     */
+    private static int deleteByServerIdFilter(@NonNull SupportSQLiteDatabase sqlDb,
+                                              @NonNull String table, @NonNull String column,
+                                              boolean exceptGiven) {
+        SupportSQLiteStatement statement = sqlDb.compileStatement("DELETE FROM " + table
+                + " WHERE " + column + " IS NOT NULL AND " + column
+                + (exceptGiven ? " NOT IN " : " IN ")
+                + "(SELECT id FROM " + IdFilterTable.SERVER_IDS_TABLE + ")");
+        try {
+            return statement.executeUpdateDelete();
+        } finally {
+            try {
+                statement.close();
+            } catch (IOException e) {
+                // Nothing we can do, the statement will be cleaned up with the connection
+            }
+        }
+    }
+
+    /**
+     * Load the category and sub-category IDs into their {@link IdFilterTable}s and run the given
+     * filter query against them, all inside of a single transaction. This works for any number of
+     * IDs, no matter SQLite's bound variable limit.
+     *
+     * @param filterSql         One of DrillDao's FIND_ALL_DRILLS_BY_*_FILTER_SQL queries.
+     * @param categoryIds       Category IDs to load, or null if unused by the query.
+     * @param subCategoryIds    Sub-category IDs to load, or null if unused by the query.
+     * @return                  List of Drill objects.
+     */
+    @NonNull
+    private List<Drill> findAllDrillsByFilter(@NonNull String filterSql,
+                                              @Nullable List<Long> categoryIds,
+                                              @Nullable List<Long> subCategoryIds) {
+        return queryMetrics.track("findAllDrillsByFilter", () -> db.runInTransaction(() -> {
+            SupportSQLiteDatabase sqlDb = db.getOpenHelper().getWritableDatabase();
+            IdFilterTable.CATEGORY_IDS.load(sqlDb, categoryIds);
+            IdFilterTable.SUB_CATEGORY_IDS.load(sqlDb, subCategoryIds);
+
+            return drillDao.findAllDrillsByFilter(new SimpleSQLiteQuery(filterSql));
+        }));
     }
 }
@@ -0,0 +1,102 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+@Dao
+/* package-private */ interface DrillSessionDao {
+    @Query("SELECT * FROM " + DrillSessionEntity.TABLE_NAME
+            + " WHERE drill_id = :drillId ORDER BY timestamp DESC")
+    @NonNull
+    List<DrillSessionEntity> findAllSessionsByDrillId(long drillId);
+
+    @Query("SELECT * FROM " + DrillSessionEntity.TABLE_NAME
+            + " WHERE timestamp >= :since ORDER BY timestamp DESC")
+    @NonNull
+    List<DrillSessionEntity> findAllSessionsSince(long since);
+
+    @Query("SELECT * FROM " + DrillStatsEntity.TABLE_NAME + " WHERE drill_id = :drillId")
+    @NonNull
+    Optional<DrillStatsEntity> findDrillStats(long drillId);
+
+    @Query("SELECT * FROM " + DrillStatsEntity.TABLE_NAME)
+    @NonNull
+    List<DrillStatsEntity> getAllDrillStats();
+
+    @Query("SELECT * FROM " + CategoryStatsEntity.TABLE_NAME + " WHERE category_id = :categoryId")
+    @NonNull
+    Optional<CategoryStatsEntity> findCategoryStats(long categoryId);
+
+    @Query("SELECT * FROM " + CategoryStatsEntity.TABLE_NAME)
+    @NonNull
+    List<CategoryStatsEntity> getAllCategoryStats();
+
+    @Insert
+    long insert(DrillSessionEntity session);
+
+    /*
+    The stats tables are kept up to date with an "insert empty row if missing, then increment"
+    pair of statements, so recording a session is a constant amount of work no matter how much
+    history there is. These must be run in the same transaction as the session insert.
+     */
+    @Query("INSERT OR IGNORE INTO " + DrillStatsEntity.TABLE_NAME
+            + " (drill_id, session_count, confidence_total, improved_count, first_session,"
+            + " last_session, last_confidence)"
+            + " VALUES (:drillId, 0, 0, 0, :timestamp, 0, 0)")
+    void insertEmptyDrillStats(long drillId, long timestamp);
+
+    @Query("UPDATE " + DrillStatsEntity.TABLE_NAME + " SET"
+            + " session_count = session_count + 1,"
+            + " confidence_total = confidence_total + :confidenceAfter,"
+            + " improved_count = improved_count + :improved,"
+            + " last_session = MAX(last_session, :timestamp),"
+            + " last_confidence = :confidenceAfter"
+            + " WHERE drill_id = :drillId")
+    int incrementDrillStats(long drillId, long timestamp, int confidenceAfter, int improved);
+
+    @Query("INSERT OR IGNORE INTO " + CategoryStatsEntity.TABLE_NAME
+            + " (category_id, session_count, confidence_total, improved_count, last_session)"
+            + " SELECT category_id, 0, 0, 0, 0 FROM " + DrillCategoryJoinEntity.TABLE_NAME
+            + " WHERE drill_id = :drillId")
+    void insertEmptyCategoryStats(long drillId);
+
+    @Query("UPDATE " + CategoryStatsEntity.TABLE_NAME + " SET"
+            + " session_count = session_count + 1,"
+            + " confidence_total = confidence_total + :confidenceAfter,"
+            + " improved_count = improved_count + :improved,"
+            + " last_session = MAX(last_session, :timestamp)"
+            + " WHERE category_id IN (SELECT category_id FROM "
+            + DrillCategoryJoinEntity.TABLE_NAME + " WHERE drill_id = :drillId)")
+    int incrementCategoryStats(long drillId, long timestamp, int confidenceAfter, int improved);
+}
@@ -0,0 +1,110 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Database entity that represents a single completed drill, making up the practice history of a
+ * {@link Drill}. Sessions are append only and are deleted along with their drill.
+ */
+@Entity(
+    tableName = DrillSessionEntity.TABLE_NAME,
+    foreignKeys = {
+            @ForeignKey(entity = DrillEntity.class, parentColumns = "id",
+                    childColumns = "drill_id", onDelete = ForeignKey.CASCADE,
+                    onUpdate = ForeignKey.CASCADE)
+    },
+    indices = {
+            @Index(value = {"drill_id"})
+    }
+)
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class DrillSessionEntity {
+    @Ignore
+    public static final String TABLE_NAME = "drill_session";
+
+    /**
+     * How the user came to complete the drill.
+     */
+    public enum Source {
+        /** Drill was chosen by the drill generator. */
+        GENERATED,
+        /** Drill was sent as a simulated attack notification. */
+        SIMULATED_ATTACK,
+        /** User picked the drill themselves. */
+        MANUAL
+    }
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    @ColumnInfo(name = "drill_id")
+    private long drillId;
+    /** Date (in milliseconds since epoch) the drill was completed */
+    private long timestamp;
+    /** Confidence before this session, should correspond to values such as {@link Drill#LOW_CONFIDENCE} */
+    @ColumnInfo(name = "confidence_before")
+    private int confidenceBefore;
+    /** Confidence after this session, should correspond to values such as {@link Drill#LOW_CONFIDENCE} */
+    @ColumnInfo(name = "confidence_after")
+    private int confidenceAfter;
+    @NonNull
+    private Source source;
+
+    /**
+     * Usable fully parameterized constructor.
+     *
+     * @param drillId           ID of the drill that was completed.
+     * @param timestamp         Date (in milliseconds since epoch) the drill was completed.
+     * @param confidenceBefore  Confidence level (HIGH/MEDIUM/LOW_CONFIDENCE) before the session.
+     * @param confidenceAfter   Confidence level (HIGH/MEDIUM/LOW_CONFIDENCE) after the session.
+     * @param source            How the user came to complete the drill.
+     */
+    @Ignore
+    public DrillSessionEntity(long drillId, long timestamp, int confidenceBefore,
+                              int confidenceAfter, @NonNull Source source) {
+        this.drillId = drillId;
+        this.timestamp = timestamp;
+        this.confidenceBefore = confidenceBefore;
+        this.confidenceAfter = confidenceAfter;
+        this.source = source;
+    }
+}
@@ -0,0 +1,106 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Connection-local temporary table holding a set of IDs, used in place of binding an arbitrarily
+ * long {@code IN (...)} list. SQLite limits the number of bound variables in a single statement,
+ * so filtering by every category the server has sent us can fail outright. Instead, the IDs are
+ * loaded into this table one row at a time through a single reused INSERT statement, and the
+ * filtering query joins against it.
+ * <br><br>
+ * Temp tables only exist on the connection that created them, so ALL use of this class (loading
+ * and then querying) must happen inside the same database transaction.
+ */
+/* package-private */ class IdFilterTable {
+    /** Name to use in queries for the table of category IDs to filter drills by. */
+    /* package-private */ static final String CATEGORY_IDS_TABLE = "temp.drill_filter_category_id";
+    /** Name to use in queries for the table of sub-category IDs to filter drills by. */
+    /* package-private */ static final String SUB_CATEGORY_IDS_TABLE =
+            "temp.drill_filter_sub_category_id";
+
+    /** Name to use in queries for the table of server IDs to delete (or keep) during a sync. */
+    /* package-private */ static final String SERVER_IDS_TABLE = "temp.sync_server_id";
+
+    /* package-private */ static final IdFilterTable CATEGORY_IDS =
+            new IdFilterTable(CATEGORY_IDS_TABLE);
+    /* package-private */ static final IdFilterTable SUB_CATEGORY_IDS =
+            new IdFilterTable(SUB_CATEGORY_IDS_TABLE);
+    /* package-private */ static final IdFilterTable SERVER_IDS =
+            new IdFilterTable(SERVER_IDS_TABLE);
+
+    /** Fully qualified name, i.e. {@code temp.table_name}. The only column is {@code id}. */
+    @NonNull
+    private final String qualifiedName;
+
+    private IdFilterTable(@NonNull String qualifiedName) {
+        this.qualifiedName = qualifiedName;
+    }
+
+    /**
+     * Create the table if needed, clear out any previously loaded IDs, then load the given IDs.
+     * Must be called inside of a transaction.
+     *
+     * @param db    Database connection currently in a transaction.
+     * @param ids   IDs to load into the table. Null entries are ignored.
+     */
+    /* package-private */ void load(@NonNull SupportSQLiteDatabase db, @Nullable Collection<Long> ids) {
+        db.execSQL("CREATE TEMP TABLE IF NOT EXISTS " + qualifiedName
+                + " (id INTEGER PRIMARY KEY NOT NULL)");
+        db.execSQL("DELETE FROM " + qualifiedName);
+
+        if (null == ids || ids.isEmpty()) {
+            return;
+        }
+
+        SupportSQLiteStatement insertStatement = db.compileStatement(
+                "INSERT OR IGNORE INTO " + qualifiedName + " (id) VALUES (?)");
+        try {
+            for (Long id : ids) {
+                if (null == id) {
+                    continue;
+                }
+                insertStatement.bindLong(1, id);
+                insertStatement.executeInsert();
+            }
+        } finally {
+            try {
+                insertStatement.close();
+            } catch (IOException e) {
+                // Nothing we can do, the statement will be cleaned up with the connection
+            }
+        }
+    }
+}
@@ -52,19 +52,28 @@ public class LocalDependenciesModule {
 
     @Provides
     @Singleton
-    public static DrillRepository getDrillRepository(@ApplicationContext Context applicationContext) {
-        return new DrillRepository(getDatabase(applicationContext));
+    public static QueryMetrics getQueryMetrics() {
+        return new QueryMetrics();
     }
 
     @Provides
     @Singleton
-    public static SimulatedAttackRepo getSimulatedAttackRepo(@ApplicationContext Context applicationContext) {
-        return new SimulatedAttackRepo(getDatabase(applicationContext).getWeeklyHourPolicyDao());
+    public static DrillRepository getDrillRepository(@ApplicationContext Context applicationContext,
+                                                     QueryMetrics queryMetrics) {
+        return new DrillRepository(getDatabase(applicationContext, queryMetrics), queryMetrics);
     }
 
-    private static DrillDatabase getDatabase(Context context) {
+    @Provides
+    @Singleton
+    public static SimulatedAttackRepo getSimulatedAttackRepo(@ApplicationContext Context applicationContext,
+                                                             QueryMetrics queryMetrics) {
+        return new SimulatedAttackRepo(
+                getDatabase(applicationContext, queryMetrics).getWeeklyHourPolicyDao());
+    }
+
+    private static synchronized DrillDatabase getDatabase(Context context, QueryMetrics queryMetrics) {
         if (null == instance) {
-            instance = DrillDatabase.instantiate(context);
+            instance = DrillDatabase.instantiate(context, queryMetrics);
         }
         return instance;
     }
@@ -0,0 +1,288 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.damienwesterman.defensedrill.common.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Lightweight instrumentation for the local database, cheap enough to leave on in release builds.
+ * <br><br>
+ * {@link DrillRepository} wraps each of its operations with {@link #track(String, Supplier)} or
+ * {@link #trackTransaction(String, int, Runnable)}, recording a latency histogram and item count
+ * per operation. In debug builds, Room's QueryCallback feeds {@link #onStatement(String)} so that
+ * we also know how many SQL statements each operation ran, and which ones. The callback is too
+ * costly for release builds, where statement counts stay at 0. Any operation slower than
+ * {@link #SLOW_OPERATION_THRESHOLD_MILLIS} is logged and kept in a small ring buffer along with
+ * the first few statements it executed.
+ */
+public class QueryMetrics {
+    private static final String TAG = QueryMetrics.class.getSimpleName();
+    /** Operations taking at least this long are considered slow. */
+    public static final long SLOW_OPERATION_THRESHOLD_MILLIS = 100;
+    private static final int SLOW_OPERATION_BUFFER_SIZE = 32;
+    /** Only keep the first few statements of an operation, a sample is enough to find the culprit */
+    private static final int MAX_STATEMENTS_PER_OPERATION = 8;
+
+    /**
+     * Accumulated metrics for a single repository operation.
+     */
+    @Getter
+    public static class OperationStats {
+        @NonNull
+        private final String name;
+        private final boolean transaction;
+        @NonNull
+        private final LatencyHistogram latency = new LatencyHistogram();
+        /**
+         * Rows returned by reads, or items given to write transactions. Rows actually written,
+         * such as join rows, are not counted.
+         */
+        private final AtomicLong itemCount = new AtomicLong();
+        private final AtomicLong statementCount = new AtomicLong();
+
+        private OperationStats(@NonNull String name, boolean transaction) {
+            this.name = name;
+            this.transaction = transaction;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + (transaction ? " (transaction)" : "")
+                    + ": " + latency
+                    + " items=" + itemCount.get()
+                    + " statements=" + statementCount.get();
+        }
+    }
+
+    /**
+     * Record of a single slow operation.
+     */
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class SlowOperation {
+        @NonNull
+        private final String name;
+        /** Wall clock time the operation finished, in millis since epoch. */
+        private final long timestampMillis;
+        private final long durationMillis;
+        private final long itemCount;
+        /** The first few SQL statements the operation executed. */
+        @NonNull
+        private final List<String> statements;
+    }
+
+    /**
+     * Per thread state for the operation currently being tracked, so that Room's QueryCallback can
+     * attribute statements to it.
+     */
+    private static class ActiveOperation {
+        @NonNull
+        private final OperationStats stats;
+        private final List<String> statements = new ArrayList<>(MAX_STATEMENTS_PER_OPERATION);
+        private int totalStatements = 0;
+
+        private ActiveOperation(@NonNull OperationStats stats) {
+            this.stats = stats;
+        }
+    }
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final ThreadLocal<ActiveOperation> activeOperation = new ThreadLocal<>();
+    private final AtomicLong totalStatements = new AtomicLong();
+    private final SlowOperation[] slowOperations = new SlowOperation[SLOW_OPERATION_BUFFER_SIZE];
+    private int nextSlowOperationIndex = 0;
+
+    /**
+     * Time a read operation, recording the number of rows it returned.
+     *
+     * @param operation Name of the operation, usually the repository method name.
+     * @param query     Query to run.
+     * @return          Result of the query.
+     * @param <T>       Return type of the query.
+     */
+    /* package-private */ <T> T track(@NonNull String operation, @NonNull Supplier<T> query) {
+        OperationStats stats = getStats(operation, false);
+        ActiveOperation previous = activeOperation.get();
+        ActiveOperation current = new ActiveOperation(stats);
+        activeOperation.set(current);
+
+        long startNanos = System.nanoTime();
+        T result = null;
+        try {
+            result = query.get();
+            return result;
+        } finally {
+            finish(current, System.nanoTime() - startNanos, countRows(result));
+            activeOperation.set(previous);
+        }
+    }
+
+    /**
+     * Time a write transaction.
+     *
+     * @param operation     Name of the operation, usually the repository method name.
+     * @param itemCount     Number of items (drills, categories...) given to the transaction.
+     * @param transaction   Transaction to run.
+     */
+    /* package-private */ void trackTransaction(@NonNull String operation, int itemCount,
+                                                @NonNull Runnable transaction) {
+        OperationStats stats = getStats(operation, true);
+        ActiveOperation previous = activeOperation.get();
+        ActiveOperation current = new ActiveOperation(stats);
+        activeOperation.set(current);
+
+        long startNanos = System.nanoTime();
+        try {
+            transaction.run();
+        } finally {
+            finish(current, System.nanoTime() - startNanos, itemCount);
+            activeOperation.set(previous);
+        }
+    }
+
+    /**
+     * Room QueryCallback hook, called synchronously on the thread executing the statement.
+     *
+     * @param sql SQL statement being executed.
+     */
+    /* package-private */ void onStatement(@NonNull String sql) {
+        totalStatements.incrementAndGet();
+
+        ActiveOperation current = activeOperation.get();
+        if (null != current) {
+            current.totalStatements++;
+            if (MAX_STATEMENTS_PER_OPERATION > current.statements.size()) {
+                current.statements.add(sql);
+            }
+        }
+    }
+
+    /**
+     * Get the accumulated metrics of every operation tracked so far.
+     *
+     * @return List of OperationStats.
+     */
+    @NonNull
+    public List<OperationStats> getOperationStats() {
+        return new ArrayList<>(operations.values());
+    }
+
+    /**
+     * Get the most recent slow operations, oldest first.
+     *
+     * @return List of SlowOperation objects.
+     */
+    @NonNull
+    public synchronized List<SlowOperation> getSlowOperations() {
+        List<SlowOperation> ret = new ArrayList<>(SLOW_OPERATION_BUFFER_SIZE);
+        for (int i = 0; i < SLOW_OPERATION_BUFFER_SIZE; i++) {
+            SlowOperation slowOperation =
+                    slowOperations[(nextSlowOperationIndex + i) % SLOW_OPERATION_BUFFER_SIZE];
+            if (null != slowOperation) {
+                ret.add(slowOperation);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Get the total number of SQL statements executed through Room since startup.
+     *
+     * @return Number of statements.
+     */
+    public long getTotalStatements() {
+        return totalStatements.get();
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    @NonNull
+    private OperationStats getStats(@NonNull String operation, boolean transaction) {
+        OperationStats stats = operations.get(operation);
+        if (null == stats) {
+            stats = operations.computeIfAbsent(operation,
+                    name -> new OperationStats(name, transaction));
+        }
+
+        return stats;
+    }
+
+    private void finish(@NonNull ActiveOperation operation, long durationNanos, long itemCount) {
+        OperationStats stats = operation.stats;
+        stats.latency.record(durationNanos);
+        stats.itemCount.addAndGet(itemCount);
+        stats.statementCount.addAndGet(operation.totalStatements);
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        if (SLOW_OPERATION_THRESHOLD_MILLIS <= durationMillis) {
+            SlowOperation slowOperation = new SlowOperation(stats.name,
+                    System.currentTimeMillis(), durationMillis, itemCount,
+                    new ArrayList<>(operation.statements));
+            synchronized (this) {
+                slowOperations[nextSlowOperationIndex] = slowOperation;
+                nextSlowOperationIndex = (nextSlowOperationIndex + 1) % SLOW_OPERATION_BUFFER_SIZE;
+            }
+            Log.w(TAG, String.format(Locale.US, "Slow database operation %s: %dms, %d items, %d statements",
+                    stats.name, durationMillis, itemCount, operation.totalStatements));
+        }
+    }
+
+    private static long countRows(Object result) {
+        if (null == result) {
+            return 0;
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+
+        return 1;
+    }
+}
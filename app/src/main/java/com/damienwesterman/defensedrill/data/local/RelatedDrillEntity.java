@@ -0,0 +1,64 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Database entity for a cached related drill of a server drill. See
+ * {@link DrillNetworkLinksEntity}.
+ */
+@Entity(
+    tableName = RelatedDrillEntity.TABLE_NAME,
+    primaryKeys = {"server_drill_id", "position"}
+)
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class RelatedDrillEntity {
+    @Ignore
+    public static final String TABLE_NAME = "related_drill";
+
+    @ColumnInfo(name = "server_drill_id")
+    private long serverDrillId;
+    /** Index of this drill in the drill's list of related drills */
+    private int position;
+    /** Server ID of the related drill */
+    @ColumnInfo(name = "related_server_drill_id")
+    private long relatedServerDrillId;
+    @NonNull
+    private String name;
+}
@@ -31,6 +31,7 @@ import android.content.SharedPreferences;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.security.crypto.EncryptedSharedPreferences;
 import androidx.security.crypto.MasterKey;
 
@@ -47,6 +48,15 @@ public class SharedPrefs {
             = "defense_drill_encrypted_shared_preferences";
     private static final String KEY_JWT = "jwt";
     private static final String KEY_LAST_DRILL_UPDATE_TIME = "last_drill_update_time";
+    /** When the server was last successfully checked for updates, millis since epoch */
+    private static final String KEY_LAST_UPDATE_CHECK_TIME = "last_update_check_time";
+    /*
+    Cursor of an interrupted paged sync: the page token to resume from, the lastDrillUpdateTime
+    the sync was downloading the changes since, and the time it started.
+     */
+    private static final String KEY_SYNC_CURSOR_PAGE_TOKEN = "sync_cursor_page_token";
+    private static final String KEY_SYNC_CURSOR_BASE_TIME = "sync_cursor_base_time";
+    private static final String KEY_SYNC_CURSOR_START_TIME = "sync_cursor_start_time";
     private static final String KEY_SIMULATED_ATTACKS_ENABLED = "simulated_attacks_enabled";
     /** Denotes if the user wants the simulated attacks instructional popup to launch by default */
     private static final String KEY_SIMULATED_ATTACKS_POPUP_BY_DEFAULT
@@ -55,6 +65,12 @@ public class SharedPrefs {
 
     private final SharedPreferences sharedPrefs;
     private final SharedPreferences encryptedSharedPrefs;
+    /**
+     * Decrypted JWT, kept in memory as decrypting it on every request is expensive. Null until
+     * first read, updated by {@link #setJwt(String)}.
+     */
+    @Nullable
+    private volatile String jwt = null;
 
     /**
      * Private constructor.
@@ -90,13 +106,28 @@ public class SharedPrefs {
 
     @NonNull
     public String getJwt() {
-        return encryptedSharedPrefs.getString(KEY_JWT, "");
+        String cachedJwt = jwt;
+        if (null == cachedJwt) {
+            // Synchronized with setJwt() so a slow first read cannot overwrite a newer JWT
+            synchronized (this) {
+                cachedJwt = jwt;
+                if (null == cachedJwt) {
+                    cachedJwt = encryptedSharedPrefs.getString(KEY_JWT, "");
+                    jwt = cachedJwt;
+                }
+            }
+        }
+
+        return cachedJwt;
     }
 
-    public boolean setJwt(@NonNull String jwt) {
+    public synchronized boolean setJwt(@NonNull String jwt) {
         SharedPreferences.Editor editor = encryptedSharedPrefs.edit();
         editor.putString(KEY_JWT, jwt);
-        return editor.commit();
+        boolean committed = editor.commit();
+        // If the commit failed, the next read decrypts whatever actually got stored
+        this.jwt = committed ? jwt : null;
+        return committed;
     }
 
     public long getLastDrillUpdateTime() {
@@ -113,6 +144,57 @@ public class SharedPrefs {
         return editor.commit();
     }
 
+    public long getLastUpdateCheckTime() {
+        return sharedPrefs.getLong(KEY_LAST_UPDATE_CHECK_TIME, 0);
+    }
+
+    public boolean setLastUpdateCheckTime(long lastUpdateCheckTime) {
+        if (0 > lastUpdateCheckTime) {
+            return false;
+        }
+
+        SharedPreferences.Editor editor = sharedPrefs.edit();
+        editor.putLong(KEY_LAST_UPDATE_CHECK_TIME, lastUpdateCheckTime);
+        return editor.commit();
+    }
+
+    @Nullable
+    public String getSyncCursorPageToken() {
+        return sharedPrefs.getString(KEY_SYNC_CURSOR_PAGE_TOKEN, null);
+    }
+
+    public long getSyncCursorBaseTime() {
+        return sharedPrefs.getLong(KEY_SYNC_CURSOR_BASE_TIME, -1);
+    }
+
+    public long getSyncCursorStartTime() {
+        return sharedPrefs.getLong(KEY_SYNC_CURSOR_START_TIME, 0);
+    }
+
+    /**
+     * Save the cursor of a paged sync, all at once.
+     *
+     * @param baseTime  lastDrillUpdateTime the sync is downloading the changes since.
+     * @param startTime Time the sync started, millis since epoch.
+     * @param pageToken Token of the next page to download.
+     * @return          true if saved.
+     */
+    public boolean setSyncCursor(long baseTime, long startTime, @NonNull String pageToken) {
+        SharedPreferences.Editor editor = sharedPrefs.edit();
+        editor.putLong(KEY_SYNC_CURSOR_BASE_TIME, baseTime);
+        editor.putLong(KEY_SYNC_CURSOR_START_TIME, startTime);
+        editor.putString(KEY_SYNC_CURSOR_PAGE_TOKEN, pageToken);
+        return editor.commit();
+    }
+
+    public boolean clearSyncCursor() {
+        SharedPreferences.Editor editor = sharedPrefs.edit();
+        editor.remove(KEY_SYNC_CURSOR_BASE_TIME);
+        editor.remove(KEY_SYNC_CURSOR_START_TIME);
+        editor.remove(KEY_SYNC_CURSOR_PAGE_TOKEN);
+        return editor.commit();
+    }
+
     public boolean areSimulatedAttacksEnabled() {
         return sharedPrefs.getBoolean(KEY_SIMULATED_ATTACKS_ENABLED, false);
     }
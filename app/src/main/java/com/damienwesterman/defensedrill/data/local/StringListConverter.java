@@ -0,0 +1,59 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.TypeConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Room TypeConverter storing a List of Strings as a JSON array, for short lists that are always
+ * read and written as a whole.
+ */
+/* package-private */ class StringListConverter {
+    private static final Gson GSON = new Gson();
+    private static final Type LIST_TYPE = new TypeToken<List<String>>() {}.getType();
+
+    @TypeConverter
+    @NonNull
+    public static String fromList(@NonNull List<String> list) {
+        return GSON.toJson(list, LIST_TYPE);
+    }
+
+    @TypeConverter
+    @NonNull
+    public static List<String> toList(@NonNull String json) {
+        List<String> list = GSON.fromJson(json, LIST_TYPE);
+        return null == list ? new ArrayList<>() : list;
+    }
+}
@@ -27,55 +27,166 @@
 package com.damienwesterman.defensedrill.data.remote;
 
 import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.ChangesDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.ServerIdsDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
 
 import java.util.List;
 
 import io.reactivex.rxjava3.core.Observable;
+import okhttp3.ResponseBody;
 import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.HEAD;
 import retrofit2.http.Header;
 import retrofit2.http.Headers;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Retrofit interface for retrieving info from the DefenseDrill API.
+ * <br><br>
+ * The login JWT is attached by {@link AuthInterceptor}.
+ * <br><br>
+ * Every endpoint supports conditional requests, pass null for ifNoneMatch/ifModifiedSince to make
+ * an unconditional request. A conditional request may return 304 Not Modified with no body.
  */
 /* package-private */ interface ApiDao {
     @GET("api/drill")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
-    Observable<Response<List<DrillDTO>>> getAllDrills(@Header("Cookie") String jwtHeader);
+    Observable<Response<List<DrillDTO>>> getAllDrills(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince);
 
     @GET("api/drill/update")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
     Observable<Response<List<DrillDTO>>> getDrillsUpdatedAfterTimestamp(
-            @Header("Cookie") String jwtHeader,
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
             @Query("updateTimestamp") long timestamp);
 
+    /*
+    Streamed versions of the above, the body is read as it arrives rather than being parsed all at
+    once. See DrillDtoStream.
+     */
+    @GET("api/drill")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    @Streaming
+    Observable<Response<ResponseBody>> streamAllDrills(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince);
+
+    @GET("api/drill/update")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    @Streaming
+    Observable<Response<ResponseBody>> streamDrillsUpdatedAfterTimestamp(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
+            @Query("updateTimestamp") long timestamp);
+
+    /*
+    Paged version of the above, for syncs that can resume part way through. Leave the timestamp
+    null for all drills, and the page token null for the first page. The server may reply with
+    the compact binary form instead of JSON, see CompactDrillPageConverterFactory.
+     */
+    @GET("api/drill/page")
+    @Headers({
+            "Content-Type: application/json", // Need this so it knows it is an API request
+            CompactDrillPageConverterFactory.ACCEPT_HEADER
+    })
+    Observable<Response<DrillPageDTO>> getDrillPage(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
+            @Query("updateTimestamp") Long timestamp,
+            @Query("pageToken") String pageToken,
+            @Query("pageSize") int pageSize);
+
     @GET("api/category")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
-    Observable<Response<List<CategoryDTO>>> getAllCategories(@Header("Cookie") String jwtHeader);
+    Observable<Response<List<CategoryDTO>>> getAllCategories(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince);
 
     @GET("api/category/update")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
     Observable<Response<List<CategoryDTO>>> getCategoriesUpdatedAfterTimestamp(
-            @Header("Cookie") String jwtHeader,
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
             @Query("updateTimestamp") long timestamp);
 
     @GET("api/sub_category")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
-    Observable<Response<List<SubCategoryDTO>>> getAllSubCategories(@Header("Cookie") String jwtHeader);
+    Observable<Response<List<SubCategoryDTO>>> getAllSubCategories(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince);
 
     @GET("api/sub_category/update")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
     Observable<Response<List<SubCategoryDTO>>> getSubCategoriesUpdatedAfterTimestamp(
-            @Header("Cookie") String jwtHeader,
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
             @Query("updateTimestamp") long timestamp);
 
     @GET("api/drill/id/{id}")
     @Headers("Content-Type: application/json") // Need this so it knows it is an API request
-    Observable<DrillDTO> getDrillById(@Header("Cookie") String jwtHeader,
-                                      @Path("id") Long drillServerId);
+    Observable<Response<DrillDTO>> getDrillById(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
+            @Path("id") Long drillServerId);
+
+    /*
+    Batch version of the above, sent as ?id=1&id=2&... IDs the server does not have are left out
+    of the response.
+     */
+    @GET("api/drill/ids")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<List<DrillDTO>>> getDrillsByIds(
+            @Query("id") List<Long> drillServerIds);
+
+    /*
+    Lightweight update checks, these only tell if anything has changed without the bodies.
+     */
+    @GET("api/changes")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<ChangesDTO>> getChangesSinceTimestamp(
+            @Query("updateTimestamp") long timestamp);
+
+    @HEAD("api/drill/update")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<Void>> headDrillsUpdatedAfterTimestamp(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
+            @Query("updateTimestamp") long timestamp);
+
+    @HEAD("api/category/update")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<Void>> headCategoriesUpdatedAfterTimestamp(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
+            @Query("updateTimestamp") long timestamp);
+
+    @HEAD("api/sub_category/update")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<Void>> headSubCategoriesUpdatedAfterTimestamp(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince,
+            @Query("updateTimestamp") long timestamp);
+
+    /*
+    Deletions, so syncs can remove what the server no longer has. Either the IDs deleted since the
+    timestamp, or the IDs of everything the server still has for servers that do not keep track.
+     */
+    @GET("api/deleted")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<ServerIdsDTO>> getDeletedIdsSinceTimestamp(
+            @Query("updateTimestamp") long timestamp);
+
+    @GET("api/ids")
+    @Headers("Content-Type: application/json") // Need this so it knows it is an API request
+    Observable<Response<ServerIdsDTO>> getAllIds(
+            @Header("If-None-Match") String ifNoneMatch,
+            @Header("If-Modified-Since") String ifModifiedSince);
 }
@@ -27,28 +27,75 @@
 package com.damienwesterman.defensedrill.data.remote;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.damienwesterman.defensedrill.data.local.SharedPrefs;
 import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.ChangesDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.ServerIdsDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
 import com.damienwesterman.defensedrill.common.Constants;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
+import javax.net.ssl.HttpsURLConnection;
+
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.observables.ConnectableObservable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import okhttp3.ResponseBody;
+import retrofit2.HttpException;
 import retrofit2.Response;
 
 /**
  * Repository class for interacting with the API server backend.
+ * <br><br>
+ * List requests optionally take the {@link HttpValidators} of the caller's last kept response, in
+ * which case a 304 Not Modified response means nothing has changed since. Callers are responsible
+ * for storing validators (see {@link HttpValidatorStore}) once they have kept a response.
+ * <br><br>
+ * Identical requests made while one is already in flight share it and its result (see
+ * {@link RequestCoalescer}), apart from streamed bodies which can only be read once.
  */
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 public class ApiRepo {
-    private final SharedPrefs sharedPrefs;
+    /** {@link HttpValidatorStore} key prefix for single drills, followed by the server ID */
+    private static final String VALIDATOR_KEY_DRILL = "drill/";
+    /** Maximum number of IDs in one {@link #getDrillsByIds} request, to keep the URL short */
+    private static final int MAX_DRILL_BATCH_SIZE = 50;
+    /** Maximum number of single drill requests at once, for servers without batches */
+    private static final int MAX_PARALLEL_DRILL_FETCHES = 4;
+
+    private final AuthTokenHolder authTokenHolder;
     private final ApiDao apiDao;
+    private final HttpValidatorStore validatorStore;
+    @Getter
+    private final DrillDtoCache drillDtoCache;
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    /*
+    The *Missing flags below are deliberately kept in memory only. The server may be upgraded at
+    any time, and rediscovering a missing endpoint costs a single 404 per app start, whereas a
+    persisted flag would keep using the fallback until something cleared it.
+     */
+    /** Set once the server has told us it does not have the api/changes endpoint */
+    private volatile boolean changesEndpointMissing = false;
+    /** Set once the server has told us it does not have the api/drill/page endpoint */
+    private volatile boolean drillPagesMissing = false;
+    /** Set once the server has told us it does not have the api/deleted endpoint */
+    private volatile boolean deletedIdsMissing = false;
+    /** Set once the server has told us it does not have the api/drill/ids endpoint */
+    private volatile boolean drillBatchesMissing = false;
 
     /**
      * Get an observable for the API call to retrieve all Drills from the server.
@@ -58,30 +105,221 @@ public class ApiRepo {
      */
     public Observable<Response<List<DrillDTO>>> getAllDrills()
             throws IllegalArgumentException {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
-        }
-        String jwtHeader = "jwt=" + jwt;
+        return getAllDrills(null);
+    }
+
+    /**
+     * Conditional version of {@link #getAllDrills()}.
+     *
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable List of DrillDTO objects. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<List<DrillDTO>>> getAllDrills(@Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
 
-        return apiDao.getAllDrills(jwtHeader);
+        return requestCoalescer.coalesce(coalescingKey("drills", validators),
+                () -> apiDao.getAllDrills(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators)));
     }
 
     /**
      * Get an observable for the API call to retrieve all Drills from the server updated after the
      * given timestamp.
      *
-     * @param timestamp Timestamp of millis since epoch in UTC.
-     * @return          Observable List of DrillDTO objects.
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @return                          Observable List of DrillDTO objects.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
      */
-    public Observable<Response<List<DrillDTO>>> getAllDrillsUpdatedAfterTimestamp(long timestamp) {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
-        }
-        String jwtHeader = "jwt=" + jwt;
+    public Observable<Response<List<DrillDTO>>> getAllDrillsUpdatedAfterTimestamp(long timestamp)
+            throws IllegalArgumentException {
+        return getAllDrillsUpdatedAfterTimestamp(timestamp, null);
+    }
+
+    /**
+     * Conditional version of {@link #getAllDrillsUpdatedAfterTimestamp(long)}.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable List of DrillDTO objects. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<List<DrillDTO>>> getAllDrillsUpdatedAfterTimestamp(
+            long timestamp, @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce(coalescingKey("drills?updatedAfter=" + timestamp,
+                        validators),
+                () -> apiDao.getDrillsUpdatedAfterTimestamp(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators), timestamp));
+    }
+
+    /**
+     * Get an observable for the API call to stream all Drills from the server. Wrap a successful
+     * body in a {@link DrillDtoStream} to read it.
+     *
+     * @return                          Observable streamed response body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<ResponseBody>> streamAllDrills()
+            throws IllegalArgumentException {
+        return streamAllDrills(null);
+    }
+
+    /**
+     * Conditional version of {@link #streamAllDrills()}.
+     *
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable streamed response body. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<ResponseBody>> streamAllDrills(@Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return apiDao.streamAllDrills(HttpValidators.etagOf(validators),
+                HttpValidators.lastModifiedOf(validators));
+    }
+
+    /**
+     * Get an observable for the API call to stream all Drills from the server updated after the
+     * given timestamp. Wrap a successful body in a {@link DrillDtoStream} to read it.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @return                          Observable streamed response body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<ResponseBody>> streamAllDrillsUpdatedAfterTimestamp(long timestamp)
+            throws IllegalArgumentException {
+        return streamAllDrillsUpdatedAfterTimestamp(timestamp, null);
+    }
+
+    /**
+     * Conditional version of {@link #streamAllDrillsUpdatedAfterTimestamp(long)}.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable streamed response body. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<ResponseBody>> streamAllDrillsUpdatedAfterTimestamp(
+            long timestamp, @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
 
-        return apiDao.getDrillsUpdatedAfterTimestamp(jwtHeader, timestamp);
+        return apiDao.streamDrillsUpdatedAfterTimestamp(HttpValidators.etagOf(validators),
+                HttpValidators.lastModifiedOf(validators), timestamp);
+    }
+
+    /**
+     * Get an observable for the API call to retrieve a page of Drills from the server.
+     * <br><br>
+     * A 404 Not Found for the first page means the server does not support paging, see
+     * {@link #hasDrillPages()}. For a later page it means the server no longer knows the page
+     * token, such as after it restarted, so the pages have to be started over.
+     *
+     * @param timestamp                 Only get Drills updated after this timestamp of millis
+     *                                  since epoch in UTC, or null for all Drills.
+     * @param pageToken                 Token of the page to get, from the previous page, or null
+     *                                  for the first page.
+     * @param pageSize                  Maximum number of Drills in the page.
+     * @param validators                Validators of the last kept first page, or null for an
+     *                                  unconditional request.
+     * @return                          Observable page of DrillDTO objects. May be 304 Not
+     *                                  Modified or 204 No Content with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<DrillPageDTO>> getDrillPage(@Nullable Long timestamp,
+                                                           @Nullable String pageToken,
+                                                           int pageSize,
+                                                           @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return apiDao.getDrillPage(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators), timestamp, pageToken, pageSize)
+                .doOnNext(response -> {
+                    if (null == pageToken
+                            && HttpsURLConnection.HTTP_NOT_FOUND == response.code()) {
+                        // Older server
+                        drillPagesMissing = true;
+                    }
+                });
+    }
+
+    /**
+     * Check if the server may support {@link #getDrillPage}. Assumed so until it replies 404.
+     *
+     * @return  false if the server is known to not support paging.
+     */
+    public boolean hasDrillPages() {
+        return !drillPagesMissing;
+    }
+
+    /**
+     * Get an observable for the API call to retrieve the server IDs of the Drills, Categories and
+     * SubCategories deleted after a timestamp.
+     * <br><br>
+     * A 404 Not Found means the server does not keep track of deletions, see
+     * {@link #hasDeletedIds()} and {@link #getAllIds}.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @return                          Observable ServerIdsDTO. May be 204 No Content with no
+     *                                  body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<ServerIdsDTO>> getDeletedIdsAfterTimestamp(long timestamp)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce("deleted?updatedAfter=" + timestamp,
+                () -> apiDao.getDeletedIdsSinceTimestamp(timestamp)
+                        .doOnNext(response -> {
+                            if (HttpsURLConnection.HTTP_NOT_FOUND == response.code()) {
+                                // Older server
+                                deletedIdsMissing = true;
+                            }
+                        }));
+    }
+
+    /**
+     * Check if the server may support {@link #getDeletedIdsAfterTimestamp}. Assumed so until it
+     * replies 404.
+     *
+     * @return  false if the server is known to not keep track of deletions.
+     */
+    public boolean hasDeletedIds() {
+        return !deletedIdsMissing;
+    }
+
+    /**
+     * Get an observable for the API call to retrieve the server IDs of every Drill, Category and
+     * SubCategory the server currently has, to find what it has deleted when it does not keep
+     * track of deletions.
+     *
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable ServerIdsDTO. May be 304 Not Modified with no
+     *                                  body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<ServerIdsDTO>> getAllIds(@Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce(coalescingKey("ids", validators),
+                () -> apiDao.getAllIds(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators)));
     }
 
     /**
@@ -92,30 +330,61 @@ public class ApiRepo {
      */
     public Observable<Response<List<CategoryDTO>>> getAllCategories()
             throws IllegalArgumentException {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
-        }
-        String jwtHeader = "jwt=" + jwt;
+        return getAllCategories(null);
+    }
 
-        return apiDao.getAllCategories(jwtHeader);
+    /**
+     * Conditional version of {@link #getAllCategories()}.
+     *
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable List of CategoryDTO objects. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<List<CategoryDTO>>> getAllCategories(
+            @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce(coalescingKey("categories", validators),
+                () -> apiDao.getAllCategories(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators)));
     }
 
     /**
      * Get an observable for the API call to retrieve all Categories from the server updated after
      * the given timestamp.
      *
-     * @param timestamp Timestamp of millis since epoch in UTC.
-     * @return          Observable List of CategoryDTO objects.
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @return                          Observable List of CategoryDTO objects.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
      */
-    public Observable<Response<List<CategoryDTO>>> getAllCategoriesUpdatedAfterTimestamp(long timestamp) {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
-        }
-        String jwtHeader = "jwt=" + jwt;
+    public Observable<Response<List<CategoryDTO>>> getAllCategoriesUpdatedAfterTimestamp(long timestamp)
+            throws IllegalArgumentException {
+        return getAllCategoriesUpdatedAfterTimestamp(timestamp, null);
+    }
 
-        return apiDao.getCategoriesUpdatedAfterTimestamp(jwtHeader, timestamp);
+    /**
+     * Conditional version of {@link #getAllCategoriesUpdatedAfterTimestamp(long)}.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable List of CategoryDTO objects. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<List<CategoryDTO>>> getAllCategoriesUpdatedAfterTimestamp(
+            long timestamp, @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce(coalescingKey("categories?updatedAfter=" + timestamp,
+                        validators),
+                () -> apiDao.getCategoriesUpdatedAfterTimestamp(
+                        HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators), timestamp));
     }
 
     /**
@@ -126,34 +395,136 @@ public class ApiRepo {
      */
     public Observable<Response<List<SubCategoryDTO>>> getAllSubCategories()
             throws IllegalArgumentException {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
-        }
-        String jwtHeader = "jwt=" + jwt;
+        return getAllSubCategories(null);
+    }
+
+    /**
+     * Conditional version of {@link #getAllSubCategories()}.
+     *
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable List of SubCategoryDTO objects. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<List<SubCategoryDTO>>> getAllSubCategories(
+            @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
 
-        return apiDao.getAllSubCategories(jwtHeader);
+        return requestCoalescer.coalesce(coalescingKey("sub_categories", validators),
+                () -> apiDao.getAllSubCategories(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators)));
     }
 
     /**
      * Get an observable for the API call to retrieve all SubCategories from the server updated
      * after the given timestamp.
      *
-     * @param timestamp Timestamp of millis since epoch in UTC.
-     * @return          Observable List of SubCategoryDTO objects.
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @return                          Observable List of SubCategoryDTO objects.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
      */
-    public Observable<Response<List<SubCategoryDTO>>> getAllSubCategoriesUpdatedAfterTimestamp(long timestamp) {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
-        }
-        String jwtHeader = "jwt=" + jwt;
+    public Observable<Response<List<SubCategoryDTO>>> getAllSubCategoriesUpdatedAfterTimestamp(long timestamp)
+            throws IllegalArgumentException {
+        return getAllSubCategoriesUpdatedAfterTimestamp(timestamp, null);
+    }
+
+    /**
+     * Conditional version of {@link #getAllSubCategoriesUpdatedAfterTimestamp(long)}.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @param validators                Validators of the last kept response, or null for an
+     *                                  unconditional request.
+     * @return                          Observable List of SubCategoryDTO objects. May be 304 Not
+     *                                  Modified with no body.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Response<List<SubCategoryDTO>>> getAllSubCategoriesUpdatedAfterTimestamp(
+            long timestamp, @Nullable HttpValidators validators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce(
+                coalescingKey("sub_categories?updatedAfter=" + timestamp, validators),
+                () -> apiDao.getSubCategoriesUpdatedAfterTimestamp(
+                        HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators), timestamp));
+    }
+
+    /**
+     * Check if any Drills, Categories or SubCategories were updated after the given timestamp,
+     * without downloading them.
+     * <br><br>
+     * All three are checked at once through the server's api/changes endpoint. If the server does
+     * not have it (404), a HEAD request is made for each of the update endpoints instead, in
+     * parallel, and the missing endpoint is not asked for again.
+     *
+     * @param timestamp                 Timestamp of millis since epoch in UTC.
+     * @param drillValidators           Validators of the last kept Drill update response, or null.
+     * @param categoryValidators        Validators of the last kept Category update response, or
+     *                                  null.
+     * @param subCategoryValidators     Validators of the last kept SubCategory update response, or
+     *                                  null.
+     * @return                          Observable true if anything has changed.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<Boolean> hasChangesAfterTimestamp(
+            long timestamp, @Nullable HttpValidators drillValidators,
+            @Nullable HttpValidators categoryValidators,
+            @Nullable HttpValidators subCategoryValidators)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        return requestCoalescer.coalesce("changes?updatedAfter=" + timestamp, () -> {
+            /*
+            Built in here so coalesced callers share it too. The call adapter is synchronous, so
+            each request needs its own IO thread to actually run in parallel.
+             */
+            Observable<Boolean> headRequests = Observable.zip(
+                    apiDao.headDrillsUpdatedAfterTimestamp(HttpValidators.etagOf(drillValidators),
+                                    HttpValidators.lastModifiedOf(drillValidators), timestamp)
+                            .subscribeOn(Schedulers.io()),
+                    apiDao.headCategoriesUpdatedAfterTimestamp(
+                                    HttpValidators.etagOf(categoryValidators),
+                                    HttpValidators.lastModifiedOf(categoryValidators), timestamp)
+                            .subscribeOn(Schedulers.io()),
+                    apiDao.headSubCategoriesUpdatedAfterTimestamp(
+                                    HttpValidators.etagOf(subCategoryValidators),
+                                    HttpValidators.lastModifiedOf(subCategoryValidators),
+                                    timestamp)
+                            .subscribeOn(Schedulers.io()),
+                    (drills, categories, subCategories) -> hasChanges(drills)
+                            || hasChanges(categories)
+                            || hasChanges(subCategories));
 
-        return apiDao.getSubCategoriesUpdatedAfterTimestamp(jwtHeader, timestamp);
+            if (changesEndpointMissing) {
+                return headRequests;
+            }
+
+            return apiDao.getChangesSinceTimestamp(timestamp)
+                    .flatMap(response -> {
+                        ChangesDTO changes = response.body();
+                        if (HttpsURLConnection.HTTP_NOT_FOUND == response.code()) {
+                            // Older server
+                            changesEndpointMissing = true;
+                            return headRequests;
+                        } else if (!response.isSuccessful() || null == changes) {
+                            throw new HttpException(response);
+                        }
+
+                        return Observable.just(changes.hasChanges());
+                    });
+        });
     }
 
     /**
      * Get an observable for the API call to retrieve a Drill by its server ID.
+     * <br><br>
+     * Recently retrieved drills are kept in the {@link DrillDtoCache}. If the drill is cached, the
+     * request is made conditional and a 304 Not Modified is answered from the cache. If the drill
+     * is already being retrieved, by this or by {@link #getDrillsByIds(List)}, that request is
+     * shared. The returned DrillDTO may be shared, so do not modify it.
      *
      * @param serverDrillId             Drill's server ID.
      * @return                          Observable DrillDTO.
@@ -161,13 +532,60 @@ public class ApiRepo {
      */
     public Observable<DrillDTO> getDrill(@NonNull Long serverDrillId)
             throws IllegalArgumentException {
-        String jwt = sharedPrefs.getJwt();
-        if (jwt.isEmpty()) {
-            throw new IllegalArgumentException("No login credentials");
+        requireLogin();
+
+        // Everything happens inside the shared request, so concurrent callers only cache once
+        return requestCoalescer.coalesce(VALIDATOR_KEY_DRILL + serverDrillId,
+                () -> fetchDrill(serverDrillId));
+    }
+
+    /**
+     * Get an observable for the API calls to retrieve many Drills by their server IDs.
+     * <br><br>
+     * The IDs are requested in batches of at most {@link #MAX_DRILL_BATCH_SIZE}, one batch at a
+     * time. If the server does not have the batch endpoint (404), each Drill is retrieved with
+     * {@link #getDrill(Long)} instead, at most {@link #MAX_PARALLEL_DRILL_FETCHES} at once, and the
+     * missing endpoint is not asked for again. Drills already being retrieved by
+     * {@link #getDrill(Long)} are shared rather than asked for again, and while a batch is in
+     * flight, getDrill shares it for the drills in it. Retrieved drills are kept in the
+     * {@link DrillDtoCache}. The returned DrillDTOs may be shared, so do not modify them.
+     *
+     * @param serverDrillIds            Drills' server IDs. Duplicates are only retrieved once.
+     * @return                          Observable List of DrillDTO objects, in the order of
+     *                                  serverDrillIds. Drills the server does not have are left
+     *                                  out.
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    public Observable<List<DrillDTO>> getDrillsByIds(@NonNull List<Long> serverDrillIds)
+            throws IllegalArgumentException {
+        requireLogin();
+
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(serverDrillIds));
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < uniqueIds.size(); i += MAX_DRILL_BATCH_SIZE) {
+            batches.add(uniqueIds.subList(i,
+                    Math.min(uniqueIds.size(), i + MAX_DRILL_BATCH_SIZE)));
         }
-        String jwtHeader = "jwt=" + jwt;
 
-        return apiDao.getDrillById(jwtHeader, serverDrillId);
+        return Observable.fromIterable(batches)
+                .concatMap(this::getDrillBatch)
+                .toList()
+                .map(drills -> {
+                    // Neither the server nor the parallel fallback keep the order
+                    Map<Long, DrillDTO> drillsById = new HashMap<>();
+                    for (DrillDTO drill : drills) {
+                        drillsById.put(drill.getId(), drill);
+                    }
+                    List<DrillDTO> ret = new ArrayList<>(drillsById.size());
+                    for (Long serverDrillId : uniqueIds) {
+                        DrillDTO drill = drillsById.get(serverDrillId);
+                        if (null != drill) {
+                            ret.add(drill);
+                        }
+                    }
+                    return ret;
+                })
+                .toObservable();
     }
 
     /**
@@ -185,16 +603,234 @@ public class ApiRepo {
     }
 
     /**
-     * Create a Map containing the necessary headers for API access.
+     * Create a Map containing the necessary headers for API access. The JWT is not included, it
+     * is attached by the shared OkHttpClient's {@link AuthInterceptor}.
      *
-     * @param jwt   String JWT.
-     * @return      Map containing the headers.
+     * @return  Map containing the headers.
      */
     @NonNull
-    public static Map<String, String> getHeaders(@NonNull String jwt) {
+    public static Map<String, String> getHeaders() {
         return Map.of(
-                "Content-Type", "application/json",
-                "Cookie", "jwt=" + jwt
+                "Content-Type", "application/json"
         );
     }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Fail early if the user has not logged in. Expiry is checked by {@link AuthInterceptor}.
+     *
+     * @throws IllegalArgumentException Thrown if {@link SharedPrefs#getJwt()} is empty.
+     */
+    private void requireLogin() throws IllegalArgumentException {
+        if (!authTokenHolder.hasToken()) {
+            throw new IllegalArgumentException("No login credentials");
+        }
+    }
+
+    /**
+     * Make the request for a single Drill, not shared with anyone, see {@link #getDrill(Long)}.
+     *
+     * @param serverDrillId Drill's server ID.
+     * @return              Observable DrillDTO.
+     */
+    private Observable<DrillDTO> fetchDrill(@NonNull Long serverDrillId) {
+        String validatorKey = VALIDATOR_KEY_DRILL + serverDrillId;
+        DrillDTO cachedDrill = drillDtoCache.get(serverDrillId);
+        // Without the body a 304 would be useless, so only make it conditional if cached
+        HttpValidators validators = null == cachedDrill
+                ? null
+                : validatorStore.get(validatorKey, "");
+
+        return apiDao.getDrillById(HttpValidators.etagOf(validators),
+                        HttpValidators.lastModifiedOf(validators), serverDrillId)
+                .map(response -> {
+                    if (HttpsURLConnection.HTTP_NOT_MODIFIED == response.code()
+                            && null != cachedDrill) {
+                        return cachedDrill;
+                    }
+
+                    DrillDTO drill = response.body();
+                    if (!response.isSuccessful() || null == drill) {
+                        throw new HttpException(response);
+                    }
+
+                    drillDtoCache.put(serverDrillId, drill);
+                    validatorStore.put(validatorKey, "", HttpValidators.fromResponse(response));
+                    return drill;
+                });
+    }
+
+    /**
+     * Retrieve one batch of {@link #getDrillsByIds}, falling back to single requests if the
+     * server does not have the batch endpoint.
+     * <br><br>
+     * Each Drill goes through the {@link RequestCoalescer} under the same key as
+     * {@link #getDrill(Long)}, so the two share requests either way.
+     *
+     * @param serverDrillIds    At most {@link #MAX_DRILL_BATCH_SIZE} unique server IDs.
+     * @return                  Observable of each DrillDTO the server has, in any order.
+     */
+    private Observable<DrillDTO> getDrillBatch(@NonNull List<Long> serverDrillIds) {
+        if (drillBatchesMissing) {
+            return getDrillsOneByOne(serverDrillIds, this::getDrill);
+        }
+
+        return Observable.defer(() -> {
+            List<Long> toRequest = new ArrayList<>();
+            for (Long serverDrillId : serverDrillIds) {
+                if (!requestCoalescer.isInFlight(VALIDATOR_KEY_DRILL + serverDrillId)) {
+                    toRequest.add(serverDrillId);
+                }
+            }
+
+            ConnectableObservable<Map<Long, DrillDTO>> batchRequest =
+                    requestDrillBatch(toRequest).replay(1);
+            List<Observable<DrillDTO>> drills = new ArrayList<>(serverDrillIds.size());
+            for (Long serverDrillId : serverDrillIds) {
+                drills.add(requestCoalescer.coalesce(VALIDATOR_KEY_DRILL + serverDrillId,
+                                () -> batchRequest.flatMap(drillsById -> getDrillFromBatch(
+                                        serverDrillId, drillsById, toRequest)))
+                        .onErrorResumeNext(ApiRepo::leaveOutIfNotFound));
+            }
+
+            /*
+            Every drill subscribes before the batch is started, so a getDrill() for one of them
+            made while the batch is in flight shares it. The call adapter is synchronous, so the
+            batch is made on the subscribing thread when connected.
+             */
+            return Observable.merge(drills)
+                    .mergeWith(Completable.fromAction(batchRequest::connect));
+        });
+    }
+
+    /**
+     * Get one Drill of a batch retrieved by {@link #getDrillBatch(List)}.
+     *
+     * @param serverDrillId     Drill's server ID.
+     * @param drillsById        Drills the batch retrieved, by server ID.
+     * @param requestedIds      Server IDs the batch asked for.
+     * @return                  Observable DrillDTO, or an HttpException for 404 Not Found if the
+     *                          server does not have it, same as {@link #getDrill(Long)}.
+     */
+    private Observable<DrillDTO> getDrillFromBatch(@NonNull Long serverDrillId,
+                                                   @NonNull Map<Long, DrillDTO> drillsById,
+                                                   @NonNull List<Long> requestedIds) {
+        DrillDTO drill = drillsById.get(serverDrillId);
+        if (null != drill) {
+            return Observable.just(drill);
+        } else if (!requestedIds.contains(serverDrillId)) {
+            // Left out as it was in flight, but that request finished before it could be shared
+            return fetchDrill(serverDrillId);
+        }
+
+        return Observable.error(new HttpException(Response.error(
+                HttpsURLConnection.HTTP_NOT_FOUND, ResponseBody.create("", null))));
+    }
+
+    /**
+     * Make the request for a batch of Drills, not shared with anyone, see
+     * {@link #getDrillBatch(List)}.
+     *
+     * @param serverDrillIds    At most {@link #MAX_DRILL_BATCH_SIZE} unique server IDs.
+     * @return                  Observable Map of each DrillDTO the server has, by server ID.
+     */
+    private Observable<Map<Long, DrillDTO>> requestDrillBatch(@NonNull List<Long> serverDrillIds) {
+        if (serverDrillIds.isEmpty()) {
+            return Observable.just(Map.of());
+        }
+
+        return apiDao.getDrillsByIds(serverDrillIds)
+                .flatMap(response -> {
+                    List<DrillDTO> drills = response.body();
+                    if (HttpsURLConnection.HTTP_NOT_FOUND == response.code()) {
+                        // Older server. These IDs are already in flight under getDrill()'s keys,
+                        // so requests made for them here must not be shared again.
+                        drillBatchesMissing = true;
+                        return getDrillsOneByOne(serverDrillIds, this::fetchDrill).toList()
+                                .toObservable();
+                    } else if (!response.isSuccessful() || null == drills) {
+                        throw new HttpException(response);
+                    }
+
+                    for (DrillDTO drill : drills) {
+                        drillDtoCache.put(drill.getId(), drill);
+                    }
+                    return Observable.just(drills);
+                })
+                .map(drills -> {
+                    Map<Long, DrillDTO> drillsById = new HashMap<>();
+                    for (DrillDTO drill : drills) {
+                        drillsById.put(drill.getId(), drill);
+                    }
+                    return drillsById;
+                });
+    }
+
+    /**
+     * Retrieve Drills one request each, a few at a time.
+     *
+     * @param serverDrillIds    Unique server IDs.
+     * @param getDrill          Makes the request for a single Drill.
+     * @return                  Observable of each DrillDTO the server has, in any order.
+     */
+    private Observable<DrillDTO> getDrillsOneByOne(
+            @NonNull List<Long> serverDrillIds,
+            @NonNull Function<Long, Observable<DrillDTO>> getDrill) {
+        return Observable.fromIterable(serverDrillIds)
+                .flatMap(serverDrillId -> getDrill.apply(serverDrillId)
+                                .subscribeOn(Schedulers.io())
+                                .onErrorResumeNext(ApiRepo::leaveOutIfNotFound),
+                        MAX_PARALLEL_DRILL_FETCHES);
+    }
+
+    /**
+     * Error handler for retrieving many Drills, leaving out any the server does not have, as the
+     * batch endpoint does.
+     *
+     * @param throwable Error of retrieving one Drill.
+     * @return          Empty Observable if it was a 404 Not Found, otherwise the error.
+     */
+    private static Observable<DrillDTO> leaveOutIfNotFound(@NonNull Throwable throwable) {
+        if (throwable instanceof HttpException
+                && HttpsURLConnection.HTTP_NOT_FOUND == ((HttpException) throwable).code()) {
+            return Observable.empty();
+        }
+        return Observable.error(throwable);
+    }
+
+    /**
+     * Check the response to one of the HEAD update requests.
+     *
+     * @param response          Response.
+     * @return                  true if there are changes.
+     * @throws HttpException    Thrown if the request failed.
+     */
+    private static boolean hasChanges(@NonNull Response<Void> response) throws HttpException {
+        if (HttpsURLConnection.HTTP_NOT_MODIFIED == response.code()) {
+            // Same changes as we already have
+            return false;
+        } else if (!response.isSuccessful()) {
+            throw new HttpException(response);
+        }
+
+        // 204 No Content when there are no changes
+        return HttpsURLConnection.HTTP_OK == response.code();
+    }
+
+    /**
+     * Create the {@link RequestCoalescer} key of a conditional request.
+     *
+     * @param request       Endpoint and query parameters of the request.
+     * @param validators    Validators the request is made with, if any.
+     * @return              Coalescing key.
+     */
+    @NonNull
+    private static String coalescingKey(@NonNull String request,
+                                        @Nullable HttpValidators validators) {
+        return request
+                + "|" + HttpValidators.etagOf(validators)
+                + "|" + HttpValidators.lastModifiedOf(validators);
+    }
 }
@@ -0,0 +1,104 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * OkHttp interceptor that attaches the login JWT to every request to our server, other than
+ * logging in itself.
+ * <br><br>
+ * If the JWT has already expired the request is not sent at all, instead a 401 Unauthorized is
+ * returned straight away, same as the server would. Requests that already have a Cookie header, or
+ * made while not logged in, are passed through untouched.
+ */
+/* package-private */ class AuthInterceptor implements Interceptor {
+    private static final String HEADER_COOKIE = "Cookie";
+    /** Path segment of {@link AuthDao}'s endpoints */
+    private static final String AUTHENTICATE_PATH_SEGMENT = "authenticate";
+
+    private final AuthTokenHolder authTokenHolder;
+    @Nullable
+    private final String serverHost;
+
+    /**
+     * Constructor.
+     *
+     * @param authTokenHolder   AuthTokenHolder.
+     * @param serverUrl         URL of our server, the JWT is only sent to its host.
+     */
+    /* package-private */ AuthInterceptor(@NonNull AuthTokenHolder authTokenHolder,
+                                          @NonNull String serverUrl) {
+        this.authTokenHolder = authTokenHolder;
+        HttpUrl url = HttpUrl.parse(serverUrl);
+        this.serverHost = null == url ? null : url.host();
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!request.url().host().equals(serverHost)
+                || request.url().pathSegments().contains(AUTHENTICATE_PATH_SEGMENT)
+                || null != request.header(HEADER_COOKIE)) {
+            return chain.proceed(request);
+        }
+
+        AuthTokenHolder.AuthToken token = authTokenHolder.getToken();
+        if (null == token) {
+            // Not logged in, let the server decide
+            return chain.proceed(request);
+        }
+
+        if (token.isExpired(System.currentTimeMillis())) {
+            // No point making the round trip, the server would reject it
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(HttpsURLConnection.HTTP_UNAUTHORIZED)
+                    .message("Login expired")
+                    .body(ResponseBody.create("", null))
+                    .build();
+        }
+
+        return chain.proceed(request.newBuilder()
+                .header(HEADER_COOKIE, token.getCookieHeader())
+                .build());
+    }
+}
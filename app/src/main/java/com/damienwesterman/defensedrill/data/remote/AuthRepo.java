@@ -53,13 +53,27 @@ public class AuthRepo {
     private final Context applicationContext;
     private final SharedPrefs sharedPrefs;
     private final AuthDao authDao;
+    private final HttpValidatorStore validatorStore;
 
     @Inject
     /* package-private */ AuthRepo(@ApplicationContext Context applicationContext,
-                                   SharedPrefs sharedPrefs, AuthDao authDao) {
+                                   SharedPrefs sharedPrefs, AuthDao authDao,
+                                   HttpValidatorStore validatorStore) {
         this.applicationContext = applicationContext;
         this.sharedPrefs = sharedPrefs;
         this.authDao = authDao;
+        this.validatorStore = validatorStore;
+    }
+
+    /**
+     * Log out, forgetting the JWT and anything else kept for the logged in user.
+     * <br><br>
+     * Writes to disk, do not call from the main thread.
+     */
+    public void logout() {
+        sharedPrefs.setJwt("");
+        // Another login may not be allowed to see the same responses
+        validatorStore.clear();
     }
 
     /**
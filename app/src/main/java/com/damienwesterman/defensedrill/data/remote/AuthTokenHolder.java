@@ -0,0 +1,158 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.data.local.SharedPrefs;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Holds the parsed login JWT in memory, so that requests do not have to re-parse it or rebuild
+ * their auth header.
+ * <br><br>
+ * The JWT itself is owned by {@link SharedPrefs}, which keeps it decrypted in memory. Whenever
+ * {@link SharedPrefs#setJwt(String)} changes it, the next {@link #getToken()} notices and parses
+ * the new one.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class AuthTokenHolder {
+    private static final String TAG = AuthTokenHolder.class.getSimpleName();
+    /** Treat tokens as expired a little early, so they do not expire on the way to the server */
+    private static final long EXPIRY_SKEW_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final Gson GSON = new Gson();
+
+    /**
+     * A parsed JWT.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class AuthToken {
+        /** Expiry time when the JWT does not have one we can read, the server will decide */
+        public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+        @NonNull
+        private final String jwt;
+        /** Value for the Cookie header */
+        @NonNull
+        private final String cookieHeader;
+        /** Expiry time in millis since epoch, or {@link #NO_EXPIRY} */
+        private final long expiresAtMillis;
+
+        /**
+         * Check if the token has expired, or is about to.
+         *
+         * @param nowMillis Current time in millis since epoch.
+         * @return          true if the token should no longer be used.
+         */
+        public boolean isExpired(long nowMillis) {
+            return NO_EXPIRY != expiresAtMillis
+                    && nowMillis + EXPIRY_SKEW_MILLIS >= expiresAtMillis;
+        }
+
+        /**
+         * Parse a JWT. Only the expiry claim is read, the signature is left to the server.
+         *
+         * @param jwt   Non-empty JWT.
+         * @return      AuthToken.
+         */
+        @NonNull
+        /* package-private */ static AuthToken parse(@NonNull String jwt) {
+            return new AuthToken(jwt, "jwt=" + jwt, parseExpiresAtMillis(jwt));
+        }
+
+        private static long parseExpiresAtMillis(@NonNull String jwt) {
+            String[] parts = jwt.split("\\.");
+            if (3 != parts.length) {
+                Log.w(TAG, "JWT does not have 3 parts, cannot read its expiry");
+                return NO_EXPIRY;
+            }
+
+            try {
+                String payload = new String(Base64.getUrlDecoder().decode(parts[1]),
+                        StandardCharsets.UTF_8);
+                JsonObject claims = GSON.fromJson(payload, JsonObject.class);
+                if (null == claims || !claims.has("exp")) {
+                    return NO_EXPIRY;
+                }
+                // exp is in seconds since epoch
+                return TimeUnit.SECONDS.toMillis(claims.get("exp").getAsLong());
+            } catch (RuntimeException e) {
+                // Bad Base64 or JSON, should not happen with a JWT from our server
+                Log.w(TAG, "Could not read the JWT's expiry", e);
+                return NO_EXPIRY;
+            }
+        }
+    }
+
+    private final SharedPrefs sharedPrefs;
+    @Nullable
+    private volatile AuthToken token = null;
+
+    /**
+     * Get the current login token.
+     *
+     * @return  AuthToken, or null if the user is not logged in. May be expired.
+     */
+    @Nullable
+    public AuthToken getToken() {
+        String jwt = sharedPrefs.getJwt();
+        if (jwt.isEmpty()) {
+            return null;
+        }
+
+        AuthToken cachedToken = token;
+        // Usually the very same String instance, so this is cheap
+        if (null == cachedToken || !jwt.equals(cachedToken.getJwt())) {
+            cachedToken = AuthToken.parse(jwt);
+            token = cachedToken;
+        }
+
+        return cachedToken;
+    }
+
+    /**
+     * Check if the user is logged in. Does not check expiry.
+     *
+     * @return  true if there is a login token.
+     */
+    public boolean hasToken() {
+        return !sharedPrefs.getJwt().isEmpty();
+    }
+}
@@ -0,0 +1,321 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+
+import okio.BufferedSource;
+
+/**
+ * Minimal streaming reader for CBOR (RFC 8949), just enough for {@link CompactDrillPageDecoder}.
+ * <br><br>
+ * Supports integers, text strings, arrays and maps, of definite or indefinite length, and null.
+ * Tags are ignored, and anything else (byte strings, floats, other simple values) can only be
+ * skipped. Items are read straight from the source, nothing is buffered beyond what okio already
+ * has.
+ */
+/* package-private */ class CborReader {
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+    private static final int MAJOR_SIMPLE = 7;
+
+    private static final int INFO_ONE_BYTE = 24;
+    private static final int INFO_TWO_BYTES = 25;
+    private static final int INFO_FOUR_BYTES = 26;
+    private static final int INFO_EIGHT_BYTES = 27;
+    private static final int INFO_INDEFINITE = 31;
+
+    private static final int SIMPLE_NULL = 22;
+    private static final int SIMPLE_UNDEFINED = 23;
+    private static final int BREAK = 0xFF;
+    /** Length returned for indefinite length items */
+    private static final long INDEFINITE = -1;
+
+    /**
+     * Reads one item of an array.
+     */
+    /* package-private */ interface ItemReader {
+        void read() throws IOException;
+    }
+
+    /**
+     * Reads the value of one map entry.
+     */
+    /* package-private */ interface EntryReader {
+        /**
+         * @param key   Integer key of the entry. Entries with any other kind of key, or a larger
+         *              key, are skipped.
+         */
+        void read(int key) throws IOException;
+    }
+
+    private final BufferedSource source;
+
+    /* package-private */ CborReader(@NonNull BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Check if the next item is null, or undefined.
+     */
+    /* package-private */ boolean peekNull() throws IOException {
+        skipTags();
+        int initialByte = peekInitialByte();
+        return (MAJOR_SIMPLE << 5 | SIMPLE_NULL) == initialByte
+                || (MAJOR_SIMPLE << 5 | SIMPLE_UNDEFINED) == initialByte;
+    }
+
+    /**
+     * Check if the next item is a text string.
+     */
+    /* package-private */ boolean peekString() throws IOException {
+        skipTags();
+        return MAJOR_TEXT == peekInitialByte() >>> 5;
+    }
+
+    /**
+     * Read an integer.
+     */
+    /* package-private */ long readLong() throws IOException {
+        skipTags();
+        int initialByte = readInitialByte();
+        int majorType = initialByte >>> 5;
+        long value = readArgument(initialByte);
+        if (MAJOR_UNSIGNED == majorType) {
+            return value;
+        } else if (MAJOR_NEGATIVE == majorType) {
+            return -1 - value;
+        }
+        throw new ProtocolException("Expected an integer, got major type " + majorType);
+    }
+
+    /**
+     * Read a text string, or null.
+     */
+    @Nullable
+    /* package-private */ String readNullableString() throws IOException {
+        if (peekNull()) {
+            source.skip(1);
+            return null;
+        }
+        return readString();
+    }
+
+    /**
+     * Read a text string.
+     */
+    @NonNull
+    /* package-private */ String readString() throws IOException {
+        skipTags();
+        int initialByte = readInitialByte();
+        requireMajorType(initialByte, MAJOR_TEXT);
+        long length = readArgument(initialByte);
+        if (INDEFINITE != length) {
+            return source.readUtf8(length);
+        }
+
+        // Chunks of definite length text, until a break
+        StringBuilder ret = new StringBuilder();
+        while (BREAK != peekInitialByte()) {
+            int chunkByte = readInitialByte();
+            requireMajorType(chunkByte, MAJOR_TEXT);
+            long chunkLength = readArgument(chunkByte);
+            if (INDEFINITE == chunkLength) {
+                throw new ProtocolException("Nested indefinite length text");
+            }
+            ret.append(source.readUtf8(chunkLength));
+        }
+        source.skip(1);
+        return ret.toString();
+    }
+
+    /**
+     * Read an array, calling itemReader once per item. itemReader must consume exactly one item.
+     */
+    /* package-private */ void readArray(@NonNull ItemReader itemReader) throws IOException {
+        skipTags();
+        int initialByte = readInitialByte();
+        requireMajorType(initialByte, MAJOR_ARRAY);
+        long size = readArgument(initialByte);
+        if (INDEFINITE == size) {
+            while (BREAK != peekInitialByte()) {
+                itemReader.read();
+            }
+            source.skip(1);
+        } else {
+            for (long i = 0; i < size; i++) {
+                itemReader.read();
+            }
+        }
+    }
+
+    /**
+     * Read a map with integer keys, calling entryReader once per entry. entryReader must consume
+     * exactly one item, the value, and should {@link #skip()} it for unknown keys.
+     */
+    /* package-private */ void readMap(@NonNull EntryReader entryReader) throws IOException {
+        skipTags();
+        int initialByte = readInitialByte();
+        requireMajorType(initialByte, MAJOR_MAP);
+        long size = readArgument(initialByte);
+        if (INDEFINITE == size) {
+            while (BREAK != peekInitialByte()) {
+                readEntry(entryReader);
+            }
+            source.skip(1);
+        } else {
+            for (long i = 0; i < size; i++) {
+                readEntry(entryReader);
+            }
+        }
+    }
+
+    /**
+     * Skip the next item, whatever it is, including everything nested in it.
+     */
+    /* package-private */ void skip() throws IOException {
+        skipTags();
+        int initialByte = readInitialByte();
+        int majorType = initialByte >>> 5;
+        long argument = readArgument(initialByte);
+
+        switch (majorType) {
+            case MAJOR_BYTES:
+            case MAJOR_TEXT:
+                if (INDEFINITE == argument) {
+                    skipUntilBreak();
+                } else {
+                    source.skip(argument);
+                }
+                break;
+            case MAJOR_ARRAY:
+            case MAJOR_MAP:
+                long items = MAJOR_MAP == majorType ? 2 * argument : argument;
+                if (INDEFINITE == argument) {
+                    skipUntilBreak();
+                } else {
+                    for (long i = 0; i < items; i++) {
+                        skip();
+                    }
+                }
+                break;
+            default:
+                // Integers and simple values are entirely in their head
+                break;
+        }
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    private void readEntry(@NonNull EntryReader entryReader) throws IOException {
+        skipTags();
+        if (MAJOR_UNSIGNED == peekInitialByte() >>> 5) {
+            long key = readLong();
+            if (Integer.MAX_VALUE >= key) {
+                entryReader.read((int) key);
+                return;
+            }
+        } else {
+            skip();
+        }
+        skip();
+    }
+
+    private void skipUntilBreak() throws IOException {
+        while (BREAK != peekInitialByte()) {
+            skip();
+        }
+        source.skip(1);
+    }
+
+    private void skipTags() throws IOException {
+        while (MAJOR_TAG == peekInitialByte() >>> 5) {
+            readArgument(readInitialByte());
+        }
+    }
+
+    private int peekInitialByte() throws IOException {
+        source.require(1);
+        return source.getBuffer().getByte(0) & 0xFF;
+    }
+
+    private int readInitialByte() throws IOException {
+        return source.readByte() & 0xFF;
+    }
+
+    /**
+     * Read the argument following an initial byte: a value, length or count.
+     *
+     * @return  The argument, or {@link #INDEFINITE}.
+     */
+    private long readArgument(int initialByte) throws IOException {
+        int info = initialByte & 0x1F;
+        if (INFO_ONE_BYTE > info) {
+            return info;
+        }
+
+        switch (info) {
+            case INFO_ONE_BYTE:
+                return source.readByte() & 0xFFL;
+            case INFO_TWO_BYTES:
+                return source.readShort() & 0xFFFFL;
+            case INFO_FOUR_BYTES:
+                return source.readInt() & 0xFFFFFFFFL;
+            case INFO_EIGHT_BYTES:
+                long value = source.readLong();
+                if (0 > value) {
+                    throw new ProtocolException("Argument too large");
+                }
+                return value;
+            case INFO_INDEFINITE:
+                int majorType = initialByte >>> 5;
+                if (MAJOR_BYTES > majorType || MAJOR_MAP < majorType) {
+                    throw new ProtocolException("Unexpected break or indefinite length");
+                }
+                return INDEFINITE;
+            default:
+                throw new ProtocolException("Reserved additional info " + info);
+        }
+    }
+
+    private static void requireMajorType(int initialByte, int majorType) throws IOException {
+        if (majorType != initialByte >>> 5) {
+            throw new ProtocolException("Expected major type " + majorType + ", got "
+                    + (initialByte >>> 5));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for requests to our server, so that during an outage calls fail straight away
+ * rather than each waiting on timeouts and retries.
+ * <br><br>
+ * Starts {@link State#CLOSED}, letting everything through. After enough consecutive failures it
+ * trips {@link State#OPEN}, and no requests are let through for a while. After that it is
+ * {@link State#HALF_OPEN}, letting a single trial request through: if it succeeds the breaker
+ * closes again, if it fails the breaker opens again.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    @NonNull
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtMillis = 0;
+    private boolean trialInFlight = false;
+    private long timesOpened = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param failureThreshold  Number of consecutive failures that opens the breaker.
+     * @param openMillis        How long the breaker stays open before a trial request.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with a custom clock, for testing.
+     *
+     * @param failureThreshold  Number of consecutive failures that opens the breaker.
+     * @param openMillis        How long the breaker stays open before a trial request.
+     * @param clock             Supplier of the current time in millis.
+     */
+    /* package-private */ CircuitBreaker(int failureThreshold, long openMillis,
+                                         @NonNull LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Check if a request may be made. If this returns true, the outcome must then be reported
+     * through exactly one of the record methods.
+     *
+     * @return  true if the request may be made, false if it should fail fast.
+     */
+    /* package-private */ synchronized boolean tryAcquire() {
+        if (State.OPEN == state) {
+            if (clock.getAsLong() - openedAtMillis < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+
+        if (State.HALF_OPEN == state) {
+            if (trialInFlight) {
+                // Only one trial at a time, the rest wait for its outcome
+                return false;
+            }
+            trialInFlight = true;
+        }
+
+        return true;
+    }
+
+    /**
+     * Record that the server answered a request, even if with a client error.
+     */
+    /* package-private */ synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Record that a request failed because of the server or the network.
+     */
+    /* package-private */ synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (State.HALF_OPEN == state || failureThreshold <= consecutiveFailures) {
+            if (State.OPEN != state) {
+                timesOpened++;
+            }
+            state = State.OPEN;
+            openedAtMillis = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Record that a request was canceled before its outcome was known.
+     */
+    /* package-private */ synchronized void recordCanceled() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Get how much longer the breaker stays open.
+     *
+     * @return  Millis until a trial request is let through, 0 if not open.
+     */
+    /* package-private */ synchronized long getRemainingOpenMillis() {
+        if (State.OPEN != state) {
+            return 0;
+        }
+        return Math.max(0, openedAtMillis + openMillis - clock.getAsLong());
+    }
+
+    @NonNull
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Get the number of times the breaker has tripped open.
+     */
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "circuit breaker state=%s consecutiveFailures=%d "
+                        + "timesOpened=%d remainingOpenMillis=%d",
+                state, consecutiveFailures, timesOpened, getRemainingOpenMillis());
+    }
+}
@@ -0,0 +1,79 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit converter for {@link DrillPageDTO} responses that decodes the compact binary form (see
+ * {@link CompactDrillPageDecoder}) when the server chose to send it, and hands anything else to the
+ * next converter, so JSON keeps working with servers that do not support it.
+ * <br><br>
+ * Must be added before the Gson converter, which would otherwise claim DrillPageDTO.
+ */
+/* package-private */ class CompactDrillPageConverterFactory extends Converter.Factory {
+    /**
+     * Accept header for requests that may get a compact response. JSON is still accepted, but
+     * preferred less.
+     */
+    /* package-private */ static final String ACCEPT_HEADER =
+            "Accept: " + CompactDrillPageDecoder.MEDIA_TYPE_NAME + ", application/json;q=0.9";
+
+    @Nullable
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type,
+                                                            @NonNull Annotation[] annotations,
+                                                            @NonNull Retrofit retrofit) {
+        if (DrillPageDTO.class != type) {
+            return null;
+        }
+
+        Converter<ResponseBody, DrillPageDTO> nextConverter =
+                retrofit.nextResponseBodyConverter(this, type, annotations);
+        return body -> {
+            if (!CompactDrillPageDecoder.isCompact(body.contentType())) {
+                return nextConverter.convert(body);
+            }
+
+            try {
+                return CompactDrillPageDecoder.decode(body.source());
+            } finally {
+                body.close();
+            }
+        };
+    }
+}
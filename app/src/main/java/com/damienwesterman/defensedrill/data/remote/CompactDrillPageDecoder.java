@@ -0,0 +1,331 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.InstructionsDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.RelatedDrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.MediaType;
+import okio.BufferedSource;
+
+/**
+ * Decodes the compact binary form of a {@link DrillPageDTO}, which servers may send instead of
+ * JSON when asked for {@link #MEDIA_TYPE}.
+ * <br><br>
+ * The page is CBOR, with small integer keys in place of field names. Categories and sub-categories
+ * are sent once per page in dictionaries, and drills reference them by server ID. Instruction
+ * steps may be sent once in a string table, and referenced by their index in it:
+ * <pre>
+ * page         = { 0: [* category], 1: [* category], 2: [* drill], ? 3: text / null,
+ *                  ? 4: [* text] }
+ *                  (categories, sub-categories, drills, next page token, string table)
+ * category     = { 0: id, 1: name, 2: description }
+ * drill        = { 0: id, 1: name, 2: [* category id], 3: [* sub-category id],
+ *                  4: [* instructions], 5: [* related drill] }
+ * instructions = { 0: description, 1: [* text / string table index], ? 2: video id / null }
+ * related      = { 0: id, 1: name }
+ * </pre>
+ * Unknown keys are skipped, and missing lists are left empty. Decoded drills share their category
+ * and sub-category DTOs.
+ */
+/* package-private */ class CompactDrillPageDecoder {
+    /** Versioned, a new schema gets a new media type */
+    /* package-private */ static final String MEDIA_TYPE_NAME =
+            "application/vnd.defensedrill.drill-page.v1+cbor";
+    /* package-private */ static final MediaType MEDIA_TYPE = MediaType.get(MEDIA_TYPE_NAME);
+
+    // Keys of each map
+    private static final int PAGE_CATEGORIES = 0;
+    private static final int PAGE_SUB_CATEGORIES = 1;
+    private static final int PAGE_DRILLS = 2;
+    private static final int PAGE_NEXT_PAGE_TOKEN = 3;
+    private static final int PAGE_STRINGS = 4;
+    private static final int CATEGORY_ID = 0;
+    private static final int CATEGORY_NAME = 1;
+    private static final int CATEGORY_DESCRIPTION = 2;
+    private static final int DRILL_ID = 0;
+    private static final int DRILL_NAME = 1;
+    private static final int DRILL_CATEGORY_IDS = 2;
+    private static final int DRILL_SUB_CATEGORY_IDS = 3;
+    private static final int DRILL_INSTRUCTIONS = 4;
+    private static final int DRILL_RELATED_DRILLS = 5;
+    private static final int INSTRUCTIONS_DESCRIPTION = 0;
+    private static final int INSTRUCTIONS_STEPS = 1;
+    private static final int INSTRUCTIONS_VIDEO_ID = 2;
+    private static final int RELATED_DRILL_ID = 0;
+    private static final int RELATED_DRILL_NAME = 1;
+
+    private interface Setter<T> {
+        void set(T value);
+    }
+
+    /**
+     * A drill whose category references, and string table references, are not resolved yet, as
+     * the dictionaries may come after the drills.
+     */
+    private static class PendingDrill {
+        private final DrillDTO drill = new DrillDTO(null, null, new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        private final List<Long> categoryIds = new ArrayList<>();
+        private final List<Long> subCategoryIds = new ArrayList<>();
+        /** Steps of each instructions, either a String or a Long string table index */
+        private final List<List<Object>> steps = new ArrayList<>();
+    }
+
+    private final CborReader reader;
+    private final Map<Long, CategoryDTO> categories = new HashMap<>();
+    private final Map<Long, SubCategoryDTO> subCategories = new HashMap<>();
+    private final List<PendingDrill> drills = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+    private String nextPageToken = null;
+
+    private CompactDrillPageDecoder(@NonNull BufferedSource source) {
+        this.reader = new CborReader(source);
+    }
+
+    /**
+     * Check if a response body is in the compact form.
+     *
+     * @param contentType   Content-Type of the response body.
+     * @return              true if it should be decoded with {@link #decode(BufferedSource)}.
+     */
+    /* package-private */ static boolean isCompact(MediaType contentType) {
+        return null != contentType
+                && MEDIA_TYPE.type().equals(contentType.type())
+                && MEDIA_TYPE.subtype().equals(contentType.subtype());
+    }
+
+    /**
+     * Decode a page of drills.
+     *
+     * @param source        Source of the compact page, read to the end of the page.
+     * @return              DrillPageDTO, same as if it was sent as JSON.
+     * @throws IOException  If the source could not be read or is malformed.
+     */
+    @NonNull
+    /* package-private */ static DrillPageDTO decode(@NonNull BufferedSource source)
+            throws IOException {
+        return new CompactDrillPageDecoder(source).decodePage();
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    @NonNull
+    private DrillPageDTO decodePage() throws IOException {
+        reader.readMap(key -> {
+            switch (key) {
+                case PAGE_CATEGORIES:
+                    reader.readArray(() -> {
+                        CategoryDTO category = new CategoryDTO();
+                        readCategory(category::setId, category::setName, category::setDescription);
+                        categories.put(category.getId(), category);
+                    });
+                    break;
+                case PAGE_SUB_CATEGORIES:
+                    reader.readArray(() -> {
+                        SubCategoryDTO subCategory = new SubCategoryDTO();
+                        readCategory(subCategory::setId, subCategory::setName,
+                                subCategory::setDescription);
+                        subCategories.put(subCategory.getId(), subCategory);
+                    });
+                    break;
+                case PAGE_DRILLS:
+                    reader.readArray(() -> drills.add(readDrill()));
+                    break;
+                case PAGE_NEXT_PAGE_TOKEN:
+                    nextPageToken = reader.readNullableString();
+                    break;
+                case PAGE_STRINGS:
+                    reader.readArray(() -> strings.add(reader.readString()));
+                    break;
+                default:
+                    reader.skip();
+            }
+        });
+
+        List<DrillDTO> ret = new ArrayList<>(drills.size());
+        for (PendingDrill pending : drills) {
+            ret.add(resolve(pending));
+        }
+        return new DrillPageDTO(ret, nextPageToken);
+    }
+
+    private void readCategory(@NonNull Setter<Long> id, @NonNull Setter<String> name,
+                              @NonNull Setter<String> description) throws IOException {
+        reader.readMap(key -> {
+            switch (key) {
+                case CATEGORY_ID:
+                    id.set(reader.readLong());
+                    break;
+                case CATEGORY_NAME:
+                    name.set(reader.readString());
+                    break;
+                case CATEGORY_DESCRIPTION:
+                    description.set(reader.readString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        });
+    }
+
+    @NonNull
+    private PendingDrill readDrill() throws IOException {
+        PendingDrill pending = new PendingDrill();
+        DrillDTO drill = pending.drill;
+        reader.readMap(key -> {
+            switch (key) {
+                case DRILL_ID:
+                    drill.setId(reader.readLong());
+                    break;
+                case DRILL_NAME:
+                    drill.setName(reader.readString());
+                    break;
+                case DRILL_CATEGORY_IDS:
+                    reader.readArray(() -> pending.categoryIds.add(reader.readLong()));
+                    break;
+                case DRILL_SUB_CATEGORY_IDS:
+                    reader.readArray(() -> pending.subCategoryIds.add(reader.readLong()));
+                    break;
+                case DRILL_INSTRUCTIONS:
+                    reader.readArray(() -> drill.getInstructions().add(readInstructions(pending)));
+                    break;
+                case DRILL_RELATED_DRILLS:
+                    reader.readArray(() -> drill.getRelatedDrills().add(readRelatedDrill()));
+                    break;
+                default:
+                    reader.skip();
+            }
+        });
+        return pending;
+    }
+
+    @NonNull
+    private InstructionsDTO readInstructions(@NonNull PendingDrill pending) throws IOException {
+        InstructionsDTO instructions = new InstructionsDTO(null, new ArrayList<>(), null);
+        List<Object> steps = new ArrayList<>();
+        pending.steps.add(steps);
+        reader.readMap(key -> {
+            switch (key) {
+                case INSTRUCTIONS_DESCRIPTION:
+                    instructions.setDescription(reader.readString());
+                    break;
+                case INSTRUCTIONS_STEPS:
+                    reader.readArray(() -> {
+                        if (reader.peekNull()) {
+                            reader.skip();
+                        } else {
+                            steps.add(readStringOrIndex());
+                        }
+                    });
+                    break;
+                case INSTRUCTIONS_VIDEO_ID:
+                    instructions.setVideoId(reader.readNullableString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        });
+        return instructions;
+    }
+
+    @NonNull
+    private RelatedDrillDTO readRelatedDrill() throws IOException {
+        RelatedDrillDTO relatedDrill = new RelatedDrillDTO();
+        reader.readMap(key -> {
+            switch (key) {
+                case RELATED_DRILL_ID:
+                    relatedDrill.setId(reader.readLong());
+                    break;
+                case RELATED_DRILL_NAME:
+                    relatedDrill.setName(reader.readString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        });
+        return relatedDrill;
+    }
+
+    /**
+     * Read a text string, or an unsigned string table index as a Long.
+     */
+    @NonNull
+    private Object readStringOrIndex() throws IOException {
+        return reader.peekString() ? reader.readString() : (Object) reader.readLong();
+    }
+
+    @NonNull
+    private DrillDTO resolve(@NonNull PendingDrill pending) throws IOException {
+        DrillDTO drill = pending.drill;
+        for (long categoryId : pending.categoryIds) {
+            drill.getCategories().add(lookUp(categories, categoryId, "category"));
+        }
+        for (long subCategoryId : pending.subCategoryIds) {
+            drill.getSubCategories().add(lookUp(subCategories, subCategoryId, "sub-category"));
+        }
+        for (int i = 0; i < pending.steps.size(); i++) {
+            List<String> resolvedSteps = drill.getInstructions().get(i).getSteps();
+            for (Object step : pending.steps.get(i)) {
+                if (step instanceof String) {
+                    resolvedSteps.add((String) step);
+                } else {
+                    long index = (Long) step;
+                    if (0 > index || strings.size() <= index) {
+                        throw new ProtocolException("Unknown string " + index);
+                    }
+                    resolvedSteps.add(strings.get((int) index));
+                }
+            }
+        }
+        return drill;
+    }
+
+    @NonNull
+    private static <T> T lookUp(@NonNull Map<Long, T> dictionary, long id, @NonNull String type)
+            throws ProtocolException {
+        T ret = dictionary.get(id);
+        if (null == ret) {
+            throw new ProtocolException("Unknown " + type + " " + id);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,103 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.common.TrimmableCache;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU cache of full {@link DrillDTO}s by server ID, so that a 304 Not Modified from
+ * {@link ApiRepo#getDrill(Long)} can be answered from memory.
+ */
+public class DrillDtoCache implements TrimmableCache {
+    private static final int MAX_ENTRIES = 50;
+    /** Rough per object overhead used for size estimates */
+    private static final long ESTIMATED_BASE_BYTES = 512;
+    private static final long ESTIMATED_BYTES_PER_LINK = 256;
+
+    private final LinkedHashMap<Long, DrillDTO> drills =
+            new LinkedHashMap<Long, DrillDTO>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, DrillDTO> eldest) {
+                    return MAX_ENTRIES < size();
+                }
+            };
+
+    @Nullable
+    public synchronized DrillDTO get(@NonNull Long serverDrillId) {
+        return drills.get(serverDrillId);
+    }
+
+    public synchronized void put(@NonNull Long serverDrillId, @NonNull DrillDTO drill) {
+        drills.put(serverDrillId, drill);
+    }
+
+    public synchronized void remove(@NonNull Long serverDrillId) {
+        drills.remove(serverDrillId);
+    }
+
+    @Override
+    public synchronized long getEstimatedSizeBytes() {
+        long size = 0;
+        for (DrillDTO drill : drills.values()) {
+            size += ESTIMATED_BASE_BYTES;
+            // Gson leaves fields the server left out null, despite the annotations
+            if (null != drill.getInstructions()) {
+                size += ESTIMATED_BYTES_PER_LINK * drill.getInstructions().size();
+            }
+            if (null != drill.getRelatedDrills()) {
+                size += ESTIMATED_BYTES_PER_LINK * drill.getRelatedDrills().size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        drills.clear();
+    }
+
+    /**
+     * Drop the least recently used half of the cache.
+     */
+    @Override
+    public synchronized void trim() {
+        int toRemove = drills.size() / 2;
+        Iterator<Long> iterator = drills.keySet().iterator();
+        while (0 < toRemove-- && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
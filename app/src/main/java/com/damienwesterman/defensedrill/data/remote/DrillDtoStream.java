@@ -0,0 +1,162 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DtoTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Reads a JSON array of drills from a streamed response body a chunk at a time, so only one chunk
+ * of {@link DrillDTO}s (with their instructions and related drills) is ever held in memory no
+ * matter how large the server's library is. Can also wrap an already parsed page of drills, so
+ * they can be saved the same way.
+ * <br><br>
+ * Must be closed once done with, to release the underlying connection.
+ */
+public class DrillDtoStream implements Closeable {
+    private static final Gson GSON = DtoTypeAdapterFactory.createGson();
+
+    @Nullable
+    private final ResponseBody body;
+    /** Already parsed drills, instead of a body */
+    @Nullable
+    private final Iterator<DrillDTO> parsedDrills;
+    @Nullable
+    private JsonReader reader;
+    private boolean finished;
+
+    private DrillDtoStream(@Nullable ResponseBody body, @Nullable Iterator<DrillDTO> parsedDrills) {
+        this.body = body;
+        this.parsedDrills = parsedDrills;
+        this.reader = null;
+        this.finished = null == body && null == parsedDrills;
+    }
+
+    /**
+     * Create a stream over a response body containing a JSON array of drills.
+     *
+     * @param body  Response body, now owned by the returned stream.
+     * @return      DrillDtoStream.
+     */
+    @NonNull
+    public static DrillDtoStream of(@NonNull ResponseBody body) {
+        return new DrillDtoStream(body, null);
+    }
+
+    /**
+     * Create a stream over an already parsed list of drills, such as a page of them.
+     *
+     * @param drills    List of drills.
+     * @return          DrillDtoStream.
+     */
+    @NonNull
+    public static DrillDtoStream of(@NonNull List<DrillDTO> drills) {
+        return new DrillDtoStream(null, drills.iterator());
+    }
+
+    /**
+     * Create a stream without any drills, such as for a response with no content.
+     *
+     * @return  DrillDtoStream.
+     */
+    @NonNull
+    public static DrillDtoStream empty() {
+        return new DrillDtoStream(null, null);
+    }
+
+    /**
+     * Read up to the next maxDrills drills. Blocks until enough of the body has arrived.
+     *
+     * @param maxDrills     Maximum number of drills to return.
+     * @return              Mutable list of drills, empty once the end of the array is reached.
+     * @throws IOException  If the body could not be read or is malformed.
+     */
+    @NonNull
+    public List<DrillDTO> readChunk(int maxDrills) throws IOException {
+        List<DrillDTO> ret = new ArrayList<>(Math.min(maxDrills, 256));
+        if (finished) {
+            return ret;
+        }
+
+        if (null != parsedDrills) {
+            while (ret.size() < maxDrills && parsedDrills.hasNext()) {
+                ret.add(parsedDrills.next());
+            }
+            finished = !parsedDrills.hasNext();
+            return ret;
+        } else if (null == body) {
+            return ret;
+        }
+
+        if (null == reader) {
+            reader = new JsonReader(body.charStream());
+            if (JsonToken.NULL == reader.peek()) {
+                reader.nextNull();
+                finished = true;
+                return ret;
+            }
+            reader.beginArray();
+        }
+
+        while (ret.size() < maxDrills && reader.hasNext()) {
+            DrillDTO drill = GSON.fromJson(reader, DrillDTO.class);
+            if (null != drill) {
+                ret.add(drill);
+            }
+        }
+
+        if (!reader.hasNext()) {
+            reader.endArray();
+            finished = true;
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        if (null != body) {
+            // Also closes the reader's underlying stream
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Persists {@link HttpValidators} so that conditional requests survive app restarts.
+ * <br><br>
+ * Validators are stored under a key chosen by the caller, one per endpoint or per resource (such
+ * as a single drill). A key holds validators for a single variant of the request (such as its
+ * query parameters) at a time, so storage does not grow as those parameters change. Callers should
+ * only store validators once they have actually kept the response's contents, otherwise a later
+ * 304 would make them miss data.
+ * <br><br>
+ * Per resource keys are never removed by the server, so at most {@link #MAX_KEYS} keys are kept,
+ * and the least recently stored are dropped to make room.
+ */
+public class HttpValidatorStore {
+    private static final String SHARED_PREFERENCES = "defense_drill_http_validators";
+    private static final String SUFFIX_VARIANT = ".variant";
+    private static final String SUFFIX_ETAG = ".etag";
+    private static final String SUFFIX_LAST_MODIFIED = ".last_modified";
+    /** Time (millis since epoch) the key was last stored, for dropping the oldest */
+    private static final String SUFFIX_STORED_AT = ".stored_at";
+    /* package-private */ static final int MAX_KEYS = 200;
+
+    private final SharedPreferences sharedPrefs;
+
+    public HttpValidatorStore(@NonNull Context applicationContext) {
+        this(applicationContext.getSharedPreferences(SHARED_PREFERENCES, Context.MODE_PRIVATE));
+    }
+
+    /* package-private */ HttpValidatorStore(@NonNull SharedPreferences sharedPrefs) {
+        this.sharedPrefs = sharedPrefs;
+    }
+
+    /**
+     * Get the stored validators for a request.
+     *
+     * @param key       Key of the endpoint or resource.
+     * @param variant   Variant of the request, such as its query parameters.
+     * @return          HttpValidators, or null if none are stored for this key and variant.
+     */
+    @Nullable
+    public HttpValidators get(@NonNull String key, @NonNull String variant) {
+        if (!Objects.equals(variant, sharedPrefs.getString(key + SUFFIX_VARIANT, null))) {
+            return null;
+        }
+
+        String etag = sharedPrefs.getString(key + SUFFIX_ETAG, null);
+        String lastModified = sharedPrefs.getString(key + SUFFIX_LAST_MODIFIED, null);
+        if (null == etag && null == lastModified) {
+            return null;
+        }
+
+        return new HttpValidators(etag, lastModified);
+    }
+
+    /**
+     * Store the validators for a request, replacing any for the key.
+     *
+     * @param key           Key of the endpoint or resource.
+     * @param variant       Variant of the request, such as its query parameters.
+     * @param validators    Validators to store. If null, the key is removed.
+     * @return              true if the change was written.
+     */
+    public boolean put(@NonNull String key, @NonNull String variant,
+                       @Nullable HttpValidators validators) {
+        if (null == validators) {
+            return remove(key);
+        }
+
+        boolean isNewKey = !sharedPrefs.contains(key + SUFFIX_STORED_AT);
+        SharedPreferences.Editor editor = sharedPrefs.edit();
+        editor.putString(key + SUFFIX_VARIANT, variant);
+        editor.putString(key + SUFFIX_ETAG, validators.getEtag());
+        editor.putString(key + SUFFIX_LAST_MODIFIED, validators.getLastModified());
+        editor.putLong(key + SUFFIX_STORED_AT, System.currentTimeMillis());
+        boolean committed = editor.commit();
+
+        if (committed && isNewKey) {
+            removeOldestOverLimit();
+        }
+        return committed;
+    }
+
+    /**
+     * Remove the validators for a key.
+     *
+     * @param key   Key of the endpoint or resource.
+     * @return      true if the change was written.
+     */
+    public boolean remove(@NonNull String key) {
+        SharedPreferences.Editor editor = sharedPrefs.edit();
+        editor.remove(key + SUFFIX_VARIANT);
+        editor.remove(key + SUFFIX_ETAG);
+        editor.remove(key + SUFFIX_LAST_MODIFIED);
+        editor.remove(key + SUFFIX_STORED_AT);
+        return editor.commit();
+    }
+
+    /**
+     * Remove every stored validator, such as on logout.
+     *
+     * @return  true if the change was written.
+     */
+    public boolean clear() {
+        return sharedPrefs.edit().clear().commit();
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Remove the least recently stored keys until at most {@link #MAX_KEYS} are left.
+     */
+    private void removeOldestOverLimit() {
+        List<Map.Entry<String, ?>> storedAt = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : sharedPrefs.getAll().entrySet()) {
+            if (entry.getKey().endsWith(SUFFIX_STORED_AT) && entry.getValue() instanceof Long) {
+                storedAt.add(entry);
+            }
+        }
+        if (MAX_KEYS >= storedAt.size()) {
+            return;
+        }
+
+        storedAt.sort((a, b) -> Long.compare((Long) a.getValue(), (Long) b.getValue()));
+        SharedPreferences.Editor editor = sharedPrefs.edit();
+        for (Map.Entry<String, ?> entry : storedAt.subList(0, storedAt.size() - MAX_KEYS)) {
+            String key = entry.getKey()
+                    .substring(0, entry.getKey().length() - SUFFIX_STORED_AT.length());
+            editor.remove(key + SUFFIX_VARIANT);
+            editor.remove(key + SUFFIX_ETAG);
+            editor.remove(key + SUFFIX_LAST_MODIFIED);
+            editor.remove(key + SUFFIX_STORED_AT);
+        }
+        editor.apply();
+    }
+}
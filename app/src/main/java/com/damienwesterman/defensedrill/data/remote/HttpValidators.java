@@ -0,0 +1,88 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import retrofit2.Response;
+
+/**
+ * HTTP cache validators of a response, sent back on the next request for the same resource as
+ * If-None-Match/If-Modified-Since so the server can reply 304 Not Modified instead of the body.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class HttpValidators {
+    /* package-private */ static final String HEADER_ETAG = "ETag";
+    /* package-private */ static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    @Nullable
+    private final String etag;
+    @Nullable
+    private final String lastModified;
+
+    /**
+     * Extract the validators from a response.
+     *
+     * @param response  Response from the server.
+     * @return          HttpValidators, or null if the response did not have any.
+     */
+    @Nullable
+    public static HttpValidators fromResponse(@NonNull Response<?> response) {
+        String etag = response.headers().get(HEADER_ETAG);
+        String lastModified = response.headers().get(HEADER_LAST_MODIFIED);
+        if (null == etag && null == lastModified) {
+            return null;
+        }
+
+        return new HttpValidators(etag, lastModified);
+    }
+
+    /**
+     * Null safe version of {@link #getEtag()}, for passing straight into an If-None-Match header.
+     */
+    @Nullable
+    public static String etagOf(@Nullable HttpValidators validators) {
+        return null == validators ? null : validators.getEtag();
+    }
+
+    /**
+     * Null safe version of {@link #getLastModified()}, for passing straight into an
+     * If-Modified-Since header.
+     */
+    @Nullable
+    public static String lastModifiedOf(@Nullable HttpValidators validators) {
+        return null == validators ? null : validators.getLastModified();
+    }
+}
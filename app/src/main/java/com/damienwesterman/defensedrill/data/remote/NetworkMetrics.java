@@ -0,0 +1,479 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.common.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Lightweight instrumentation for the shared OkHttpClient, cheap enough to leave on in release
+ * builds.
+ * <br><br>
+ * Counts how many calls were made, how many of them had to open a new connection rather than
+ * reuse a pooled keep-alive one, and how the HTTP disk cache served them. Also counts the retries
+ * and short circuits of {@link RetryInterceptor}. A single instance is shared by every call, so
+ * everything is kept in atomics.
+ * <br><br>
+ * Installed as the client's {@link EventListener.Factory}, it also gives each call its own
+ * listener which breaks the call down into phases (DNS, connect, TLS, time to first byte and body
+ * download) and records them, along with bytes, connection reuse and cache use, per endpoint. See
+ * {@link #getEndpointStats()}.
+ */
+public class NetworkMetrics extends EventListener implements EventListener.Factory {
+    /** Endpoints past this many are all recorded together, in case of unexpected URLs */
+    private static final int MAX_ENDPOINTS = 64;
+    private static final String OTHER_ENDPOINT = "other";
+    /** Replaces path segments that look like IDs in endpoint names */
+    private static final String ID_SEGMENT = "{id}";
+
+    /**
+     * Accumulated metrics for a single endpoint, such as "GET /api/drill/id/{id}".
+     */
+    @Getter
+    public static class EndpointStats {
+        @NonNull
+        private final String name;
+        /** Whole calls that completed, from start to the end of the response body */
+        @NonNull
+        private final LatencyHistogram callLatency = new LatencyHistogram();
+        @NonNull
+        private final LatencyHistogram dnsLatency = new LatencyHistogram();
+        /** TCP connect, including TLS */
+        @NonNull
+        private final LatencyHistogram connectLatency = new LatencyHistogram();
+        @NonNull
+        private final LatencyHistogram tlsLatency = new LatencyHistogram();
+        /** From sending the request headers to receiving the response headers */
+        @NonNull
+        private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+        /** Reading the response body */
+        @NonNull
+        private final LatencyHistogram bodyLatency = new LatencyHistogram();
+        private final AtomicLong callCount = new AtomicLong();
+        private final AtomicLong failedCallCount = new AtomicLong();
+        private final AtomicLong requestBodyBytes = new AtomicLong();
+        private final AtomicLong responseBodyBytes = new AtomicLong();
+        private final AtomicLong connectionsAcquired = new AtomicLong();
+        private final AtomicLong connectionsOpened = new AtomicLong();
+        private final AtomicLong cacheHits = new AtomicLong();
+        private final AtomicLong cacheConditionalHits = new AtomicLong();
+        private final AtomicLong cacheMisses = new AtomicLong();
+
+        private EndpointStats(@NonNull String name) {
+            this.name = name;
+        }
+
+        public long getConnectionsReused() {
+            return Math.max(0, connectionsAcquired.get() - connectionsOpened.get());
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + ": calls=" + callCount.get() + " failed=" + failedCallCount.get()
+                    + " bytes sent=" + requestBodyBytes.get()
+                    + " received=" + responseBodyBytes.get()
+                    + " connections acquired=" + connectionsAcquired.get()
+                    + " opened=" + connectionsOpened.get()
+                    + " cache hits=" + cacheHits.get()
+                    + " conditionalHits=" + cacheConditionalHits.get()
+                    + " misses=" + cacheMisses.get()
+                    + "\n  call " + callLatency
+                    + "\n  dns " + dnsLatency
+                    + "\n  connect " + connectLatency
+                    + "\n  tls " + tlsLatency
+                    + "\n  ttfb " + timeToFirstByte
+                    + "\n  body " + bodyLatency;
+        }
+    }
+
+    /**
+     * Listener for a single call, holding the start time of each phase in progress. OkHttp
+     * reports the events of a call one at a time, so none of this needs to be atomic. Events are
+     * passed on to the NetworkMetrics for the totals.
+     */
+    private class CallListener extends EventListener {
+        @NonNull
+        private final EndpointStats stats;
+        private long callStartNanos;
+        private long dnsStartNanos;
+        private long connectStartNanos;
+        private long secureConnectStartNanos;
+        private long requestHeadersStartNanos;
+        private long responseBodyStartNanos;
+
+        private CallListener(@NonNull EndpointStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            NetworkMetrics.this.callStart(call);
+            stats.callCount.incrementAndGet();
+            callStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            stats.callLatency.record(System.nanoTime() - callStartNanos);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            NetworkMetrics.this.callFailed(call, ioe);
+            stats.failedCallCount.incrementAndGet();
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+                           @NonNull List<InetAddress> inetAddressList) {
+            stats.dnsLatency.record(System.nanoTime() - dnsStartNanos);
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                                 @NonNull Proxy proxy) {
+            connectStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(@NonNull Call call) {
+            secureConnectStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+            stats.tlsLatency.record(System.nanoTime() - secureConnectStartNanos);
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                               @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            NetworkMetrics.this.connectEnd(call, inetSocketAddress, proxy, protocol);
+            stats.connectionsOpened.incrementAndGet();
+            stats.connectLatency.record(System.nanoTime() - connectStartNanos);
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            NetworkMetrics.this.connectionAcquired(call, connection);
+            stats.connectionsAcquired.incrementAndGet();
+        }
+
+        @Override
+        public void requestHeadersStart(@NonNull Call call) {
+            requestHeadersStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            stats.requestBodyBytes.addAndGet(byteCount);
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            stats.timeToFirstByte.record(System.nanoTime() - requestHeadersStartNanos);
+        }
+
+        @Override
+        public void responseBodyStart(@NonNull Call call) {
+            responseBodyStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            stats.bodyLatency.record(System.nanoTime() - responseBodyStartNanos);
+            stats.responseBodyBytes.addAndGet(byteCount);
+        }
+
+        @Override
+        public void cacheHit(@NonNull Call call, @NonNull Response response) {
+            NetworkMetrics.this.cacheHit(call, response);
+            stats.cacheHits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheConditionalHit(@NonNull Call call, @NonNull Response cachedResponse) {
+            NetworkMetrics.this.cacheConditionalHit(call, cachedResponse);
+            stats.cacheConditionalHits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheMiss(@NonNull Call call) {
+            NetworkMetrics.this.cacheMiss(call);
+            stats.cacheMisses.incrementAndGet();
+        }
+    }
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failedCallCount = new AtomicLong();
+    private final AtomicLong connectionsAcquired = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheConditionalHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retriesExhausted = new AtomicLong();
+    private final AtomicLong shortCircuits = new AtomicLong();
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    // =============================================================================================
+    // EventListener.Factory Methods
+    // =============================================================================================
+    @NonNull
+    @Override
+    public EventListener create(@NonNull Call call) {
+        return new CallListener(getStats(getEndpointName(call.request())));
+    }
+
+    // =============================================================================================
+    // EventListener Methods
+    // =============================================================================================
+    @Override
+    public void callStart(@NonNull Call call) {
+        callCount.incrementAndGet();
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        failedCallCount.incrementAndGet();
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        connectionsOpened.incrementAndGet();
+    }
+
+    @Override
+    public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+        connectionsAcquired.incrementAndGet();
+    }
+
+    @Override
+    public void cacheHit(@NonNull Call call, @NonNull Response response) {
+        cacheHits.incrementAndGet();
+    }
+
+    @Override
+    public void cacheConditionalHit(@NonNull Call call, @NonNull Response cachedResponse) {
+        cacheConditionalHits.incrementAndGet();
+    }
+
+    @Override
+    public void cacheMiss(@NonNull Call call) {
+        cacheMisses.incrementAndGet();
+    }
+
+    // =============================================================================================
+    // RetryInterceptor Methods
+    // =============================================================================================
+    /* package-private */ void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    /* package-private */ void recordRetriesExhausted() {
+        retriesExhausted.incrementAndGet();
+    }
+
+    /* package-private */ void recordShortCircuit() {
+        shortCircuits.incrementAndGet();
+    }
+
+    // =============================================================================================
+    // Public Methods
+    // =============================================================================================
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    public long getFailedCallCount() {
+        return failedCallCount.get();
+    }
+
+    /**
+     * Get the number of times a call was given a connection, new or pooled. Calls served entirely
+     * from the disk cache never acquire one.
+     */
+    public long getConnectionsAcquired() {
+        return connectionsAcquired.get();
+    }
+
+    /**
+     * Get the number of new connections opened (TCP, and TLS where applicable).
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    /**
+     * Get the number of times a call reused an already open connection from the pool.
+     */
+    public long getConnectionsReused() {
+        return Math.max(0, connectionsAcquired.get() - connectionsOpened.get());
+    }
+
+    /**
+     * Get the fraction of acquired connections that were reused, between 0 and 1.
+     */
+    public double getConnectionReuseRatio() {
+        long acquired = connectionsAcquired.get();
+        return 0 == acquired ? 0 : (double) getConnectionsReused() / acquired;
+    }
+
+    /**
+     * Get the number of calls answered from the disk cache without touching the network.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Get the number of calls answered from the disk cache after the server replied 304.
+     */
+    public long getCacheConditionalHits() {
+        return cacheConditionalHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Get the number of times a request was retried.
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Get the number of requests that still failed after every retry.
+     */
+    public long getRetriesExhausted() {
+        return retriesExhausted.get();
+    }
+
+    /**
+     * Get the number of requests failed straight away by the open {@link CircuitBreaker}.
+     */
+    public long getShortCircuits() {
+        return shortCircuits.get();
+    }
+
+    /**
+     * Get the accumulated metrics of every endpoint called so far. Only calls made while installed
+     * as the client's {@link EventListener.Factory} are broken down by endpoint.
+     *
+     * @return List of EndpointStats.
+     */
+    @NonNull
+    public List<EndpointStats> getEndpointStats() {
+        return new ArrayList<>(endpoints.values());
+    }
+
+    /**
+     * Get the name metrics of a request are recorded under: its method and path, with any path
+     * segment that contains a digit (drill IDs, video IDs) replaced by {@link #ID_SEGMENT}. The
+     * query is left out.
+     *
+     * @param request   Request.
+     * @return          Endpoint name, such as "GET /api/drill/id/{id}".
+     */
+    @NonNull
+    /* package-private */ static String getEndpointName(@NonNull Request request) {
+        StringBuilder name = new StringBuilder(request.method()).append(' ');
+        for (String segment : request.url().encodedPathSegments()) {
+            name.append('/').append(containsDigit(segment) ? ID_SEGMENT : segment);
+        }
+        return name.toString();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "calls=%d failed=%d connections acquired=%d opened=%d reused=%d (%.0f%%) "
+                        + "cache hits=%d conditionalHits=%d misses=%d "
+                        + "retries=%d exhausted=%d shortCircuits=%d",
+                getCallCount(), getFailedCallCount(), getConnectionsAcquired(),
+                getConnectionsOpened(), getConnectionsReused(), getConnectionReuseRatio() * 100,
+                getCacheHits(), getCacheConditionalHits(), getCacheMisses(),
+                getRetries(), getRetriesExhausted(), getShortCircuits());
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    @NonNull
+    private EndpointStats getStats(@NonNull String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        if (null == stats) {
+            if (MAX_ENDPOINTS <= endpoints.size()) {
+                endpoint = OTHER_ENDPOINT;
+            }
+            stats = endpoints.computeIfAbsent(endpoint, EndpointStats::new);
+        }
+
+        return stats;
+    }
+
+    private static boolean containsDigit(@NonNull String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -26,19 +26,29 @@
 
 package com.damienwesterman.defensedrill.data.remote;
 
+import android.content.Context;
 import android.util.Log;
 import android.webkit.URLUtil;
 
 import com.damienwesterman.defensedrill.data.local.SharedPrefs;
 import com.damienwesterman.defensedrill.common.Constants;
+import com.damienwesterman.defensedrill.data.remote.dto.DtoTypeAdapterFactory;
+import com.damienwesterman.defensedrill.manager.MemoryCacheManager;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
 import hu.akarnokd.rxjava3.retrofit.RxJava3CallAdapterFactory;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 import retrofit2.converter.scalars.ScalarsConverterFactory;
@@ -50,22 +60,104 @@ import retrofit2.converter.scalars.ScalarsConverterFactory;
 @InstallIn(SingletonComponent.class)
 public class RemoteDependenciesModule {
     private static final String TAG = RemoteDependenciesModule.class.getSimpleName();
+    private static final String HTTP_CACHE_DIRECTORY = "http_cache";
+    private static final long HTTP_CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_TIMEOUT_SECONDS = 30;
+    private static final long WRITE_TIMEOUT_SECONDS = 30;
+    private static final int MAX_RETRIES = 2;
+    private static final long RETRY_BASE_DELAY_MILLIS = 500;
+    private static final long RETRY_MAX_DELAY_MILLIS = 10_000;
+    private static final int CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_BREAKER_OPEN_SECONDS = 30;
+
+    @Provides
+    @Singleton
+    public static AuthTokenHolder getAuthTokenHolder(SharedPrefs sharedPrefs) {
+        return new AuthTokenHolder(sharedPrefs);
+    }
+
+    @Provides
+    @Singleton
+    public static NetworkMetrics getNetworkMetrics() {
+        return new NetworkMetrics();
+    }
+
+    @Provides
+    @Singleton
+    public static CircuitBreaker getCircuitBreaker() {
+        return new CircuitBreaker(CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                TimeUnit.SECONDS.toMillis(CIRCUIT_BREAKER_OPEN_SECONDS));
+    }
+
+    /*
+    Everything that talks to the server shares this client, and so its connection pool. OkHttp
+    already asks for gzip and transparently decompresses the response, as long as nobody sets
+    their own Accept-Encoding header. The disk cache is LRU, and only stores what the server's
+    Cache-Control headers allow. Retries sit inside the auth interceptor, so requests it answers
+    locally are never retried. NetworkMetrics gives every call, API or video, its own listener to
+    time it by endpoint.
+     */
+    @Provides
+    @Singleton
+    public static OkHttpClient getOkHttpClient(@ApplicationContext Context applicationContext,
+                                               NetworkMetrics networkMetrics,
+                                               AuthTokenHolder authTokenHolder,
+                                               CircuitBreaker circuitBreaker) {
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES,
+                        TimeUnit.MINUTES))
+                .cache(new Cache(new File(applicationContext.getCacheDir(), HTTP_CACHE_DIRECTORY),
+                        HTTP_CACHE_SIZE_BYTES))
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .eventListenerFactory(networkMetrics)
+                .addInterceptor(new AuthInterceptor(authTokenHolder, getServerUrl()))
+                .addInterceptor(new RetryInterceptor(circuitBreaker, networkMetrics,
+                        getServerUrl(), MAX_RETRIES, RETRY_BASE_DELAY_MILLIS,
+                        RETRY_MAX_DELAY_MILLIS))
+                .build();
+    }
 
     @Provides
-    // NOT Singleton, under normal use case this should be used about once per month
-    /* package-private */ static AuthDao getAuthDao() {
+    @Singleton
+    /* package-private */ static Retrofit getRetrofit(OkHttpClient okHttpClient) {
         return new Retrofit.Builder()
                 .baseUrl(getServerUrl())
+                .client(okHttpClient)
+                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+                .addConverterFactory(new CompactDrillPageConverterFactory())
                 .addConverterFactory(ScalarsConverterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build()
-                .create(AuthDao.class);
+                .addConverterFactory(
+                        GsonConverterFactory.create(DtoTypeAdapterFactory.createGson()))
+                .build();
+    }
+
+    @Provides
+    @Singleton
+    /* package-private */ static AuthDao getAuthDao(Retrofit retrofit) {
+        return retrofit.create(AuthDao.class);
+    }
+
+    @Provides
+    @Singleton
+    public static HttpValidatorStore getHttpValidatorStore(@ApplicationContext Context applicationContext) {
+        return new HttpValidatorStore(applicationContext);
     }
 
     @Provides
     @Singleton
-    public static ApiRepo getApiRepo(SharedPrefs sharedPrefs) {
-        return new ApiRepo(sharedPrefs, createApiDao());
+    public static ApiRepo getApiRepo(AuthTokenHolder authTokenHolder,
+                                     HttpValidatorStore validatorStore,
+                                     MemoryCacheManager memoryCacheManager, Retrofit retrofit) {
+        DrillDtoCache drillDtoCache = new DrillDtoCache();
+        memoryCacheManager.register("ApiRepo drills", MemoryCacheManager.Priority.MEDIUM,
+                drillDtoCache);
+        return new ApiRepo(authTokenHolder, retrofit.create(ApiDao.class), validatorStore,
+                drillDtoCache);
     }
 
     private static String getServerUrl() {
@@ -77,14 +169,4 @@ public class RemoteDependenciesModule {
 
         return serverUrl;
     }
-
-    private static ApiDao createApiDao() {
-        return new Retrofit.Builder()
-                .baseUrl(getServerUrl())
-                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
-                .addConverterFactory(ScalarsConverterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build()
-                .create(ApiDao.class);
-    }
 }
@@ -0,0 +1,117 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import io.reactivex.rxjava3.core.Observable;
+
+/**
+ * Coalesces identical concurrent requests into one.
+ * <br><br>
+ * The first subscriber for a key starts the request, anyone subscribing with the same key while it
+ * is still in flight shares it and is replayed its result. Once the request terminates, or every
+ * subscriber has disposed, the key is forgotten and the next subscriber starts a fresh request.
+ * Results are not cached beyond that.
+ * <br><br>
+ * Only use for requests whose results can safely be shared between subscribers, so not for
+ * streamed response bodies.
+ */
+/* package-private */ class RequestCoalescer {
+    private final Map<String, Observable<?>> inFlightRequests = new HashMap<>();
+
+    /**
+     * Get an Observable for a request that is shared with any identical request in flight at the
+     * time of subscription.
+     *
+     * @param key       Key identifying the request, including anything that changes the response.
+     * @param request   Supplier of the actual request, only called if none is in flight.
+     * @return          Observable, deferred until subscription.
+     * @param <T>       Type emitted by the request.
+     */
+    @NonNull
+    /* package-private */ <T> Observable<T> coalesce(@NonNull String key,
+                                                     @NonNull Supplier<Observable<T>> request) {
+        return Observable.defer(() -> getOrStartRequest(key, request));
+    }
+
+    /**
+     * Check if a request is currently in flight, so subscribing to it with
+     * {@link #coalesce(String, Supplier)} would share it rather than start a new one.
+     *
+     * @param key   Key identifying the request.
+     * @return      true if a request with this key is in flight.
+     */
+    /* package-private */ synchronized boolean isInFlight(@NonNull String key) {
+        return inFlightRequests.containsKey(key);
+    }
+
+    /**
+     * Get the number of requests currently in flight.
+     *
+     * @return  Number of in flight requests.
+     */
+    /* package-private */ synchronized int getInFlightCount() {
+        return inFlightRequests.size();
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    @NonNull
+    @SuppressWarnings("unchecked")
+    private synchronized <T> Observable<T> getOrStartRequest(
+            @NonNull String key, @NonNull Supplier<Observable<T>> request) {
+        Observable<?> inFlightRequest = inFlightRequests.get(key);
+        if (null != inFlightRequest) {
+            return (Observable<T>) inFlightRequest;
+        }
+
+        AtomicReference<Observable<T>> sharedRequest = new AtomicReference<>();
+        sharedRequest.set(request.get()
+                // Runs on termination, or once every subscriber has disposed
+                .doFinally(() -> removeRequest(key, sharedRequest.get()))
+                .replay(1)
+                .refCount());
+        inFlightRequests.put(key, sharedRequest.get());
+
+        return sharedRequest.get();
+    }
+
+    private synchronized void removeRequest(@NonNull String key,
+                                            @NonNull Observable<?> finishedRequest) {
+        // Only if a newer request has not already taken its place
+        if (finishedRequest == inFlightRequests.get(key)) {
+            inFlightRequests.remove(key);
+        }
+    }
+}
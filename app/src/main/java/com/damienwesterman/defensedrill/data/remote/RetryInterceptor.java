@@ -0,0 +1,251 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * OkHttp interceptor that makes requests to our server resilient to a slow or struggling server.
+ * <br><br>
+ * Idempotent requests (GET and HEAD) that fail with a network error, or with a status meaning the
+ * server is overloaded or temporarily down, are retried up to a limit. Between attempts it waits
+ * with exponential backoff and full jitter, or as long as the server's Retry-After header asks
+ * if it asks for no longer than the maximum backoff. Every attempt goes through a
+ * {@link CircuitBreaker}. While the breaker is open, requests are not sent at all. Instead a 503
+ * Service Unavailable is returned straight away, with a Retry-After of when the breaker will try
+ * again.
+ * <br><br>
+ * Backoff blocks the calling thread, which for us is always an IO thread.
+ */
+/* package-private */ class RetryInterceptor implements Interceptor {
+    /**
+     * Waits between attempts, replaceable for testing.
+     */
+    /* package-private */ interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD");
+    private static final Set<Integer> RETRYABLE_CODES = Set.of(
+            HttpsURLConnection.HTTP_CLIENT_TIMEOUT,
+            429, // Too Many Requests, no constant for it
+            HttpsURLConnection.HTTP_INTERNAL_ERROR,
+            HttpsURLConnection.HTTP_BAD_GATEWAY,
+            HttpsURLConnection.HTTP_UNAVAILABLE,
+            HttpsURLConnection.HTTP_GATEWAY_TIMEOUT);
+
+    private final CircuitBreaker circuitBreaker;
+    private final NetworkMetrics networkMetrics;
+    @Nullable
+    private final String serverHost;
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Sleeper sleeper;
+
+    /**
+     * Constructor.
+     *
+     * @param circuitBreaker    CircuitBreaker for our server.
+     * @param networkMetrics    NetworkMetrics to count retries in.
+     * @param serverUrl         URL of our server, only requests to its host are handled.
+     * @param maxRetries        Maximum number of retries after the first attempt.
+     * @param baseDelayMillis   Backoff before the first retry, doubled for each retry after.
+     * @param maxDelayMillis    Maximum backoff, and maximum Retry-After that is waited for.
+     */
+    /* package-private */ RetryInterceptor(@NonNull CircuitBreaker circuitBreaker,
+                                           @NonNull NetworkMetrics networkMetrics,
+                                           @NonNull String serverUrl, int maxRetries,
+                                           long baseDelayMillis, long maxDelayMillis) {
+        this(circuitBreaker, networkMetrics, serverUrl, maxRetries, baseDelayMillis,
+                maxDelayMillis, Thread::sleep);
+    }
+
+    /**
+     * Constructor with a custom Sleeper, for testing.
+     */
+    /* package-private */ RetryInterceptor(@NonNull CircuitBreaker circuitBreaker,
+                                           @NonNull NetworkMetrics networkMetrics,
+                                           @NonNull String serverUrl, int maxRetries,
+                                           long baseDelayMillis, long maxDelayMillis,
+                                           @NonNull Sleeper sleeper) {
+        this.circuitBreaker = circuitBreaker;
+        this.networkMetrics = networkMetrics;
+        HttpUrl url = HttpUrl.parse(serverUrl);
+        this.serverHost = null == url ? null : url.host();
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.sleeper = sleeper;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!request.url().host().equals(serverHost)) {
+            return chain.proceed(request);
+        }
+
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method());
+        for (int attempt = 0; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                networkMetrics.recordShortCircuit();
+                return serverUnavailable(request);
+            }
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    circuitBreaker.recordCanceled();
+                    throw e;
+                }
+
+                circuitBreaker.recordFailure();
+                if (!idempotent || !canRetry(attempt)) {
+                    throw e;
+                }
+                backOff(chain, attempt, null);
+                continue;
+            }
+
+            if (!RETRYABLE_CODES.contains(response.code())) {
+                circuitBreaker.recordSuccess();
+                return response;
+            }
+
+            circuitBreaker.recordFailure();
+            Long retryAfterMillis = getRetryAfterMillis(response);
+            if (!idempotent || !canRetry(attempt)
+                    || (null != retryAfterMillis && maxDelayMillis < retryAfterMillis)) {
+                return response;
+            }
+            response.close();
+            backOff(chain, attempt, retryAfterMillis);
+        }
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    private boolean canRetry(int attempt) {
+        if (maxRetries <= attempt) {
+            networkMetrics.recordRetriesExhausted();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Wait before the next attempt.
+     *
+     * @param chain             Interceptor chain, to check for cancellation.
+     * @param attempt           Attempt that just failed, starting at 0.
+     * @param retryAfterMillis  How long the server asked us to wait, if it did.
+     * @throws IOException      If the call is canceled or the thread interrupted while waiting.
+     */
+    private void backOff(@NonNull Chain chain, int attempt, @Nullable Long retryAfterMillis)
+            throws IOException {
+        long delayMillis;
+        if (null != retryAfterMillis) {
+            delayMillis = retryAfterMillis;
+        } else {
+            // Full jitter, so clients that failed together do not all retry together
+            long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 30));
+            delayMillis = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+
+        networkMetrics.recordRetry();
+        try {
+            sleeper.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+
+        if (chain.call().isCanceled()) {
+            throw new IOException("Canceled");
+        }
+    }
+
+    /**
+     * Get the server's Retry-After, either in seconds or as an HTTP date.
+     *
+     * @param response  Response.
+     * @return          Millis to wait, or null if there was no valid Retry-After.
+     */
+    @Nullable
+    private static Long getRetryAfterMillis(@NonNull Response response) {
+        String retryAfter = response.header(HEADER_RETRY_AFTER);
+        if (null == retryAfter) {
+            return null;
+        }
+
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            Date retryAt = response.headers().getDate(HEADER_RETRY_AFTER);
+            return null == retryAt
+                    ? null
+                    : Math.max(0, retryAt.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    @NonNull
+    private Response serverUnavailable(@NonNull Request request) {
+        long retryAfterSeconds = (long) Math.ceil(
+                circuitBreaker.getRemainingOpenMillis() / 1000.0);
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(HttpsURLConnection.HTTP_UNAVAILABLE)
+                .message("Server unavailable")
+                .header(HEADER_RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ResponseBody.create("", null))
+                .build();
+    }
+}
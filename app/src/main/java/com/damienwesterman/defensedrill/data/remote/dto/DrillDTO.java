@@ -30,6 +30,9 @@ import androidx.annotation.NonNull;
 
 import com.damienwesterman.defensedrill.data.local.CategoryEntity;
 import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.DrillInstructionsEntity;
+import com.damienwesterman.defensedrill.data.local.DrillNetworkLinks;
+import com.damienwesterman.defensedrill.data.local.RelatedDrillEntity;
 import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
 import com.google.gson.annotations.SerializedName;
 
@@ -38,6 +41,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -108,4 +112,50 @@ public class DrillDTO implements Serializable {
 
         return ret;
     }
+
+    /**
+     * Convert the DTO's instructions and related drills into their locally cached form.
+     *
+     * @param updatedAt Date (in milliseconds since epoch) the DTO was fetched from the server.
+     * @return          DrillNetworkLinks object.
+     */
+    @NonNull
+    public DrillNetworkLinks toNetworkLinks(long updatedAt) {
+        List<DrillInstructionsEntity> instructionsEntities = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            instructionsEntities.add(instructions.get(i).toEntity(id, i));
+        }
+
+        List<RelatedDrillEntity> relatedDrillEntities = new ArrayList<>(relatedDrills.size());
+        for (int i = 0; i < relatedDrills.size(); i++) {
+            relatedDrillEntities.add(relatedDrills.get(i).toEntity(id, i));
+        }
+
+        return new DrillNetworkLinks(id, updatedAt, instructionsEntities, relatedDrillEntities);
+    }
+
+    /**
+     * Create a DTO from locally cached instructions and related drills, so that it can be used
+     * the same as one fetched from the server. Categories and sub-categories are left empty.
+     *
+     * @param name          Name of the drill.
+     * @param networkLinks  Cached DrillNetworkLinks of the drill.
+     * @return              DrillDTO object.
+     */
+    @NonNull
+    public static DrillDTO fromNetworkLinks(@NonNull String name,
+                                            @NonNull DrillNetworkLinks networkLinks) {
+        return new DrillDTO(
+                networkLinks.getServerDrillId(),
+                name,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                networkLinks.getInstructions().stream()
+                        .map(InstructionsDTO::fromEntity)
+                        .collect(Collectors.toList()),
+                networkLinks.getRelatedDrills().stream()
+                        .map(RelatedDrillDTO::fromEntity)
+                        .collect(Collectors.toList())
+        );
+    }
 }
@@ -0,0 +1,609 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote.dto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand written streaming TypeAdapters for every DTO, so Gson never has to build or run its
+ * reflective adapters for them. Reflection is slow to set up on a cold start, and slow per field
+ * on large sync payloads.
+ * <br><br>
+ * The adapters behave the same as the reflective ones: unknown fields are skipped, missing or null
+ * fields are left null (or 0 for primitives), and nulls are not written. Field names must be kept
+ * in sync with the DTOs' {@code @SerializedName}s.
+ */
+public class DtoTypeAdapterFactory implements TypeAdapterFactory {
+    private static final TypeAdapter<CategoryDTO> CATEGORY = new CategoryAdapter();
+    private static final TypeAdapter<SubCategoryDTO> SUB_CATEGORY = new SubCategoryAdapter();
+    private static final TypeAdapter<InstructionsDTO> INSTRUCTIONS = new InstructionsAdapter();
+    private static final TypeAdapter<RelatedDrillDTO> RELATED_DRILL = new RelatedDrillAdapter();
+    private static final TypeAdapter<DrillDTO> DRILL = new DrillAdapter();
+    private static final TypeAdapter<DrillPageDTO> DRILL_PAGE = new DrillPageAdapter();
+    private static final TypeAdapter<ServerIdsDTO> SERVER_IDS = new ServerIdsAdapter();
+    private static final TypeAdapter<ChangesDTO> CHANGES = new ChangesAdapter();
+    private static final TypeAdapter<LoginDTO> LOGIN = new LoginAdapter();
+
+    private static final Map<Class<?>, TypeAdapter<?>> ADAPTERS = Map.of(
+            CategoryDTO.class, CATEGORY,
+            SubCategoryDTO.class, SUB_CATEGORY,
+            InstructionsDTO.class, INSTRUCTIONS,
+            RelatedDrillDTO.class, RELATED_DRILL,
+            DrillDTO.class, DRILL,
+            DrillPageDTO.class, DRILL_PAGE,
+            ServerIdsDTO.class, SERVER_IDS,
+            ChangesDTO.class, CHANGES,
+            LoginDTO.class, LOGIN);
+
+    /**
+     * Create a Gson instance with the DTO adapters registered.
+     *
+     * @return Gson.
+     */
+    @NonNull
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new DtoTypeAdapterFactory())
+                .create();
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(@NonNull Gson gson, @NonNull TypeToken<T> type) {
+        // DTOs are not subclassed, so only an exact match
+        return (TypeAdapter<T>) ADAPTERS.get(type.getRawType());
+    }
+
+    // =============================================================================================
+    // Adapters
+    // =============================================================================================
+    private static class CategoryAdapter extends TypeAdapter<CategoryDTO> {
+        @Override
+        public void write(JsonWriter out, CategoryDTO category) throws IOException {
+            if (null == category) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(category.getId());
+            out.name("name").value(category.getName());
+            out.name("description").value(category.getDescription());
+            out.endObject();
+        }
+
+        @Override
+        public CategoryDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            Long id = null;
+            String name = null;
+            String description = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = readLong(in);
+                        break;
+                    case "name":
+                        name = readString(in);
+                        break;
+                    case "description":
+                        description = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new CategoryDTO(id, name, description);
+        }
+    }
+
+    private static class SubCategoryAdapter extends TypeAdapter<SubCategoryDTO> {
+        @Override
+        public void write(JsonWriter out, SubCategoryDTO subCategory) throws IOException {
+            if (null == subCategory) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(subCategory.getId());
+            out.name("name").value(subCategory.getName());
+            out.name("description").value(subCategory.getDescription());
+            out.endObject();
+        }
+
+        @Override
+        public SubCategoryDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            Long id = null;
+            String name = null;
+            String description = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = readLong(in);
+                        break;
+                    case "name":
+                        name = readString(in);
+                        break;
+                    case "description":
+                        description = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new SubCategoryDTO(id, name, description);
+        }
+    }
+
+    private static class InstructionsAdapter extends TypeAdapter<InstructionsDTO> {
+        @Override
+        public void write(JsonWriter out, InstructionsDTO instructions) throws IOException {
+            if (null == instructions) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("description").value(instructions.getDescription());
+            out.name("steps");
+            writeList(out, instructions.getSteps(), JsonWriter::value);
+            out.name("video_id").value(instructions.getVideoId());
+            out.endObject();
+        }
+
+        @Override
+        public InstructionsDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            String description = null;
+            List<String> steps = null;
+            String videoId = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "description":
+                        description = readString(in);
+                        break;
+                    case "steps":
+                        steps = readList(in, DtoTypeAdapterFactory::readString);
+                        break;
+                    case "video_id":
+                        videoId = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new InstructionsDTO(description, steps, videoId);
+        }
+    }
+
+    private static class RelatedDrillAdapter extends TypeAdapter<RelatedDrillDTO> {
+        @Override
+        public void write(JsonWriter out, RelatedDrillDTO relatedDrill) throws IOException {
+            if (null == relatedDrill) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(relatedDrill.getId());
+            out.name("name").value(relatedDrill.getName());
+            out.endObject();
+        }
+
+        @Override
+        public RelatedDrillDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            Long id = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = readLong(in);
+                        break;
+                    case "name":
+                        name = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new RelatedDrillDTO(id, name);
+        }
+    }
+
+    private static class DrillAdapter extends TypeAdapter<DrillDTO> {
+        @Override
+        public void write(JsonWriter out, DrillDTO drill) throws IOException {
+            if (null == drill) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(drill.getId());
+            out.name("name").value(drill.getName());
+            out.name("categories");
+            writeList(out, drill.getCategories(), CATEGORY::write);
+            out.name("sub_categories");
+            writeList(out, drill.getSubCategories(), SUB_CATEGORY::write);
+            out.name("instructions");
+            writeList(out, drill.getInstructions(), INSTRUCTIONS::write);
+            out.name("related_drills");
+            writeList(out, drill.getRelatedDrills(), RELATED_DRILL::write);
+            out.endObject();
+        }
+
+        @Override
+        public DrillDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            Long id = null;
+            String name = null;
+            List<CategoryDTO> categories = null;
+            List<SubCategoryDTO> subCategories = null;
+            List<InstructionsDTO> instructions = null;
+            List<RelatedDrillDTO> relatedDrills = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = readLong(in);
+                        break;
+                    case "name":
+                        name = readString(in);
+                        break;
+                    case "categories":
+                        categories = readList(in, CATEGORY::read);
+                        break;
+                    case "sub_categories":
+                        subCategories = readList(in, SUB_CATEGORY::read);
+                        break;
+                    case "instructions":
+                        instructions = readList(in, INSTRUCTIONS::read);
+                        break;
+                    case "related_drills":
+                        relatedDrills = readList(in, RELATED_DRILL::read);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new DrillDTO(id, name, categories, subCategories, instructions, relatedDrills);
+        }
+    }
+
+    private static class DrillPageAdapter extends TypeAdapter<DrillPageDTO> {
+        @Override
+        public void write(JsonWriter out, DrillPageDTO page) throws IOException {
+            if (null == page) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("drills");
+            writeList(out, page.getDrills(), DRILL::write);
+            out.name("next_page_token").value(page.getNextPageToken());
+            out.endObject();
+        }
+
+        @Override
+        public DrillPageDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            List<DrillDTO> drills = null;
+            String nextPageToken = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "drills":
+                        drills = readList(in, DRILL::read);
+                        break;
+                    case "next_page_token":
+                        nextPageToken = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new DrillPageDTO(drills, nextPageToken);
+        }
+    }
+
+    private static class ServerIdsAdapter extends TypeAdapter<ServerIdsDTO> {
+        @Override
+        public void write(JsonWriter out, ServerIdsDTO serverIds) throws IOException {
+            if (null == serverIds) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("drills");
+            writeList(out, serverIds.getDrills(), JsonWriter::value);
+            out.name("categories");
+            writeList(out, serverIds.getCategories(), JsonWriter::value);
+            out.name("sub_categories");
+            writeList(out, serverIds.getSubCategories(), JsonWriter::value);
+            out.endObject();
+        }
+
+        @Override
+        public ServerIdsDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            List<Long> drills = null;
+            List<Long> categories = null;
+            List<Long> subCategories = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "drills":
+                        drills = readList(in, DtoTypeAdapterFactory::readLong);
+                        break;
+                    case "categories":
+                        categories = readList(in, DtoTypeAdapterFactory::readLong);
+                        break;
+                    case "sub_categories":
+                        subCategories = readList(in, DtoTypeAdapterFactory::readLong);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new ServerIdsDTO(drills, categories, subCategories);
+        }
+    }
+
+    private static class ChangesAdapter extends TypeAdapter<ChangesDTO> {
+        @Override
+        public void write(JsonWriter out, ChangesDTO changes) throws IOException {
+            if (null == changes) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("drills").value(changes.getDrills());
+            out.name("categories").value(changes.getCategories());
+            out.name("sub_categories").value(changes.getSubCategories());
+            out.endObject();
+        }
+
+        @Override
+        public ChangesDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            ChangesDTO changes = new ChangesDTO();
+            in.beginObject();
+            while (in.hasNext()) {
+                // Primitives keep their default when null, same as the reflective adapter
+                Long value;
+                switch (in.nextName()) {
+                    case "drills":
+                        value = readLong(in);
+                        if (null != value) {
+                            changes.setDrills(value);
+                        }
+                        break;
+                    case "categories":
+                        value = readLong(in);
+                        if (null != value) {
+                            changes.setCategories(value);
+                        }
+                        break;
+                    case "sub_categories":
+                        value = readLong(in);
+                        if (null != value) {
+                            changes.setSubCategories(value);
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return changes;
+        }
+    }
+
+    private static class LoginAdapter extends TypeAdapter<LoginDTO> {
+        @Override
+        public void write(JsonWriter out, LoginDTO login) throws IOException {
+            if (null == login) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("username").value(login.getUsername());
+            out.name("password").value(login.getPassword());
+            out.endObject();
+        }
+
+        @Override
+        public LoginDTO read(JsonReader in) throws IOException {
+            if (JsonToken.NULL == in.peek()) {
+                in.nextNull();
+                return null;
+            }
+
+            String username = null;
+            String password = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "username":
+                        username = readString(in);
+                        break;
+                    case "password":
+                        password = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new LoginDTO(username, password);
+        }
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    private interface ValueReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    private interface ValueWriter<T> {
+        void write(JsonWriter out, T value) throws IOException;
+    }
+
+    /**
+     * Same as Gson's String adapter, which also accepts numbers and booleans.
+     */
+    @Nullable
+    private static String readString(@NonNull JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (JsonToken.NULL == token) {
+            in.nextNull();
+            return null;
+        } else if (JsonToken.BOOLEAN == token) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Same as Gson's Long adapter, which also accepts numeric strings.
+     */
+    @Nullable
+    private static Long readLong(@NonNull JsonReader in) throws IOException {
+        if (JsonToken.NULL == in.peek()) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    @Nullable
+    private static <T> List<T> readList(@NonNull JsonReader in,
+                                        @NonNull ValueReader<T> elementReader) throws IOException {
+        if (JsonToken.NULL == in.peek()) {
+            in.nextNull();
+            return null;
+        }
+
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(elementReader.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static <T> void writeList(@NonNull JsonWriter out, @Nullable List<T> list,
+                                      @NonNull ValueWriter<T> elementWriter) throws IOException {
+        if (null == list) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (T element : list) {
+            if (null == element) {
+                out.nullValue();
+            } else {
+                elementWriter.write(out, element);
+            }
+        }
+        out.endArray();
+    }
+}
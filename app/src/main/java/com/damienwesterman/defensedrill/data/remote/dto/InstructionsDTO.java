@@ -30,9 +30,11 @@ package com.damienwesterman.defensedrill.data.remote.dto;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.damienwesterman.defensedrill.data.local.DrillInstructionsEntity;
 import com.google.gson.annotations.SerializedName;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -59,4 +61,29 @@ public class InstructionsDTO implements Serializable {
     @SerializedName(value = "video_id")
     @Nullable
     private String videoId;
+
+    /**
+     * Convert the DTO into its locally cached entity.
+     *
+     * @param serverDrillId Server ID of the drill these instructions belong to.
+     * @param position      Index of these instructions in the drill's list of instructions.
+     * @return              DrillInstructionsEntity object.
+     */
+    @NonNull
+    public DrillInstructionsEntity toEntity(long serverDrillId, int position) {
+        return new DrillInstructionsEntity(serverDrillId, position, description,
+                new ArrayList<>(steps), videoId);
+    }
+
+    /**
+     * Create the DTO from its locally cached entity.
+     *
+     * @param entity    DrillInstructionsEntity object.
+     * @return          InstructionsDTO object.
+     */
+    @NonNull
+    public static InstructionsDTO fromEntity(@NonNull DrillInstructionsEntity entity) {
+        return new InstructionsDTO(entity.getDescription(), entity.getSteps(),
+                entity.getVideoId());
+    }
 }
@@ -28,6 +28,8 @@ package com.damienwesterman.defensedrill.data.remote.dto;
 
 import androidx.annotation.NonNull;
 
+import com.damienwesterman.defensedrill.data.local.RelatedDrillEntity;
+
 import java.io.Serializable;
 
 import lombok.AllArgsConstructor;
@@ -51,4 +53,27 @@ public class RelatedDrillDTO implements Serializable {
     private Long id;
     @NonNull
     private String name;
+
+    /**
+     * Convert the DTO into its locally cached entity.
+     *
+     * @param serverDrillId Server ID of the drill this is related to.
+     * @param position      Index of this drill in the drill's list of related drills.
+     * @return              RelatedDrillEntity object.
+     */
+    @NonNull
+    public RelatedDrillEntity toEntity(long serverDrillId, int position) {
+        return new RelatedDrillEntity(serverDrillId, position, id, name);
+    }
+
+    /**
+     * Create the DTO from its locally cached entity.
+     *
+     * @param entity    RelatedDrillEntity object.
+     * @return          RelatedDrillDTO object.
+     */
+    @NonNull
+    public static RelatedDrillDTO fromEntity(@NonNull RelatedDrillEntity entity) {
+        return new RelatedDrillDTO(entity.getRelatedServerDrillId(), entity.getName());
+    }
 }
@@ -31,6 +31,8 @@ import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 
+import androidx.annotation.Nullable;
+
 import javax.inject.Inject;
 
 import dagger.hilt.android.qualifiers.ApplicationContext;
@@ -53,23 +55,44 @@ public class CheckPhoneInternetConnection {
      * @return true if the user is connected to a network.
      */
     public boolean isNetworkConnected() {
+        NetworkCapabilities capabilities = getActiveNetworkCapabilities();
+        if (null == capabilities) {
+            return false;
+        }
+        return capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI) ||
+                capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR) ||
+                capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET);
+    }
+
+    /**
+     * Checks if the user is connected to an unmetered network, such as most Wi-Fi. Ideal to check
+     * before performing optional networking operations the user should not have to pay for.
+     *
+     * @return true if the user is connected to an unmetered network.
+     */
+    public boolean isUnmeteredNetworkConnected() {
+        NetworkCapabilities capabilities = getActiveNetworkCapabilities();
+        if (null == capabilities) {
+            return false;
+        }
+        return capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED) &&
+                (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI) ||
+                capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET));
+    }
+
+    @Nullable
+    private NetworkCapabilities getActiveNetworkCapabilities() {
         ConnectivityManager cm = (ConnectivityManager) context
                 .getSystemService(Context.CONNECTIVITY_SERVICE);
         if (null == cm) {
-            return false;
+            return null;
         }
 
         Network network = cm.getActiveNetwork();
         if (null == network) {
-            return false;
+            return null;
         }
 
-        NetworkCapabilities capabilities = cm.getNetworkCapabilities(network);
-        if (null == capabilities) {
-            return false;
-        }
-        return capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI) ||
-                capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR) ||
-                capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET);
+        return cm.getNetworkCapabilities(network);
     }
 }
@@ -30,24 +30,38 @@ import android.database.sqlite.SQLiteConstraintException;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.damienwesterman.defensedrill.data.local.CategoryEntity;
 import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.DrillNetworkLinks;
 import com.damienwesterman.defensedrill.data.local.DrillRepository;
 import com.damienwesterman.defensedrill.data.local.SharedPrefs;
 import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
 import com.damienwesterman.defensedrill.data.remote.ApiRepo;
+import com.damienwesterman.defensedrill.data.remote.DrillDtoStream;
+import com.damienwesterman.defensedrill.data.remote.HttpValidatorStore;
+import com.damienwesterman.defensedrill.data.remote.HttpValidators;
 import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.ServerIdsDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
 import com.damienwesterman.defensedrill.manager.DefenseDrillNotificationManager;
 
+import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -57,6 +71,9 @@ import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import okhttp3.ResponseBody;
 import retrofit2.HttpException;
 import retrofit2.Response;
 
@@ -66,26 +83,71 @@ import retrofit2.Response;
  */
 public class DownloadDatabaseUseCase {
     private static final String TAG = DownloadDatabaseUseCase.class.getSimpleName();
+    /** Number of drills parsed and saved at a time, bounding memory use during a sync */
+    private static final int DRILL_CHUNK_SIZE = 100;
+    /** Default number of drills requested per page during a paged sync */
+    public static final int DEFAULT_DRILL_PAGE_SIZE = 100;
+    /*
+    Keys the sync stores its validators under in the HttpValidatorStore, with the variant being
+    which request was made (see syncValidatorVariant()). Shared so others can make the same
+    conditional requests, but only the sync should write them, as only it commits the changes.
+     */
+    public static final String VALIDATOR_KEY_CATEGORIES = "sync/categories";
+    public static final String VALIDATOR_KEY_SUB_CATEGORIES = "sync/sub_categories";
+    public static final String VALIDATOR_KEY_DRILLS = "sync/drills";
+    /** Always stored under the full download's variant, as the remaining IDs do not depend on it */
+    public static final String VALIDATOR_KEY_REMAINING_IDS = "sync/remaining_ids";
+    /**
+     * Set while any instance is syncing, so a foreground download and a background sync never
+     * write to the database at the same time.
+     */
+    private static final AtomicBoolean SYNC_IN_PROGRESS = new AtomicBoolean(false);
+    /** Error message given to the failure callback if a download is already running */
+    public static final String ERROR_DOWNLOAD_IN_PROGRESS =
+            "A download is already in progress, please try again shortly";
 
     private final ApiRepo apiRepo;
     private final DrillRepository drillRepo;
     private final SharedPrefs sharedPrefs;
     private final DefenseDrillNotificationManager notificationManager;
+    private final HttpValidatorStore validatorStore;
     /** Map of CategoryEntities by their ServerId */
     private Map<Long, CategoryEntity> categoryMap;
     /** Map of SubCategoryEntities by their ServerId */
     private Map<Long, SubCategoryEntity> subCategoryMap;
     private Disposable disposable;
     private boolean databaseUpdated = false;
+    /** Progress callback of the current download, if any */
+    @Nullable
+    private IntConsumer progressCallback;
+    /** Number of drills saved so far by the current download, for progress */
+    private int drillsSaved = 0;
+    private int drillPageSize = DEFAULT_DRILL_PAGE_SIZE;
+
+    /**
+     * What the server has deleted, as downloaded by a sync.
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class ServerDeletions {
+        /** Nothing to delete */
+        private static final ServerDeletions NONE = new ServerDeletions(null, false);
+
+        @Nullable
+        private final ServerIdsDTO ids;
+        /** true if ids are everything the server still has, rather than what it has deleted */
+        private final boolean idsAreRemaining;
+    }
 
     @Inject
     public DownloadDatabaseUseCase(ApiRepo apiRepo, DrillRepository drillRepo,
                                    SharedPrefs sharedPrefs,
-                                   DefenseDrillNotificationManager notificationManager) {
+                                   DefenseDrillNotificationManager notificationManager,
+                                   HttpValidatorStore validatorStore) {
         this.apiRepo = apiRepo;
         this.drillRepo = drillRepo;
         this.sharedPrefs = sharedPrefs;
         this.notificationManager = notificationManager;
+        this.validatorStore = validatorStore;
         this.categoryMap = Map.of();
         this.subCategoryMap = Map.of();
         this.disposable = null;
@@ -94,58 +156,161 @@ public class DownloadDatabaseUseCase {
     /**
      * Download and save all Drills, Categories, and SubCategories from the server.
      *
-     * @param successCallback   Callback for successful operation. Takes in a list of newly added
-     *                          Drills. List may be empty.
+     * @param successCallback   Callback for successful operation. Takes in the number of newly
+     *                          added Drills, see {@link DrillRepository#getNewestDrills(int)}.
      * @param failureCallback   Callback for failure operation. Takes in a string containing the
      *                          error message.
      */
-    public void download(@NonNull Consumer<List<Drill>> successCallback,
+    public void download(@NonNull IntConsumer successCallback,
                          @NonNull Consumer<String> failureCallback) {
+        download(successCallback, failureCallback, null);
+    }
+
+    /**
+     * Download and save all Drills, Categories, and SubCategories from the server, reporting
+     * progress along the way.
+     * <br><br>
+     * Deletions, categories and sub-categories are saved in one transaction, then the drills in
+     * short transactions of their own, so the database is never locked while waiting on the
+     * network. An interrupted download leaves what it saved in place, and the next one merges the
+     * same changes again as no-ops, as lastDrillUpdateTime only advances once everything is saved.
+     * <br><br>
+     * Drills are downloaded a page at a time if the server supports it (see
+     * {@link ApiRepo#getDrillPage}). After each page is saved its token is saved to
+     * {@link SharedPrefs}, so if the download is interrupted, the next one resumes from the first
+     * page not yet saved, rather than from the start. Otherwise all drills are streamed in one
+     * response and saved {@link #DRILL_CHUNK_SIZE} at a time as they arrive.
+     * <br><br>
+     * When downloading changes, whatever the server has deleted since is deleted too.
+     * <br><br>
+     * Only one download can run at a time across the whole app. If one is already running,
+     * failureCallback is called straight away with {@link #ERROR_DOWNLOAD_IN_PROGRESS}.
+     *
+     * @param successCallback   Callback for successful operation. Takes in the number of newly
+     *                          added Drills, see {@link DrillRepository#getNewestDrills(int)}.
+     * @param failureCallback   Callback for failure operation. Takes in a string containing the
+     *                          error message.
+     * @param progressCallback  Callback for progress, called on a background thread with the
+     *                          number of drills saved so far. May be null.
+     */
+    public void download(@NonNull IntConsumer successCallback,
+                         @NonNull Consumer<String> failureCallback,
+                         @Nullable IntConsumer progressCallback) {
+        if (!SYNC_IN_PROGRESS.compareAndSet(false, true)) {
+            failureCallback.accept(ERROR_DOWNLOAD_IN_PROGRESS);
+            return;
+        }
+
         notificationManager.removeDatabaseUpdateAvailableNotification();
-        databaseUpdated = false;
-        categoryMap.clear();
-        subCategoryMap.clear();
+        this.progressCallback = progressCallback;
+        drillsSaved = 0;
+        categoryMap = Map.of();
+        subCategoryMap = Map.of();
 
         final long lastDrillUpdateTime = sharedPrefs.getLastDrillUpdateTime();
-        if (0 >= lastDrillUpdateTime) {
-            // First download from the database, get all
-            disposable = loadAllCategoriesFromServer()
-                    .flatMap(response -> loadAllSubCategoriesFromServer())
-                    .flatMap(response -> loadAllDrillsFromServer())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(
-                            newDrills -> {
-                                if (databaseUpdated) {
-                                    sharedPrefs.setLastDrillUpdateTime(System.currentTimeMillis());
-                                }
-                                successCallback.accept(newDrills);
-                                disposable = null;
-                            },
-                            throwable -> {
-                                failureCallback.accept(extractErrorMessage(throwable));
-                                disposable = null;
-                            }
-                    );
-        } else {
-            // Already downloaded something, so update the database
-            disposable = updateCategoriesFromServer(lastDrillUpdateTime)
-                    .flatMap(response -> updateSubCategoriesFromServer(lastDrillUpdateTime))
-                    .flatMap(response -> updateDrillsFromServer(lastDrillUpdateTime))
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(
-                            newDrills -> {
-                                if (databaseUpdated) {
-                                    sharedPrefs.setLastDrillUpdateTime(System.currentTimeMillis());
-                                }
-                                successCallback.accept(newDrills);
-                                disposable = null;
-                            },
-                            throwable -> {
-                                failureCallback.accept(extractErrorMessage(throwable));
-                                disposable = null;
-                            }
-                    );
-        }
+        // Only resume a paged sync of the very same changes
+        final String resumePageToken =
+                lastDrillUpdateTime == sharedPrefs.getSyncCursorBaseTime()
+                        ? sharedPrefs.getSyncCursorPageToken()
+                        : null;
+        /*
+        Anything changed on the server after we start downloading will be picked up next time, so
+        this, and not the time we finish, is what lastDrillUpdateTime should advance to. When
+        resuming, that is when the interrupted sync started.
+         */
+        final long syncStartTime = null != resumePageToken
+                ? sharedPrefs.getSyncCursorStartTime()
+                : System.currentTimeMillis();
+        // The pages saved by the interrupted sync count
+        databaseUpdated = null != resumePageToken;
+        // If we already downloaded something then only get what was updated since
+        final boolean isUpdate = 0 < lastDrillUpdateTime;
+        final String validatorVariant = syncValidatorVariant(lastDrillUpdateTime);
+        /*
+        Validators received during this sync, by key. Only stored once the changes are committed,
+        otherwise a failed sync would have the server reply 304 to changes we never saved.
+         */
+        final Map<String, HttpValidators> receivedValidators =
+                Collections.synchronizedMap(new HashMap<>());
+
+        /*
+        The downloads are independent, so they run concurrently and the sync takes about one
+        round trip. Only the database merge is ordered, as drills need the category maps.
+         */
+        Observable<List<CategoryDTO>> categories = fetchFromServer(VALIDATOR_KEY_CATEGORIES,
+                receivedValidators, () -> {
+                    HttpValidators validators =
+                            validatorStore.get(VALIDATOR_KEY_CATEGORIES, validatorVariant);
+                    return isUpdate
+                            ? apiRepo.getAllCategoriesUpdatedAfterTimestamp(lastDrillUpdateTime,
+                                    validators)
+                            : apiRepo.getAllCategories(validators);
+                });
+        Observable<List<SubCategoryDTO>> subCategories = fetchFromServer(
+                VALIDATOR_KEY_SUB_CATEGORIES, receivedValidators, () -> {
+                    HttpValidators validators =
+                            validatorStore.get(VALIDATOR_KEY_SUB_CATEGORIES, validatorVariant);
+                    return isUpdate
+                            ? apiRepo.getAllSubCategoriesUpdatedAfterTimestamp(lastDrillUpdateTime,
+                                    validators)
+                            : apiRepo.getAllSubCategories(validators);
+                });
+        /*
+        Drills are streamed, the body is read while saving. Close it however the sync ends. Paged
+        syncs get the first page here, the rest once it is saved.
+         */
+        AtomicReference<DrillDtoStream> drillStream = new AtomicReference<>();
+        AtomicReference<String> nextPageToken = new AtomicReference<>();
+        Observable<DrillDtoStream> streamedDrills = fetchDrillStreamFromServer(
+                receivedValidators, () -> {
+                    HttpValidators validators =
+                            validatorStore.get(VALIDATOR_KEY_DRILLS, validatorVariant);
+                    return isUpdate
+                            ? apiRepo.streamAllDrillsUpdatedAfterTimestamp(lastDrillUpdateTime,
+                                    validators)
+                            : apiRepo.streamAllDrills(validators);
+                });
+        Observable<ServerDeletions> deletions = isUpdate
+                ? fetchDeletionsFromServer(lastDrillUpdateTime, receivedValidators)
+                : Observable.just(ServerDeletions.NONE);
+        Observable<DrillDtoStream> drills = (apiRepo.hasDrillPages()
+                    ? fetchDrillPageFromServer(nextPageToken, streamedDrills,
+                            () -> apiRepo.getDrillPage(isUpdate ? lastDrillUpdateTime : null,
+                                    resumePageToken, drillPageSize, null))
+                    : streamedDrills)
+                .doOnNext(drillStream::set);
+
+        disposable = Observable.zip(deletions, categories, subCategories, drills,
+                        (serverDeletions, categoryDtos, subCategoryDtos, drillDtos) ->
+                                saveAllToDatabase(serverDeletions, categoryDtos, subCategoryDtos,
+                                        drillDtos, isUpdate))
+                .map(newDrillCount -> {
+                    String pageToken = nextPageToken.get();
+                    if (null != pageToken) {
+                        newDrillCount += saveRemainingDrillPages(lastDrillUpdateTime,
+                                syncStartTime, pageToken, isUpdate, streamedDrills);
+                    }
+                    finishSync(syncStartTime, validatorVariant, receivedValidators);
+                    return newDrillCount;
+                })
+                .doFinally(() -> {
+                    DrillDtoStream stream = drillStream.getAndSet(null);
+                    if (null != stream) {
+                        stream.close();
+                    }
+                    SYNC_IN_PROGRESS.set(false);
+                })
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                        newDrillCount -> {
+                            successCallback.accept(newDrillCount);
+                            disposable = null;
+                        },
+                        throwable -> {
+                            failureCallback.accept(extractErrorMessage(throwable));
+                            disposable = null;
+                        }
+                );
     }
 
     /**
@@ -158,31 +323,73 @@ public class DownloadDatabaseUseCase {
             disposable.dispose();
             disposable = null;
             databaseUpdated = false;
-            categoryMap.clear();
-            subCategoryMap.clear();
+            progressCallback = null;
+            categoryMap = Map.of();
+            subCategoryMap = Map.of();
         }
     }
 
+    /**
+     * Set the number of drills requested per page during a paged sync, trading the work lost to
+     * an interruption against the number of round trips. Applies from the next download.
+     *
+     * @param drillPageSize Number of drills per page, at least 1.
+     */
+    public void setDrillPageSize(int drillPageSize) {
+        this.drillPageSize = Math.max(1, drillPageSize);
+    }
+
+    /**
+     * Get the variant the sync's validators are stored under for a given lastDrillUpdateTime, as
+     * a full download and a download of the changes since a time are different responses.
+     *
+     * @param lastDrillUpdateTime   {@link SharedPrefs#getLastDrillUpdateTime()}.
+     * @return                      Variant to use with the VALIDATOR_KEY_* keys.
+     */
+    @NonNull
+    public static String syncValidatorVariant(long lastDrillUpdateTime) {
+        return 0 < lastDrillUpdateTime ? "updatedAfter=" + lastDrillUpdateTime : "all";
+    }
+
     // =============================================================================================
     // Private Helper Methods
     // =============================================================================================
     /**
-     * Return an observable that loads all drills from the server and returns them locally.
+     * Return an observable that runs the request on an IO thread and emits the response body.
+     * <br><br>
+     * The request is deferred until subscription, so that errors thrown by {@link ApiRepo} (such
+     * as missing login credentials) are delivered through the observable.
      *
-     * @return Observable for a List of DrillDTO objects.
+     * @param validatorKey          Key to record the response's validators under.
+     * @param receivedValidators    Map to record the response's validators in.
+     * @param request               Supplier of the request to make.
+     * @return                      Observable for the List of DTOs, empty if the server
+     *                              had no content or it has not been modified.
+     * @param <T>                   DTO type.
      */
-    private Observable<List<Drill>> loadAllDrillsFromServer() {
-        return apiRepo.getAllDrills()
+    private <T> Observable<List<T>> fetchFromServer(
+            @NonNull String validatorKey,
+            @NonNull Map<String, HttpValidators> receivedValidators,
+            @NonNull Supplier<Observable<Response<List<T>>>> request) {
+        return Observable.defer(request::get)
             .subscribeOn(Schedulers.io())
-            .observeOn(Schedulers.io())
             .map(
                 response -> {
                     switch (response.code()) {
                         case HttpsURLConnection.HTTP_OK:
-                            return saveDrillsToDatabase(response.body(), false);
+                            List<T> body = response.body();
+                            if (null == body) {
+                                // Shouldn't really happen
+                                throw new NullPointerException("response.body() was NULL");
+                            }
+                            receivedValidators.put(validatorKey,
+                                    HttpValidators.fromResponse(response));
+                            return body;
+                        case HttpsURLConnection.HTTP_NOT_MODIFIED:
+                            // Nothing changed since we last saved this exact response
                         case HttpsURLConnection.HTTP_NO_CONTENT:
-                            // Not an error, but nothing more to do here
-                            return List.of();
+                            // Not an error, but nothing to save
+                            return new ArrayList<>();
                         default:
                             // Failure
                             throw new HttpException(response);
@@ -192,23 +399,36 @@ public class DownloadDatabaseUseCase {
     }
 
     /**
-     * Return an observable that loads all categories from the server and returns them locally.
+     * Return an observable that runs the streamed drills request on an IO thread and emits a
+     * {@link DrillDtoStream} over the response body, as soon as the headers have arrived.
      *
-     * @return Observable for a List of CategoryDTO objects.
+     * @param receivedValidators    Map to record the response's validators in.
+     * @param request               Supplier of the request to make.
+     * @return                      Observable for the DrillDtoStream, empty if the server had no
+     *                              content or it has not been modified.
      */
-    private Observable<Response<List<CategoryDTO>>> loadAllCategoriesFromServer() {
-        return apiRepo.getAllCategories()
+    private Observable<DrillDtoStream> fetchDrillStreamFromServer(
+            @NonNull Map<String, HttpValidators> receivedValidators,
+            @NonNull Supplier<Observable<Response<ResponseBody>>> request) {
+        return Observable.defer(request::get)
             .subscribeOn(Schedulers.io())
-            .observeOn(Schedulers.io())
-            .doOnNext(
+            .map(
                 response -> {
                     switch (response.code()) {
                         case HttpsURLConnection.HTTP_OK:
-                            saveCategoriesToDatabase(response.body(), false);
-                            break;
+                            ResponseBody body = response.body();
+                            if (null == body) {
+                                // Shouldn't really happen
+                                throw new NullPointerException("Drill response.body() was NULL");
+                            }
+                            receivedValidators.put(VALIDATOR_KEY_DRILLS,
+                                    HttpValidators.fromResponse(response));
+                            return DrillDtoStream.of(body);
+                        case HttpsURLConnection.HTTP_NOT_MODIFIED:
+                            // Nothing changed since we last saved this exact response
                         case HttpsURLConnection.HTTP_NO_CONTENT:
-                            // Not an error, but nothing more to do here
-                            break;
+                            // Not an error, but nothing to save
+                            return DrillDtoStream.empty();
                         default:
                             // Failure
                             throw new HttpException(response);
@@ -218,198 +438,360 @@ public class DownloadDatabaseUseCase {
     }
 
     /**
-     * Return an observable that loads all sub-categories from the server and returns them locally.
+     * Return an observable that runs the first drill page request on an IO thread and emits a
+     * {@link DrillDtoStream} over the page's drills. If the server does not support paging, the
+     * streamed request is made instead.
      *
-     * @return Observable for a List of SubCategoryDTO objects.
+     * @param nextPageToken     Reference to set the next page's token in, left null if this is the
+     *                          last page.
+     * @param streamedDrills    Observable for the streamed request, used if paging is unsupported.
+     * @param request           Supplier of the page request to make.
+     * @return                  Observable for the DrillDtoStream, empty if the server had no
+     *                          content.
      */
-    private Observable<Response<List<SubCategoryDTO>>> loadAllSubCategoriesFromServer() {
-        return apiRepo.getAllSubCategories()
+    private Observable<DrillDtoStream> fetchDrillPageFromServer(
+            @NonNull AtomicReference<String> nextPageToken,
+            @NonNull Observable<DrillDtoStream> streamedDrills,
+            @NonNull Supplier<Observable<Response<DrillPageDTO>>> request) {
+        return Observable.defer(request::get)
             .subscribeOn(Schedulers.io())
-            .observeOn(Schedulers.io())
-            .doOnNext(
+            .flatMap(
+                response -> {
+                    if (HttpsURLConnection.HTTP_NOT_FOUND == response.code()) {
+                        /*
+                        Older server, or it no longer knows the page we are resuming from.
+                        Either way download them all in one go instead.
+                         */
+                        return streamedDrills;
+                    }
+
+                    DrillPageDTO page = readDrillPage(response);
+                    if (null == page) {
+                        return Observable.just(DrillDtoStream.empty());
+                    }
+                    nextPageToken.set(page.getNextPageToken());
+                    return Observable.just(DrillDtoStream.of(page.getDrills()));
+                }
+            );
+    }
+
+    /**
+     * Return an observable that downloads, on an IO thread, what the server has deleted since
+     * lastDrillUpdateTime. If the server does not keep track of deletions, everything it still has
+     * is downloaded instead, conditionally, so that is only done when something has changed.
+     *
+     * @param lastDrillUpdateTime   lastDrillUpdateTime the sync is downloading the changes since.
+     * @param receivedValidators    Map to record the response's validators in.
+     * @return                      Observable for the ServerDeletions, possibly
+     *                              {@link ServerDeletions#NONE}.
+     */
+    private Observable<ServerDeletions> fetchDeletionsFromServer(
+            long lastDrillUpdateTime, @NonNull Map<String, HttpValidators> receivedValidators) {
+        Observable<ServerDeletions> remainingIds = Observable.defer(() ->
+                    apiRepo.getAllIds(validatorStore.get(VALIDATOR_KEY_REMAINING_IDS,
+                            syncValidatorVariant(0))))
+            .map(
                 response -> {
                     switch (response.code()) {
                         case HttpsURLConnection.HTTP_OK:
-                            saveSubCategoriesToDatabase(response.body(), false);
-                            break;
-                        case HttpsURLConnection.HTTP_NO_CONTENT:
-                            // Not an error, but nothing more to do here
-                            break;
+                            ServerIdsDTO ids = response.body();
+                            if (null == ids) {
+                                // Shouldn't really happen
+                                throw new NullPointerException("IDs response.body() was NULL");
+                            }
+                            receivedValidators.put(VALIDATOR_KEY_REMAINING_IDS,
+                                    HttpValidators.fromResponse(response));
+                            return new ServerDeletions(ids, true);
+                        case HttpsURLConnection.HTTP_NOT_MODIFIED:
+                            // Nothing deleted since we last compared
+                            return ServerDeletions.NONE;
+                        case HttpsURLConnection.HTTP_NOT_FOUND:
+                            // Server cannot tell us, nothing we can do but keep everything
+                            Log.w(TAG, "Server does not report deletions");
+                            return ServerDeletions.NONE;
                         default:
                             // Failure
                             throw new HttpException(response);
                     }
                 }
             );
+
+        return Observable.defer(() -> {
+                    if (!apiRepo.hasDeletedIds()) {
+                        return remainingIds;
+                    }
+
+                    return apiRepo.getDeletedIdsAfterTimestamp(lastDrillUpdateTime)
+                            .flatMap(response -> {
+                                switch (response.code()) {
+                                    case HttpsURLConnection.HTTP_OK:
+                                        ServerIdsDTO ids = response.body();
+                                        if (null == ids) {
+                                            // Shouldn't really happen
+                                            throw new NullPointerException(
+                                                    "Deleted IDs response.body() was NULL");
+                                        }
+                                        return Observable.just(new ServerDeletions(ids, false));
+                                    case HttpsURLConnection.HTTP_NO_CONTENT:
+                                        // Nothing deleted
+                                        return Observable.just(ServerDeletions.NONE);
+                                    case HttpsURLConnection.HTTP_NOT_FOUND:
+                                        // Older server
+                                        return remainingIds;
+                                    default:
+                                        // Failure
+                                        throw new HttpException(response);
+                                }
+                            });
+                })
+            .subscribeOn(Schedulers.io());
     }
 
     /**
-     * Return an observable that loads all drills updated after the timestamp on the server and
-     * saves them locally.
+     * Save everything downloaded from the server. Deletions are applied first, so their names are
+     * free again, then categories and sub-categories, as that fills in the maps used to convert the
+     * drills. These are saved in one transaction, then the drills in their own.
      *
-     * @param timestamp Timestamp of millis since epoch in UTC.
-     * @return          Observable for a List of Drill objects.
+     * @param deletions     What the server has deleted.
+     * @param categories    List of categories to save.
+     * @param subCategories List of subCategories to save.
+     * @param drills        Stream of drills to save, read and saved {@link #DRILL_CHUNK_SIZE} at a
+     *                      time. For a paged sync, only the first page.
+     * @param isUpdate      true if this is an update operation, false if it is an insert
+     *                      operation.
+     * @return              Number of Drills that are new to the database.
+     * @throws IOException  Thrown if the drills cannot be read.
      */
-    private Observable<List<Drill>> updateDrillsFromServer(long timestamp) {
-        return apiRepo.getAllDrillsUpdatedAfterTimestamp(timestamp)
-                .subscribeOn(Schedulers.io())
-                .observeOn(Schedulers.io())
-                .map(
-                        response -> {
-                            switch (response.code()) {
-                                case HttpsURLConnection.HTTP_OK:
-                                    return saveDrillsToDatabase(response.body(), true);
-                                case HttpsURLConnection.HTTP_NO_CONTENT:
-                                    // Not an error, but nothing more to do here
-                                    return List.of();
-                                default:
-                                    // Failure
-                                    throw new HttpException(response);
-                            }
-                        }
-                );
+    private int saveAllToDatabase(@NonNull ServerDeletions deletions,
+                                  @NonNull List<CategoryDTO> categories,
+                                  @NonNull List<SubCategoryDTO> subCategories,
+                                  @NonNull DrillDtoStream drills, boolean isUpdate)
+            throws IOException {
+        drillRepo.runInTransaction(() -> {
+            deleteFromDatabase(deletions);
+            saveCategoriesToDatabase(categories, isUpdate);
+            saveSubCategoriesToDatabase(subCategories, isUpdate);
+            return null;
+        });
+
+        return saveDrillStreamToDatabase(drills, isUpdate);
     }
 
     /**
-     * Return an observable that loads all categories updated after the timestamp on the server and
-     * saves them locally.
+     * Save a stream of drills, {@link #DRILL_CHUNK_SIZE} at a time.
+     * <br><br>
+     * The body is still arriving while we read it, so each chunk is parsed outside of any
+     * transaction and then committed on its own, rather than holding the database on the network.
      *
-     * @param timestamp Timestamp of millis since epoch in UTC.
-     * @return          Observable for a List of CategoryDTO objects.
+     * @param drills        Stream of drills to save.
+     * @param isUpdate      true if this is an update operation, false if it is an insert
+     *                      operation.
+     * @return              Number of Drills that are new to the database.
+     * @throws IOException  Thrown if the drills cannot be read.
      */
-    private Observable<Response<List<CategoryDTO>>> updateCategoriesFromServer(long timestamp) {
-        return apiRepo.getAllCategoriesUpdatedAfterTimestamp(timestamp)
-            .subscribeOn(Schedulers.io())
-            .observeOn(Schedulers.io())
-            .doOnNext(response -> {
-                switch (response.code()) {
-                    case HttpsURLConnection.HTTP_OK:
-                        saveCategoriesToDatabase(response.body(), true);
-                        break;
-                    case HttpsURLConnection.HTTP_NO_CONTENT:
-                        // Not an error, but nothing more to do here, just save existing categories
-                        categoryMap = drillRepo.getAllCategories().stream()
-                                .filter(category -> null != category.getServerId())
-                                .collect(Collectors.toMap(CategoryEntity::getServerId, Function.identity()));
-                        break;
-                    default:
-                        // Failure
-                        throw new HttpException(response);
+    private int saveDrillStreamToDatabase(@NonNull DrillDtoStream drills, boolean isUpdate)
+            throws IOException {
+        int newDrillCount = 0;
+        List<DrillDTO> chunk = drills.readChunk(DRILL_CHUNK_SIZE);
+        while (!chunk.isEmpty()) {
+            newDrillCount += saveDrillsToDatabase(chunk, isUpdate);
+            chunk = drills.readChunk(DRILL_CHUNK_SIZE);
+        }
+        return newDrillCount;
+    }
+
+    /**
+     * Download and save the rest of a paged sync's drills, one page at a time. Each page is saved
+     * in its own transaction, and before the next is requested its token is saved as the sync
+     * cursor, so an interrupted sync can resume from there.
+     * <br><br>
+     * If the server no longer knows a page's token, the rest of this sync falls back to streaming
+     * all the drills in one go. The pages already saved merge again as no-ops.
+     *
+     * @param lastDrillUpdateTime   lastDrillUpdateTime the sync is downloading the changes since.
+     * @param syncStartTime         Time (millis since epoch) the sync was started.
+     * @param pageToken             Token of the first page not yet saved.
+     * @param isUpdate              true if this is an update operation, false if it is an insert
+     *                              operation.
+     * @param streamedDrills        Observable for the streamed request, used as the fallback.
+     * @return                      Number of Drills that are new to the database.
+     * @throws HttpException        Thrown if a page request fails.
+     * @throws IOException          Thrown if the fallback's drills cannot be read.
+     */
+    private int saveRemainingDrillPages(long lastDrillUpdateTime, long syncStartTime,
+                                        @NonNull String pageToken, boolean isUpdate,
+                                        @NonNull Observable<DrillDtoStream> streamedDrills)
+            throws HttpException, IOException {
+        int newDrillCount = 0;
+        String nextPageToken = pageToken;
+        while (null != nextPageToken) {
+            // Everything before this page has been committed
+            sharedPrefs.setSyncCursor(lastDrillUpdateTime, syncStartTime, nextPageToken);
+
+            Response<DrillPageDTO> response = apiRepo.getDrillPage(
+                    isUpdate ? lastDrillUpdateTime : null, nextPageToken, drillPageSize, null)
+                    .blockingFirst();
+            if (HttpsURLConnection.HTTP_NOT_FOUND == response.code()) {
+                Log.w(TAG, "Server no longer knows the drill page, downloading them all instead");
+                DrillDtoStream drills = streamedDrills.blockingFirst();
+                try {
+                    return newDrillCount + saveDrillStreamToDatabase(drills, isUpdate);
+                } finally {
+                    drills.close();
                 }
-            });
+            }
+
+            DrillPageDTO page = readDrillPage(response);
+            if (null == page) {
+                break;
+            }
+
+            newDrillCount += saveDrillsToDatabase(page.getDrills(), isUpdate);
+            nextPageToken = page.getNextPageToken();
+        }
+
+        return newDrillCount;
     }
 
     /**
-     * Return an observable that loads all sub-categories updated after the timestamp on the server
-     * and saves them locally.
+     * Read a drill page response.
      *
-     * @param timestamp Timestamp of millis since epoch in UTC.
-     * @return          Observable for a List of SubCategoryDTO objects.
+     * @param response          Response to the page request.
+     * @return                  The page, or null if the server had no content.
+     * @throws HttpException    Thrown if the request failed.
      */
-    private Observable<Response<List<SubCategoryDTO>>> updateSubCategoriesFromServer(long timestamp) {
-        return apiRepo.getAllSubCategoriesUpdatedAfterTimestamp(timestamp)
-                .subscribeOn(Schedulers.io())
-                .observeOn(Schedulers.io())
-                .doOnNext(response -> {
-                    switch (response.code()) {
-                        case HttpsURLConnection.HTTP_OK:
-                            saveSubCategoriesToDatabase(response.body(), true);
-                            break;
-                        case HttpsURLConnection.HTTP_NO_CONTENT:
-                            // Not an error, but nothing more to do here, just save existing subCategories
-                            subCategoryMap = drillRepo.getAllSubCategories().stream()
-                                    .filter(subCategory -> null != subCategory.getServerId())
-                                    .collect(Collectors.toMap(SubCategoryEntity::getServerId, Function.identity()));
-                            break;
-                        default:
-                            // Failure
-                            throw new HttpException(response);
-                    }
-                });
+    @Nullable
+    private static DrillPageDTO readDrillPage(@NonNull Response<DrillPageDTO> response)
+            throws HttpException {
+        switch (response.code()) {
+            case HttpsURLConnection.HTTP_OK:
+                DrillPageDTO page = response.body();
+                if (null == page) {
+                    // Shouldn't really happen
+                    throw new NullPointerException("Drill page response.body() was NULL");
+                }
+                return page;
+            case HttpsURLConnection.HTTP_NO_CONTENT:
+                // Not an error, but nothing to save
+                return null;
+            default:
+                // Failure
+                throw new HttpException(response);
+        }
     }
 
     /**
-     * Convert a list of DTO objects into the appropriate entities and save them to the database.
+     * Record a completed sync, once everything has been committed.
+     * <br><br>
+     * SharedPrefs cannot take part in the transactions, but if a write here is lost the next sync
+     * just re-downloads the same changes, which merge as no-ops. The same goes for the received
+     * validators.
      *
-     * @param drills    List of drills to save.
-     * @param isUpdate  true if this is an update operation, false if it is an insert operation.
-     * @return          List of Drills that are new to the database.
+     * @param syncStartTime         Time (millis since epoch) the sync was started.
+     * @param validatorVariant      Variant to store the received validators under.
+     * @param receivedValidators    Validators received from the server, by key. A null value
+     *                              means the response had none, so any stored ones are removed.
      */
-    @NonNull
-    private List<Drill> saveDrillsToDatabase(List<DrillDTO> drills, boolean isUpdate) {
-        if (null == drills) {
-            // Shouldn't really happen
-            throw new NullPointerException("Drill response.body() was NULL");
+    private void finishSync(long syncStartTime, @NonNull String validatorVariant,
+                            @NonNull Map<String, HttpValidators> receivedValidators) {
+        if (databaseUpdated) {
+            sharedPrefs.setLastDrillUpdateTime(syncStartTime);
         }
+        if (null != sharedPrefs.getSyncCursorPageToken()) {
+            sharedPrefs.clearSyncCursor();
+        }
+        // Every response has been read by now, so nothing else is writing to the map
+        receivedValidators.forEach((key, validators) ->
+                validatorStore.put(key, VALIDATOR_KEY_REMAINING_IDS.equals(key)
+                        ? syncValidatorVariant(0)
+                        : validatorVariant, validators));
+    }
 
-        List<Drill> existingDrills = drillRepo.getAllDrills();
-        Map<String, Drill> existingNamesMap = existingDrills.stream()
-                .collect(Collectors.toMap(Drill::getName, Function.identity()));
-        Map<Long, Drill> drillServerIdMap = existingDrills.stream()
-                .filter(drill -> null != drill.getServerDrillId())
-                .collect(Collectors.toMap(Drill::getServerDrillId, Function.identity()));
-        List<Drill> drillsToUpdate = new ArrayList<>();
+    /**
+     * Delete whatever the server has deleted from the database, in one batch per table.
+     *
+     * @param deletions What the server has deleted.
+     */
+    private void deleteFromDatabase(@NonNull ServerDeletions deletions) {
+        ServerIdsDTO ids = deletions.ids;
+        if (null == ids) {
+            return;
+        }
 
-        /*
-        We want to filter this list so that certain drills that may already
-        be in the database are not persisted again, causing issue. We are filtering
-        in place as the list returned signals the newly added drills.
-         */
-        drills.removeIf(drill -> {
-            if (drillServerIdMap.containsKey(drill.getId())) {
-                if (isUpdate) {
-                    Drill drillToUpdate = drillServerIdMap.get(drill.getId());
-                    if (null != drillToUpdate) {
-                        Drill temp = drill.toDrill(categoryMap, subCategoryMap);
-                        drillToUpdate.setName(drill.getName());
-                        drillToUpdate.setCategories(temp.getCategories());
-                        drillToUpdate.setSubCategories(temp.getSubCategories());
-
-                        drillsToUpdate.add(drillToUpdate);
-                    }
-                }
-                return true;
-            }
+        int numDeleted = deletions.idsAreRemaining
+                ? drillRepo.deleteAllExceptServerId(ids.getDrills(), ids.getCategories(),
+                        ids.getSubCategories())
+                : drillRepo.deleteAllByServerId(ids.getDrills(), ids.getCategories(),
+                        ids.getSubCategories());
+        if (0 < numDeleted) {
+            Log.i(TAG, "Deleted " + numDeleted + " items no longer on the server");
+            databaseUpdated = true;
+        }
+    }
 
-            if (existingNamesMap.containsKey(drill.getName())) {
-                Drill duplicateDrill = existingNamesMap.get(drill.getName());
-                if (null != duplicateDrill
-                        && null != duplicateDrill.getServerDrillId()) {
-                    // If the name exists and is not assigned a server ID, update it
-                    duplicateDrill.setServerDrillId(drill.getId());
-                    if (isUpdate) {
-                        Drill temp = drill.toDrill(categoryMap, subCategoryMap);
-                        duplicateDrill.setCategories(temp.getCategories());
-                        duplicateDrill.setSubCategories(temp.getSubCategories());
-                    }
+    /**
+     * Index the drills in the database that the given downloaded drills could merge with, for
+     * {@link SyncMergePlanner#planDrills}. Only those with the same server ID or name are looked
+     * up, so memory use does not grow with the size of the database.
+     *
+     * @param drills    Drills from the server.
+     * @return          LocalIndex of the matching local drills.
+     */
+    @NonNull
+    private SyncMergePlanner.LocalIndex<Drill> indexLocalDrills(@NonNull List<DrillDTO> drills) {
+        List<Drill> localDrills = new ArrayList<>();
+        // Pages can be larger than a chunk, keep each query well under SQLite's parameter limit
+        for (int i = 0; i < drills.size(); i += DRILL_CHUNK_SIZE) {
+            List<DrillDTO> chunk = drills.subList(i, Math.min(drills.size(), i + DRILL_CHUNK_SIZE));
+            localDrills.addAll(drillRepo.getAllDrillsByServerIdOrName(
+                    chunk.stream().map(DrillDTO::getId).collect(Collectors.toList()),
+                    chunk.stream().map(DrillDTO::getName).collect(Collectors.toList())));
+        }
+        return SyncMergePlanner.LocalIndex.of(localDrills, Drill::getServerDrillId,
+                Drill::getName);
+    }
 
-                    drillsToUpdate.add(duplicateDrill);
-                }
+    /**
+     * Convert a list of DTO objects into the appropriate entities and save them to the database,
+     * in one transaction.
+     *
+     * @param drills        List of drills to save.
+     * @param isUpdate      true if this is an update operation, false if it is an insert
+     *                      operation.
+     * @return              Number of Drills that are new to the database.
+     */
+    private int saveDrillsToDatabase(@NonNull List<DrillDTO> drills, boolean isUpdate) {
+        // Every drill carries its instructions and related drills, cache them for offline use
+        long fetchedAt = System.currentTimeMillis();
+        DrillNetworkLinks[] networkLinks = drills.stream()
+                .map(drill -> drill.toNetworkLinks(fetchedAt))
+                .toArray(DrillNetworkLinks[]::new);
 
-                return true;
-            }
+        // These will throw if there are any issues
+        int newDrillCount = drillRepo.runInTransaction(() -> {
+            drillRepo.saveNetworkLinks(networkLinks);
 
-            return false;
+            SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(drills,
+                    indexLocalDrills(drills), categoryMap, subCategoryMap, isUpdate);
+            if (!plan.getInserts().isEmpty()) {
+                drillRepo.insertDrills(plan.getInserts().toArray(new Drill[0]));
+            }
+            if (!plan.getUpdates().isEmpty()) {
+                drillRepo.updateDrills(plan.getUpdates().toArray(new Drill[0]));
+            }
+            if (plan.hasChanges()) {
+                databaseUpdated = true;
+            }
+            return plan.getInserts().size();
         });
 
-        // These will throw if there are any issues
-        List<Drill> newDrills = List.of();
-        if (!drills.isEmpty()) {
-            drillRepo.insertDrills(drills.stream()
-                    .map(drill -> drill.toDrill(categoryMap, subCategoryMap))
-                    .toArray(Drill[]::new));
-            newDrills = drillRepo.getAllDrillsByServerId(drills.stream()
-                    .map(DrillDTO::getId)
-                    .collect(Collectors.toList()));
-            databaseUpdated = true;
-        }
-        if (!drillsToUpdate.isEmpty()) {
-            drillRepo.updateDrills(
-                    drillsToUpdate.toArray(new Drill[0]));
-            databaseUpdated = true;
+        drillsSaved += drills.size();
+        IntConsumer progress = progressCallback;
+        if (null != progress) {
+            progress.accept(drillsSaved);
         }
 
-        return newDrills;
+        return newDrillCount;
     }
 
     /**
@@ -424,66 +806,31 @@ public class DownloadDatabaseUseCase {
             throw new NullPointerException("Category response.body() was NULL");
         }
 
-        List<CategoryEntity> existingCategories = drillRepo.getAllCategories();
-        Map<String, CategoryEntity> existingNamesMap = existingCategories.stream()
-                .collect(Collectors.toMap(CategoryEntity::getName, Function.identity()));
-        // Map the categories by the server ID for efficient lookup
-        categoryMap = existingCategories.stream()
-                .filter(category -> null != category.getServerId())
-                .collect(Collectors.toMap(CategoryEntity::getServerId, Function.identity()));
-        List<CategoryEntity> categoriesToUpdate = new ArrayList<>();
-
-        /*
-        We want to filter this list so that certain categories that may already
-        be in the database are not persisted again, causing issue. We are filtering
-        in place as the list ends in this method and is not used again.
-         */
-        categories.removeIf(category -> {
-            if (categoryMap.containsKey(category.getId())) {
-                if (isUpdate) {
-                    CategoryEntity categoryToUpdate = categoryMap.get(category.getId());
-                    if (null != categoryToUpdate) {
-                        categoryToUpdate.setName(category.getName());
-                        categoryToUpdate.setDescription(category.getDescription());
-                        categoriesToUpdate.add(categoryToUpdate);
-                    }
-                }
-                return true;
-            }
-
-            if (existingNamesMap.containsKey(category.getName())) {
-                CategoryEntity duplicateCategory = existingNamesMap.get(category.getName());
-                if (null != duplicateCategory
-                        && null != duplicateCategory.getServerId()) {
-                    // If the name exists and is not assigned a server ID, update it
-                    duplicateCategory.setServerId(category.getId());
-                    if (isUpdate) {
-                        duplicateCategory.setDescription(category.getDescription());
-                    }
-
-                    categoriesToUpdate.add(duplicateCategory);
-                }
-                return true;
-            }
-
-            return false;
-        });
+        SyncMergePlanner.LocalIndex<CategoryEntity> localCategories = SyncMergePlanner.LocalIndex
+                .of(drillRepo.getAllCategories(), CategoryEntity::getServerId,
+                        CategoryEntity::getName);
+        SyncMergePlanner.MergePlan<CategoryEntity> plan = SyncMergePlanner.planCategories(
+                categories.stream()
+                        .map(CategoryDTO::toCategoryEntity)
+                        .collect(Collectors.toList()),
+                localCategories, isUpdate);
 
         // These will throw if there are any issues
-        if (!categories.isEmpty()) {
-            drillRepo.insertCategories(categories.stream()
-                    .map(CategoryDTO::toCategoryEntity)
-                    .toArray(CategoryEntity[]::new));
-            databaseUpdated = true;
+        if (!plan.getInserts().isEmpty()) {
+            drillRepo.insertCategories(plan.getInserts().toArray(new CategoryEntity[0]));
+        }
+        if (!plan.getUpdates().isEmpty()) {
+            drillRepo.updateCategories(plan.getUpdates().toArray(new CategoryEntity[0]));
         }
-        if (!categoriesToUpdate.isEmpty()) {
-            drillRepo.updateCategories(
-                    categoriesToUpdate.toArray(new CategoryEntity[0]));
+        if (plan.hasChanges()) {
             databaseUpdated = true;
         }
 
-        if (!categories.isEmpty() || !categoriesToUpdate.isEmpty()) {
-            // Only need to update categoryMap if we added to the database
+        if (plan.getInserts().isEmpty()) {
+            // Updates were made in place, so the index is already up to date
+            categoryMap = localCategories.getByServerId();
+        } else {
+            // Need to read the inserted categories back for their generated IDs
             categoryMap = drillRepo.getAllCategories().stream()
                     .filter(category -> null != category.getServerId())
                     .collect(Collectors.toMap(CategoryEntity::getServerId, Function.identity()));
@@ -502,68 +849,31 @@ public class DownloadDatabaseUseCase {
             throw new NullPointerException("SubCategory response.body() was NULL");
         }
 
-        List<SubCategoryEntity> existingSubCategories = drillRepo.getAllSubCategories();
-        Map<String, SubCategoryEntity> existingNamesMap = existingSubCategories.stream()
-                .collect(Collectors.toMap(SubCategoryEntity::getName, Function.identity()));
-        // Map the subCategories by the server ID for efficient lookup
-        subCategoryMap = existingSubCategories.stream()
-                .filter(subCategory -> null != subCategory.getServerId())
-                .collect(Collectors.toMap(SubCategoryEntity::getServerId, Function.identity()));
-        List<SubCategoryEntity> subCategoriesToUpdate = new ArrayList<>();
-
-        /*
-        We want to filter this list so that certain sub-categories that may already
-        be in the database are not persisted again, causing issue. We are filtering
-        in place as the list ends in this method and is not used again.
-         */
-        subCategories.removeIf((subCategory -> {
-            if (subCategoryMap.containsKey(subCategory.getId())) {
-                if (isUpdate) {
-                    SubCategoryEntity subCategoryToUpdate = subCategoryMap.get(subCategory.getId());
-                    if (null != subCategoryToUpdate) {
-                        subCategoryToUpdate.setName(subCategory.getName());
-                        subCategoryToUpdate.setDescription(subCategory.getDescription());
-                        subCategoriesToUpdate.add(subCategoryToUpdate);
-                    }
-                }
-                return true;
-            }
-
-            if (existingNamesMap.containsKey(subCategory.getName())) {
-                SubCategoryEntity duplicateSubCategory = existingNamesMap
-                        .get(subCategory.getName());
-                if (null != duplicateSubCategory
-                        && null != duplicateSubCategory.getServerId()) {
-                    //If the name exists and is not assigned a server ID, update it
-                    duplicateSubCategory.setServerId(subCategory.getId());
-                    if (isUpdate) {
-                        duplicateSubCategory.setDescription(subCategory.getDescription());
-                    }
-
-                    subCategoriesToUpdate.add(duplicateSubCategory);
-                }
-
-                return true;
-            }
-
-            return false;
-        }));
+        SyncMergePlanner.LocalIndex<SubCategoryEntity> localSubCategories = SyncMergePlanner
+                .LocalIndex.of(drillRepo.getAllSubCategories(), SubCategoryEntity::getServerId,
+                        SubCategoryEntity::getName);
+        SyncMergePlanner.MergePlan<SubCategoryEntity> plan = SyncMergePlanner.planCategories(
+                subCategories.stream()
+                        .map(SubCategoryDTO::toSubCategoryEntity)
+                        .collect(Collectors.toList()),
+                localSubCategories, isUpdate);
 
         // These will throw if there are any issues
-        if (!subCategories.isEmpty()) {
-            drillRepo.insertSubCategories(subCategories.stream()
-                    .map(SubCategoryDTO::toSubCategoryEntity)
-                    .toArray(SubCategoryEntity[]::new));
-            databaseUpdated = true;
+        if (!plan.getInserts().isEmpty()) {
+            drillRepo.insertSubCategories(plan.getInserts().toArray(new SubCategoryEntity[0]));
         }
-        if (!subCategoriesToUpdate.isEmpty()) {
-            drillRepo.updateSubCategories(
-                    subCategoriesToUpdate.toArray(new SubCategoryEntity[0]));
+        if (!plan.getUpdates().isEmpty()) {
+            drillRepo.updateSubCategories(plan.getUpdates().toArray(new SubCategoryEntity[0]));
+        }
+        if (plan.hasChanges()) {
             databaseUpdated = true;
         }
 
-        if (!subCategories.isEmpty() || !subCategoriesToUpdate.isEmpty()) {
-            // Only need to update subCategoryMap if we added to the database
+        if (plan.getInserts().isEmpty()) {
+            // Updates were made in place, so the index is already up to date
+            subCategoryMap = localSubCategories.getByServerId();
+        } else {
+            // Need to read the inserted subCategories back for their generated IDs
             subCategoryMap = drillRepo.getAllSubCategories().stream()
                     .filter(subCategory -> null != subCategory.getServerId())
                     .collect(Collectors.toMap(SubCategoryEntity::getServerId, Function.identity()));
@@ -586,6 +896,9 @@ public class DownloadDatabaseUseCase {
 
             if (httpException.code() == HttpsURLConnection.HTTP_UNAUTHORIZED) {
                 errorMessage = "Unauthorized, please log in again";
+            } else if (httpException.code() == HttpsURLConnection.HTTP_UNAVAILABLE) {
+                // Server is down or overloaded, and already retried
+                errorMessage = "Server is unavailable, please try again later";
             } else {
                 // Should not get here
                 Log.e(TAG, "Received unexpected HttpException: "
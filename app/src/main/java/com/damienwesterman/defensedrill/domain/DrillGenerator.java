@@ -32,6 +32,7 @@ import androidx.annotation.Nullable;
 import com.damienwesterman.defensedrill.data.local.Drill;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -119,6 +120,25 @@ public class DrillGenerator {
         drillPossibilities = idDrillMapFromDrillList(originalDrills);
     }
 
+    /**
+     * Get the drills most likely to be returned by the next {@link #generateDrill()} or
+     * {@link #regenerateDrill()}, by their current weights. Does not change the generator's state.
+     *
+     * @param limit Maximum number of drills to return.
+     * @return      List of Drills, most likely first. New drills always come first, as they are
+     *              guaranteed to be chosen before any other drill.
+     */
+    @NonNull
+    public synchronized List<Drill> getMostLikelyDrills(int limit) {
+        return drillPossibilities.values().stream()
+            .filter(Objects::nonNull)
+            .filter(drill -> drill.getId() != lastGeneratedDrillId)
+            .sorted(Comparator.comparing(Drill::isNewDrill).reversed()
+                .thenComparing(Comparator.comparingLong(this::getWeight).reversed()))
+            .limit(Math.max(0, limit))
+            .collect(Collectors.toList());
+    }
+
     /**
      * Convert {@literal List<Drill>} into {@literal Map<Long, Drill>}, using the Drill's ID as its
      * key.
@@ -168,12 +188,7 @@ public class DrillGenerator {
                 continue;
             }
 
-            // All drills get at least one entry into the list
-            long weight = 1;
-            weight += drill.getConfidence();
-            weight += getDateWeightFactor(drill.getLastDrilled());
-
-            totalWeight += weight;
+            totalWeight += getWeight(drill);
             weightedDrillIds.put(totalWeight, drillId);
         }
 
@@ -190,6 +205,22 @@ public class DrillGenerator {
         }
     }
 
+    /**
+     * Private helper function to get the weight of a known Drill, its relative chance of being
+     * selected.
+     *
+     * @param drill Drill.
+     * @return      Weight of the Drill, at least 1.
+     */
+    private long getWeight(@NonNull Drill drill) {
+        // All drills get at least one entry into the list
+        long weight = 1;
+        weight += drill.getConfidence();
+        weight += getDateWeightFactor(drill.getLastDrilled());
+
+        return weight;
+    }
+
     /**
      * Private helper function to get the weighted value of a Drill's last drilled date. Essentially
      * returns the number of weeks since the Drill has last been drilled, emphasizing
@@ -0,0 +1,258 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.domain;
+
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.DrillNetworkLinks;
+import com.damienwesterman.defensedrill.data.local.DrillRepository;
+import com.damienwesterman.defensedrill.data.local.SharedPrefs;
+import com.damienwesterman.defensedrill.data.remote.ApiRepo;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.InstructionsDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.RelatedDrillDTO;
+import com.damienwesterman.defensedrill.manager.SimulatedAttackManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Use case to warm the offline cache of instructions and related drills (see
+ * {@link DrillNetworkLinks}) for the drills the user is most likely to open next, so they do not
+ * have to wait on the network when they get there.
+ * <br><br>
+ * Candidates are, in order: the current drill's related drills, the drills the current
+ * {@link DrillGenerator} is most likely to pick next, and the drills a simulated attack is most
+ * likely to pick. Anything already cached and fresh is skipped. Prefetching only happens on an
+ * unmetered network, on a background priority thread. At most {@link #MAX_PREFETCH_DRILLS}
+ * drills are fetched, in batches of {@link #PREFETCH_BATCH_SIZE}, stopping before a batch that
+ * would likely take it over about {@link #PREFETCH_BYTE_BUDGET} bytes.
+ */
+@Singleton
+public class DrillInstructionsPrefetcher {
+    private static final String TAG = DrillInstructionsPrefetcher.class.getSimpleName();
+    /** Maximum number of drills fetched by a single prefetch */
+    private static final int MAX_PREFETCH_DRILLS = 5;
+    /** Approximate maximum number of response bytes used by a single prefetch */
+    private static final long PREFETCH_BYTE_BUDGET = 64 * 1024;
+    /** Number of drills fetched per request, small so the budget is not overshot by much */
+    private static final int PREFETCH_BATCH_SIZE = 2;
+    /** Number of candidates taken from each generator */
+    private static final int GENERATOR_CANDIDATES = 3;
+
+    private final DrillRepository drillRepo;
+    private final ApiRepo apiRepo;
+    private final SharedPrefs sharedPrefs;
+    private final CheckPhoneInternetConnection internetConnection;
+    private final SimulatedAttackManager simulatedAttackManager;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    /** Only one prefetch at a time, any requested while one is running are dropped */
+    private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+    @Inject
+    public DrillInstructionsPrefetcher(DrillRepository drillRepo, ApiRepo apiRepo,
+                                       SharedPrefs sharedPrefs,
+                                       CheckPhoneInternetConnection internetConnection,
+                                       SimulatedAttackManager simulatedAttackManager) {
+        this.drillRepo = drillRepo;
+        this.apiRepo = apiRepo;
+        this.sharedPrefs = sharedPrefs;
+        this.internetConnection = internetConnection;
+        this.simulatedAttackManager = simulatedAttackManager;
+    }
+
+    /**
+     * Prefetch, in the background, the instructions and related drills of the drills most likely
+     * to be shown after the current one. Returns immediately.
+     *
+     * @param currentDrill  Drill currently being shown.
+     * @param generator     DrillGenerator the current drill came from, if any.
+     * @param relatedDrills The current drill's related drills.
+     */
+    public void prefetchLikelyNextDrills(@NonNull Drill currentDrill,
+                                         @Nullable DrillGenerator generator,
+                                         @NonNull List<RelatedDrillDTO> relatedDrills) {
+        if (!prefetching.compareAndSet(false, true)) {
+            return;
+        }
+
+        executor.execute(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            try {
+                if (sharedPrefs.getJwt().isEmpty()
+                        || !internetConnection.isUnmeteredNetworkConnected()) {
+                    return;
+                }
+
+                prefetch(getCandidateServerIds(currentDrill, generator, relatedDrills));
+            } finally {
+                prefetching.set(false);
+            }
+        });
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Get the server IDs of the drills most likely to be shown next, most likely first.
+     *
+     * @param currentDrill  Drill currently being shown, excluded.
+     * @param generator     DrillGenerator the current drill came from, if any.
+     * @param relatedDrills The current drill's related drills.
+     * @return              Ordered set of server drill IDs.
+     */
+    @NonNull
+    private Set<Long> getCandidateServerIds(@NonNull Drill currentDrill,
+                                            @Nullable DrillGenerator generator,
+                                            @NonNull List<RelatedDrillDTO> relatedDrills) {
+        Set<Long> serverIds = new LinkedHashSet<>();
+        for (RelatedDrillDTO relatedDrill : relatedDrills) {
+            serverIds.add(relatedDrill.getId());
+        }
+
+        if (null != generator) {
+            addServerIds(serverIds, generator.getMostLikelyDrills(GENERATOR_CANDIDATES));
+        }
+
+        if (sharedPrefs.areSimulatedAttacksEnabled()) {
+            List<Drill> attackCandidates = simulatedAttackManager.getSimulatedAttackCandidates();
+            addServerIds(serverIds, new DrillGenerator(attackCandidates, new Random())
+                    .getMostLikelyDrills(GENERATOR_CANDIDATES));
+        }
+
+        serverIds.remove(currentDrill.getServerDrillId());
+        return serverIds;
+    }
+
+    private void addServerIds(@NonNull Set<Long> serverIds, @NonNull List<Drill> drills) {
+        for (Drill drill : drills) {
+            if (null != drill.getServerDrillId()) {
+                serverIds.add(drill.getServerDrillId());
+            }
+        }
+    }
+
+    /**
+     * Fetch and cache the instructions and related drills of the first few given drills that are
+     * not already cached, a small batch at a time, until the limits are reached.
+     * <br><br>
+     * The size of a drill is only known once it has been downloaded, so the next batch is
+     * estimated from the average size of those fetched so far, and not fetched if that would go
+     * over the budget.
+     *
+     * @param serverIds Server IDs of the drills to prefetch, most likely first.
+     */
+    private void prefetch(@NonNull Set<Long> serverIds) {
+        List<Long> toFetch = new ArrayList<>();
+        for (long serverId : serverIds) {
+            if (MAX_PREFETCH_DRILLS <= toFetch.size()) {
+                break;
+            }
+
+            Optional<DrillNetworkLinks> cachedLinks = drillRepo.getNetworkLinks(serverId);
+            if (!cachedLinks.isPresent()
+                    || cachedLinks.get().isStale(System.currentTimeMillis())) {
+                toFetch.add(serverId);
+            }
+        }
+
+        int saved = 0;
+        int fetched = 0;
+        long bytesUsed = 0;
+        for (int i = 0; i < toFetch.size(); i += PREFETCH_BATCH_SIZE) {
+            List<Long> batch =
+                    toFetch.subList(i, Math.min(toFetch.size(), i + PREFETCH_BATCH_SIZE));
+            long estimatedBatchBytes = 0 == fetched ? 0 : batch.size() * bytesUsed / fetched;
+            if (PREFETCH_BYTE_BUDGET < bytesUsed + estimatedBatchBytes) {
+                break;
+            }
+            if (!internetConnection.isUnmeteredNetworkConnected()) {
+                // The user has left Wi-Fi since we started
+                break;
+            }
+
+            List<DrillDTO> drills;
+            try {
+                drills = apiRepo.getDrillsByIds(batch).blockingFirst();
+            } catch (RuntimeException e) {
+                // Network or server issues, or the user logged out since we started
+                Log.w(TAG, "Stopping prefetch: " + e.getMessage());
+                break;
+            }
+
+            for (DrillDTO drill : drills) {
+                drillRepo.saveNetworkLinks(drill.toNetworkLinks(System.currentTimeMillis()));
+                saved++;
+                bytesUsed += estimateSizeBytes(drill);
+            }
+            fetched += batch.size();
+        }
+
+        if (0 < saved) {
+            Log.d(TAG, "Prefetched " + saved + " drills, about " + bytesUsed + " bytes");
+        }
+    }
+
+    /**
+     * Estimate the size of a drill's response body, from the length of its strings.
+     *
+     * @param drill DrillDTO.
+     * @return      Approximate size in bytes.
+     */
+    private static long estimateSizeBytes(@NonNull DrillDTO drill) {
+        // JSON punctuation and field names
+        final long ELEMENT_OVERHEAD_BYTES = 32;
+        long total = ELEMENT_OVERHEAD_BYTES + drill.getName().length();
+        for (InstructionsDTO instructions : drill.getInstructions()) {
+            total += ELEMENT_OVERHEAD_BYTES + instructions.getDescription().length();
+            for (String step : instructions.getSteps()) {
+                total += ELEMENT_OVERHEAD_BYTES + step.length();
+            }
+        }
+        for (RelatedDrillDTO relatedDrill : drill.getRelatedDrills()) {
+            total += ELEMENT_OVERHEAD_BYTES + relatedDrill.getName().length();
+        }
+
+        return total;
+    }
+}
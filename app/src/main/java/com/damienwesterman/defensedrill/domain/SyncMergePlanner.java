@@ -0,0 +1,323 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.domain;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.data.local.AbstractCategoryEntity;
+import com.damienwesterman.defensedrill.data.local.CategoryEntity;
+import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Plans how to merge what was downloaded from the server into the local database, without
+ * touching the database itself.
+ * <br><br>
+ * Each server item is looked up in a {@link LocalIndex} of the local rows, first by server ID and
+ * then by name, so a whole list is planned in a single pass. A local row matched by name is only
+ * claimed (given the server ID) if it does not already have a server ID. Rows are only planned for
+ * update if something actually changed, and only if this is an update sync, other than claiming.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+/* package-private */ final class SyncMergePlanner {
+    /**
+     * Result of planning a merge.
+     *
+     * @param <T> Type of the local rows.
+     */
+    @Getter
+    /* package-private */ static class MergePlan<T> {
+        /** New rows to insert */
+        private final List<T> inserts = new ArrayList<>();
+        /** Existing rows, already modified, to update */
+        private final List<T> updates = new ArrayList<>();
+        /** Existing rows that are already up to date, or cannot be merged */
+        private final List<T> unchanged = new ArrayList<>();
+
+        /**
+         * Check if the plan changes the database at all.
+         *
+         * @return  true if there is anything to insert or update.
+         */
+        /* package-private */ boolean hasChanges() {
+            return !inserts.isEmpty() || !updates.isEmpty();
+        }
+    }
+
+    /**
+     * Index of local rows by server ID and by name, built once and kept up to date as rows are
+     * claimed, so it can be reused across chunks and pages of the same sync.
+     *
+     * @param <T> Type of the local rows.
+     */
+    /* package-private */ static class LocalIndex<T> {
+        private final Map<Long, T> byServerId = new HashMap<>();
+        private final Map<String, T> byName = new HashMap<>();
+
+        /**
+         * Build an index of the given local rows.
+         *
+         * @param rows          Local rows.
+         * @param serverIdOf    Gets the server ID of a row, if any.
+         * @param nameOf        Gets the (unique) name of a row.
+         * @return              LocalIndex.
+         * @param <T>           Type of the local rows.
+         */
+        @NonNull
+        /* package-private */ static <T> LocalIndex<T> of(@NonNull List<T> rows,
+                                                          @NonNull Function<T, Long> serverIdOf,
+                                                          @NonNull Function<T, String> nameOf) {
+            LocalIndex<T> index = new LocalIndex<>();
+            for (T row : rows) {
+                Long serverId = serverIdOf.apply(row);
+                if (null != serverId) {
+                    index.byServerId.put(serverId, row);
+                }
+                index.byName.put(nameOf.apply(row), row);
+            }
+            return index;
+        }
+
+        /**
+         * Get the local rows that have a server ID, by their server ID. Live view.
+         *
+         * @return  Map of rows by server ID.
+         */
+        @NonNull
+        /* package-private */ Map<Long, T> getByServerId() {
+            return byServerId;
+        }
+
+        @Nullable
+        private T findByServerId(long serverId) {
+            return byServerId.get(serverId);
+        }
+
+        @Nullable
+        private T findByName(@NonNull String name) {
+            return byName.get(name);
+        }
+
+        private void rename(@NonNull T row, @NonNull String oldName, @NonNull String newName) {
+            if (row == byName.get(oldName)) {
+                byName.remove(oldName);
+            }
+            byName.put(newName, row);
+        }
+
+        private void claim(@NonNull T row, long serverId) {
+            byServerId.put(serverId, row);
+        }
+    }
+
+    /**
+     * Plan the merge of downloaded categories or sub-categories.
+     *
+     * @param serverCategories  Categories from the server, converted to entities.
+     * @param localIndex        Index of the local categories, updated by the plan.
+     * @param isUpdate          true if this is an update sync, false if it is a first sync.
+     * @return                  MergePlan. Updated rows are modified in place.
+     * @param <E>               CategoryEntity or SubCategoryEntity.
+     */
+    @NonNull
+    /* package-private */ static <E extends AbstractCategoryEntity> MergePlan<E> planCategories(
+            @NonNull List<E> serverCategories, @NonNull LocalIndex<E> localIndex,
+            boolean isUpdate) {
+        MergePlan<E> plan = new MergePlan<>();
+
+        for (E serverCategory : serverCategories) {
+            Long serverId = serverCategory.getServerId();
+            if (null == serverId) {
+                // Shouldn't really happen
+                continue;
+            }
+
+            E local = localIndex.findByServerId(serverId);
+            boolean changed = false;
+            if (null == local) {
+                local = localIndex.findByName(serverCategory.getName());
+                if (null == local) {
+                    plan.inserts.add(serverCategory);
+                    continue;
+                }
+                if (null != local.getServerId()) {
+                    // Name taken by a different server category, inserting would only fail
+                    plan.unchanged.add(local);
+                    continue;
+                }
+
+                // Not yet assigned a server ID, so this is the same category
+                local.setServerId(serverId);
+                localIndex.claim(local, serverId);
+                changed = true;
+            }
+
+            if (isUpdate) {
+                if (!local.getName().equals(serverCategory.getName())) {
+                    localIndex.rename(local, local.getName(), serverCategory.getName());
+                    local.setName(serverCategory.getName());
+                    changed = true;
+                }
+                if (!local.getDescription().equals(serverCategory.getDescription())) {
+                    local.setDescription(serverCategory.getDescription());
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                plan.updates.add(local);
+            } else {
+                plan.unchanged.add(local);
+            }
+        }
+
+        return plan;
+    }
+
+    /**
+     * Plan the merge of downloaded drills.
+     * <br><br>
+     * Each DTO is converted at most once, and only if it is new. Categories are compared by their
+     * local IDs, after mapping the DTO's server IDs with the given maps, same as
+     * {@link DrillDTO#toDrill(Map, Map)} does.
+     *
+     * @param serverDrills      Drills from the server.
+     * @param localIndex        Index of the local drills, updated by the plan.
+     * @param categoryMap       Local CategoryEntities by their server ID.
+     * @param subCategoryMap    Local SubCategoryEntities by their server ID.
+     * @param isUpdate          true if this is an update sync, false if it is a first sync.
+     * @return                  MergePlan. Updated drills are modified in place.
+     */
+    @NonNull
+    /* package-private */ static MergePlan<Drill> planDrills(
+            @NonNull List<DrillDTO> serverDrills, @NonNull LocalIndex<Drill> localIndex,
+            @NonNull Map<Long, CategoryEntity> categoryMap,
+            @NonNull Map<Long, SubCategoryEntity> subCategoryMap, boolean isUpdate) {
+        MergePlan<Drill> plan = new MergePlan<>();
+
+        for (DrillDTO serverDrill : serverDrills) {
+            Drill local = localIndex.findByServerId(serverDrill.getId());
+            boolean changed = false;
+            if (null == local) {
+                local = localIndex.findByName(serverDrill.getName());
+                if (null == local) {
+                    plan.inserts.add(serverDrill.toDrill(categoryMap, subCategoryMap));
+                    continue;
+                }
+                if (null != local.getServerDrillId()) {
+                    // Name taken by a different server drill, inserting would only fail
+                    plan.unchanged.add(local);
+                    continue;
+                }
+
+                // Not yet assigned a server ID, so this is the same drill
+                local.setServerDrillId(serverDrill.getId());
+                localIndex.claim(local, serverDrill.getId());
+                changed = true;
+            }
+
+            if (isUpdate) {
+                if (!local.getName().equals(serverDrill.getName())) {
+                    localIndex.rename(local, local.getName(), serverDrill.getName());
+                    local.setName(serverDrill.getName());
+                    changed = true;
+                }
+
+                List<CategoryEntity> categories = resolve(serverDrill.getCategories(),
+                        CategoryDTO::getId, categoryMap);
+                if (!sameIds(local.getCategories(), categories)) {
+                    local.setCategories(categories);
+                    changed = true;
+                }
+
+                List<SubCategoryEntity> subCategories = resolve(serverDrill.getSubCategories(),
+                        SubCategoryDTO::getId, subCategoryMap);
+                if (!sameIds(local.getSubCategories(), subCategories)) {
+                    local.setSubCategories(subCategories);
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                plan.updates.add(local);
+            } else {
+                plan.unchanged.add(local);
+            }
+        }
+
+        return plan;
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Map server DTOs to their local entities, skipping any not saved locally.
+     */
+    @NonNull
+    private static <D, E> List<E> resolve(@NonNull List<D> dtos,
+                                          @NonNull Function<D, Long> serverIdOf,
+                                          @NonNull Map<Long, E> localByServerId) {
+        List<E> entities = new ArrayList<>(dtos.size());
+        for (D dto : dtos) {
+            E entity = localByServerId.get(serverIdOf.apply(dto));
+            if (null != entity) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    private static boolean sameIds(@NonNull List<? extends AbstractCategoryEntity> current,
+                                   @NonNull List<? extends AbstractCategoryEntity> planned) {
+        Set<Long> currentIds = new HashSet<>();
+        for (AbstractCategoryEntity category : current) {
+            currentIds.add(category.getId());
+        }
+        Set<Long> plannedIds = new HashSet<>();
+        for (AbstractCategoryEntity category : planned) {
+            plannedIds.add(category.getId());
+        }
+        return currentIds.equals(plannedIds);
+    }
+}
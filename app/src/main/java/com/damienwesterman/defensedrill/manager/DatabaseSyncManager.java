@@ -0,0 +1,142 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.manager;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import com.damienwesterman.defensedrill.service.CheckServerUpdateWorker;
+import com.damienwesterman.defensedrill.service.DatabaseSyncWorker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manager for scheduling background database syncs with WorkManager.
+ * <br><br>
+ * The server is periodically checked for updates by {@link CheckServerUpdateWorker}, which
+ * requests a {@link DatabaseSyncWorker} sync when there are any. Both are unique work, so there is
+ * only ever one update check schedule and one sync queued or running at a time.
+ */
+public class DatabaseSyncManager {
+    /** Unique work name of the periodic update check */
+    public static final String WORK_NAME_UPDATE_CHECK = "periodic_update_check";
+    /** Unique work name of the database sync */
+    public static final String WORK_NAME_SYNC = "database_sync";
+    /** How often the server is checked for updates */
+    public static final long UPDATE_CHECK_INTERVAL_HOURS = 6;
+
+    private final Context applicationContext;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationContext Application Context.
+     */
+    public DatabaseSyncManager(@NonNull Context applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Schedule the periodic update check. Does nothing if it is already scheduled, so it is safe to
+     * call on every app start.
+     */
+    public void schedulePeriodicUpdateCheck() {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                    CheckServerUpdateWorker.class, UPDATE_CHECK_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .setRequiresBatteryNotLow(true)
+                        .build())
+                .build();
+
+        getWorkManager().enqueueUniquePeriodicWork(WORK_NAME_UPDATE_CHECK,
+                ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Request a background sync of the database. Does nothing if one is already queued or
+     * running.
+     */
+    public void requestSync() {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(DatabaseSyncWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .setRequiresBatteryNotLow(true)
+                        .setRequiresStorageNotLow(true)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        getWorkManager().enqueueUniqueWork(WORK_NAME_SYNC, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Cancel the background sync, if one is queued or running.
+     * <br><br>
+     * NOTE: A running sync is stopped, but anything it has already saved is kept.
+     */
+    public void cancelSync() {
+        getWorkManager().cancelUniqueWork(WORK_NAME_SYNC);
+    }
+
+    /**
+     * Get the state of the background sync. While running, its progress holds
+     * {@link DatabaseSyncWorker#KEY_DRILLS_SAVED}.
+     *
+     * @return  LiveData of the sync's WorkInfo, at most one.
+     */
+    @NonNull
+    public LiveData<List<WorkInfo>> getSyncWorkInfo() {
+        return getWorkManager().getWorkInfosForUniqueWorkLiveData(WORK_NAME_SYNC);
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Get the WorkManager. Retrieved on use rather than construction, as WorkManager is
+     * initialized on demand with the Application's Hilt worker factory.
+     *
+     * @return  WorkManager.
+     */
+    @NonNull
+    private WorkManager getWorkManager() {
+        return WorkManager.getInstance(applicationContext);
+    }
+}
@@ -49,4 +49,16 @@ public class ManagerDependenciesModule {
         return new DefenseDrillNotificationManager(
                 context, context.getSystemService(NotificationManager.class));
     }
+
+    @Provides
+    @Singleton
+    public MemoryCacheManager getMemoryCacheManager() {
+        return new MemoryCacheManager();
+    }
+
+    @Provides
+    @Singleton
+    public DatabaseSyncManager getDatabaseSyncManager(@ApplicationContext Context context) {
+        return new DatabaseSyncManager(context);
+    }
 }
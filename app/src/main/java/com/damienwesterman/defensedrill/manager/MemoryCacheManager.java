@@ -0,0 +1,246 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.manager;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.damienwesterman.defensedrill.common.TrimmableCache;
+import com.damienwesterman.defensedrill.data.local.AbstractCategoryEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Central registry for in memory caches throughout the app. Registered with the Application as a
+ * {@link ComponentCallbacks2} so that caches are trimmed or cleared as Android signals memory
+ * pressure, instead of the whole process being killed.
+ * <br><br>
+ * Caches register with a {@link Priority}; the lower the priority, the earlier it is given up.
+ */
+public class MemoryCacheManager implements ComponentCallbacks2 {
+    private static final String TAG = MemoryCacheManager.class.getSimpleName();
+
+    /**
+     * How valuable a cache is to keep around. Lower priority caches are trimmed and cleared first.
+     */
+    public enum Priority {
+        /** Cheap to re-load, such as lists of entities queried from the local database. */
+        LOW,
+        /** Moderately expensive to re-load, such as results requiring some processing. */
+        MEDIUM,
+        /** Expensive to re-load, such as results of network requests. */
+        HIGH
+    }
+
+    /**
+     * Snapshot of a registered cache's state, for diagnostics.
+     */
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class CacheStats {
+        @NonNull
+        private final String name;
+        @NonNull
+        private final Priority priority;
+        private final long estimatedSizeBytes;
+        private final long trimCount;
+        private final long clearCount;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        @NonNull
+        private final String name;
+        @NonNull
+        private final Priority priority;
+        @NonNull
+        private final TrimmableCache cache;
+        private final AtomicLong trimCount = new AtomicLong();
+        private final AtomicLong clearCount = new AtomicLong();
+    }
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a cache to be trimmed or cleared under memory pressure. Caches with a shorter
+     * lifetime than the application (i.e. ViewModels) <i>must</i> call {@link #unregister} when
+     * they are destroyed.
+     *
+     * @param name      Name of the cache, used for diagnostics.
+     * @param priority  How valuable this cache is to keep around.
+     * @param cache     Cache to register.
+     */
+    public void register(@NonNull String name, @NonNull Priority priority,
+                         @NonNull TrimmableCache cache) {
+        entries.add(new Entry(name, priority, cache));
+    }
+
+    /**
+     * Stop managing a previously registered cache. Does nothing if it was never registered.
+     *
+     * @param cache Cache to unregister.
+     */
+    public void unregister(@NonNull TrimmableCache cache) {
+        entries.removeIf(entry -> entry.cache == cache);
+    }
+
+    /**
+     * Get a snapshot of all registered caches.
+     *
+     * @return List of CacheStats, one for each registered cache.
+     */
+    @NonNull
+    public List<CacheStats> getCacheStats() {
+        List<CacheStats> stats = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            stats.add(new CacheStats(entry.name, entry.priority,
+                    entry.cache.getEstimatedSizeBytes(),
+                    entry.trimCount.get(), entry.clearCount.get()));
+        }
+
+        return stats;
+    }
+
+    /**
+     * Get the combined size estimate of all registered caches.
+     *
+     * @return Size estimate in bytes.
+     */
+    public long getTotalEstimatedSizeBytes() {
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.cache.getEstimatedSizeBytes();
+        }
+
+        return total;
+    }
+
+    /**
+     * Rough estimate of the memory held by a list of categories or sub-categories, for use in
+     * {@link TrimmableCache#getEstimatedSizeBytes()}.
+     *
+     * @param entities  List of AbstractCategoryEntity objects, can be null.
+     * @return          Size estimate in bytes.
+     */
+    public static long estimateSizeBytes(@Nullable List<? extends AbstractCategoryEntity> entities) {
+        if (null == entities) {
+            return 0;
+        }
+
+        // Object headers and fields, then two bytes per character for the strings
+        final long ENTITY_OVERHEAD_BYTES = 64;
+        long total = 0;
+        for (AbstractCategoryEntity entity : entities) {
+            total += ENTITY_OVERHEAD_BYTES
+                    + 2L * (entity.getName().length() + entity.getDescription().length());
+        }
+
+        return total;
+    }
+
+    // =============================================================================================
+    // ComponentCallbacks2 Methods
+    // =============================================================================================
+    @Override
+    public void onTrimMemory(int level) {
+        int severity = trimLevelToSeverity(level);
+        if (0 == severity) {
+            return;
+        }
+
+        for (Entry entry : entries) {
+            /*
+            A cache is trimmed once the severity reaches one past its priority, and cleared once it
+            reaches two past. So LOW caches go first, and everything is gone at the highest level.
+             */
+            int priority = entry.priority.ordinal();
+            if (severity >= priority + 2) {
+                entry.cache.clear();
+                entry.clearCount.incrementAndGet();
+            } else if (severity == priority + 1) {
+                entry.cache.trim();
+                entry.trimCount.incrementAndGet();
+            }
+        }
+
+        Log.i(TAG, "onTrimMemory(" + level + "), caches now hold roughly "
+                + getTotalEstimatedSizeBytes() + " bytes");
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // Not relevant
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Convert an onTrimMemory() level into a severity from 0 (do nothing) to 4 (clear everything).
+     * The foreground (RUNNING_*) levels are considered as severe as their background counterparts.
+     *
+     * @param level Level passed to {@link #onTrimMemory(int)}.
+     * @return      Severity from 0 to 4.
+     */
+    @SuppressWarnings("deprecation") // RUNNING_* levels are still delivered on older devices
+    private static int trimLevelToSeverity(int level) {
+        if (TRIM_MEMORY_COMPLETE <= level) {
+            return 4;
+        } else if (TRIM_MEMORY_MODERATE <= level) {
+            return 3;
+        } else if (TRIM_MEMORY_BACKGROUND <= level) {
+            return 2;
+        } else if (TRIM_MEMORY_UI_HIDDEN <= level) {
+            return 1;
+        } else if (TRIM_MEMORY_RUNNING_CRITICAL <= level) {
+            return 3;
+        } else if (TRIM_MEMORY_RUNNING_LOW <= level) {
+            return 2;
+        } else if (TRIM_MEMORY_RUNNING_MODERATE <= level) {
+            return 1;
+        }
+
+        return 0;
+    }
+}
@@ -50,6 +50,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -187,22 +188,35 @@ public class SimulatedAttackManager {
     }
 
     // =============================================================================================
-    // Private Helper Methods
+    // Public Methods
     // =============================================================================================
     /**
-     * Randomly select a Drill from a "Self Defense" category and push a notification to the user.
+     * Get the drills a simulated attack may select from, those in the "Self Defense" category.
      *
-     * @return  true if we successfully sent a notification, otherwise false.
+     * @return  List of Drills, empty if there are none.
      */
-    private boolean sendSimulatedAttackNotification() {
+    @NonNull
+    public List<Drill> getSimulatedAttackCandidates() {
         Optional<CategoryEntity> optSelfDefenseCategory =
                 drillRepo.getCategory(Constants.CATEGORY_NAME_SELF_DEFENSE);
         if (!optSelfDefenseCategory.isPresent()) {
             Log.w(TAG, "No Self Defense Category");
-            return false;
+            return new ArrayList<>();
         }
 
-        List<Drill> drills = drillRepo.getAllDrillsByCategoryId(optSelfDefenseCategory.get().getId());
+        return drillRepo.getAllDrillsByCategoryId(optSelfDefenseCategory.get().getId());
+    }
+
+    // =============================================================================================
+    // Private Helper Methods
+    // =============================================================================================
+    /**
+     * Randomly select a Drill from a "Self Defense" category and push a notification to the user.
+     *
+     * @return  true if we successfully sent a notification, otherwise false.
+     */
+    private boolean sendSimulatedAttackNotification() {
+        List<Drill> drills = getSimulatedAttackCandidates();
         if (drills.isEmpty()) {
             Log.w(TAG, "No Self Defense Drills");
             return false;
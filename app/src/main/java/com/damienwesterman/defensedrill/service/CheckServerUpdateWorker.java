@@ -0,0 +1,126 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.hilt.work.HiltWorker;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.damienwesterman.defensedrill.data.local.SharedPrefs;
+import com.damienwesterman.defensedrill.data.remote.ApiRepo;
+import com.damienwesterman.defensedrill.data.remote.HttpValidatorStore;
+import com.damienwesterman.defensedrill.domain.DownloadDatabaseUseCase;
+import com.damienwesterman.defensedrill.manager.DatabaseSyncManager;
+
+import java.util.concurrent.TimeUnit;
+
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedInject;
+import retrofit2.HttpException;
+
+/**
+ * Background worker to check the server for updates since our last download. If there are any, a
+ * background sync is requested. Scheduled periodically by {@link DatabaseSyncManager}.
+ * <br><br>
+ * Only asks whether anything has changed (see {@link ApiRepo#hasChangesAfterTimestamp}), nothing
+ * is downloaded. Requests are made with the validators saved by the last sync of the same changes,
+ * so if they have not been downloaded yet the server can just reply 304. The received validators
+ * are not saved, that is left to {@link DownloadDatabaseUseCase} once the changes are saved.
+ */
+@HiltWorker
+public class CheckServerUpdateWorker extends Worker {
+    private static final String TAG = CheckServerUpdateWorker.class.getSimpleName();
+    /** A check this recent is trusted, in case the work is run again early */
+    private static final long MIN_CHECK_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final SharedPrefs sharedPrefs;
+    private final ApiRepo apiRepo;
+    private final HttpValidatorStore validatorStore;
+    private final DatabaseSyncManager syncManager;
+
+    @AssistedInject
+    public CheckServerUpdateWorker(@Assisted @NonNull Context context,
+                                   @Assisted @NonNull WorkerParameters workerParams,
+                                   SharedPrefs sharedPrefs, ApiRepo apiRepo,
+                                   HttpValidatorStore validatorStore,
+                                   DatabaseSyncManager syncManager) {
+        super(context, workerParams);
+
+        this.sharedPrefs = sharedPrefs;
+        this.apiRepo = apiRepo;
+        this.validatorStore = validatorStore;
+        this.syncManager = syncManager;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        long lastUpdate = sharedPrefs.getLastDrillUpdateTime();
+        long now = System.currentTimeMillis();
+        long lastCheck = sharedPrefs.getLastUpdateCheckTime();
+        // A check from before the last download is out of date
+        boolean recentlyChecked = lastUpdate <= lastCheck
+                && now - lastCheck < MIN_CHECK_INTERVAL_MILLIS;
+        if (recentlyChecked
+                || 0 >= lastUpdate
+                || sharedPrefs.getJwt().isEmpty()) {
+            // Nothing downloaded yet, so nothing to update
+            return Result.success();
+        }
+
+        String validatorVariant = DownloadDatabaseUseCase.syncValidatorVariant(lastUpdate);
+        try {
+            boolean hasChanges = apiRepo.hasChangesAfterTimestamp(lastUpdate,
+                    validatorStore.get(DownloadDatabaseUseCase.VALIDATOR_KEY_DRILLS,
+                            validatorVariant),
+                    validatorStore.get(DownloadDatabaseUseCase.VALIDATOR_KEY_CATEGORIES,
+                            validatorVariant),
+                    validatorStore.get(DownloadDatabaseUseCase.VALIDATOR_KEY_SUB_CATEGORIES,
+                            validatorVariant))
+                    .blockingFirst();
+
+            sharedPrefs.setLastUpdateCheckTime(now);
+            if (hasChanges) {
+                // There are updates! Sync them in the background
+                syncManager.requestSync();
+            }
+            return Result.success();
+        } catch (HttpException e) {
+            // Such as logged out, trying again will not help. Next period will check again.
+            Log.w(TAG, "Update check failed: " + e.getMessage());
+            return Result.failure();
+        } catch (RuntimeException e) {
+            // Network issues
+            Log.w(TAG, "Update check failed, retrying: " + e.getMessage());
+            return Result.retry();
+        }
+    }
+}
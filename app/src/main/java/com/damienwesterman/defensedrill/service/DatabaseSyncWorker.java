@@ -0,0 +1,113 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.service;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.concurrent.futures.CallbackToFutureAdapter;
+import androidx.hilt.work.HiltWorker;
+import androidx.work.Data;
+import androidx.work.ListenableWorker;
+import androidx.work.WorkerParameters;
+
+import com.damienwesterman.defensedrill.domain.DownloadDatabaseUseCase;
+import com.damienwesterman.defensedrill.manager.DatabaseSyncManager;
+import com.damienwesterman.defensedrill.manager.DefenseDrillNotificationManager;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedInject;
+
+/**
+ * Background worker that syncs the database with the server through
+ * {@link DownloadDatabaseUseCase}. Scheduled by {@link DatabaseSyncManager}.
+ * <br><br>
+ * Failed syncs are retried with backoff. If the last attempt fails too, the user is notified that
+ * there is an update to download themselves. If a download is already running, such as one the
+ * user started, the sync is left to it.
+ */
+@HiltWorker
+public class DatabaseSyncWorker extends ListenableWorker {
+    /** Progress key for the number of drills saved so far */
+    public static final String KEY_DRILLS_SAVED = "drills_saved";
+    /** Output key for the number of drills that were new to the database */
+    public static final String KEY_NEW_DRILLS = "new_drills";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DownloadDatabaseUseCase downloadDb;
+    private final DefenseDrillNotificationManager notificationManager;
+
+    @AssistedInject
+    public DatabaseSyncWorker(@Assisted @NonNull Context context,
+                              @Assisted @NonNull WorkerParameters workerParams,
+                              DownloadDatabaseUseCase downloadDb,
+                              DefenseDrillNotificationManager notificationManager) {
+        super(context, workerParams);
+
+        this.downloadDb = downloadDb;
+        this.notificationManager = notificationManager;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<Result> startWork() {
+        return CallbackToFutureAdapter.getFuture(completer -> {
+            downloadDb.download(
+                    newDrillCount -> completer.set(Result.success(new Data.Builder()
+                            .putInt(KEY_NEW_DRILLS, newDrillCount)
+                            .build())),
+                    errorMessage -> {
+                        if (DownloadDatabaseUseCase.ERROR_DOWNLOAD_IN_PROGRESS
+                                .equals(errorMessage)) {
+                            // The other download is already saving the same changes
+                            completer.set(Result.success());
+                        } else if (MAX_ATTEMPTS <= getRunAttemptCount() + 1) {
+                            // Leave it to the user
+                            notificationManager.notifyDatabaseUpdateAvailable();
+                            completer.set(Result.failure());
+                        } else {
+                            completer.set(Result.retry());
+                        }
+                    },
+                    drillsSaved -> setProgressAsync(new Data.Builder()
+                            .putInt(KEY_DRILLS_SAVED, drillsSaved)
+                            .build())
+            );
+
+            return DatabaseSyncWorker.class.getSimpleName();
+        });
+    }
+
+    @Override
+    public void onStopped() {
+        super.onStopped();
+
+        // Cancelled, or the constraints are no longer met
+        downloadDb.cancel();
+    }
+}
@@ -57,6 +57,7 @@ import androidx.lifecycle.ViewModelProvider;
 import com.damienwesterman.defensedrill.R;
 import com.damienwesterman.defensedrill.data.local.CategoryEntity;
 import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.DrillSessionEntity;
 import com.damienwesterman.defensedrill.data.local.SharedPrefs;
 import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
 import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
@@ -558,7 +559,7 @@ public class DrillInfoActivity extends AppCompatActivity {
         builder.setPositiveButton("Save", (dialog, position) -> {
             drill.setConfidence(Constants.confidencePositionToWeight(selectedOption[0]));
             drill.setLastDrilled(System.currentTimeMillis());
-            viewModel.saveDrill(drill, true, new OperationCompleteCallback() {
+            viewModel.completeDrill(drill, getSessionSource(), new OperationCompleteCallback() {
                 @Override
                 public void onSuccess() {
                     runOnUiThread(() -> UiUtils.displayDismissibleSnackbar(
@@ -580,7 +581,7 @@ public class DrillInfoActivity extends AppCompatActivity {
         });
         builder.setNegativeButton("Skip", (dialog, position) -> {
             drill.setLastDrilled(System.currentTimeMillis());
-            viewModel.saveDrill(drill, true, new OperationCompleteCallback() {
+            viewModel.completeDrill(drill, getSessionSource(), new OperationCompleteCallback() {
                 @Override
                 public void onSuccess() {
                     // Do nothing
@@ -906,6 +907,28 @@ public class DrillInfoActivity extends AppCompatActivity {
         return drill;
     }
 
+    /**
+     * Get how the user came to complete the current drill, for the drill's practice history.
+     *
+     * @return  DrillSessionEntity.Source, or null if this completion should not be recorded.
+     */
+    @Nullable
+    private DrillSessionEntity.Source getSessionSource() {
+        switch (activityState) {
+            case GENERATED_DRILL:
+            case REGENERATED_DRILL:
+                return DrillSessionEntity.Source.GENERATED;
+            case SIMULATED_ATTACK_DRILL:
+                return DrillSessionEntity.Source.SIMULATED_ATTACK;
+            case DISPLAYING_DRILL:
+                return DrillSessionEntity.Source.MANUAL;
+            case ONBOARDING_DRILL:
+            default:
+                // Onboarding uses a dummy drill
+                return null;
+        }
+    }
+
     /**
      * Collect and save the current drill info on screen to the database.
      *
@@ -56,7 +56,6 @@ import com.damienwesterman.defensedrill.data.local.SharedPrefs;
 import com.damienwesterman.defensedrill.domain.CheckPhoneInternetConnection;
 import com.damienwesterman.defensedrill.manager.DefenseDrillNotificationManager;
 import com.damienwesterman.defensedrill.manager.SimulatedAttackManager;
-import com.damienwesterman.defensedrill.service.CheckServerUpdateService;
 import com.damienwesterman.defensedrill.ui.adapter.ViewPagerAdapter;
 import com.damienwesterman.defensedrill.ui.common.OnboardingUtils;
 import com.damienwesterman.defensedrill.ui.common.UiUtils;
@@ -80,8 +79,6 @@ import me.relex.circleindicator.CircleIndicator3;
 public class HomeActivity extends AppCompatActivity {
     private static final String TAG = HomeActivity.class.getSimpleName();
 
-    private static boolean isUpdateServiceStarted = false;
-
     private LinearLayout rootView;
     private Context context;
 
@@ -154,12 +151,6 @@ public class HomeActivity extends AppCompatActivity {
         rootView = findViewById(R.id.activityHome);
         context = this;
 
-        // Have to do this here so service is not started when the app is launched in the background
-        if (!isUpdateServiceStarted) {
-            CheckServerUpdateService.startService(this);
-            isUpdateServiceStarted = true;
-        }
-
         checkForOnboarding(appToolbar);
     }
 
@@ -36,19 +36,19 @@ import androidx.annotation.OptIn;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.util.UnstableApi;
-import androidx.media3.datasource.DefaultHttpDataSource;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
 import androidx.media3.ui.PlayerView;
 
 import com.damienwesterman.defensedrill.R;
-import com.damienwesterman.defensedrill.data.local.SharedPrefs;
 import com.damienwesterman.defensedrill.data.remote.ApiRepo;
 import com.damienwesterman.defensedrill.common.Constants;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.AndroidEntryPoint;
+import okhttp3.OkHttpClient;
 
 /**
  * Activity that only plays video.
@@ -58,7 +58,7 @@ public class InstructionsVideoActivity extends AppCompatActivity {
     private final static String TAG = InstructionsVideoActivity.class.getSimpleName();
 
     @Inject
-    SharedPrefs sharedPrefs;
+    OkHttpClient okHttpClient;
 
     private ExoPlayer player;
 
@@ -100,8 +100,10 @@ public class InstructionsVideoActivity extends AppCompatActivity {
             return;
         }
 
-        DefaultHttpDataSource.Factory dataSourceFactory = new DefaultHttpDataSource.Factory()
-            .setDefaultRequestProperties(ApiRepo.getHeaders(sharedPrefs.getJwt()));
+        // Share the app's client, so the video can reuse an open connection to the server and
+        // have the JWT attached
+        OkHttpDataSource.Factory dataSourceFactory = new OkHttpDataSource.Factory(okHttpClient)
+            .setDefaultRequestProperties(ApiRepo.getHeaders());
 
         MediaItem mediaItem = new MediaItem.Builder()
             .setUri(ApiRepo.createVideoUri(videoId))
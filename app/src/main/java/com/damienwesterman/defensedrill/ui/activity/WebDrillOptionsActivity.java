@@ -211,7 +211,7 @@ public class WebDrillOptionsActivity extends AppCompatActivity {
         builder.setIcon(R.drawable.warning_icon);
         builder.setMessage("Are you sure you want to log out?");
         builder.setPositiveButton("Log Out", (dialog, position) -> {
-            new Thread(() -> sharedPrefs.setJwt("")).start();
+            viewModel.logout();
             UiUtils.displayDismissibleSnackbar(rootView, "Logout Successful!");
         });
         builder.setNegativeButton("Cancel", null);
@@ -239,10 +239,10 @@ public class WebDrillOptionsActivity extends AppCompatActivity {
         AlertDialog alert = builder.create();
 
         viewModel.downloadDb(
-            newDrills -> {
+            newDrills -> runOnUiThread(() -> {
                 alert.dismiss();
                 selectKnownDrillsPopup(newDrills);
-            },
+            }),
             error -> {
                 loadingText.setVisibility(View.GONE);
                 progressBar.setVisibility(View.GONE);
@@ -35,10 +35,14 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 
+import com.damienwesterman.defensedrill.common.TrimmableCache;
 import com.damienwesterman.defensedrill.data.local.CategoryEntity;
 import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.DrillNetworkLinks;
 import com.damienwesterman.defensedrill.data.local.DrillRepository;
+import com.damienwesterman.defensedrill.data.local.DrillSessionEntity;
 import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
+import com.damienwesterman.defensedrill.manager.MemoryCacheManager;
 import com.damienwesterman.defensedrill.data.remote.ApiRepo;
 import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
 import com.damienwesterman.defensedrill.data.remote.dto.InstructionsDTO;
@@ -46,6 +50,7 @@ import com.damienwesterman.defensedrill.data.remote.dto.RelatedDrillDTO;
 import com.damienwesterman.defensedrill.common.OperationCompleteCallback;
 import com.damienwesterman.defensedrill.common.Constants;
 import com.damienwesterman.defensedrill.domain.DrillGenerator;
+import com.damienwesterman.defensedrill.domain.DrillInstructionsPrefetcher;
 
 import java.net.SocketTimeoutException;
 import java.util.List;
@@ -60,6 +65,7 @@ import javax.net.ssl.HttpsURLConnection;
 
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.Getter;
@@ -80,18 +86,37 @@ public class DrillInfoViewModel extends AndroidViewModel {
     private final MutableLiveData<List<InstructionsDTO>> uiInstructionsList;
     @Getter
     private final MutableLiveData<List<RelatedDrillDTO>> uiRelatedDrillsList;
+    /* Volatile, as categoriesCache clears these from the main thread while the executor loads */
     @Nullable
-    private List<CategoryEntity> allCategories;
+    private volatile List<CategoryEntity> allCategories;
     @Nullable
-    private List<SubCategoryEntity> allSubCategories;
+    private volatile List<SubCategoryEntity> allSubCategories;
     private final DrillRepository drillRepo;
     private final ApiRepo apiRepo;
+    private final MemoryCacheManager memoryCacheManager;
+    private final DrillInstructionsPrefetcher prefetcher;
+    /** Releases the category lists under memory pressure, they are re-loaded on demand */
+    private final TrimmableCache categoriesCache = new TrimmableCache() {
+        @Override
+        public long getEstimatedSizeBytes() {
+            return MemoryCacheManager.estimateSizeBytes(allCategories)
+                    + MemoryCacheManager.estimateSizeBytes(allSubCategories);
+        }
+
+        @Override
+        public void clear() {
+            allCategories = null;
+            allSubCategories = null;
+        }
+    };
     @Nullable
     private DrillGenerator drillGenerator;
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     @Inject
-    public DrillInfoViewModel(Application application, DrillRepository drillRepo, ApiRepo apiRepo) {
+    public DrillInfoViewModel(Application application, DrillRepository drillRepo, ApiRepo apiRepo,
+                              MemoryCacheManager memoryCacheManager,
+                              DrillInstructionsPrefetcher prefetcher) {
         super(application);
 
         uiCurrentDrill = new MutableLiveData<>();
@@ -99,6 +124,17 @@ public class DrillInfoViewModel extends AndroidViewModel {
         uiRelatedDrillsList = new MutableLiveData<>();
         this.drillRepo = drillRepo;
         this.apiRepo = apiRepo;
+        this.memoryCacheManager = memoryCacheManager;
+        this.prefetcher = prefetcher;
+        memoryCacheManager.register(DrillInfoViewModel.class.getSimpleName() + " categories",
+                MemoryCacheManager.Priority.LOW, categoriesCache);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+
+        memoryCacheManager.unregister(categoriesCache);
     }
 
     /**
@@ -187,15 +223,56 @@ public class DrillInfoViewModel extends AndroidViewModel {
         });
     }
 
+    /**
+     * Save a drill the user just completed, recording it in the drill's practice history.
+     *
+     * @param drill     Completed drill, with its new confidence and lastDrilled already set.
+     * @param source    How the user came to complete the drill. If null, the drill is only saved
+     *                  and no session is recorded, such as for the onboarding drill.
+     * @param callback  Callback to call when the update is finished.
+     */
+    public void completeDrill(@NonNull Drill drill, @Nullable DrillSessionEntity.Source source,
+                              @Nullable OperationCompleteCallback callback) {
+        if (null == source) {
+            saveDrill(drill, true, callback);
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                if (!drillRepo.recordDrillSession(drill, source)) {
+                    if (null != callback) {
+                        callback.onFailure("Something went wrong");
+                    }
+                } else {
+                    uiCurrentDrill.postValue(drill);
+                    if (null != callback) {
+                        callback.onSuccess();
+                    }
+                }
+            } catch (SQLiteConstraintException e) {
+                if (null != callback) {
+                    callback.onFailure("Issue saving Drill");
+                }
+            }
+        });
+    }
+
     /**
      * Get the list of all categories in the database.
      * <br><br>
-     * {@link #loadAllCategories()} should have been called prior otherwise will return null.
+     * {@link #loadAllCategories()} should have been called prior otherwise will return null. May
+     * also return null if the list was cleared due to memory pressure, in which case it is
+     * re-loaded in the background.
      *
      * @return List of CategoryEntity objects.
      */
     @Nullable
     public List<CategoryEntity> getAllCategories() {
+        if (null == allCategories) {
+            // May have been cleared under memory pressure, have it ready for next time
+            loadAllCategories();
+        }
         return allCategories;
     }
 
@@ -203,11 +280,17 @@ public class DrillInfoViewModel extends AndroidViewModel {
      * Get the list of all sub-categories in the database.
      * <br><br>
      * {@link #loadAllSubCategories()} should have been called prior otherwise will return null.
+     * May also return null if the list was cleared due to memory pressure, in which case it is
+     * re-loaded in the background.
      *
      * @return List of SubCategoryEntity objects.
      */
     @Nullable
     public List<SubCategoryEntity> getAllSubCategories() {
+        if (null == allSubCategories) {
+            // May have been cleared under memory pressure, have it ready for next time
+            loadAllSubCategories();
+        }
         return allSubCategories;
     }
 
@@ -243,28 +326,84 @@ public class DrillInfoViewModel extends AndroidViewModel {
     }
 
     /**
-     * Fetch and load instructions and related drills for the Drill. Drill has to have been
-     * initialized otherwise nothing will happen.
+     * Load instructions and related drills for the Drill. Drill has to have been initialized
+     * otherwise nothing will happen.
+     * <br><br>
+     * The locally cached copy (saved during the database sync or a previous load) is loaded
+     * straight away. It is only refreshed from the server in the background if it is missing or
+     * older than {@link DrillNetworkLinks#MAX_AGE_MILLIS}, and if that refresh fails the cached copy
+     * is kept and the callbacks are not called.
      *
      * @param unauthorizedCallback  Callback for when 401 is returned.
      * @param failureCallback       Callback for when the network request fails.
      */
     public void loadNetworkLinks(Runnable unauthorizedCallback, Consumer<String> failureCallback) {
-        if (null != uiCurrentDrill.getValue() && null != uiCurrentDrill.getValue().getServerDrillId()) {
-            Disposable disposable = apiRepo.getDrill(uiCurrentDrill.getValue().getServerDrillId())
+        Drill drill = uiCurrentDrill.getValue();
+        if (null == drill || null == drill.getServerDrillId()) {
+            return;
+        }
+        long serverDrillId = drill.getServerDrillId();
+        String drillName = drill.getName();
+
+        executor.execute(() -> {
+            Optional<DrillNetworkLinks> cachedLinks = drillRepo.getNetworkLinks(serverDrillId);
+            if (cachedLinks.isPresent()) {
+                DrillDTO cachedDrill = DrillDTO.fromNetworkLinks(drillName, cachedLinks.get());
+                postNetworkLinks(cachedDrill);
+                if (!cachedLinks.get().isStale(System.currentTimeMillis())) {
+                    // Fresh enough, no need for a round trip
+                    prefetchLikelyNextDrills(drill, cachedDrill.getRelatedDrills());
+                    return;
+                }
+            }
+
+            // Deferred so that ApiRepo's IllegalArgumentException goes to the error handler
+            Disposable disposable = Observable.defer(() -> apiRepo.getDrill(serverDrillId))
                 .subscribeOn(Schedulers.io())
+                .doOnNext(drillDto -> drillRepo.saveNetworkLinks(
+                        drillDto.toNetworkLinks(System.currentTimeMillis())))
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
-                    drill -> {
-                        this.drillDTO = drill;
-                        uiInstructionsList.postValue(drill.getInstructions());
-                        uiRelatedDrillsList.postValue(drill.getRelatedDrills());
+                    drillDto -> {
+                        postNetworkLinks(drillDto);
+                        prefetchLikelyNextDrills(drill, drillDto.getRelatedDrills());
                     },
-                    throwable -> handleLoadNetworkLinksFailure(throwable,
-                            unauthorizedCallback,
-                            failureCallback)
+                    throwable -> {
+                        if (cachedLinks.isPresent()) {
+                            // Keep showing the cached copy, it will be refreshed next time
+                            Log.w(TAG, "Could not refresh network links: "
+                                    + throwable.getMessage());
+                        } else {
+                            handleLoadNetworkLinksFailure(throwable,
+                                    unauthorizedCallback,
+                                    failureCallback);
+                        }
+                    }
                 );
-        }
+        });
+    }
+
+    /**
+     * Display a drill's instructions and related drills.
+     *
+     * @param drill DrillDTO, fetched from the server or created from the local cache.
+     */
+    private void postNetworkLinks(@NonNull DrillDTO drill) {
+        this.drillDTO = drill;
+        uiInstructionsList.postValue(drill.getInstructions());
+        uiRelatedDrillsList.postValue(drill.getRelatedDrills());
+    }
+
+    /**
+     * Warm the offline cache for the drills likely to be shown after this one, now that this
+     * drill's own network links are taken care of.
+     *
+     * @param drill         Drill currently being shown.
+     * @param relatedDrills Its related drills.
+     */
+    private void prefetchLikelyNextDrills(@NonNull Drill drill,
+                                          @NonNull List<RelatedDrillDTO> relatedDrills) {
+        prefetcher.prefetchLikelyNextDrills(drill, drillGenerator, relatedDrills);
     }
 
     /**
@@ -291,6 +430,10 @@ public class DrillInfoViewModel extends AndroidViewModel {
                     uiInstructionsList.postValue(null);
                     uiRelatedDrillsList.postValue(null);
                     break;
+                case HttpsURLConnection.HTTP_UNAVAILABLE:
+                    // Server is down or overloaded, and already retried
+                    failureCallback.accept("Server is unavailable, please try again later");
+                    break;
                 default:
                     // Should not get here
                     Log.e(TAG, "Received unexpected HttpException: "
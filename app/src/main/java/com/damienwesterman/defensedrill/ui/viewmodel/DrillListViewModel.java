@@ -33,12 +33,15 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 
+import com.damienwesterman.defensedrill.common.TrimmableCache;
 import com.damienwesterman.defensedrill.data.local.CategoryEntity;
 import com.damienwesterman.defensedrill.data.local.Drill;
 import com.damienwesterman.defensedrill.data.local.DrillRepository;
 import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
+import com.damienwesterman.defensedrill.manager.MemoryCacheManager;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -59,17 +62,41 @@ import lombok.Setter;
 public class DrillListViewModel extends AndroidViewModel {
     @Getter
     private final MutableLiveData<List<Drill>> uiDrillsList;
+    /* Volatile, as categoriesCache clears these from the main thread while the executor loads */
     @Nullable
-    private List<CategoryEntity> allCategories;
+    private volatile List<CategoryEntity> allCategories;
     @Nullable
-    private List<SubCategoryEntity> allSubCategories;
+    private volatile List<SubCategoryEntity> allSubCategories;
     @Nullable
     @Setter
     private Set<Long> categoryFilterIds;
     @Nullable
     @Setter
     private Set<Long> subCategoryFilterIds;
+    /*
+    IDs of every category and sub-category, the default filters. Kept out of categoriesCache so
+    that the filters can still be shown after the lists have been cleared.
+     */
+    @Nullable
+    private volatile Set<Long> allCategoryIds;
+    @Nullable
+    private volatile Set<Long> allSubCategoryIds;
     private final DrillRepository repo;
+    private final MemoryCacheManager memoryCacheManager;
+    /** Releases the category lists under memory pressure, they are re-loaded on demand */
+    private final TrimmableCache categoriesCache = new TrimmableCache() {
+        @Override
+        public long getEstimatedSizeBytes() {
+            return MemoryCacheManager.estimateSizeBytes(allCategories)
+                    + MemoryCacheManager.estimateSizeBytes(allSubCategories);
+        }
+
+        @Override
+        public void clear() {
+            allCategories = null;
+            allSubCategories = null;
+        }
+    };
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     @NonNull
     @Getter
@@ -83,12 +110,23 @@ public class DrillListViewModel extends AndroidViewModel {
     }
 
     @Inject
-    public DrillListViewModel(@NonNull Application application, DrillRepository repo) {
+    public DrillListViewModel(@NonNull Application application, DrillRepository repo,
+                              MemoryCacheManager memoryCacheManager) {
         super(application);
 
         this.repo = repo;
+        this.memoryCacheManager = memoryCacheManager;
         uiDrillsList = new MutableLiveData<>();
         sortOrder = SortOrder.SORT_NAME_ASCENDING;
+        memoryCacheManager.register(DrillListViewModel.class.getSimpleName() + " categories",
+                MemoryCacheManager.Priority.LOW, categoriesCache);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+
+        memoryCacheManager.unregister(categoriesCache);
     }
 
     /**
@@ -155,12 +193,18 @@ public class DrillListViewModel extends AndroidViewModel {
     /**
      * Get the list of all categories in the database.
      * <br><br>
-     * {@link #loadAllCategories()} should have been called prior otherwise will return null.
+     * {@link #loadAllCategories()} should have been called prior otherwise will return null. May
+     * also return null if the list was cleared due to memory pressure, in which case it is
+     * re-loaded in the background.
      *
      * @return List of CategoryEntity objects.
      */
     @Nullable
     public List<CategoryEntity> getAllCategories() {
+        if (null == allCategories) {
+            // May have been cleared under memory pressure, have it ready for next time
+            loadAllCategories();
+        }
         return allCategories;
     }
 
@@ -168,11 +212,17 @@ public class DrillListViewModel extends AndroidViewModel {
      * Get the list of all sub-categories in the database.
      * <br><br>
      * {@link #loadAllSubCategories()} should have been called prior otherwise will return null.
+     * May also return null if the list was cleared due to memory pressure, in which case it is
+     * re-loaded in the background.
      *
      * @return List of SubCategoryEntity objects.
      */
     @Nullable
     public List<SubCategoryEntity> getAllSubCategories() {
+        if (null == allSubCategories) {
+            // May have been cleared under memory pressure, have it ready for next time
+            loadAllSubCategories();
+        }
         return allSubCategories;
     }
 
@@ -181,7 +231,12 @@ public class DrillListViewModel extends AndroidViewModel {
      */
     public void loadAllCategories() {
         if (null == allCategories) {
-            executor.execute(() -> allCategories = repo.getAllCategories());
+            executor.execute(() -> {
+                List<CategoryEntity> categories = repo.getAllCategories();
+                allCategoryIds = categories.stream().map(CategoryEntity::getId)
+                        .collect(Collectors.toSet());
+                allCategories = categories;
+            });
         }
     }
 
@@ -191,7 +246,12 @@ public class DrillListViewModel extends AndroidViewModel {
      */
     public void loadAllSubCategories() {
         if (null == allSubCategories) {
-            executor.execute(() -> allSubCategories = repo.getAllSubCategories());
+            executor.execute(() -> {
+                List<SubCategoryEntity> subCategories = repo.getAllSubCategories();
+                allSubCategoryIds = subCategories.stream().map(SubCategoryEntity::getId)
+                        .collect(Collectors.toSet());
+                allSubCategories = subCategories;
+            });
         }
     }
 
@@ -205,9 +265,9 @@ public class DrillListViewModel extends AndroidViewModel {
     @NonNull
     public Set<Long> getCategoryFilterIds() {
         if (null == categoryFilterIds) {
-            if (null != allCategories) {
-                categoryFilterIds = allCategories.stream().map(CategoryEntity::getId)
-                        .collect(Collectors.toSet());
+            Set<Long> categoryIds = allCategoryIds;
+            if (null != categoryIds) {
+                categoryFilterIds = new HashSet<>(categoryIds);
             } else {
                 // Return an empty set while leaving categoryFilterIds null for future checks
                 return Set.of();
@@ -227,9 +287,9 @@ public class DrillListViewModel extends AndroidViewModel {
     @NonNull
     public Set<Long> getSubCategoryFilterIds() {
         if (null == subCategoryFilterIds) {
-            if (null != allSubCategories) {
-                subCategoryFilterIds = allSubCategories.stream().map(SubCategoryEntity::getId)
-                        .collect(Collectors.toSet());
+            Set<Long> subCategoryIds = allSubCategoryIds;
+            if (null != subCategoryIds) {
+                subCategoryFilterIds = new HashSet<>(subCategoryIds);
             } else {
                 // Return an empty set while leaving subCategoryFilterIds null for future checks
                 return Set.of();
@@ -34,11 +34,16 @@ import androidx.lifecycle.AndroidViewModel;
 
 import com.damienwesterman.defensedrill.data.local.Drill;
 import com.damienwesterman.defensedrill.data.local.DrillRepository;
+import com.damienwesterman.defensedrill.data.remote.AuthRepo;
 import com.damienwesterman.defensedrill.domain.DownloadDatabaseUseCase;
 import com.damienwesterman.defensedrill.common.OperationCompleteCallback;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -51,29 +56,53 @@ import dagger.hilt.android.lifecycle.HiltViewModel;
 public class WebDrillApiViewModel extends AndroidViewModel {
     private final DownloadDatabaseUseCase downloadDb;
     private final DrillRepository drillRepo;
+    private final AuthRepo authRepo;
+    private final Executor executor = Executors.newSingleThreadExecutor();
 
     @Inject
     public WebDrillApiViewModel(@NonNull Application application,
                                 @NonNull DownloadDatabaseUseCase downloadDb,
-                                @NonNull DrillRepository drillRepo) {
+                                @NonNull DrillRepository drillRepo,
+                                @NonNull AuthRepo authRepo) {
         super(application);
 
         this.downloadDb = downloadDb;
         this.drillRepo = drillRepo;
+        this.authRepo = authRepo;
     }
 
     /**
      * Begin the operation to download and save all Drills, Categories, and SubCategories from the
      * server.
      *
-     * @param successCallback   Callback for successful operation. Takes in a list of newly added
-     *                          Drills. List may be empty.
+     * @param successCallback   Callback for successful operation, called on a background thread.
+     *                          Takes in a list of newly added Drills, sorted by name. List may be
+     *                          empty.
      * @param failureCallback   Callback for failure operation. Takes in a string containing the
      *                          error message.
      */
     public void downloadDb(@NonNull Consumer<List<Drill>> successCallback,
                            @NonNull Consumer<String> failureCallback) {
-        downloadDb.download(successCallback, failureCallback);
+        downloadDb.download(newDrillCount -> executor.execute(() -> {
+            // The download only counts them, so it does not hold on to every drill it saved
+            List<Drill> newDrills = 0 == newDrillCount
+                    ? List.of()
+                    : drillRepo.getNewestDrills(newDrillCount).stream()
+                            .sorted(Comparator.comparing(Drill::getName))
+                            .collect(Collectors.toList());
+            successCallback.accept(newDrills);
+        }), failureCallback);
+    }
+
+    /**
+     * Log out, in the background. Along with the login, the cached instructions and related drills
+     * are forgotten, as they are only for logged in users.
+     */
+    public void logout() {
+        executor.execute(() -> {
+            authRepo.logout();
+            drillRepo.clearNetworkLinks();
+        });
     }
 
     /**
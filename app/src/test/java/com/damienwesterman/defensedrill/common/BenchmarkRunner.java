@@ -0,0 +1,152 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal harness for JVM benchmarks. Times every iteration into a {@link LatencyHistogram} and
+ * counts the bytes allocated by the benchmarking thread, then prints a report.
+ * <br><br>
+ * Benchmarks are skipped by default so they do not slow down normal test runs. Enable them by
+ * passing the dataset sizes to run, e.g.
+ * {@code ./gradlew testDebugUnitTest --tests '*Benchmark' -Ddefensedrill.benchmark=1000,10000}
+ */
+public class BenchmarkRunner {
+    public static final String ENABLE_PROPERTY = "defensedrill.benchmark";
+
+    private static class Result {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long allocatedBytes = -1;
+
+        private Result(String name) {
+            this.name = name;
+        }
+    }
+
+    private final String title;
+    private final List<Result> results = new ArrayList<>();
+
+    public BenchmarkRunner(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Are benchmarks enabled for this run.
+     */
+    public static boolean isEnabled() {
+        return !System.getProperty(ENABLE_PROPERTY, "").trim().isEmpty();
+    }
+
+    /**
+     * Get the dataset sizes passed in through {@link #ENABLE_PROPERTY}.
+     *
+     * @param defaultSizes  Sizes to use if the property is not a list of numbers, such as "true".
+     * @return              List of sizes.
+     */
+    public static List<Integer> getSizes(Integer... defaultSizes) {
+        try {
+            return Arrays.stream(System.getProperty(ENABLE_PROPERTY, "").split(","))
+                    .map(String::trim)
+                    .map(Integer::parseInt)
+                    .collect(Collectors.toList());
+        } catch (NumberFormatException e) {
+            return Arrays.asList(defaultSizes);
+        }
+    }
+
+    /**
+     * Run and time an operation.
+     *
+     * @param name          Name of the operation for the report.
+     * @param iterations    Number of times to run the operation.
+     * @param operation     Operation to benchmark, given the iteration number.
+     */
+    public void measure(String name, int iterations, IterationOperation operation) {
+        Result result = new Result(name);
+        long allocatedBefore = getAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            operation.run(i);
+            result.latency.record(System.nanoTime() - start);
+        }
+        long allocatedAfter = getAllocatedBytes();
+        if (0 <= allocatedBefore && 0 <= allocatedAfter) {
+            result.allocatedBytes = allocatedAfter - allocatedBefore;
+        }
+        results.add(result);
+    }
+
+    /**
+     * Print all results measured so far.
+     */
+    public void printReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("===== ").append(title).append(" =====\n");
+        report.append(String.format(Locale.US, "%-40s %8s %12s %10s %10s %10s %14s%n",
+                "operation", "iters", "total ms", "mean us", "p95 us", "max us", "alloc KB/iter"));
+        for (Result result : results) {
+            long count = result.latency.getCount();
+            report.append(String.format(Locale.US, "%-40s %8d %12d %10d %10d %10d %14s%n",
+                    result.name,
+                    count,
+                    TimeUnit.NANOSECONDS.toMillis(result.latency.getTotalNanos()),
+                    TimeUnit.NANOSECONDS.toMicros(result.latency.getMeanNanos()),
+                    TimeUnit.NANOSECONDS.toMicros(result.latency.getPercentileNanos(95)),
+                    TimeUnit.NANOSECONDS.toMicros(result.latency.getMaxNanos()),
+                    (0 > result.allocatedBytes || 0 == count)
+                            ? "n/a"
+                            : String.format(Locale.US, "%.1f",
+                                    result.allocatedBytes / 1024.0 / count)));
+        }
+        System.out.println(report);
+    }
+
+    /**
+     * Operation to benchmark.
+     */
+    public interface IterationOperation {
+        void run(int iteration);
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
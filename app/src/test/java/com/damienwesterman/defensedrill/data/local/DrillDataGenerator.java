@@ -0,0 +1,122 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates deterministic datasets of drills spread across many categories and sub-categories, for
+ * benchmarks. Categories and sub-categories must be inserted, and re-read to get their IDs, before
+ * generating drills that reference them.
+ */
+/* package-private */ class DrillDataGenerator {
+    private static final long SEED = 0xD5111L;
+    private static final int MAX_CATEGORIES_PER_DRILL = 3;
+    private static final int MAX_SUB_CATEGORIES_PER_DRILL = 4;
+    private static final int[] CONFIDENCES = {
+            Drill.HIGH_CONFIDENCE, Drill.MEDIUM_CONFIDENCE, Drill.LOW_CONFIDENCE
+    };
+
+    private final Random random = new Random(SEED);
+    private final int numDrills;
+
+    /* package-private */ DrillDataGenerator(int numDrills) {
+        this.numDrills = numDrills;
+    }
+
+    /* package-private */ int getNumCategories() {
+        return Math.max(5, numDrills / 200);
+    }
+
+    /* package-private */ int getNumSubCategories() {
+        return Math.max(10, numDrills / 50);
+    }
+
+    /* package-private */ CategoryEntity[] generateCategories() {
+        CategoryEntity[] ret = new CategoryEntity[getNumCategories()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = new CategoryEntity("Category " + i, "Description of category " + i);
+            ret[i].setServerId((long) i + 1);
+        }
+        return ret;
+    }
+
+    /* package-private */ SubCategoryEntity[] generateSubCategories() {
+        SubCategoryEntity[] ret = new SubCategoryEntity[getNumSubCategories()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = new SubCategoryEntity("SubCategory " + i, "Description of sub-category " + i);
+            ret[i].setServerId((long) i + 1);
+        }
+        return ret;
+    }
+
+    /**
+     * Generate a range of drills, so large datasets can be inserted in batches.
+     *
+     * @param start             Index of the first drill, inclusive.
+     * @param end               Index of the last drill, exclusive.
+     * @param categories        Inserted categories for the drills to reference.
+     * @param subCategories     Inserted sub-categories for the drills to reference.
+     * @return                  Array of drills.
+     */
+    /* package-private */ Drill[] generateDrills(int start, int end,
+                                                 List<CategoryEntity> categories,
+                                                 List<SubCategoryEntity> subCategories) {
+        Drill[] ret = new Drill[end - start];
+        for (int i = start; i < end; i++) {
+            ret[i - start] = new Drill(
+                    drillName(i),
+                    random.nextBoolean() ? 0 : System.currentTimeMillis() - random.nextInt(1_000_000_000),
+                    CONFIDENCES[random.nextInt(CONFIDENCES.length)],
+                    "Notes for drill " + i,
+                    (long) i + 1,
+                    random.nextBoolean(),
+                    pick(categories, 1 + random.nextInt(MAX_CATEGORIES_PER_DRILL)),
+                    pick(subCategories, 1 + random.nextInt(MAX_SUB_CATEGORIES_PER_DRILL)));
+        }
+        return ret;
+    }
+
+    /* package-private */ static String drillName(int index) {
+        return "Drill " + index;
+    }
+
+    /* package-private */ int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private <T> List<T> pick(List<T> from, int count) {
+        List<T> ret = new ArrayList<>(count);
+        int offset = random.nextInt(from.size());
+        for (int i = 0; i < count && i < from.size(); i++) {
+            ret.add(from.get((offset + i) % from.size()));
+        }
+        return ret;
+    }
+}
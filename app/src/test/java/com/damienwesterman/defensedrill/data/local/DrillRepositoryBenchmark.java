@@ -0,0 +1,208 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.damienwesterman.defensedrill.common.BenchmarkRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks every {@link DrillRepository} read and write path against an in memory database on
+ * the JVM, at each requested dataset size. Skipped unless enabled, see {@link BenchmarkRunner}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DrillRepositoryBenchmark {
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int POINT_LOOKUP_ITERATIONS = 1000;
+    private static final int FILTER_ITERATIONS = 50;
+    private static final int FULL_SCAN_ITERATIONS = 5;
+    private static final int WRITE_ITERATIONS = 200;
+    /** Stay well under SQLite's bound variable limit for the IN list query */
+    private static final int SERVER_ID_LOOKUP_SIZE = 500;
+
+    @Test
+    public void benchmark_drillRepository() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+
+        for (int size : BenchmarkRunner.getSizes(1_000, 10_000, 100_000)) {
+            runBenchmark(size);
+        }
+    }
+
+    private void runBenchmark(int numDrills) {
+        Context context = ApplicationProvider.getApplicationContext();
+        DrillDatabase db = Room.inMemoryDatabaseBuilder(context, DrillDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        DrillRepository repo = new DrillRepository(db, new QueryMetrics());
+        DrillDataGenerator generator = new DrillDataGenerator(numDrills);
+        BenchmarkRunner runner = new BenchmarkRunner("DrillRepository, " + numDrills + " drills, "
+                + generator.getNumCategories() + " categories, "
+                + generator.getNumSubCategories() + " sub-categories");
+
+        try {
+            // ===== Writes, these also populate the database =====
+            CategoryEntity[] newCategories = generator.generateCategories();
+            runner.measure("insertCategories (all)", 1,
+                    i -> repo.insertCategories(newCategories));
+            SubCategoryEntity[] newSubCategories = generator.generateSubCategories();
+            runner.measure("insertSubCategories (all)", 1,
+                    i -> repo.insertSubCategories(newSubCategories));
+
+            List<CategoryEntity> categories = repo.getAllCategories();
+            List<SubCategoryEntity> subCategories = repo.getAllSubCategories();
+            int numBatches = (numDrills + INSERT_BATCH_SIZE - 1) / INSERT_BATCH_SIZE;
+            runner.measure("insertDrills (batch " + INSERT_BATCH_SIZE + ")", numBatches, batch -> {
+                int start = batch * INSERT_BATCH_SIZE;
+                repo.insertDrills(generator.generateDrills(start,
+                        Math.min(numDrills, start + INSERT_BATCH_SIZE), categories, subCategories));
+            });
+
+            // ===== Reads =====
+            List<List<Drill>> fullScans = new ArrayList<>();
+            runner.measure("getAllDrills", FULL_SCAN_ITERATIONS,
+                    i -> fullScans.add(repo.getAllDrills()));
+            assertEquals(numDrills, fullScans.get(0).size());
+            List<Long> drillIds = fullScans.get(0).stream()
+                    .map(Drill::getId)
+                    .collect(Collectors.toList());
+            fullScans.clear();
+
+            runner.measure("getAllCategories", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getAllCategories());
+            runner.measure("getAllSubCategories", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getAllSubCategories());
+            runner.measure("getCategory(id)", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getCategory(randomId(categories, generator)));
+            runner.measure("getSubCategory(name)", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getSubCategory(subCategories.get(
+                            generator.nextInt(subCategories.size())).getName()));
+
+            runner.measure("getDrill(id)", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getDrill(drillIds.get(generator.nextInt(drillIds.size()))));
+            runner.measure("getDrill(name)", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getDrill(DrillDataGenerator.drillName(generator.nextInt(numDrills))));
+            runner.measure("getDrillByServerId", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getDrillByServerId((long) generator.nextInt(numDrills) + 1));
+            runner.measure("getAllDrillsByServerId (" + SERVER_ID_LOOKUP_SIZE + ")",
+                    FILTER_ITERATIONS, i -> {
+                List<Long> serverIds = new ArrayList<>(SERVER_ID_LOOKUP_SIZE);
+                for (int j = 0; j < SERVER_ID_LOOKUP_SIZE; j++) {
+                    serverIds.add((long) generator.nextInt(numDrills) + 1);
+                }
+                repo.getAllDrillsByServerId(serverIds);
+            });
+
+            runner.measure("getAllDrillsByCategoryId", FILTER_ITERATIONS,
+                    i -> repo.getAllDrillsByCategoryId(randomId(categories, generator)));
+            runner.measure("getAllDrillsBySubCategoryId", FILTER_ITERATIONS,
+                    i -> repo.getAllDrillsBySubCategoryId(randomId(subCategories, generator)));
+            runner.measure("getAllDrills(categoryId, subCategoryId)", FILTER_ITERATIONS,
+                    i -> repo.getAllDrills(randomId(categories, generator),
+                            randomId(subCategories, generator)));
+
+            List<Long> halfCategoryIds = idsOf(categories.subList(0, categories.size() / 2));
+            List<Long> halfSubCategoryIds = idsOf(subCategories.subList(0, subCategories.size() / 2));
+            runner.measure("getAllDrills(categoryIds, null)", FULL_SCAN_ITERATIONS,
+                    i -> repo.getAllDrills(halfCategoryIds, null));
+            runner.measure("getAllDrills(null, subCategoryIds)", FULL_SCAN_ITERATIONS,
+                    i -> repo.getAllDrills(null, halfSubCategoryIds));
+            runner.measure("getAllDrills(categoryIds, subCategoryIds)", FULL_SCAN_ITERATIONS,
+                    i -> repo.getAllDrills(halfCategoryIds, halfSubCategoryIds));
+
+            // ===== Updates, sessions, and deletes =====
+            runner.measure("updateDrills (single)", WRITE_ITERATIONS, i -> {
+                Drill drill = repo.getDrill(drillIds.get(generator.nextInt(drillIds.size()))).get();
+                drill.setNotes("Updated notes " + i);
+                drill.setCategories(pickOne(categories, generator));
+                repo.updateDrills(drill);
+            });
+            runner.measure("recordDrillSession", WRITE_ITERATIONS, i -> {
+                Drill drill = repo.getDrill(drillIds.get(generator.nextInt(drillIds.size()))).get();
+                drill.setConfidence(Drill.HIGH_CONFIDENCE);
+                drill.setLastDrilled(System.currentTimeMillis());
+                repo.recordDrillSession(drill, DrillSessionEntity.Source.GENERATED);
+            });
+            runner.measure("getDrillStats", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getDrillStats(drillIds.get(generator.nextInt(drillIds.size()))));
+            runner.measure("getAllCategoryStats", POINT_LOOKUP_ITERATIONS,
+                    i -> repo.getAllCategoryStats());
+
+            runner.measure("updateCategories (single)", WRITE_ITERATIONS, i -> {
+                CategoryEntity category = categories.get(generator.nextInt(categories.size()));
+                category.setDescription("Updated description " + i);
+                repo.updateCategories(category);
+            });
+            runner.measure("deleteDrills (single)", WRITE_ITERATIONS, i -> {
+                // Each iteration deletes a different drill
+                repo.getDrill(drillIds.get(i)).ifPresent(repo::deleteDrills);
+            });
+            runner.measure("deleteSubCategories (single)", 1,
+                    i -> repo.deleteSubCategories(subCategories.get(0)));
+            runner.measure("deleteCategories (single)", 1,
+                    i -> repo.deleteCategories(categories.get(0)));
+        } finally {
+            db.close();
+        }
+
+        runner.printReport();
+    }
+
+    private static long randomId(List<? extends AbstractCategoryEntity> entities,
+                                 DrillDataGenerator generator) {
+        return entities.get(generator.nextInt(entities.size())).getId();
+    }
+
+    private static List<Long> idsOf(List<? extends AbstractCategoryEntity> entities) {
+        return entities.stream()
+                .map(AbstractCategoryEntity::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<CategoryEntity> pickOne(List<CategoryEntity> categories,
+                                                DrillDataGenerator generator) {
+        List<CategoryEntity> ret = new ArrayList<>();
+        ret.add(categories.get(generator.nextInt(categories.size())));
+        return ret;
+    }
+}
@@ -0,0 +1,92 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+/**
+ * Tests the bounds on the network links cached by {@link DrillRepository}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DrillRepositoryNetworkLinksTest {
+    private static final int MAX = DrillRepository.MAX_CACHED_NETWORK_LINKS;
+
+    private DrillRepository drillRepo;
+
+    @Before
+    public void setUp() {
+        drillRepo = InMemoryDrillRepository.create(ApplicationProvider.getApplicationContext());
+    }
+
+    @Test
+    public void test_saveNetworkLinks_overMax_dropsOldestUnsavedDrills() {
+        // Server drill 0 is the oldest, but saved locally so it is kept over the others
+        drillRepo.insertDrills(new Drill("Jab", 0, Drill.HIGH_CONFIDENCE, null, 0L, true,
+                List.of(), List.of()));
+        DrillNetworkLinks[] links = new DrillNetworkLinks[MAX + 2];
+        for (int i = 0; i < links.length; i++) {
+            links[i] = networkLinks(i, i);
+        }
+
+        drillRepo.saveNetworkLinks(links);
+
+        assertTrue(drillRepo.getNetworkLinks(0).isPresent());
+        assertFalse(drillRepo.getNetworkLinks(1).isPresent());
+        assertFalse(drillRepo.getNetworkLinks(2).isPresent());
+        assertTrue(drillRepo.getNetworkLinks(3).isPresent());
+        assertTrue(drillRepo.getNetworkLinks(MAX + 1).isPresent());
+    }
+
+    @Test
+    public void test_clearNetworkLinks_removesEverything() {
+        drillRepo.saveNetworkLinks(networkLinks(1, 1), networkLinks(2, 2));
+
+        drillRepo.clearNetworkLinks();
+
+        assertFalse(drillRepo.getNetworkLinks(1).isPresent());
+        assertFalse(drillRepo.getNetworkLinks(2).isPresent());
+    }
+
+    private static DrillNetworkLinks networkLinks(long serverDrillId, long updatedAt) {
+        return new DrillNetworkLinks(serverDrillId, updatedAt,
+                List.of(new DrillInstructionsEntity(serverDrillId, 0, "Step", List.of("Do it"),
+                        null)),
+                List.of());
+    }
+}
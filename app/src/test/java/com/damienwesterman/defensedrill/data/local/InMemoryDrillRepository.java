@@ -0,0 +1,60 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.local;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+
+/**
+ * Creates {@link DrillRepository}s backed by an in memory database, for JVM tests outside of this
+ * package.
+ */
+public class InMemoryDrillRepository {
+    private InMemoryDrillRepository() {
+    }
+
+    @NonNull
+    public static DrillRepository create(@NonNull Context context) {
+        return create(context, new QueryMetrics());
+    }
+
+    /**
+     * Create a repository whose operations, and the statements they run, are recorded in the
+     * given QueryMetrics, same as the real database in debug builds.
+     */
+    @NonNull
+    public static DrillRepository create(@NonNull Context context,
+                                         @NonNull QueryMetrics queryMetrics) {
+        DrillDatabase db = Room.inMemoryDatabaseBuilder(context, DrillDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryCallback((sql, bindArgs) -> queryMetrics.onStatement(sql), Runnable::run)
+                .build();
+        return new DrillRepository(db, queryMetrics);
+    }
+}
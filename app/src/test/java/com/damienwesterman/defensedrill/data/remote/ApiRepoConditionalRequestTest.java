@@ -0,0 +1,202 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Response;
+
+/**
+ * Tests the conditional requests and update checks made by {@link ApiRepo} against a local
+ * MockWebServer.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ApiRepoConditionalRequestTest {
+    private static final String DRILL_JSON = "{\"id\":5,\"name\":\"Jab\",\"categories\":[],"
+            + "\"sub_categories\":[],\"instructions\":[],\"related_drills\":[]}";
+    private static final String CATEGORIES_JSON = "[{\"id\":1,\"name\":\"Boxing\","
+            + "\"description\":\"Punches\"}]";
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Wed, 01 Jan 2025 00:00:00 GMT";
+
+    private MockWebServer server;
+    private HttpValidatorStore validatorStore;
+    private DrillDtoCache drillDtoCache;
+    private ApiRepo apiRepo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        ApiTestFixture fixture = new ApiTestFixture(server.url("/"));
+        validatorStore = fixture.getValidatorStore();
+        apiRepo = fixture.getApiRepo();
+        drillDtoCache = apiRepo.getDrillDtoCache();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getDrill_etag_notModifiedReturnsCachedDrill() throws Exception {
+        server.enqueue(new MockResponse().setBody(DRILL_JSON).setHeader("ETag", ETAG));
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_MODIFIED));
+
+        DrillDTO first = apiRepo.getDrill(5L).blockingFirst();
+        RecordedRequest firstRequest = server.takeRequest();
+        assertNull(firstRequest.getHeader("If-None-Match"));
+        assertEquals("Jab", first.getName());
+
+        DrillDTO second = apiRepo.getDrill(5L).blockingFirst();
+        RecordedRequest secondRequest = server.takeRequest();
+        assertEquals(ETAG, secondRequest.getHeader("If-None-Match"));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void test_getDrill_lastModified_sentAsIfModifiedSince() throws Exception {
+        server.enqueue(new MockResponse().setBody(DRILL_JSON)
+                .setHeader("Last-Modified", LAST_MODIFIED));
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_MODIFIED));
+
+        DrillDTO first = apiRepo.getDrill(5L).blockingFirst();
+        server.takeRequest();
+        DrillDTO second = apiRepo.getDrill(5L).blockingFirst();
+        RecordedRequest secondRequest = server.takeRequest();
+
+        assertEquals(LAST_MODIFIED, secondRequest.getHeader("If-Modified-Since"));
+        assertNull(secondRequest.getHeader("If-None-Match"));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void test_getDrill_notCached_unconditionalRequest() throws Exception {
+        server.enqueue(new MockResponse().setBody(DRILL_JSON).setHeader("ETag", ETAG));
+        server.enqueue(new MockResponse().setBody(DRILL_JSON).setHeader("ETag", ETAG));
+
+        apiRepo.getDrill(5L).blockingFirst();
+        server.takeRequest();
+        // Validators are still stored, but a 304 would have no body to return
+        drillDtoCache.clear();
+        DrillDTO drill = apiRepo.getDrill(5L).blockingFirst();
+        RecordedRequest secondRequest = server.takeRequest();
+
+        assertNull(secondRequest.getHeader("If-None-Match"));
+        assertEquals("Jab", drill.getName());
+    }
+
+    @Test
+    public void test_getAllCategories_validatorsSentAndNotModifiedPassedThrough() throws Exception {
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON).setHeader("ETag", ETAG));
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_MODIFIED));
+
+        Response<List<CategoryDTO>> first = apiRepo.getAllCategories(null).blockingFirst();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(HttpsURLConnection.HTTP_OK, first.code());
+        HttpValidators validators = HttpValidators.fromResponse(first);
+        validatorStore.put("categories", "all", validators);
+
+        Response<List<CategoryDTO>> second = apiRepo.getAllCategories(
+                validatorStore.get("categories", "all")).blockingFirst();
+        assertEquals(ETAG, server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(HttpsURLConnection.HTTP_NOT_MODIFIED, second.code());
+    }
+
+    @Test
+    public void test_validatorStore_differentVariant_returnsNull() {
+        validatorStore.put("categories", "all", new HttpValidators(ETAG, null));
+
+        assertEquals(new HttpValidators(ETAG, null), validatorStore.get("categories", "all"));
+        assertNull(validatorStore.get("categories", "updatedAfter=1"));
+    }
+
+    @Test
+    public void test_hasChanges_changesEndpoint_singleRequest() throws Exception {
+        server.enqueue(new MockResponse()
+                .setBody("{\"drills\":0,\"categories\":2,\"sub_categories\":0}"));
+
+        boolean hasChanges = apiRepo.hasChangesAfterTimestamp(1L, null, null, null)
+                .blockingFirst();
+
+        assertTrue(hasChanges);
+        assertEquals(1, server.getRequestCount());
+        assertEquals("/api/changes?updateTimestamp=1", server.takeRequest().getPath());
+    }
+
+    @Test
+    public void test_hasChanges_noChangesEndpoint_headRequestsWithValidators() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND));
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_MODIFIED));
+        }
+
+        boolean hasChanges = apiRepo.hasChangesAfterTimestamp(1L,
+                new HttpValidators(ETAG, null), null, null).blockingFirst();
+
+        assertFalse(hasChanges);
+        server.takeRequest();
+        for (int i = 0; i < 3; i++) {
+            RecordedRequest request = server.takeRequest();
+            assertEquals("HEAD", request.getMethod());
+            if (request.getPath().startsWith("/api/drill/")) {
+                assertEquals(ETAG, request.getHeader("If-None-Match"));
+            }
+        }
+
+        // The missing endpoint is not asked for again
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NO_CONTENT));
+        }
+        apiRepo.hasChangesAfterTimestamp(1L, null, null, null).blockingFirst();
+        assertEquals(7, server.getRequestCount());
+    }
+}
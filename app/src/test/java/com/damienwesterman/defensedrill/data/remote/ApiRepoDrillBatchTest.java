@@ -0,0 +1,229 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Tests {@link ApiRepo#getDrillsByIds(List)} against a local MockWebServer, with and without the
+ * batch endpoint.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ApiRepoDrillBatchTest {
+    /** Drills with an ID above this do not exist on the server */
+    private static final long MAX_SERVER_ID = 1_000;
+
+    private MockWebServer server;
+    private DrillDtoCache drillDtoCache;
+    private ApiRepo apiRepo;
+    private volatile boolean hasBatchEndpoint = true;
+    private final List<String> requestPaths = new CopyOnWriteArrayList<>();
+    /** Requests whose path starts with this are not answered until releaseHeld is counted down */
+    private volatile String heldPathPrefix = null;
+    private final CountDownLatch releaseHeld = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                requestPaths.add(request.getPath());
+                String heldPrefix = heldPathPrefix;
+                if (null != heldPrefix && request.getPath().startsWith(heldPrefix)) {
+                    try {
+                        releaseHeld.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                HttpUrl url = request.getRequestUrl();
+                if (url.encodedPath().equals("/api/drill/ids") && hasBatchEndpoint) {
+                    List<String> drills = new ArrayList<>();
+                    for (String id : url.queryParameterValues("id")) {
+                        if (MAX_SERVER_ID >= Long.parseLong(id)) {
+                            drills.add(drillJson(id));
+                        }
+                    }
+                    return new MockResponse().setBody("[" + String.join(",", drills) + "]");
+                } else if (url.encodedPath().startsWith("/api/drill/id/")) {
+                    String id = url.pathSegments().get(3);
+                    if (MAX_SERVER_ID >= Long.parseLong(id)) {
+                        return new MockResponse().setBody(drillJson(id));
+                    }
+                }
+                return new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND);
+            }
+        });
+        server.start();
+
+        apiRepo = new ApiTestFixture(server.url("/")).getApiRepo();
+        drillDtoCache = apiRepo.getDrillDtoCache();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getDrillsByIds_batchEndpoint_chunkedInRequestOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 120; 0 < id; id--) {
+            ids.add(id);
+        }
+        ids.add(5L);
+
+        List<DrillDTO> drills = apiRepo.getDrillsByIds(ids).blockingFirst();
+
+        assertEquals(120, drills.size());
+        for (int i = 0; i < drills.size(); i++) {
+            assertEquals(ids.get(i), drills.get(i).getId());
+        }
+        // Batches of 50, duplicates only asked for once
+        assertEquals(3, requestPaths.size());
+        for (String path : requestPaths) {
+            assertTrue(path.startsWith("/api/drill/ids?"));
+        }
+        assertSame(drills.get(119), drillDtoCache.get(1L));
+    }
+
+    @Test
+    public void test_getDrillsByIds_unknownIds_leftOut() {
+        List<DrillDTO> drills = apiRepo.getDrillsByIds(List.of(1L, MAX_SERVER_ID + 1, 2L))
+                .blockingFirst();
+
+        assertEquals(2, drills.size());
+        assertEquals(Long.valueOf(1), drills.get(0).getId());
+        assertEquals(Long.valueOf(2), drills.get(1).getId());
+    }
+
+    @Test
+    public void test_getDrillsByIds_noBatchEndpoint_singleRequestsInRequestOrder() {
+        hasBatchEndpoint = false;
+        List<Long> ids = List.of(3L, 1L, MAX_SERVER_ID + 1, 2L);
+
+        List<DrillDTO> drills = apiRepo.getDrillsByIds(ids).blockingFirst();
+
+        assertEquals(3, drills.size());
+        assertEquals(Long.valueOf(3), drills.get(0).getId());
+        assertEquals(Long.valueOf(1), drills.get(1).getId());
+        assertEquals(Long.valueOf(2), drills.get(2).getId());
+        assertEquals(1 + ids.size(), requestPaths.size());
+
+        // The missing endpoint is not asked for again
+        requestPaths.clear();
+        apiRepo.getDrillsByIds(List.of(4L)).blockingFirst();
+        assertEquals(List.of("/api/drill/id/4"), requestPaths);
+    }
+
+    @Test
+    public void test_getDrillsByIds_drillInFlight_sharedNotRequestedAgain() throws Exception {
+        heldPathPrefix = "/api/drill/id/";
+        TestObserver<DrillDTO> single = apiRepo.getDrill(5L).subscribeOn(Schedulers.io()).test();
+        waitForRequest("/api/drill/id/5");
+
+        TestObserver<List<DrillDTO>> batch = apiRepo.getDrillsByIds(List.of(4L, 5L, 6L))
+                .subscribeOn(Schedulers.io()).test();
+        waitForRequest("/api/drill/ids?id=4&id=6");
+        releaseHeld.countDown();
+
+        assertTrue(single.await(10, TimeUnit.SECONDS));
+        assertTrue(batch.await(10, TimeUnit.SECONDS));
+        batch.assertComplete();
+        assertEquals(3, batch.values().get(0).size());
+        assertSame(single.values().get(0), batch.values().get(0).get(1));
+        assertEquals(2, requestPaths.size());
+    }
+
+    @Test
+    public void test_getDrill_duringBatch_sharesBatch() throws Exception {
+        heldPathPrefix = "/api/drill/ids";
+        TestObserver<List<DrillDTO>> batch = apiRepo.getDrillsByIds(List.of(4L, 5L, 6L))
+                .subscribeOn(Schedulers.io()).test();
+        waitForRequest("/api/drill/ids?id=4&id=5&id=6");
+
+        TestObserver<DrillDTO> single = apiRepo.getDrill(5L).test();
+        releaseHeld.countDown();
+
+        assertTrue(batch.await(10, TimeUnit.SECONDS));
+        assertTrue(single.await(10, TimeUnit.SECONDS));
+        single.assertComplete();
+        assertSame(batch.values().get(0).get(1), single.values().get(0));
+        assertEquals(1, requestPaths.size());
+    }
+
+    @Test
+    public void test_getDrillsByIds_empty_noRequests() {
+        assertTrue(apiRepo.getDrillsByIds(List.of()).blockingFirst().isEmpty());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private void waitForRequest(String path) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!requestPaths.contains(path) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue("No request for " + path, requestPaths.contains(path));
+    }
+
+    private static String drillJson(String id) {
+        return "{\"id\":" + id + ",\"name\":\"Drill " + id + "\",\"categories\":[],"
+                + "\"sub_categories\":[],\"instructions\":[],\"related_drills\":[]}";
+    }
+}
@@ -0,0 +1,211 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.damienwesterman.defensedrill.data.local.DrillRepository;
+import com.damienwesterman.defensedrill.data.local.SharedPrefs;
+import com.damienwesterman.defensedrill.data.remote.dto.DtoTypeAdapterFactory;
+import com.damienwesterman.defensedrill.domain.DownloadDatabaseUseCase;
+import com.damienwesterman.defensedrill.manager.DefenseDrillNotificationManager;
+import com.damienwesterman.defensedrill.manager.MemoryCacheManager;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import hu.akarnokd.rxjava3.retrofit.RxJava3CallAdapterFactory;
+import okhttp3.HttpUrl;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.converter.scalars.ScalarsConverterFactory;
+
+/**
+ * Wires up an {@link ApiRepo} the same way the app does, but against a local MockWebServer, for
+ * JVM tests outside of this package. Pair it with InMemoryDrillRepository to test syncs.
+ * <br><br>
+ * The SharedPrefs mock is logged in, and keeps the last drill update time and sync cursor in
+ * memory, where tests can check them.
+ */
+public class ApiTestFixture {
+    /** Kept apart from the validators of the app */
+    private static final String VALIDATOR_PREFS_NAME = "test_http_validators";
+
+    private final SharedPrefs sharedPrefs;
+    private final HttpValidatorStore validatorStore;
+    private final ApiRepo apiRepo;
+
+    // Backing values of the SharedPrefs mock
+    private volatile long lastDrillUpdateTime = 0;
+    private volatile String cursorPageToken = null;
+    private volatile long cursorBaseTime = -1;
+    private volatile long cursorStartTime = 0;
+
+    /**
+     * Must be run with Robolectric, for the preferences behind the validator store.
+     *
+     * @param baseUrl   Base URL of the server, e.g. {@code server.url("/")}.
+     */
+    public ApiTestFixture(@NonNull HttpUrl baseUrl) {
+        Context context = ApplicationProvider.getApplicationContext();
+        sharedPrefs = mockSharedPrefs();
+        validatorStore = new HttpValidatorStore(
+                context.getSharedPreferences(VALIDATOR_PREFS_NAME, Context.MODE_PRIVATE));
+        validatorStore.clear();
+        apiRepo = RemoteDependenciesModule.getApiRepo(
+                RemoteDependenciesModule.getAuthTokenHolder(sharedPrefs), validatorStore,
+                new MemoryCacheManager(), createRetrofit(baseUrl));
+    }
+
+    /**
+     * Create a Retrofit with the same call adapter and converters as the app, see
+     * {@link RemoteDependenciesModule#getRetrofit}, but without the interceptors.
+     */
+    @NonNull
+    public static Retrofit createRetrofit(@NonNull HttpUrl baseUrl) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+                .addConverterFactory(new CompactDrillPageConverterFactory())
+                .addConverterFactory(ScalarsConverterFactory.create())
+                .addConverterFactory(
+                        GsonConverterFactory.create(DtoTypeAdapterFactory.createGson()))
+                .build();
+    }
+
+    @NonNull
+    /* package-private */ static ApiDao createApiDao(@NonNull HttpUrl baseUrl) {
+        return createRetrofit(baseUrl).create(ApiDao.class);
+    }
+
+    @NonNull
+    public HttpValidatorStore getValidatorStore() {
+        return validatorStore;
+    }
+
+    @NonNull
+    public ApiRepo getApiRepo() {
+        return apiRepo;
+    }
+
+    public long getLastDrillUpdateTime() {
+        return lastDrillUpdateTime;
+    }
+
+    @Nullable
+    public String getCursorPageToken() {
+        return cursorPageToken;
+    }
+
+    public long getCursorBaseTime() {
+        return cursorBaseTime;
+    }
+
+    public long getCursorStartTime() {
+        return cursorStartTime;
+    }
+
+    @NonNull
+    public DownloadDatabaseUseCase createDownloadDatabaseUseCase(
+            @NonNull DrillRepository drillRepo) {
+        return new DownloadDatabaseUseCase(apiRepo, drillRepo, sharedPrefs,
+                mock(DefenseDrillNotificationManager.class), validatorStore);
+    }
+
+    /**
+     * Run a download to completion.
+     *
+     * @param downloadDb        DownloadDatabaseUseCase.
+     * @param successCallback   Called with the number of new drills if it succeeds. May be null.
+     * @param progressCallback  Progress callback, see {@link DownloadDatabaseUseCase}. May be
+     *                          null.
+     * @param timeoutMillis     How long to wait before failing the test.
+     * @return                  Error message, or null if it succeeded.
+     */
+    @Nullable
+    public static String download(@NonNull DownloadDatabaseUseCase downloadDb,
+                                  @Nullable IntConsumer successCallback,
+                                  @Nullable IntConsumer progressCallback,
+                                  long timeoutMillis) {
+        AtomicReference<String> result = new AtomicReference<>();
+        downloadDb.download(newDrillCount -> {
+            if (null != successCallback) {
+                successCallback.accept(newDrillCount);
+            }
+            result.set("");
+        }, result::set, progressCallback);
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (null == result.get() && System.currentTimeMillis() < deadline) {
+            // Callbacks are delivered on the main thread
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+
+        assertNotNull("Download timed out", result.get());
+        return result.get().isEmpty() ? null : result.get();
+    }
+
+    @NonNull
+    private SharedPrefs mockSharedPrefs() {
+        SharedPrefs sharedPrefs = mock(SharedPrefs.class);
+        when(sharedPrefs.getJwt()).thenReturn("token");
+        when(sharedPrefs.getLastDrillUpdateTime()).thenAnswer(i -> lastDrillUpdateTime);
+        when(sharedPrefs.setLastDrillUpdateTime(anyLong())).thenAnswer(i -> {
+            lastDrillUpdateTime = i.getArgument(0);
+            return true;
+        });
+        when(sharedPrefs.getSyncCursorPageToken()).thenAnswer(i -> cursorPageToken);
+        when(sharedPrefs.getSyncCursorBaseTime()).thenAnswer(i -> cursorBaseTime);
+        when(sharedPrefs.getSyncCursorStartTime()).thenAnswer(i -> cursorStartTime);
+        when(sharedPrefs.setSyncCursor(anyLong(), anyLong(), anyString())).thenAnswer(i -> {
+            cursorBaseTime = i.getArgument(0);
+            cursorStartTime = i.getArgument(1);
+            cursorPageToken = i.getArgument(2);
+            return true;
+        });
+        when(sharedPrefs.clearSyncCursor()).thenAnswer(i -> {
+            cursorPageToken = null;
+            cursorBaseTime = -1;
+            cursorStartTime = 0;
+            return true;
+        });
+        return sharedPrefs;
+    }
+}
@@ -0,0 +1,160 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.damienwesterman.defensedrill.data.local.SharedPrefs;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Tests {@link AuthInterceptor} and the JWT parsing of {@link AuthTokenHolder} against a local
+ * MockWebServer.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class AuthInterceptorTest {
+    private MockWebServer server;
+    private SharedPrefs sharedPrefs;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        sharedPrefs = mock(SharedPrefs.class);
+        client = new OkHttpClient.Builder()
+                .addInterceptor(new AuthInterceptor(new AuthTokenHolder(sharedPrefs),
+                        server.url("/").toString()))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_validToken_cookieAttached() throws Exception {
+        String jwt = createJwt(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        when(sharedPrefs.getJwt()).thenReturn(jwt);
+        server.enqueue(new MockResponse());
+
+        execute("api/drill");
+
+        assertEquals("jwt=" + jwt, server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void test_expiredToken_rejectedLocally() throws Exception {
+        when(sharedPrefs.getJwt()).thenReturn(createJwt(System.currentTimeMillis() - 1000));
+
+        int code = execute("api/drill");
+
+        assertEquals(HttpsURLConnection.HTTP_UNAUTHORIZED, code);
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void test_authenticateRequest_noCookie() throws Exception {
+        when(sharedPrefs.getJwt()).thenReturn(createJwt(System.currentTimeMillis() - 1000));
+        server.enqueue(new MockResponse());
+
+        execute("authenticate/user");
+
+        assertNull(server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void test_noToken_passedThrough() throws Exception {
+        when(sharedPrefs.getJwt()).thenReturn("");
+        server.enqueue(new MockResponse());
+
+        execute("api/drill");
+
+        assertNull(server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void test_unreadableToken_leftToServer() {
+        AuthTokenHolder.AuthToken token = AuthTokenHolder.AuthToken.parse("not.a.jwt!");
+
+        assertEquals(AuthTokenHolder.AuthToken.NO_EXPIRY, token.getExpiresAtMillis());
+    }
+
+    @Test
+    public void test_newJwt_reparsed() {
+        AuthTokenHolder holder = new AuthTokenHolder(sharedPrefs);
+        long firstExpiry = TimeUnit.SECONDS.toMillis(1_000);
+        long secondExpiry = TimeUnit.SECONDS.toMillis(2_000);
+        when(sharedPrefs.getJwt()).thenReturn(createJwt(firstExpiry));
+        assertEquals(firstExpiry, holder.getToken().getExpiresAtMillis());
+
+        when(sharedPrefs.getJwt()).thenReturn(createJwt(secondExpiry));
+        assertEquals(secondExpiry, holder.getToken().getExpiresAtMillis());
+    }
+
+    private int execute(String path) throws Exception {
+        try (Response response = client.newCall(new Request.Builder()
+                .url(server.url("/" + path))
+                .build()).execute()) {
+            return response.code();
+        }
+    }
+
+    private static String createJwt(long expiresAtMillis) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString(
+                "{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"user\",\"exp\":"
+                + TimeUnit.MILLISECONDS.toSeconds(expiresAtMillis) + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".signature";
+    }
+}
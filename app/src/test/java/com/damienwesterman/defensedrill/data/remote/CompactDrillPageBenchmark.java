@@ -0,0 +1,131 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import com.damienwesterman.defensedrill.common.BenchmarkRunner;
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DtoTypeAdapterFactory;
+import com.damienwesterman.defensedrill.data.remote.dto.InstructionsDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.RelatedDrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+/**
+ * Benchmarks the compact form of drill pages (see {@link CompactDrillPageDecoder}) against JSON:
+ * bytes on the wire, and the time to fetch and parse a page from a local stand-in server. Skipped
+ * unless enabled, see {@link BenchmarkRunner}.
+ */
+public class CompactDrillPageBenchmark {
+    private static final int ITERATIONS = 20;
+    private static final int NUM_CATEGORIES = 20;
+    private static final int NUM_SUB_CATEGORIES = 50;
+
+    @Test
+    public void benchmark_compactVsJson() throws Exception {
+        assumeTrue(BenchmarkRunner.isEnabled());
+
+        for (int size : BenchmarkRunner.getSizes(100, 1_000, 10_000)) {
+            DrillPageDTO page = drillPage(size);
+            Buffer json = new Buffer().writeUtf8(DtoTypeAdapterFactory.createGson().toJson(page));
+            Buffer compact = CompactDrillPageEncoder.encode(page);
+
+            MockWebServer server = new MockWebServer();
+            server.start();
+            try {
+                ApiDao apiDao = ApiTestFixture.createApiDao(server.url("/"));
+
+                BenchmarkRunner runner = new BenchmarkRunner("Drill page, " + size
+                        + " drills, JSON " + (json.size() / 1024) + " KB, compact "
+                        + (compact.size() / 1024) + " KB");
+                runner.measure("JSON", ITERATIONS, i -> fetch(server, apiDao, "application/json",
+                        json, size));
+                runner.measure("compact", ITERATIONS, i -> fetch(server, apiDao,
+                        CompactDrillPageDecoder.MEDIA_TYPE_NAME, compact, size));
+                runner.printReport();
+            } finally {
+                server.shutdown();
+            }
+        }
+    }
+
+    private static DrillPageDTO fetch(MockWebServer server, ApiDao apiDao, String contentType,
+                                      Buffer body, int expectedSize) {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", contentType)
+                .setBody(body.clone()));
+        DrillPageDTO page = apiDao.getDrillPage(null, null, null, null, expectedSize)
+                .blockingFirst().body();
+        assertEquals(expectedSize, page.getDrills().size());
+        return page;
+    }
+
+    /**
+     * Generate a page of drills, each with a few categories, sub-categories, instructions and
+     * related drills, like the server sends.
+     */
+    private static DrillPageDTO drillPage(int numDrills) {
+        List<DrillDTO> drills = new ArrayList<>(numDrills);
+        for (long id = 1; id <= numDrills; id++) {
+            List<CategoryDTO> categories = new ArrayList<>();
+            for (int i = 0; i <= id % 3; i++) {
+                long categoryId = 1 + (id + i) % NUM_CATEGORIES;
+                categories.add(new CategoryDTO(categoryId, "Category " + categoryId,
+                        "Description of Category " + categoryId));
+            }
+            List<SubCategoryDTO> subCategories = new ArrayList<>();
+            for (int i = 0; i <= id % 4; i++) {
+                long subCategoryId = 1 + (id + i) % NUM_SUB_CATEGORIES;
+                subCategories.add(new SubCategoryDTO(subCategoryId,
+                        "SubCategory " + subCategoryId,
+                        "Description of SubCategory " + subCategoryId));
+            }
+            List<InstructionsDTO> instructions = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                instructions.add(new InstructionsDTO("Way " + i + " to do drill " + id,
+                        List.of("Get into position", "Keep your guard up", "Strike", "Reset"),
+                        "video" + id));
+            }
+            long relatedId = 1 + id % numDrills;
+            drills.add(new DrillDTO(id, "Drill " + id, categories, subCategories, instructions,
+                    List.of(new RelatedDrillDTO(relatedId, "Drill " + relatedId))));
+        }
+        return new DrillPageDTO(drills, null);
+    }
+}
@@ -0,0 +1,97 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DtoTypeAdapterFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Tests the content negotiation of drill pages, see {@link CompactDrillPageConverterFactory},
+ * against a local MockWebServer.
+ */
+public class CompactDrillPageConverterFactoryTest {
+    private static final DrillPageDTO PAGE = new DrillPageDTO(List.of(new DrillDTO(1L, "Jab",
+            List.of(new CategoryDTO(1L, "Boxing", "Punches")), List.of(), List.of(), List.of())),
+            "2");
+
+    private MockWebServer server;
+    private ApiDao apiDao;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        apiDao = ApiTestFixture.createApiDao(server.url("/"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getDrillPage_compactResponse_decoded() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", CompactDrillPageDecoder.MEDIA_TYPE_NAME)
+                .setBody(CompactDrillPageEncoder.encode(PAGE)));
+
+        DrillPageDTO page = apiDao.getDrillPage(null, null, null, null, 10)
+                .blockingFirst().body();
+
+        RecordedRequest request = server.takeRequest();
+        assertTrue(request.getHeader("Accept").contains(CompactDrillPageDecoder.MEDIA_TYPE_NAME));
+        assertEquals(PAGE.toString(), String.valueOf(page));
+    }
+
+    @Test
+    public void test_getDrillPage_jsonResponse_fallsBackToJson() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(DtoTypeAdapterFactory.createGson().toJson(PAGE)));
+
+        DrillPageDTO page = apiDao.getDrillPage(null, null, null, null, 10)
+                .blockingFirst().body();
+
+        assertEquals(PAGE.toString(), String.valueOf(page));
+    }
+}
@@ -0,0 +1,122 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.InstructionsDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.RelatedDrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Tests {@link CompactDrillPageDecoder} and {@link CborReader}.
+ */
+public class CompactDrillPageDecoderTest {
+    private static final CategoryDTO BOXING = new CategoryDTO(1L, "Boxing", "Punches");
+    private static final SubCategoryDTO STRAIGHT = new SubCategoryDTO(2L, "Straight", "Lead");
+
+    @Test
+    public void test_decode_encodedPage_sameAsOriginal() throws IOException {
+        DrillPageDTO page = new DrillPageDTO(List.of(
+                drill(1L, "Jab", List.of("Step", "Punch"), "video1"),
+                drill(2L, "Cross", List.of("Step", "Rotate", "Punch"), null)), "3");
+
+        DrillPageDTO decoded = CompactDrillPageDecoder.decode(CompactDrillPageEncoder.encode(page));
+
+        assertEquals(page.toString(), decoded.toString());
+        // Each category was only sent once
+        assertSame(decoded.getDrills().get(0).getCategories().get(0),
+                decoded.getDrills().get(1).getCategories().get(0));
+    }
+
+    @Test
+    public void test_decode_dictionaryAfterDrills_unknownKeysSkipped() throws IOException {
+        Buffer source = new Buffer().write(ByteString.decodeHex(
+                // Indefinite length page {
+                "bf"
+                // 2: [{0: 1, 1: "Jab", 2: [7], 9: "ignored"}],
+                + "02" + "81" + "a4" + "0001" + "01" + "634a6162" + "02" + "8107"
+                + "09" + "6769676e6f726564"
+                // 0: [{0: 7, 1: "Boxing", 2: "Punches"}],
+                + "00" + "81" + "a3" + "0007" + "01" + "66426f78696e67"
+                + "02" + "6750756e63686573"
+                // "key": 1 }
+                + "636b6579" + "01" + "ff"));
+
+        DrillPageDTO decoded = CompactDrillPageDecoder.decode(source);
+
+        assertEquals(1, decoded.getDrills().size());
+        DrillDTO drill = decoded.getDrills().get(0);
+        assertEquals(Long.valueOf(1), drill.getId());
+        assertEquals("Jab", drill.getName());
+        assertEquals("Boxing", drill.getCategories().get(0).getName());
+        assertTrue(drill.getSubCategories().isEmpty());
+        assertTrue(drill.getInstructions().isEmpty());
+        assertNull(decoded.getNextPageToken());
+        assertTrue(source.exhausted());
+    }
+
+    @Test
+    public void test_decode_unknownCategory_throws() {
+        Buffer source = new Buffer().write(ByteString.decodeHex(
+                // {2: [{0: 1, 1: "Jab", 2: [7]}]}
+                "a1" + "02" + "81" + "a3" + "0001" + "01" + "634a6162" + "02" + "8107"));
+
+        assertThrows(IOException.class, () -> CompactDrillPageDecoder.decode(source));
+    }
+
+    @Test
+    public void test_decode_truncated_throws() {
+        Buffer encoded = CompactDrillPageEncoder.encode(new DrillPageDTO(
+                List.of(drill(1L, "Jab", List.of("Step"), null)), null));
+        Buffer truncated = new Buffer();
+        truncated.write(encoded, encoded.size() - 3);
+
+        assertThrows(IOException.class, () -> CompactDrillPageDecoder.decode(truncated));
+    }
+
+    private static DrillDTO drill(long id, String name, List<String> steps, String videoId) {
+        return new DrillDTO(id, name, List.of(BOXING), List.of(STRAIGHT),
+                List.of(new InstructionsDTO("Basic", steps, videoId)),
+                List.of(new RelatedDrillDTO(id + 1, "Related")));
+    }
+}
@@ -0,0 +1,206 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillPageDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.InstructionsDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.RelatedDrillDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.SubCategoryDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okio.Buffer;
+
+/**
+ * Encodes pages of drills in the compact form read by {@link CompactDrillPageDecoder}, the way a
+ * server would, for tests and benchmarks. Any step used more than once in the page goes in the
+ * string table.
+ */
+/* package-private */ class CompactDrillPageEncoder {
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int NULL = 0xF6;
+
+    private final Buffer out = new Buffer();
+
+    private CompactDrillPageEncoder() {
+    }
+
+    /* package-private */ static Buffer encode(DrillPageDTO page) {
+        CompactDrillPageEncoder encoder = new CompactDrillPageEncoder();
+        encoder.writePage(page);
+        return encoder.out;
+    }
+
+    private void writePage(DrillPageDTO page) {
+        Map<Long, CategoryDTO> categories = new LinkedHashMap<>();
+        Map<Long, SubCategoryDTO> subCategories = new LinkedHashMap<>();
+        Map<String, Integer> stepCounts = new HashMap<>();
+        for (DrillDTO drill : page.getDrills()) {
+            drill.getCategories().forEach(category -> categories.put(category.getId(), category));
+            drill.getSubCategories().forEach(subCategory ->
+                    subCategories.put(subCategory.getId(), subCategory));
+            for (InstructionsDTO instructions : drill.getInstructions()) {
+                instructions.getSteps().forEach(step -> stepCounts.merge(step, 1, Integer::sum));
+            }
+        }
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        stepCounts.forEach((step, count) -> {
+            if (1 < count) {
+                stringIndexes.put(step, strings.size());
+                strings.add(step);
+            }
+        });
+
+        writeHead(MAJOR_MAP, 5);
+        writeHead(MAJOR_UNSIGNED, 0);
+        writeHead(MAJOR_ARRAY, categories.size());
+        for (CategoryDTO category : categories.values()) {
+            writeCategory(category.getId(), category.getName(), category.getDescription());
+        }
+        writeHead(MAJOR_UNSIGNED, 1);
+        writeHead(MAJOR_ARRAY, subCategories.size());
+        for (SubCategoryDTO subCategory : subCategories.values()) {
+            writeCategory(subCategory.getId(), subCategory.getName(),
+                    subCategory.getDescription());
+        }
+        writeHead(MAJOR_UNSIGNED, 2);
+        writeHead(MAJOR_ARRAY, page.getDrills().size());
+        for (DrillDTO drill : page.getDrills()) {
+            writeDrill(drill, stringIndexes);
+        }
+        writeHead(MAJOR_UNSIGNED, 3);
+        writeNullableString(page.getNextPageToken());
+        writeHead(MAJOR_UNSIGNED, 4);
+        writeHead(MAJOR_ARRAY, strings.size());
+        strings.forEach(this::writeString);
+    }
+
+    private void writeCategory(long id, String name, String description) {
+        writeHead(MAJOR_MAP, 3);
+        writeHead(MAJOR_UNSIGNED, 0);
+        writeLong(id);
+        writeHead(MAJOR_UNSIGNED, 1);
+        writeString(name);
+        writeHead(MAJOR_UNSIGNED, 2);
+        writeString(description);
+    }
+
+    private void writeDrill(DrillDTO drill, Map<String, Integer> stringIndexes) {
+        writeHead(MAJOR_MAP, 6);
+        writeHead(MAJOR_UNSIGNED, 0);
+        writeLong(drill.getId());
+        writeHead(MAJOR_UNSIGNED, 1);
+        writeString(drill.getName());
+        writeHead(MAJOR_UNSIGNED, 2);
+        writeHead(MAJOR_ARRAY, drill.getCategories().size());
+        drill.getCategories().forEach(category -> writeLong(category.getId()));
+        writeHead(MAJOR_UNSIGNED, 3);
+        writeHead(MAJOR_ARRAY, drill.getSubCategories().size());
+        drill.getSubCategories().forEach(subCategory -> writeLong(subCategory.getId()));
+
+        writeHead(MAJOR_UNSIGNED, 4);
+        writeHead(MAJOR_ARRAY, drill.getInstructions().size());
+        for (InstructionsDTO instructions : drill.getInstructions()) {
+            writeHead(MAJOR_MAP, 3);
+            writeHead(MAJOR_UNSIGNED, 0);
+            writeString(instructions.getDescription());
+            writeHead(MAJOR_UNSIGNED, 1);
+            writeHead(MAJOR_ARRAY, instructions.getSteps().size());
+            for (String step : instructions.getSteps()) {
+                Integer index = stringIndexes.get(step);
+                if (null == index) {
+                    writeString(step);
+                } else {
+                    writeLong(index);
+                }
+            }
+            writeHead(MAJOR_UNSIGNED, 2);
+            writeNullableString(instructions.getVideoId());
+        }
+
+        writeHead(MAJOR_UNSIGNED, 5);
+        writeHead(MAJOR_ARRAY, drill.getRelatedDrills().size());
+        for (RelatedDrillDTO relatedDrill : drill.getRelatedDrills()) {
+            writeHead(MAJOR_MAP, 2);
+            writeHead(MAJOR_UNSIGNED, 0);
+            writeLong(relatedDrill.getId());
+            writeHead(MAJOR_UNSIGNED, 1);
+            writeString(relatedDrill.getName());
+        }
+    }
+
+    private void writeLong(long value) {
+        if (0 <= value) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    private void writeString(String value) {
+        Buffer utf8 = new Buffer().writeUtf8(value);
+        writeHead(MAJOR_TEXT, utf8.size());
+        out.writeAll(utf8);
+    }
+
+    private void writeNullableString(String value) {
+        if (null == value) {
+            out.writeByte(NULL);
+        } else {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Write the head of an item, its major type and argument, in the shortest form.
+     */
+    private void writeHead(int majorType, long argument) {
+        int major = majorType << 5;
+        if (24 > argument) {
+            out.writeByte(major | (int) argument);
+        } else if (0xFF >= argument) {
+            out.writeByte(major | 24).writeByte((int) argument);
+        } else if (0xFFFF >= argument) {
+            out.writeByte(major | 25).writeShort((int) argument);
+        } else if (0xFFFFFFFFL >= argument) {
+            out.writeByte(major | 26).writeInt((int) argument);
+        } else {
+            out.writeByte(major | 27).writeLong(argument);
+        }
+    }
+}
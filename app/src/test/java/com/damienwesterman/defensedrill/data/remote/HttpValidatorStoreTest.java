@@ -0,0 +1,92 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests {@link HttpValidatorStore}, mainly that it does not grow without bound.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class HttpValidatorStoreTest {
+    private static final HttpValidators VALIDATORS = new HttpValidators("\"v1\"", null);
+
+    private HttpValidatorStore validatorStore;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        validatorStore = new HttpValidatorStore(
+                context.getSharedPreferences("test_http_validators", Context.MODE_PRIVATE));
+        validatorStore.clear();
+    }
+
+    @Test
+    public void test_put_overMaxKeys_removesLeastRecentlyStored() throws Exception {
+        for (int i = 0; i <= HttpValidatorStore.MAX_KEYS; i++) {
+            validatorStore.put("drill/" + i, "", VALIDATORS);
+            // Keep the stored times distinct
+            Thread.sleep(1);
+        }
+
+        assertNull(validatorStore.get("drill/0", ""));
+        assertNotNull(validatorStore.get("drill/1", ""));
+        assertNotNull(validatorStore.get("drill/" + HttpValidatorStore.MAX_KEYS, ""));
+    }
+
+    @Test
+    public void test_put_existingKey_doesNotRemoveOthers() {
+        validatorStore.put("sync/drills", "all", VALIDATORS);
+        validatorStore.put("sync/drills", "all", new HttpValidators("\"v2\"", null));
+
+        HttpValidators validators = validatorStore.get("sync/drills", "all");
+        assertNotNull(validators);
+        assertEquals("\"v2\"", validators.getEtag());
+    }
+
+    @Test
+    public void test_remove_removesKey() {
+        validatorStore.put("drill/1", "", VALIDATORS);
+
+        validatorStore.remove("drill/1");
+
+        assertNull(validatorStore.get("drill/1", ""));
+    }
+}
@@ -0,0 +1,150 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Tests the per endpoint metrics of {@link NetworkMetrics} against a local MockWebServer.
+ */
+public class NetworkMetricsTest {
+    private static final String BODY = "{\"id\":5}";
+
+    private MockWebServer server;
+    private NetworkMetrics networkMetrics;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        networkMetrics = new NetworkMetrics();
+        client = new OkHttpClient.Builder()
+                .eventListenerFactory(networkMetrics)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getEndpointName_idSegmentsReplaced() {
+        assertEquals("GET /api/drill/id/{id}", NetworkMetrics.getEndpointName(
+                new Request.Builder().url(server.url("/api/drill/id/42?x=1")).build()));
+        assertEquals("GET /videos/{id}/stream", NetworkMetrics.getEndpointName(
+                new Request.Builder().url(server.url("/videos/abc123/stream")).build()));
+        assertEquals("GET /api/drill", NetworkMetrics.getEndpointName(
+                new Request.Builder().url(server.url("/api/drill")).build()));
+    }
+
+    @Test
+    public void test_calls_recordedPerEndpoint() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setBody("[]"));
+
+        get("/api/drill/id/5");
+        get("/api/drill/id/6");
+        get("/api/category");
+
+        List<NetworkMetrics.EndpointStats> endpoints = networkMetrics.getEndpointStats();
+        assertEquals(2, endpoints.size());
+        NetworkMetrics.EndpointStats drill = find(endpoints, "GET /api/drill/id/{id}");
+        assertEquals(2, drill.getCallCount().get());
+        assertEquals(0, drill.getFailedCallCount().get());
+        assertEquals(2L * BODY.length(), drill.getResponseBodyBytes().get());
+        assertEquals(2, drill.getCallLatency().getCount());
+        assertEquals(2, drill.getTimeToFirstByte().getCount());
+        assertEquals(2, drill.getBodyLatency().getCount());
+        assertEquals(0, drill.getTlsLatency().getCount());
+        // The second call reused the first call's connection
+        assertEquals(1, drill.getConnectionsOpened().get());
+        assertEquals(1, drill.getConnectionsReused());
+        assertEquals(1, drill.getConnectLatency().getCount());
+
+        NetworkMetrics.EndpointStats category = find(endpoints, "GET /api/category");
+        assertEquals(1, category.getCallCount().get());
+        assertEquals(0, category.getConnectionsOpened().get());
+        assertEquals(1, category.getConnectionsReused());
+
+        // Totals are still kept
+        assertEquals(3, networkMetrics.getCallCount());
+        assertEquals(2, networkMetrics.getConnectionsReused());
+    }
+
+    @Test
+    public void test_failedCall_recordedAsFailed() throws Exception {
+        HttpUrl url = server.url("/api/drill");
+        server.shutdown();
+
+        assertThrows(IOException.class, () -> client.newCall(
+                new Request.Builder().url(url).build()).execute());
+
+        NetworkMetrics.EndpointStats stats =
+                find(networkMetrics.getEndpointStats(), "GET /api/drill");
+        assertEquals(1, stats.getFailedCallCount().get());
+        assertEquals(0, stats.getCallLatency().getCount());
+        assertEquals(1, networkMetrics.getFailedCallCount());
+    }
+
+    private void get(String path) throws IOException {
+        try (Response response = client.newCall(
+                new Request.Builder().url(server.url(path)).build()).execute()) {
+            assertTrue(response.isSuccessful());
+            response.body().string();
+        }
+    }
+
+    private static NetworkMetrics.EndpointStats find(List<NetworkMetrics.EndpointStats> endpoints,
+                                                     String name) {
+        for (NetworkMetrics.EndpointStats stats : endpoints) {
+            if (name.equals(stats.getName())) {
+                return stats;
+            }
+        }
+        throw new AssertionError("No metrics for " + name);
+    }
+}
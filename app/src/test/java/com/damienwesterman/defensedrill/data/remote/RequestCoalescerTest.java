@@ -0,0 +1,129 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+
+/**
+ * Tests {@link RequestCoalescer}.
+ */
+public class RequestCoalescerTest {
+    private RequestCoalescer coalescer;
+    private AtomicInteger requestCount;
+    private PublishSubject<String> response;
+
+    @Before
+    public void setUp() {
+        coalescer = new RequestCoalescer();
+        requestCount = new AtomicInteger();
+        response = PublishSubject.create();
+    }
+
+    @Test
+    public void test_concurrentIdenticalRequests_shareOneRequest() {
+        TestObserver<String> first = request("drill/1").test();
+        TestObserver<String> second = request("drill/1").test();
+        response.onNext("Jab");
+        response.onComplete();
+
+        assertEquals(1, requestCount.get());
+        first.assertValue("Jab").assertComplete();
+        second.assertValue("Jab").assertComplete();
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void test_isInFlight_onlyUntilRequestFinishes() {
+        request("drill/1").test();
+
+        assertTrue(coalescer.isInFlight("drill/1"));
+        assertFalse(coalescer.isInFlight("drill/2"));
+
+        response.onNext("Jab");
+        response.onComplete();
+
+        assertFalse(coalescer.isInFlight("drill/1"));
+    }
+
+    @Test
+    public void test_differentKeys_separateRequests() {
+        request("drill/1").test();
+        request("drill/2").test();
+
+        assertEquals(2, requestCount.get());
+        assertEquals(2, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void test_finishedRequest_notReused() {
+        request("drill/1").test();
+        response.onNext("Jab");
+        response.onComplete();
+
+        response = PublishSubject.create();
+        request("drill/1").test();
+
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void test_error_sharedAndForgotten() {
+        TestObserver<String> first = request("drill/1").test();
+        TestObserver<String> second = request("drill/1").test();
+        response.onError(new IllegalStateException());
+
+        first.assertError(IllegalStateException.class);
+        second.assertError(IllegalStateException.class);
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void test_allSubscribersDisposed_forgotten() {
+        TestObserver<String> first = request("drill/1").test();
+        first.dispose();
+
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    private Observable<String> request(String key) {
+        return coalescer.coalesce(key, () -> {
+            requestCount.incrementAndGet();
+            return response;
+        });
+    }
+}
@@ -0,0 +1,214 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Tests {@link RetryInterceptor} and {@link CircuitBreaker} against a local MockWebServer.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class RetryInterceptorTest {
+    private static final int MAX_RETRIES = 2;
+    private static final long BASE_DELAY_MILLIS = 100;
+    private static final long MAX_DELAY_MILLIS = 5_000;
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_MILLIS = 30_000;
+
+    private MockWebServer server;
+    private NetworkMetrics networkMetrics;
+    private CircuitBreaker circuitBreaker;
+    private OkHttpClient client;
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<Long> sleeps = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+
+        networkMetrics = new NetworkMetrics();
+        circuitBreaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_MILLIS, now::get);
+        client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(circuitBreaker, networkMetrics,
+                        server.url("/").toString(), MAX_RETRIES, BASE_DELAY_MILLIS,
+                        MAX_DELAY_MILLIS, sleeps::add))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_transientFailure_retried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_UNAVAILABLE));
+        server.enqueue(new MockResponse());
+
+        assertEquals(HttpsURLConnection.HTTP_OK, get());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, networkMetrics.getRetries());
+        assertTrue(BASE_DELAY_MILLIS >= sleeps.get(0));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void test_backoffCeiling_grows() throws Exception {
+        for (int i = 0; i <= MAX_RETRIES; i++) {
+            server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_BAD_GATEWAY));
+        }
+
+        assertEquals(HttpsURLConnection.HTTP_BAD_GATEWAY, get());
+        assertEquals(MAX_RETRIES + 1, server.getRequestCount());
+        assertEquals(MAX_RETRIES, sleeps.size());
+        assertTrue(BASE_DELAY_MILLIS >= sleeps.get(0));
+        assertTrue(2 * BASE_DELAY_MILLIS >= sleeps.get(1));
+        assertEquals(1, networkMetrics.getRetriesExhausted());
+    }
+
+    @Test
+    public void test_retryAfter_honored() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "2"));
+        server.enqueue(new MockResponse());
+
+        assertEquals(HttpsURLConnection.HTTP_OK, get());
+        assertEquals(List.of(2_000L), sleeps);
+    }
+
+    @Test
+    public void test_retryAfterTooLong_notRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_UNAVAILABLE)
+                .setHeader("Retry-After", "3600"));
+
+        assertEquals(HttpsURLConnection.HTTP_UNAVAILABLE, get());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void test_nonIdempotentRequest_notRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_UNAVAILABLE));
+
+        try (Response response = client.newCall(new Request.Builder()
+                .url(server.url("/authenticate/user"))
+                .post(RequestBody.create("{}", null))
+                .build()).execute()) {
+            assertEquals(HttpsURLConnection.HTTP_UNAVAILABLE, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void test_clientError_notRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND));
+
+        assertEquals(HttpsURLConnection.HTTP_NOT_FOUND, get());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, circuitBreaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void test_outage_breakerOpensAndFailsFast() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_UNAVAILABLE));
+        }
+
+        assertEquals(HttpsURLConnection.HTTP_UNAVAILABLE, get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(FAILURE_THRESHOLD, server.getRequestCount());
+
+        // Fails without touching the server
+        assertEquals(HttpsURLConnection.HTTP_UNAVAILABLE, get());
+        assertEquals(FAILURE_THRESHOLD, server.getRequestCount());
+        assertTrue(0 < networkMetrics.getShortCircuits());
+    }
+
+    @Test
+    public void test_openBreaker_trialSuccessCloses() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setResponseCode(HttpsURLConnection.HTTP_UNAVAILABLE));
+        }
+        get();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        now.addAndGet(OPEN_MILLIS);
+        server.enqueue(new MockResponse());
+
+        assertEquals(HttpsURLConnection.HTTP_OK, get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getTimesOpened());
+    }
+
+    @Test
+    public void test_openBreaker_trialFailureReopens() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            circuitBreaker.tryAcquire();
+            circuitBreaker.recordFailure();
+        }
+        now.addAndGet(OPEN_MILLIS);
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        // Only one trial at a time
+        assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(OPEN_MILLIS, circuitBreaker.getRemainingOpenMillis());
+    }
+
+    private int get() throws Exception {
+        try (Response response = client.newCall(new Request.Builder()
+                .url(server.url("/api/drill"))
+                .build()).execute()) {
+            return response.code();
+        }
+    }
+}
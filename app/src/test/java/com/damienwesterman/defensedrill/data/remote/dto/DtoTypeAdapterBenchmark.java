@@ -0,0 +1,122 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote.dto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import com.damienwesterman.defensedrill.common.BenchmarkRunner;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+/**
+ * Benchmarks parsing drill payloads with {@link DtoTypeAdapterFactory} against Gson's reflective
+ * adapters, both with a fresh Gson every time, like on a cold start, and with a warm one on large
+ * pages of drills. Skipped unless enabled, see {@link BenchmarkRunner}.
+ */
+public class DtoTypeAdapterBenchmark {
+    private static final int COLD_ITERATIONS = 200;
+    private static final int WARM_UP_ITERATIONS = 5;
+    private static final int PAGE_ITERATIONS = 20;
+    private static final int NUM_CATEGORIES = 20;
+    private static final int NUM_SUB_CATEGORIES = 50;
+
+    @Test
+    public void benchmark_parseDrills() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+
+        String singleDrill = drillPageJson(1);
+        BenchmarkRunner coldRunner = new BenchmarkRunner("DrillPageDTO parsing, cold Gson");
+        coldRunner.measure("reflective (1 drill)", COLD_ITERATIONS,
+                i -> new Gson().fromJson(singleDrill, DrillPageDTO.class));
+        coldRunner.measure("type adapters (1 drill)", COLD_ITERATIONS,
+                i -> DtoTypeAdapterFactory.createGson().fromJson(singleDrill, DrillPageDTO.class));
+        coldRunner.printReport();
+
+        for (int size : BenchmarkRunner.getSizes(1_000, 10_000)) {
+            String json = drillPageJson(size);
+            Gson reflectiveGson = new Gson();
+            Gson adapterGson = DtoTypeAdapterFactory.createGson();
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                reflectiveGson.fromJson(json, DrillPageDTO.class);
+                adapterGson.fromJson(json, DrillPageDTO.class);
+            }
+            assertEquals(size, adapterGson.fromJson(json, DrillPageDTO.class).getDrills().size());
+
+            BenchmarkRunner runner = new BenchmarkRunner("DrillPageDTO parsing, " + size
+                    + " drills, " + (json.length() / 1024) + " KB");
+            runner.measure("reflective", PAGE_ITERATIONS,
+                    i -> reflectiveGson.fromJson(json, DrillPageDTO.class));
+            runner.measure("type adapters", PAGE_ITERATIONS,
+                    i -> adapterGson.fromJson(json, DrillPageDTO.class));
+            runner.printReport();
+        }
+    }
+
+    /**
+     * Generate a page of drills, each with a few categories, sub-categories, instructions and
+     * related drills, like the server sends.
+     */
+    private static String drillPageJson(int numDrills) {
+        StringBuilder json = new StringBuilder("{\"drills\":[");
+        for (int id = 1; id <= numDrills; id++) {
+            if (1 != id) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id).append(",\"name\":\"Drill ").append(id)
+                    .append("\",\"categories\":[");
+            for (int i = 0; i <= id % 3; i++) {
+                appendCategory(json.append(0 == i ? "" : ","), "Category",
+                        1 + (id + i) % NUM_CATEGORIES);
+            }
+            json.append("],\"sub_categories\":[");
+            for (int i = 0; i <= id % 4; i++) {
+                appendCategory(json.append(0 == i ? "" : ","), "SubCategory",
+                        1 + (id + i) % NUM_SUB_CATEGORIES);
+            }
+            json.append("],\"instructions\":[");
+            for (int i = 0; i < 2; i++) {
+                json.append(0 == i ? "" : ",")
+                        .append("{\"description\":\"Way ").append(i).append(" to do drill ")
+                        .append(id).append("\",\"steps\":[\"Get into position\","
+                                + "\"Keep your guard up\",\"Strike\",\"Reset\"],"
+                                + "\"video_id\":\"video").append(id).append("\"}");
+            }
+            json.append("],\"related_drills\":[{\"id\":").append(1 + id % numDrills)
+                    .append(",\"name\":\"Drill ").append(1 + id % numDrills).append("\"}]}");
+        }
+        return json.append("],\"next_page_token\":null}").toString();
+    }
+
+    private static void appendCategory(StringBuilder json, String type, int id) {
+        json.append("{\"id\":").append(id)
+                .append(",\"name\":\"").append(type).append(' ').append(id)
+                .append("\",\"description\":\"Description of ").append(type).append(' ')
+                .append(id).append("\"}");
+    }
+}
@@ -0,0 +1,139 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.data.remote.dto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests {@link DtoTypeAdapterFactory} against Gson's reflective adapters, which it replaces.
+ */
+public class DtoTypeAdapterFactoryTest {
+    private static final String DRILL_PAGE_JSON = "{\"drills\":[{\"id\":7,\"name\":\"Jab\","
+            + "\"categories\":[{\"id\":1,\"name\":\"Boxing\",\"description\":\"Punches\"}],"
+            + "\"sub_categories\":[{\"id\":2,\"name\":\"Straight\",\"description\":\"Lead\"}],"
+            + "\"instructions\":[{\"description\":\"Basic\",\"steps\":[\"Step\",\"Punch\"],"
+            + "\"video_id\":\"abc\"},{\"description\":\"No video\",\"steps\":[]}],"
+            + "\"related_drills\":[{\"id\":8,\"name\":\"Cross\"}]}],"
+            + "\"next_page_token\":\"8\"}";
+
+    private final Gson reflectiveGson = new Gson();
+    private final Gson adapterGson = DtoTypeAdapterFactory.createGson();
+
+    @Test
+    public void test_read_drillPage_sameAsReflective() {
+        DrillPageDTO expected = reflectiveGson.fromJson(DRILL_PAGE_JSON, DrillPageDTO.class);
+        DrillPageDTO actual = adapterGson.fromJson(DRILL_PAGE_JSON, DrillPageDTO.class);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(Long.valueOf(7), actual.getDrills().get(0).getId());
+        assertEquals("abc", actual.getDrills().get(0).getInstructions().get(0).getVideoId());
+        assertNull(actual.getDrills().get(0).getInstructions().get(1).getVideoId());
+    }
+
+    @Test
+    public void test_write_drillPage_sameAsReflective() {
+        DrillPageDTO page = reflectiveGson.fromJson(DRILL_PAGE_JSON, DrillPageDTO.class);
+
+        assertEquals(reflectiveGson.toJson(page), adapterGson.toJson(page));
+    }
+
+    @Test
+    public void test_read_unknownAndMissingFields_sameAsReflective() {
+        String json = "{\"id\":1,\"extra\":{\"nested\":[1,{\"a\":null}]},\"name\":\"Jab\","
+                + "\"instructions\":null}";
+
+        DrillDTO expected = reflectiveGson.fromJson(json, DrillDTO.class);
+        DrillDTO actual = adapterGson.fromJson(json, DrillDTO.class);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertNull(actual.getCategories());
+        assertNull(actual.getInstructions());
+    }
+
+    @Test
+    public void test_read_lenientValues_sameAsReflective() {
+        String json = "{\"id\":\"5\",\"name\":true}";
+
+        RelatedDrillDTO expected = reflectiveGson.fromJson(json, RelatedDrillDTO.class);
+        RelatedDrillDTO actual = adapterGson.fromJson(json, RelatedDrillDTO.class);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(Long.valueOf(5), actual.getId());
+    }
+
+    @Test
+    public void test_write_nulls_notWritten() {
+        RelatedDrillDTO relatedDrill = new RelatedDrillDTO(3L, null);
+
+        assertEquals("{\"id\":3}", adapterGson.toJson(relatedDrill));
+        assertEquals(reflectiveGson.toJson(relatedDrill), adapterGson.toJson(relatedDrill));
+    }
+
+    @Test
+    public void test_read_serverIds_sameAsReflective() {
+        String json = "{\"drills\":[1,2,3],\"sub_categories\":[]}";
+
+        ServerIdsDTO expected = reflectiveGson.fromJson(json, ServerIdsDTO.class);
+        ServerIdsDTO actual = adapterGson.fromJson(json, ServerIdsDTO.class);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(List.of(1L, 2L, 3L), actual.getDrills());
+        assertNull(actual.getCategories());
+    }
+
+    @Test
+    public void test_read_changesWithNull_keepsDefault() {
+        String json = "{\"drills\":null,\"categories\":0}";
+
+        ChangesDTO expected = reflectiveGson.fromJson(json, ChangesDTO.class);
+        ChangesDTO actual = adapterGson.fromJson(json, ChangesDTO.class);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertFalse(actual.hasChanges());
+    }
+
+    @Test
+    public void test_write_login_sameAsReflective() {
+        LoginDTO login = new LoginDTO("user", "pass");
+
+        assertEquals(reflectiveGson.toJson(login), adapterGson.toJson(login));
+    }
+
+    @Test
+    public void test_create_otherTypes_notHandled() {
+        assertNull(new DtoTypeAdapterFactory().create(adapterGson, TypeToken.get(String.class)));
+    }
+}
@@ -0,0 +1,538 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.damienwesterman.defensedrill.common.BenchmarkRunner;
+import com.damienwesterman.defensedrill.data.local.DrillRepository;
+import com.damienwesterman.defensedrill.data.local.InMemoryDrillRepository;
+import com.damienwesterman.defensedrill.data.local.QueryMetrics;
+import com.damienwesterman.defensedrill.data.remote.ApiTestFixture;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Benchmarks the whole {@link DownloadDatabaseUseCase} sync pipeline, Retrofit, Gson, the merge and
+ * Room, against a MockWebServer stand-in for the server and an in memory database, at each
+ * requested library size. Skipped unless enabled, see {@link BenchmarkRunner}.
+ * <br><br>
+ * Each size runs a first sync of the whole library, then a delta sync after the server has renamed
+ * a tenth of the drills, added a twentieth more and deleted a fiftieth. This is done once against a
+ * server that pages drills, and once against one that does not, which gets the legacy path of all
+ * drills streamed in one response. Every response is delayed by {@link #LATENCY_PROPERTY}
+ * milliseconds (default {@link #DEFAULT_LATENCY_MILLIS}), and bodies are throttled to
+ * {@link #BANDWIDTH_PROPERTY} KB/s if given, e.g.
+ * {@code -Ddefensedrill.benchmark=1000,10000 -Ddefensedrill.benchmark.latencyMillis=100
+ * -Ddefensedrill.benchmark.bandwidthKBps=500}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DownloadDatabaseUseCaseBenchmark {
+    public static final String LATENCY_PROPERTY =
+            BenchmarkRunner.ENABLE_PROPERTY + ".latencyMillis";
+    public static final String BANDWIDTH_PROPERTY =
+            BenchmarkRunner.ENABLE_PROPERTY + ".bandwidthKBps";
+    private static final long DEFAULT_LATENCY_MILLIS = 50;
+    private static final long SYNC_TIMEOUT_MINUTES = 10;
+    private static final long HEAP_SAMPLE_INTERVAL_MILLIS = 2;
+    /** Bandwidth is enforced by releasing a slice of the body this often */
+    private static final long THROTTLE_PERIOD_MILLIS = 100;
+    private static final int INSTRUCTIONS_PER_DRILL = 2;
+    private static final int STEPS_PER_INSTRUCTIONS = 4;
+    private static final int RELATED_DRILLS_PER_DRILL = 2;
+    private static final int MAX_CATEGORIES_PER_DRILL = 3;
+    private static final int MAX_SUB_CATEGORIES_PER_DRILL = 4;
+
+    /**
+     * Everything measured for a single sync.
+     */
+    private static class SyncResult {
+        private final String name;
+        private long totalNanos;
+        /**
+         * Time until the first chunk of drills was committed, -1 if none were. Progress is reported
+         * once each chunk's own transaction has committed, so this is how long it takes for the
+         * first drills to be readable, not time spent holding a transaction open.
+         */
+        private long firstCommitNanos = -1;
+        private long baselineHeapBytes;
+        private long peakHeapBytes;
+        private long bytesServed;
+        private long requests;
+        private long itemsWritten;
+        private long statements;
+
+        private SyncResult(String name) {
+            this.name = name;
+        }
+    }
+
+    private final List<SyncResult> results = new ArrayList<>();
+
+    @Test
+    public void benchmark_downloadDatabase() throws Exception {
+        assumeTrue(BenchmarkRunner.isEnabled());
+
+        long latencyMillis = Long.getLong(LATENCY_PROPERTY, DEFAULT_LATENCY_MILLIS);
+        long bandwidthKBps = Long.getLong(BANDWIDTH_PROPERTY, 0L);
+        for (int size : BenchmarkRunner.getSizes(1_000, 10_000)) {
+            runBenchmark(size, latencyMillis, bandwidthKBps, true);
+            runBenchmark(size, latencyMillis, bandwidthKBps, false);
+        }
+
+        printReport(latencyMillis, bandwidthKBps);
+    }
+
+    /**
+     * Run a first and a delta sync of a library of the given size.
+     *
+     * @param numDrills     Number of drills in the library.
+     * @param latencyMillis Delay of every response.
+     * @param bandwidthKBps Bandwidth to throttle bodies to, 0 for unthrottled.
+     * @param paged         If the server pages drills, otherwise they are streamed in one response.
+     */
+    private void runBenchmark(int numDrills, long latencyMillis, long bandwidthKBps,
+                              boolean paged) throws Exception {
+        SyntheticLibraryDispatcher library =
+                new SyntheticLibraryDispatcher(numDrills, latencyMillis, bandwidthKBps, paged);
+        String path = paged ? "paged" : "streamed";
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(library);
+        server.start();
+
+        try {
+            QueryMetrics queryMetrics = new QueryMetrics();
+            DrillRepository drillRepo = InMemoryDrillRepository.create(
+                    ApplicationProvider.getApplicationContext(), queryMetrics);
+            DownloadDatabaseUseCase downloadDb = new ApiTestFixture(server.url("/"))
+                    .createDownloadDatabaseUseCase(drillRepo);
+
+            results.add(runSync(path + " first sync, " + numDrills + " drills",
+                    downloadDb, library, queryMetrics));
+            assertEquals(library.getCurrentDrillCount(), drillRepo.getAllDrills().size());
+
+            library.applyChanges();
+            results.add(runSync(path + " delta sync, " + library.getChangedDrillCount()
+                    + " changed, " + library.getDeletedDrillCount() + " deleted",
+                    downloadDb, library, queryMetrics));
+            assertEquals(library.getCurrentDrillCount(), drillRepo.getAllDrills().size());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @NonNull
+    private SyncResult runSync(String name, DownloadDatabaseUseCase downloadDb,
+                               SyntheticLibraryDispatcher library, QueryMetrics queryMetrics)
+            throws InterruptedException {
+        SyncResult result = new SyncResult(name);
+        long bytesBefore = library.bytesServed.get();
+        long requestsBefore = library.requests.get();
+        long itemsBefore = getItemsWritten(queryMetrics);
+        long statementsBefore = queryMetrics.getTotalStatements();
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        result.baselineHeapBytes = runtime.totalMemory() - runtime.freeMemory();
+        AtomicLong peakHeapBytes = new AtomicLong(result.baselineHeapBytes);
+        Thread heapSampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeapBytes.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(),
+                        Math::max);
+                try {
+                    Thread.sleep(HEAP_SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        heapSampler.setDaemon(true);
+        heapSampler.start();
+
+        long startNanos = System.nanoTime();
+        AtomicLong firstCommitNanos = new AtomicLong(-1);
+        String error = ApiTestFixture.download(downloadDb, null,
+                drillsSaved -> firstCommitNanos.compareAndSet(-1, System.nanoTime() - startNanos),
+                TimeUnit.MINUTES.toMillis(SYNC_TIMEOUT_MINUTES));
+        result.totalNanos = System.nanoTime() - startNanos;
+        heapSampler.interrupt();
+        heapSampler.join();
+        assertNull(error);
+
+        result.firstCommitNanos = firstCommitNanos.get();
+        result.peakHeapBytes = peakHeapBytes.get();
+        result.bytesServed = library.bytesServed.get() - bytesBefore;
+        result.requests = library.requests.get() - requestsBefore;
+        result.itemsWritten = getItemsWritten(queryMetrics) - itemsBefore;
+        result.statements = queryMetrics.getTotalStatements() - statementsBefore;
+        return result;
+    }
+
+    /**
+     * Get the number of items given to every write transaction so far.
+     */
+    private static long getItemsWritten(QueryMetrics queryMetrics) {
+        long items = 0;
+        for (QueryMetrics.OperationStats stats : queryMetrics.getOperationStats()) {
+            if (stats.isTransaction()) {
+                items += stats.getItemCount().get();
+            }
+        }
+        return items;
+    }
+
+    private void printReport(long latencyMillis, long bandwidthKBps) {
+        StringBuilder report = new StringBuilder();
+        report.append("===== DownloadDatabaseUseCase, ")
+                .append(latencyMillis).append(" ms latency, ")
+                .append(0 < bandwidthKBps ? bandwidthKBps + " KB/s" : "unthrottled")
+                .append(" =====\n");
+        report.append(String.format(Locale.US, "%-54s %10s %13s %14s %10s %9s %10s %11s%n",
+                "sync", "total ms", "1st commit ms", "heap MB b/pk", "KB served", "requests",
+                "items wrtn", "statements"));
+        for (SyncResult result : results) {
+            report.append(String.format(Locale.US, "%-54s %10d %13s %14s %10d %9d %10d %11d%n",
+                    result.name,
+                    TimeUnit.NANOSECONDS.toMillis(result.totalNanos),
+                    0 > result.firstCommitNanos
+                            ? "n/a"
+                            : String.valueOf(
+                                    TimeUnit.NANOSECONDS.toMillis(result.firstCommitNanos)),
+                    String.format(Locale.US, "%.1f/%.1f", result.baselineHeapBytes / 1048576.0,
+                            result.peakHeapBytes / 1048576.0),
+                    result.bytesServed / 1024,
+                    result.requests,
+                    result.itemsWritten,
+                    result.statements));
+        }
+        System.out.println(report);
+    }
+
+    /**
+     * Serves a deterministic synthetic library, in pages whose token is the index of the first
+     * drill in the list being paged, or if paging is off, all in one response like older servers.
+     * Drills reference several categories and sub-categories and
+     * have instructions and related drills, so payloads are about the size of real ones.
+     * <br><br>
+     * Once {@link #applyChanges()} is called, every tenth drill is renamed, a twentieth more are
+     * added and every fiftieth is deleted, and requests for updates get those changes. Categories
+     * and sub-categories never change.
+     */
+    private static class SyntheticLibraryDispatcher extends Dispatcher {
+        private final int numDrills;
+        private final int numCategories;
+        private final int numSubCategories;
+        private final long latencyMillis;
+        private final long bandwidthKBps;
+        private final boolean paged;
+        private volatile boolean changed = false;
+        private final AtomicLong bytesServed = new AtomicLong();
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private SyntheticLibraryDispatcher(int numDrills, long latencyMillis, long bandwidthKBps,
+                                           boolean paged) {
+            this.numDrills = numDrills;
+            this.numCategories = Math.max(5, numDrills / 200);
+            this.numSubCategories = Math.max(10, numDrills / 50);
+            this.latencyMillis = latencyMillis;
+            this.bandwidthKBps = bandwidthKBps;
+            this.paged = paged;
+        }
+
+        private void applyChanges() {
+            changed = true;
+        }
+
+        private int getAddedDrillCount() {
+            return changed ? numDrills / 20 : 0;
+        }
+
+        private int getDeletedDrillCount() {
+            return getDeletedIds().size();
+        }
+
+        private int getChangedDrillCount() {
+            return getChangedIds().size();
+        }
+
+        private int getCurrentDrillCount() {
+            return numDrills + getAddedDrillCount() - getDeletedDrillCount();
+        }
+
+        @NonNull
+        @Override
+        public MockResponse dispatch(@NonNull RecordedRequest request) {
+            requests.incrementAndGet();
+            HttpUrl url = request.getRequestUrl();
+            if (null == url) {
+                return respond(HttpsURLConnection.HTTP_BAD_REQUEST);
+            }
+
+            switch (url.encodedPath()) {
+                case "/api/category":
+                    return respond(categoriesJson("Category", numCategories));
+                case "/api/sub_category":
+                    return respond(categoriesJson("SubCategory", numSubCategories));
+                case "/api/category/update":
+                case "/api/sub_category/update":
+                    return respond(HttpsURLConnection.HTTP_NO_CONTENT);
+                case "/api/drill":
+                    return paged
+                            ? respond(HttpsURLConnection.HTTP_NOT_FOUND)
+                            : respond(drillsJson(getCurrentIds()));
+                case "/api/drill/update":
+                    return paged
+                            ? respond(HttpsURLConnection.HTTP_NOT_FOUND)
+                            : respond(drillsJson(getChangedIds()));
+                case "/api/drill/page":
+                    if (!paged) {
+                        return respond(HttpsURLConnection.HTTP_NOT_FOUND);
+                    }
+                    return respond(pageJson(null == url.queryParameter("updateTimestamp")
+                                    ? getCurrentIds()
+                                    : getChangedIds(),
+                            url.queryParameter("pageToken"), url.queryParameter("pageSize")));
+                case "/api/deleted":
+                    return respond(deletedJson());
+                default:
+                    return respond(HttpsURLConnection.HTTP_NOT_FOUND);
+            }
+        }
+
+        // =========================================================================================
+        // Library
+        // =========================================================================================
+        private boolean isDeleted(long id) {
+            return changed && id <= numDrills && 1 == id % 50;
+        }
+
+        private boolean isRenamed(long id) {
+            return changed && id <= numDrills && 0 == id % 10;
+        }
+
+        @NonNull
+        private List<Long> getCurrentIds() {
+            List<Long> ids = new ArrayList<>(numDrills + getAddedDrillCount());
+            for (long id = 1; id <= numDrills + getAddedDrillCount(); id++) {
+                if (!isDeleted(id)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        @NonNull
+        private List<Long> getChangedIds() {
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= numDrills + getAddedDrillCount(); id++) {
+                if (isRenamed(id) || numDrills < id) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        @NonNull
+        private List<Long> getDeletedIds() {
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= numDrills; id++) {
+                if (isDeleted(id)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        @NonNull
+        private String drillName(long id) {
+            return "Drill " + id + (isRenamed(id) ? " (revised)" : "");
+        }
+
+        // =========================================================================================
+        // JSON
+        // =========================================================================================
+        @NonNull
+        private static String categoriesJson(String type, int count) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 1; i <= count; i++) {
+                if (1 != i) {
+                    json.append(',');
+                }
+                appendCategory(json, type, i);
+            }
+            return json.append(']').toString();
+        }
+
+        private static void appendCategory(StringBuilder json, String type, long id) {
+            json.append("{\"id\":").append(id)
+                    .append(",\"name\":\"").append(type).append(' ').append(id)
+                    .append("\",\"description\":\"Description of ").append(type).append(' ')
+                    .append(id).append("\"}");
+        }
+
+        @NonNull
+        private String pageJson(List<Long> ids, String pageToken, String pageSizeParam) {
+            int first = null == pageToken ? 0 : Integer.parseInt(pageToken);
+            int pageSize = null == pageSizeParam ? ids.size() : Integer.parseInt(pageSizeParam);
+            int end = Math.min(ids.size(), first + pageSize);
+
+            StringBuilder json = new StringBuilder("{\"drills\":");
+            appendDrills(json, ids.subList(first, end));
+            return json.append(",\"next_page_token\":")
+                    .append(ids.size() <= end ? "null" : "\"" + end + "\"")
+                    .append('}')
+                    .toString();
+        }
+
+        @NonNull
+        private String drillsJson(List<Long> ids) {
+            StringBuilder json = new StringBuilder();
+            appendDrills(json, ids);
+            return json.toString();
+        }
+
+        private void appendDrills(StringBuilder json, List<Long> ids) {
+            json.append('[');
+            for (int i = 0; i < ids.size(); i++) {
+                if (0 != i) {
+                    json.append(',');
+                }
+                appendDrill(json, ids.get(i));
+            }
+            json.append(']');
+        }
+
+        private void appendDrill(StringBuilder json, long id) {
+            json.append("{\"id\":").append(id)
+                    .append(",\"name\":\"").append(drillName(id)).append('"');
+
+            json.append(",\"categories\":[");
+            for (int i = 0; i <= id % MAX_CATEGORIES_PER_DRILL; i++) {
+                if (0 != i) {
+                    json.append(',');
+                }
+                appendCategory(json, "Category", 1 + (id + i) % numCategories);
+            }
+            json.append("],\"sub_categories\":[");
+            for (int i = 0; i <= id % MAX_SUB_CATEGORIES_PER_DRILL; i++) {
+                if (0 != i) {
+                    json.append(',');
+                }
+                appendCategory(json, "SubCategory", 1 + (id + i) % numSubCategories);
+            }
+
+            json.append("],\"instructions\":[");
+            for (int i = 0; i < INSTRUCTIONS_PER_DRILL; i++) {
+                if (0 != i) {
+                    json.append(',');
+                }
+                json.append("{\"description\":\"Way ").append(i).append(" to do drill ")
+                        .append(id).append("\",\"steps\":[");
+                for (int step = 0; step < STEPS_PER_INSTRUCTIONS; step++) {
+                    if (0 != step) {
+                        json.append(',');
+                    }
+                    json.append("\"Step ").append(step).append(", move into position and keep "
+                            + "your guard up while you do it\"");
+                }
+                json.append("],\"video_id\":null}");
+            }
+
+            json.append("],\"related_drills\":[");
+            for (int i = 1; i <= RELATED_DRILLS_PER_DRILL; i++) {
+                if (1 != i) {
+                    json.append(',');
+                }
+                long relatedId = 1 + (id + i) % numDrills;
+                json.append("{\"id\":").append(relatedId)
+                        .append(",\"name\":\"").append(drillName(relatedId)).append("\"}");
+            }
+            json.append("]}");
+        }
+
+        @NonNull
+        private String deletedJson() {
+            StringBuilder json = new StringBuilder("{\"drills\":[");
+            List<Long> ids = getDeletedIds();
+            for (int i = 0; i < ids.size(); i++) {
+                if (0 != i) {
+                    json.append(',');
+                }
+                json.append(ids.get(i));
+            }
+            return json.append("],\"categories\":[],\"sub_categories\":[]}").toString();
+        }
+
+        // =========================================================================================
+        // Responses
+        // =========================================================================================
+        @NonNull
+        private MockResponse respond(int code) {
+            return delay(new MockResponse().setResponseCode(code));
+        }
+
+        @NonNull
+        private MockResponse respond(String body) {
+            MockResponse response = delay(new MockResponse().setBody(body));
+            bytesServed.addAndGet(response.getBody().size());
+            if (0 < bandwidthKBps) {
+                response.throttleBody(bandwidthKBps * 1024 * THROTTLE_PERIOD_MILLIS / 1000,
+                        THROTTLE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return response;
+        }
+
+        @NonNull
+        private MockResponse delay(MockResponse response) {
+            return response.setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.damienwesterman.defensedrill.data.local.DrillRepository;
+import com.damienwesterman.defensedrill.data.local.InMemoryDrillRepository;
+import com.damienwesterman.defensedrill.data.remote.ApiRepo;
+import com.damienwesterman.defensedrill.data.remote.ApiTestFixture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Tests the paged, resumable sync of {@link DownloadDatabaseUseCase}, and its handling of server
+ * deletions, against a MockWebServer stand-in for a paginating server, and an in memory database.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DownloadDatabaseUseCasePagingTest {
+    private static final int NUM_DRILLS = 5;
+    private static final int PAGE_SIZE = 2;
+
+    private MockWebServer server;
+    private ApiTestFixture fixture;
+    private DrillRepository drillRepo;
+    private ApiRepo apiRepo;
+    private DownloadDatabaseUseCase downloadDb;
+    /** Page requests received, by page token ("" for the first page) */
+    private final List<String> pageRequests = new CopyOnWriteArrayList<>();
+    /** Page token the server fails on, if any */
+    private volatile String failingPageToken = null;
+    /** Page token the server no longer knows (404), if any */
+    private volatile String expiredPageToken = null;
+    /** Number of requests for all drills in one go, rather than in pages */
+    private final AtomicInteger fullDownloads = new AtomicInteger(0);
+    /** Body of api/deleted, or null if the server does not have it */
+    private volatile String deletedIds = null;
+    /** Body of api/ids, or null if the server does not have it */
+    private volatile String remainingIds = null;
+    /** New drill count reported by the last successful download */
+    private volatile int newDrillCount = -1;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new PagingDispatcher());
+        server.start();
+
+        fixture = new ApiTestFixture(server.url("/"));
+        drillRepo = InMemoryDrillRepository.create(ApplicationProvider.getApplicationContext());
+        apiRepo = fixture.getApiRepo();
+        downloadDb = fixture.createDownloadDatabaseUseCase(drillRepo);
+        downloadDb.setDrillPageSize(PAGE_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_pagedSync_savesEveryPage() {
+        String error = download();
+
+        assertNull(error);
+        assertEquals(NUM_DRILLS, drillRepo.getAllDrills().size());
+        assertEquals(List.of("", "3", "5"), pageRequests);
+        assertNull(fixture.getCursorPageToken());
+        assertTrue(0 < fixture.getLastDrillUpdateTime());
+    }
+
+    @Test
+    public void test_pagedSync_countsNewDrills() {
+        assertNull(download());
+        assertEquals(NUM_DRILLS, newDrillCount);
+        assertEquals(NUM_DRILLS, drillRepo.getNewestDrills(NUM_DRILLS).size());
+
+        assertNull(download());
+        assertEquals(0, newDrillCount);
+    }
+
+    @Test
+    public void test_interruptedSync_resumesFromCursor() {
+        failingPageToken = "5";
+        String error = download();
+
+        assertNotNull(error);
+        // The first two pages were committed, and the cursor points after them
+        assertEquals(4, drillRepo.getAllDrills().size());
+        assertEquals("5", fixture.getCursorPageToken());
+        assertEquals(0, fixture.getCursorBaseTime());
+        assertEquals(0, fixture.getLastDrillUpdateTime());
+        long interruptedStartTime = fixture.getCursorStartTime();
+
+        failingPageToken = null;
+        pageRequests.clear();
+        error = download();
+
+        assertNull(error);
+        assertEquals(List.of("5"), pageRequests);
+        assertEquals(NUM_DRILLS, drillRepo.getAllDrills().size());
+        assertNull(fixture.getCursorPageToken());
+        assertEquals(interruptedStartTime, fixture.getLastDrillUpdateTime());
+    }
+
+    @Test
+    public void test_laterPageNotFound_fallsBackForThisSyncOnly() {
+        expiredPageToken = "3";
+
+        assertNull(download());
+
+        assertEquals(NUM_DRILLS, drillRepo.getAllDrills().size());
+        assertEquals(NUM_DRILLS, newDrillCount);
+        assertEquals(1, fullDownloads.get());
+        assertNull(fixture.getCursorPageToken());
+        assertTrue(apiRepo.hasDrillPages());
+    }
+
+    @Test
+    public void test_resumedPageNotFound_fallsBackAndFinishes() {
+        failingPageToken = "5";
+        assertNotNull(download());
+        failingPageToken = null;
+        expiredPageToken = "5";
+
+        assertNull(download());
+
+        assertEquals(NUM_DRILLS, drillRepo.getAllDrills().size());
+        assertEquals(1, fullDownloads.get());
+        assertNull(fixture.getCursorPageToken());
+        assertTrue(0 < fixture.getLastDrillUpdateTime());
+        assertTrue(apiRepo.hasDrillPages());
+    }
+
+    @Test
+    public void test_deltaSync_deletesDeletedIds() {
+        assertNull(download());
+        deletedIds = "{\"drills\":[2],\"categories\":[],\"sub_categories\":[]}";
+
+        assertNull(download());
+
+        assertEquals(NUM_DRILLS - 1, drillRepo.getAllDrills().size());
+        assertFalse(drillRepo.getDrillByServerId(2L).isPresent());
+        assertFalse(drillRepo.getNetworkLinks(2).isPresent());
+        assertTrue(drillRepo.getNetworkLinks(1).isPresent());
+        assertEquals(1, drillRepo.getAllCategories().size());
+    }
+
+    @Test
+    public void test_deltaSync_noDeletedIds_deletesAllButRemainingIds() {
+        assertNull(download());
+        remainingIds = "{\"drills\":[1,2,4,5],\"categories\":[1],\"sub_categories\":[1]}";
+
+        assertNull(download());
+
+        assertEquals(NUM_DRILLS - 1, drillRepo.getAllDrills().size());
+        assertFalse(drillRepo.getDrillByServerId(3L).isPresent());
+        assertFalse(drillRepo.getNetworkLinks(3).isPresent());
+        assertEquals(1, drillRepo.getAllCategories().size());
+        assertEquals(1, drillRepo.getAllSubCategories().size());
+    }
+
+    @Test
+    public void test_deltaSync_serverReportsNoDeletions_keepsEverything() {
+        assertNull(download());
+
+        assertNull(download());
+
+        assertEquals(NUM_DRILLS, drillRepo.getAllDrills().size());
+    }
+
+    /**
+     * Run a download to completion.
+     *
+     * @return  Error message, or null if it succeeded.
+     */
+    private String download() {
+        return ApiTestFixture.download(downloadDb, count -> newDrillCount = count, null,
+                TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Serves one category, one sub-category, and {@link #NUM_DRILLS} drills in pages. A page token
+     * is the ID of the first drill in the page. Nothing is ever updated, so requests for updates
+     * get 204 No Content.
+     */
+    private class PagingDispatcher extends Dispatcher {
+        @NonNull
+        @Override
+        public MockResponse dispatch(@NonNull RecordedRequest request) {
+            HttpUrl url = request.getRequestUrl();
+            if (null == url) {
+                return new MockResponse().setResponseCode(HttpsURLConnection.HTTP_BAD_REQUEST);
+            }
+
+            switch (url.encodedPath()) {
+                case "/api/category":
+                    return new MockResponse().setBody(
+                            "[{\"id\":1,\"name\":\"Boxing\",\"description\":\"Punches\"}]");
+                case "/api/sub_category":
+                    return new MockResponse().setBody(
+                            "[{\"id\":1,\"name\":\"Jabs\",\"description\":\"Straight\"}]");
+                case "/api/category/update":
+                case "/api/sub_category/update":
+                    return new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NO_CONTENT);
+                case "/api/drill":
+                    fullDownloads.incrementAndGet();
+                    return new MockResponse().setBody(drillsJson(1, NUM_DRILLS));
+                case "/api/drill/page":
+                    if (null != url.queryParameter("updateTimestamp")) {
+                        return new MockResponse()
+                                .setResponseCode(HttpsURLConnection.HTTP_NO_CONTENT);
+                    }
+                    return dispatchPage(url);
+                case "/api/deleted":
+                    return null == deletedIds
+                            ? new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND)
+                            : new MockResponse().setBody(deletedIds);
+                case "/api/ids":
+                    return null == remainingIds
+                            ? new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND)
+                            : new MockResponse().setBody(remainingIds);
+                default:
+                    return new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND);
+            }
+        }
+
+        private MockResponse dispatchPage(HttpUrl url) {
+            String pageToken = url.queryParameter("pageToken");
+            pageRequests.add(null == pageToken ? "" : pageToken);
+            if (null != pageToken && pageToken.equals(failingPageToken)) {
+                return new MockResponse().setResponseCode(HttpsURLConnection.HTTP_INTERNAL_ERROR);
+            }
+            if (null != pageToken && pageToken.equals(expiredPageToken)) {
+                return new MockResponse().setResponseCode(HttpsURLConnection.HTTP_NOT_FOUND);
+            }
+
+            String pageSizeParam = url.queryParameter("pageSize");
+            int pageSize = null == pageSizeParam ? NUM_DRILLS : Integer.parseInt(pageSizeParam);
+            int firstId = null == pageToken ? 1 : Integer.parseInt(pageToken);
+            int lastId = Math.min(NUM_DRILLS, firstId + pageSize - 1);
+
+            String body = "{\"drills\":" + drillsJson(firstId, lastId)
+                    + ",\"next_page_token\":"
+                    + (NUM_DRILLS <= lastId ? "null" : "\"" + (lastId + 1) + "\"") + "}";
+
+            return new MockResponse().setBody(body);
+        }
+
+        private String drillsJson(int firstId, int lastId) {
+            StringBuilder body = new StringBuilder("[");
+            for (int id = firstId; id <= lastId; id++) {
+                if (id != firstId) {
+                    body.append(',');
+                }
+                body.append("{\"id\":").append(id)
+                        .append(",\"name\":\"Drill ").append(id)
+                        .append("\",\"categories\":[{\"id\":1,\"name\":\"Boxing\","
+                                + "\"description\":\"Punches\"}],\"sub_categories\":[],"
+                                + "\"instructions\":[],\"related_drills\":[]}");
+            }
+            return body.append(']').toString();
+        }
+    }
+}
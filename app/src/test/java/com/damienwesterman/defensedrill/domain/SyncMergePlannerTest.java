@@ -0,0 +1,230 @@
+/****************************\
+ *      ________________      *
+ *     /  _             \     *
+ *     \   \ |\   _  \  /     *
+ *      \  / | \ / \  \/      *
+ *      /  \ | / | /  /\      *
+ *     /  _/ |/  \__ /  \     *
+ *     \________________/     *
+ *                            *
+ \****************************/
+/*
+ * Copyright 2025 Damien Westerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.damienwesterman.defensedrill.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.damienwesterman.defensedrill.data.local.CategoryEntity;
+import com.damienwesterman.defensedrill.data.local.Drill;
+import com.damienwesterman.defensedrill.data.local.SubCategoryEntity;
+import com.damienwesterman.defensedrill.data.remote.dto.CategoryDTO;
+import com.damienwesterman.defensedrill.data.remote.dto.DrillDTO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link SyncMergePlanner}.
+ */
+public class SyncMergePlannerTest {
+    private CategoryEntity punches;
+    private CategoryEntity kicks;
+    private Map<Long, CategoryEntity> categoryMap;
+    private Map<Long, SubCategoryEntity> subCategoryMap;
+
+    @Before
+    public void setUp() {
+        punches = category(1, "Punches", 100L);
+        kicks = category(2, "Kicks", 200L);
+        categoryMap = Map.of(100L, punches, 200L, kicks);
+        subCategoryMap = Map.of();
+    }
+
+    @Test
+    public void test_planCategories_insertUpdateUnchanged() {
+        CategoryEntity renamed = category(3, "Elbow", 300L);
+        SyncMergePlanner.LocalIndex<CategoryEntity> index = categoryIndex(punches, renamed);
+
+        SyncMergePlanner.MergePlan<CategoryEntity> plan = SyncMergePlanner.planCategories(List.of(
+                category(0, "Punches", 100L),
+                category(0, "Elbows", 300L),
+                category(0, "Knees", 400L)), index, true);
+
+        assertEquals(List.of(punches), plan.getUnchanged());
+        assertEquals(List.of(renamed), plan.getUpdates());
+        assertEquals("Elbows", renamed.getName());
+        assertEquals(1, plan.getInserts().size());
+        assertEquals(Long.valueOf(400L), plan.getInserts().get(0).getServerId());
+    }
+
+    @Test
+    public void test_planCategories_notUpdate_noChanges() {
+        CategoryEntity renamed = category(3, "Elbow", 300L);
+
+        SyncMergePlanner.MergePlan<CategoryEntity> plan = SyncMergePlanner.planCategories(
+                List.of(category(0, "Elbows", 300L)), categoryIndex(renamed), false);
+
+        assertFalse(plan.hasChanges());
+        assertEquals("Elbow", renamed.getName());
+    }
+
+    @Test
+    public void test_planCategories_nameMatchWithoutServerId_claimed() {
+        CategoryEntity local = category(3, "Elbows", null);
+        SyncMergePlanner.LocalIndex<CategoryEntity> index = categoryIndex(local);
+
+        SyncMergePlanner.MergePlan<CategoryEntity> plan = SyncMergePlanner.planCategories(
+                List.of(category(0, "Elbows", 300L)), index, false);
+
+        assertEquals(List.of(local), plan.getUpdates());
+        assertEquals(Long.valueOf(300L), local.getServerId());
+        assertSame(local, index.getByServerId().get(300L));
+    }
+
+    @Test
+    public void test_planCategories_nameMatchWithServerId_notClaimed() {
+        CategoryEntity local = category(3, "Elbows", 300L);
+
+        SyncMergePlanner.MergePlan<CategoryEntity> plan = SyncMergePlanner.planCategories(
+                List.of(category(0, "Elbows", 301L)), categoryIndex(local), false);
+
+        assertFalse(plan.hasChanges());
+        assertEquals(List.of(local), plan.getUnchanged());
+        assertEquals(Long.valueOf(300L), local.getServerId());
+    }
+
+    @Test
+    public void test_planDrills_unchangedDrill_noUpdate() {
+        Drill local = drill("Jab", 10L, punches);
+
+        SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(
+                List.of(drillDto(10L, "Jab", 100L)), drillIndex(local),
+                categoryMap, subCategoryMap, true);
+
+        assertFalse(plan.hasChanges());
+        assertEquals(List.of(local), plan.getUnchanged());
+    }
+
+    @Test
+    public void test_planDrills_changedCategories_updated() {
+        Drill local = drill("Jab", 10L, punches);
+
+        SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(
+                List.of(drillDto(10L, "Jab", 100L, 200L)), drillIndex(local),
+                categoryMap, subCategoryMap, true);
+
+        assertEquals(List.of(local), plan.getUpdates());
+        assertEquals(List.of(punches, kicks), local.getCategories());
+    }
+
+    @Test
+    public void test_planDrills_unknownCategory_ignored() {
+        Drill local = drill("Jab", 10L, punches);
+
+        SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(
+                List.of(drillDto(10L, "Jab", 100L, 999L)), drillIndex(local),
+                categoryMap, subCategoryMap, true);
+
+        assertFalse(plan.hasChanges());
+    }
+
+    @Test
+    public void test_planDrills_nameMatch_claimedOnlyWithoutServerId() {
+        Drill unclaimed = drill("Jab", null, punches);
+        Drill claimed = drill("Cross", 11L, punches);
+
+        SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(List.of(
+                drillDto(10L, "Jab", 100L),
+                drillDto(12L, "Cross", 100L)), drillIndex(unclaimed, claimed),
+                categoryMap, subCategoryMap, false);
+
+        assertEquals(List.of(unclaimed), plan.getUpdates());
+        assertEquals(Long.valueOf(10L), unclaimed.getServerDrillId());
+        assertEquals(Long.valueOf(11L), claimed.getServerDrillId());
+        assertEquals(List.of(claimed), plan.getUnchanged());
+        assertTrue(plan.getInserts().isEmpty());
+    }
+
+    @Test
+    public void test_planDrills_newDrill_converted() {
+        SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(
+                List.of(drillDto(10L, "Jab", 100L)), drillIndex(),
+                categoryMap, subCategoryMap, false);
+
+        assertEquals(1, plan.getInserts().size());
+        Drill inserted = plan.getInserts().get(0);
+        assertEquals("Jab", inserted.getName());
+        assertEquals(List.of(punches), inserted.getCategories());
+    }
+
+    @Test
+    public void test_planDrills_renamed_indexFollows() {
+        Drill local = drill("Jab", 10L, punches);
+        SyncMergePlanner.LocalIndex<Drill> index = drillIndex(local);
+        SyncMergePlanner.planDrills(List.of(drillDto(10L, "Lead Jab", 100L)), index,
+                categoryMap, subCategoryMap, true);
+
+        // A later page reusing the old name is a different drill
+        SyncMergePlanner.MergePlan<Drill> plan = SyncMergePlanner.planDrills(
+                List.of(drillDto(11L, "Jab", 100L)), index, categoryMap, subCategoryMap, true);
+
+        assertEquals("Lead Jab", local.getName());
+        assertEquals(1, plan.getInserts().size());
+    }
+
+    private static CategoryEntity category(long id, String name, Long serverId) {
+        return CategoryEntity.builder()
+                .id(id)
+                .name(name)
+                .description(name + " description")
+                .serverId(serverId)
+                .build();
+    }
+
+    private static Drill drill(String name, Long serverId, CategoryEntity... categories) {
+        return new Drill(name, 0, Drill.LOW_CONFIDENCE, "", serverId, false,
+                new ArrayList<>(List.of(categories)), new ArrayList<>());
+    }
+
+    private DrillDTO drillDto(long id, String name, long... categoryServerIds) {
+        List<CategoryDTO> categories = new ArrayList<>();
+        for (long serverId : categoryServerIds) {
+            CategoryEntity category = categoryMap.get(serverId);
+            categories.add(new CategoryDTO(serverId,
+                    null == category ? "Unknown" : category.getName(), ""));
+        }
+        return new DrillDTO(id, name, categories, List.of(), List.of(), List.of());
+    }
+
+    private static SyncMergePlanner.LocalIndex<CategoryEntity> categoryIndex(
+            CategoryEntity... categories) {
+        return SyncMergePlanner.LocalIndex.of(List.of(categories),
+                CategoryEntity::getServerId, CategoryEntity::getName);
+    }
+
+    private static SyncMergePlanner.LocalIndex<Drill> drillIndex(Drill... drills) {
+        return SyncMergePlanner.LocalIndex.of(List.of(drills),
+                Drill::getServerDrillId, Drill::getName);
+    }
+}